@@ -0,0 +1,408 @@
+/**
+ * @file ArrayView.java
+ * A read-only Java List, which is a view on a (strided) section of a Java array of
+ * primitive numbers. The view doesn't copy the data; the elements are boxed only on
+ * access.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class ArrayView
+ *   ArrayView
+ *   wrap
+ *   slice
+ *   get
+ *   size
+ *   getNumericClass
+ *   boxFloat
+ *   boxInteger
+ */
+
+package info;
+
+import java.util.*;
+import java.math.BigInteger;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+
+
+/**
+ * A read-only Java List, which is a view on a section of a Java array of primitive
+ * numbers.<p>
+ *   Numeric Octave arrays are represented in the StringTemplate V4 data model as Java
+ * Lists. Copying the numbers into an ArrayList would mean to have one boxed Java object
+ * per number on the heap. This view rather keeps a reference to the array of primitive
+ * numbers and boxes an element only when it is accessed by the template engine.<p>
+ *   The view covers the elements {@code offset + i*stride}, {@code i = 0..size-1}, of
+ * the backing array. A stride other than one is used to address the rows of a matrix,
+ * which is held in column-major order, see class {@link MatrixView}.<p>
+ *   The Octave class of the numbers is kept: It decides about the Java class of the
+ * boxed elements. The signed integer classes become the Java class of same width, e.g.
+ * int8 becomes java.lang.Byte. Java doesn't know unsigned integers; the unsigned classes
+ * become the next wider signed Java class, so that the value is not changed, e.g. uint16
+ * becomes java.lang.Integer and uint64 becomes java.math.BigInteger. Note, this doesn't
+ * affect the backing array, which keeps the original width; uint64 numbers are held in
+ * the signed Java long with the same Bits.<p>
+ *   The backing store can also be a java.nio DoubleBuffer or LongBuffer, e.g. a view on
+ * a memory mapped data model file, see {@link MappedDataModel}. The numbers are then read
+ * from the buffer on access.
+ */
+
+public final class ArrayView extends AbstractList<Object> implements RandomAccess
+{
+    /** The Octave class of the numbers, see e.g. {@link DataModelBuilder#CLASS_DOUBLE}. */
+    private final int numClass_;
+
+    /** The backing array or buffer: Exactly one of the references is not null. */
+    private final double[] doubles_;
+    private final float[] floats_;
+    private final long[] longs_;
+    private final int[] ints_;
+    private final short[] shorts_;
+    private final byte[] bytes_;
+    private final boolean[] booleans_;
+    private final DoubleBuffer doubleBuf_;
+    private final LongBuffer longBuf_;
+
+    /** The index of the first element of the view in the backing array. */
+    private final int offset_;
+
+    /** The distance of two neighboured elements of the view in the backing array. */
+    private final int stride_;
+
+    /** The number of elements of the view. */
+    private final int size_;
+
+
+    /**
+     * A new instance of ArrayView is created. Use the static factory methods {@link
+     * #wrap} from outside of the class.
+     *   @param data
+     * The backing array, an array of a primitive Java type, or a DoubleBuffer or
+     * LongBuffer. The buffer is used with absolute indexes; its position is irrelevant.
+     *   @param numClass
+     * The Octave class of the numbers, e.g. {@link DataModelBuilder#CLASS_UINT16}.
+     *   @param offset
+     * The index of the first element of the view in the backing array.
+     *   @param stride
+     * The distance of two neighboured elements of the view in the backing array.
+     *   @param size
+     * The number of elements of the view.
+     *   @throws IllegalArgumentException
+     * The exception is thrown if the type of the backing array is not supported or if the
+     * view would exceed the bounds of the backing array.
+     */
+    private ArrayView(Object data, int numClass, int offset, int stride, int size)
+    {
+        /* A buffer, which simply wraps an array, is replaced by the array for faster
+           access. */
+        if(data instanceof DoubleBuffer  &&  ((DoubleBuffer)data).hasArray()
+           &&  ((DoubleBuffer)data).arrayOffset() == 0
+          )
+        {
+            data = ((DoubleBuffer)data).array();
+        }
+        else if(data instanceof LongBuffer  &&  ((LongBuffer)data).hasArray()
+                &&  ((LongBuffer)data).arrayOffset() == 0
+               )
+        {
+            data = ((LongBuffer)data).array();
+        }
+
+        numClass_ = numClass;
+        doubles_ = data instanceof double[]? (double[])data: null;
+        floats_ = data instanceof float[]? (float[])data: null;
+        longs_ = data instanceof long[]? (long[])data: null;
+        ints_ = data instanceof int[]? (int[])data: null;
+        shorts_ = data instanceof short[]? (short[])data: null;
+        bytes_ = data instanceof byte[]? (byte[])data: null;
+        booleans_ = data instanceof boolean[]? (boolean[])data: null;
+        doubleBuf_ = data instanceof DoubleBuffer? (DoubleBuffer)data: null;
+        longBuf_ = data instanceof LongBuffer? (LongBuffer)data: null;
+        final int length;
+        if(doubleBuf_ != null)
+            length = doubleBuf_.limit();
+        else if(longBuf_ != null)
+            length = longBuf_.limit();
+        else if(data == null  ||  !data.getClass().isArray()
+                ||  !data.getClass().getComponentType().isPrimitive()
+                ||  data instanceof char[]
+               )
+        {
+            throw new IllegalArgumentException("ArrayView: Only arrays of primitive"
+                                               + " numbers can be wrapped but got "
+                                               + (data == null? "null"
+                                                  : data.getClass().getName()
+                                                 )
+                                              );
+        }
+        else
+            length = java.lang.reflect.Array.getLength(data);
+
+        if(size < 0  ||  offset < 0  ||  size > 0 && (offset >= length
+                                                      ||  offset + (size-1)*stride < 0
+                                                      ||  offset + (size-1)*stride >= length
+                                                     )
+          )
+        {
+            throw new IllegalArgumentException("ArrayView: View with offset " + offset
+                                               + ", stride " + stride + " and size " + size
+                                               + " exceeds the backing array of length "
+                                               + length
+                                              );
+        }
+        offset_ = offset;
+        stride_ = stride;
+        size_ = size;
+
+    } /* End of ArrayView.ArrayView */
+
+
+
+    /**
+     * Create a view on all elements of an array of primitive numbers.
+     *   @return Get the view.
+     *   @param data
+     * The backing array. Supported are arrays of double, float, long, int, short, byte and
+     * boolean and the buffers DoubleBuffer and LongBuffer.
+     *   @param numClass
+     * The Octave class of the numbers, e.g. {@link DataModelBuilder#CLASS_UINT16}. It
+     * decides about the Java class of the boxed elements. Octave's unsigned integers are
+     * found in the signed Java arrays of same width, e.g. uint16 in short[].
+     */
+    public static ArrayView wrap(Object data, int numClass)
+    {
+        final int length = data instanceof DoubleBuffer? ((DoubleBuffer)data).limit()
+                           : data instanceof LongBuffer? ((LongBuffer)data).limit()
+                           : data != null? java.lang.reflect.Array.getLength(data)
+                           : 0;
+        return wrap(data, numClass, 0, 1, length);
+
+    } /* End of ArrayView.wrap */
+
+
+
+    /**
+     * Create a view on a strided section of an array of primitive numbers.
+     *   @return Get the view.
+     *   @param data
+     * The backing array, see {@link #wrap(Object,int)}.
+     *   @param numClass
+     * The Octave class of the numbers, e.g. {@link DataModelBuilder#CLASS_UINT16}.
+     *   @param offset
+     * The index of the first element of the view in the backing array.
+     *   @param stride
+     * The distance of two neighboured elements of the view in the backing array.
+     *   @param size
+     * The number of elements of the view.
+     */
+    public static ArrayView wrap(Object data, int numClass, int offset, int stride, int size)
+    {
+        return new ArrayView(data, numClass, offset, stride, size);
+
+    } /* End of ArrayView.wrap */
+
+
+
+    /**
+     * Create a view on an array of primitive numbers, which is shaped as an
+     * N-dimensional Octave array. See {@link MatrixView} for the representation of the
+     * dimensions.
+     *   @return Get the view. This is an ArrayView if the array has not more than one
+     * non-singleton dimension and a {@link MatrixView} otherwise.
+     *   @param data
+     * The backing array, holding the elements in column-major order, see {@link
+     * #wrap(Object,int)}.
+     *   @param numClass
+     * The Octave class of the numbers, e.g. {@link DataModelBuilder#CLASS_UINT16}.
+     *   @param dims
+     * The size of the array in each dimension, as got from Octave's size().
+     */
+    public static List<Object> wrap(Object data, int numClass, int[] dims)
+    {
+        return MatrixView.create(wrap(data, numClass), /* offset */ 0, dims);
+
+    } /* End of ArrayView.wrap */
+
+
+
+    /**
+     * Create another view with the same backing array and Octave class.
+     *   @return Get the new view.
+     *   @param offset
+     * The index of the first element of the new view in the backing array.
+     *   @param stride
+     * The distance of two neighboured elements of the new view in the backing array.
+     *   @param size
+     * The number of elements of the new view.
+     */
+    ArrayView slice(int offset, int stride, int size)
+    {
+        final Object data = doubles_ != null? doubles_
+                            : floats_ != null? floats_
+                            : longs_ != null? longs_
+                            : ints_ != null? ints_
+                            : shorts_ != null? shorts_
+                            : bytes_ != null? bytes_
+                            : booleans_ != null? (Object)booleans_
+                            : doubleBuf_ != null? doubleBuf_
+                            : longBuf_;
+        return new ArrayView(data, numClass_, offset, stride, size);
+
+    } /* End of ArrayView.slice */
+
+
+
+    /**
+     * Get the index of the first element of the view in the backing array.
+     *   @return The index is returned.
+     */
+    int getOffset()
+        { return offset_; }
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the boxed element.
+     *   @param idx
+     * The null based index of the element in the view.
+     */
+    @Override public Object get(int idx)
+    {
+        if(idx < 0  ||  idx >= size_)
+        {
+            throw new IndexOutOfBoundsException("Index " + idx + " is out of range [0, "
+                                                + size_ + ")"
+                                               );
+        }
+        final int i = offset_ + idx*stride_;
+        if(doubles_ != null)
+            return boxFloat(numClass_, doubles_[i]);
+        else if(longs_ != null)
+            return boxInteger(numClass_, longs_[i]);
+        else if(ints_ != null)
+            return boxInteger(numClass_, ints_[i]);
+        else if(shorts_ != null)
+            return boxInteger(numClass_, shorts_[i]);
+        else if(bytes_ != null)
+            return boxInteger(numClass_, bytes_[i]);
+        else if(floats_ != null)
+            return boxFloat(numClass_, floats_[i]);
+        else if(doubleBuf_ != null)
+            return boxFloat(numClass_, doubleBuf_.get(i));
+        else if(longBuf_ != null)
+            return boxInteger(numClass_, longBuf_.get(i));
+        else
+        {
+            assert booleans_ != null;
+            return Boolean.valueOf(booleans_[i]);
+        }
+    } /* End of ArrayView.get */
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the number of elements of the view.
+     */
+    @Override public int size()
+        { return size_; }
+
+
+
+    /**
+     * Get the Octave class of the numbers.
+     *   @return Get the class as an integer, e.g. {@link DataModelBuilder#CLASS_DOUBLE}.
+     */
+    public int getNumericClass()
+        { return numClass_; }
+
+
+
+    /**
+     * Box a number of a floating point or the logical Octave class.
+     *   @return Get the boxed number, java.lang.Double, java.lang.Float or
+     * java.lang.Boolean.
+     *   @param numClass
+     * The Octave class of the number, {@link DataModelBuilder#CLASS_DOUBLE}, {@link
+     * DataModelBuilder#CLASS_SINGLE} or {@link DataModelBuilder#CLASS_LOGICAL}. An integer
+     * class is accepted, too; the value is truncated.
+     *   @param value
+     * The value of the number.
+     */
+    static Object boxFloat(int numClass, double value)
+    {
+        switch(numClass)
+        {
+        case DataModelBuilder.CLASS_DOUBLE:
+            return Double.valueOf(value);
+        case DataModelBuilder.CLASS_SINGLE:
+            return Float.valueOf((float)value);
+        case DataModelBuilder.CLASS_LOGICAL:
+            return Boolean.valueOf(value != 0.0);
+        default:
+            return boxInteger(numClass, (long)value);
+        }
+    } /* End of ArrayView.boxFloat */
+
+
+
+    /**
+     * Box a number of an integer Octave class. The Java class of the result is the
+     * signed Java class of same width for the signed Octave classes and the next wider
+     * class for the unsigned Octave classes, e.g. java.lang.Short for int16,
+     * java.lang.Integer for uint16 and java.math.BigInteger for uint64.
+     *   @return Get the boxed number.
+     *   @param numClass
+     * The Octave class of the number, e.g. {@link DataModelBuilder#CLASS_INT8}. A floating
+     * point or the logical class is accepted, too.
+     *   @param value
+     * The value of the number. For an unsigned Octave class, only the number of Bits of
+     * the class are considered; this way, the value can be taken from the signed Java
+     * type of same width.
+     */
+    static Object boxInteger(int numClass, long value)
+    {
+        switch(numClass)
+        {
+        case DataModelBuilder.CLASS_INT8:
+            return Byte.valueOf((byte)value);
+        case DataModelBuilder.CLASS_UINT8:
+            return Short.valueOf((short)(value & 0xffL));
+        case DataModelBuilder.CLASS_INT16:
+            return Short.valueOf((short)value);
+        case DataModelBuilder.CLASS_UINT16:
+            return Integer.valueOf((int)(value & 0xffffL));
+        case DataModelBuilder.CLASS_INT32:
+            return Integer.valueOf((int)value);
+        case DataModelBuilder.CLASS_UINT32:
+            return Long.valueOf(value & 0xffffffffL);
+        case DataModelBuilder.CLASS_INT64:
+            return Long.valueOf(value);
+        case DataModelBuilder.CLASS_UINT64:
+            return value >= 0
+                   ? BigInteger.valueOf(value)
+                   : new BigInteger(Long.toUnsignedString(value));
+        case DataModelBuilder.CLASS_DOUBLE:
+        case DataModelBuilder.CLASS_SINGLE:
+        case DataModelBuilder.CLASS_LOGICAL:
+            return boxFloat(numClass, (double)value);
+        default:
+            throw new IllegalArgumentException("Invalid numeric class " + numClass);
+        }
+    } /* End of ArrayView.boxInteger */
+
+} /* End of class ArrayView definition. */
@@ -0,0 +1,553 @@
+/**
+ * @file BufferedIndentWriter.java
+ * An auto-indenting StringTemplate V4 writer with configurable end of line and a
+ * reusable character buffer.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class BufferedIndentWriter
+ *   BufferedIndentWriter
+ *   setLineWidth
+ *   pushIndentation
+ *   popIndentation
+ *   pushAnchorPoint
+ *   popAnchorPoint
+ *   write
+ *   writeWrap
+ *   writeSeparator
+ *   index
+ *   getNoChars
+ *   flush
+ */
+
+package info;
+
+import java.util.*;
+import java.io.IOException;
+import java.io.Writer;
+import org.stringtemplate.v4.STWriter;
+
+
+/**
+ * A replacement of the AutoIndentWriter of the StringTemplate V4 engine.<p>
+ *   The generated text is the same as of the AutoIndentWriter, including indentation,
+ * anchors and the positions of line wraps, with two differences:<p>
+ *   The end of line is configurable. The AutoIndentWriter always emits the line
+ * separator of the platform; files generated on different hosts differ. With a fixed end
+ * of line they are byte-identical.<p>
+ *   The AutoIndentWriter passes each character to the underlying Writer. This class
+ * copies runs of characters without line break into a reusable buffer, which is passed
+ * on in large blocks. The indentation of a line is concatenated once, when it is
+ * pushed, rather than on every line.<p>
+ *   A buffered writer needs to be flushed after rendering. The constructor with a single
+ * argument creates an unbuffered writer; it is used by the template engine, which creates
+ * additional writers of the same class to render attributes into strings and which
+ * doesn't flush them.<p>
+ *   The writer is not safe for concurrent use.
+ */
+
+public final class BufferedIndentWriter implements STWriter
+{
+    /** The size of the character buffer. */
+    private static final int BUFFER_SIZE = 16*1024;
+
+    /** A line of blanks to copy the alignment to an anchor from. */
+    private static final char[] BLANKS = new char[128];
+    static
+    {
+        Arrays.fill(BLANKS, ' ');
+    }
+
+    /** The underlying Writer. */
+    private final Writer out_;
+
+    /** The end of line sequence. */
+    private final String newline_;
+
+    /** The buffer of characters, which have not been passed to the Writer yet. */
+    private final char[] buf_ = new char[BUFFER_SIZE];
+
+    /** The number of characters in the buffer. */
+    private int noBufChars_ = 0;
+
+    /** If false then the buffer is emptied at the end of each write operation. */
+    private final boolean isBuffered_;
+
+    /** The stack of pushed indentations. Element zero is the empty base, which is never
+        popped. */
+    private String[] indents_ = new String[16];
+
+    /** The concatenation of all indentations up to and including the element of same
+        index in {@link #indents_}. */
+    private String[] accumulatedIndents_ = new String[16];
+
+    /** The index of the topmost indentation. */
+    private int indentsSp_ = 0;
+
+    /** The stack of anchor positions. */
+    private int[] anchors_ = new int[16];
+
+    /** The index of the topmost anchor or -1 if there is none. */
+    private int anchorsSp_ = -1;
+
+    /** Whether nothing has been written yet in the current line. */
+    private boolean atStartOfLine_ = true;
+
+    /** The position in the current line as the StringTemplate engine counts it. */
+    private int charPosition_ = 0;
+
+    /** The number of characters written so far. A long, the output of a rendering may
+        exceed 2^31 characters. */
+    private long charIndex_ = 0;
+
+    /** The column, at which lines are wrapped, or {@link STWriter#NO_WRAP}. */
+    private int lineWidth_ = NO_WRAP;
+
+
+    /**
+     * A new instance of BufferedIndentWriter is created, which writes each fragment
+     * without buffering. The end of line is a single line feed character.<p>
+     *   The template engine uses this constructor by reflection to render an attribute
+     * into a string. The end of line doesn't matter in this case; the outer writer
+     * replaces each line feed by its own end of line.
+     *   @param out
+     * The Writer to write to.
+     */
+    public BufferedIndentWriter(Writer out)
+    {
+        this(out, "\n", /* isBuffered */ false);
+
+    } /* End of BufferedIndentWriter.BufferedIndentWriter */
+
+
+
+    /**
+     * A new instance of BufferedIndentWriter is created, which collects the generated
+     * text in a buffer. The buffer is passed on if it is full and by {@link #flush}.
+     *   @param out
+     * The Writer to write to.
+     *   @param newline
+     * The end of line sequence, either "\n" or "\r\n". Each line feed character written
+     * by the template engine is replaced by this sequence; carriage return characters are
+     * dropped.
+     *   @throws IllegalArgumentException
+     * The end of line sequence is not supported.
+     */
+    public BufferedIndentWriter(Writer out, String newline)
+    {
+        this(out, newline, /* isBuffered */ true);
+
+    } /* End of BufferedIndentWriter.BufferedIndentWriter */
+
+
+
+    /**
+     * A new instance of BufferedIndentWriter is created.
+     *   @param out
+     * The Writer to write to.
+     *   @param newline
+     * The end of line sequence.
+     *   @param isBuffered
+     * If false then the buffer is emptied at the end of each write operation.
+     *   @throws IllegalArgumentException
+     * The end of line sequence is not supported.
+     */
+    private BufferedIndentWriter(Writer out, String newline, boolean isBuffered)
+    {
+        if(!"\n".equals(newline)  &&  !"\r\n".equals(newline))
+        {
+            throw new IllegalArgumentException("Unsupported end of line sequence. Only"
+                                               + " \"\\n\" and \"\\r\\n\" are possible"
+                                              );
+        }
+        out_ = out;
+        newline_ = newline;
+        isBuffered_ = isBuffered;
+        indents_[0] = null;
+        accumulatedIndents_[0] = "";
+
+    } /* End of BufferedIndentWriter.BufferedIndentWriter */
+
+
+
+    /**
+     * Set the column, at which lines are wrapped.
+     *   @param lineWidth
+     * The column or {@link STWriter#NO_WRAP}.
+     */
+    @Override public void setLineWidth(int lineWidth)
+        { lineWidth_ = lineWidth; }
+
+
+
+    /**
+     * Push an indentation, which applies to all lines until it is popped again.
+     *   @param indent
+     * The indentation, which is appended to the already pushed ones. Can be null.
+     */
+    @Override public void pushIndentation(String indent)
+    {
+        if(++indentsSp_ == indents_.length)
+        {
+            indents_ = Arrays.copyOf(indents_, 2*indents_.length);
+            accumulatedIndents_ = Arrays.copyOf( accumulatedIndents_
+                                               , 2*accumulatedIndents_.length
+                                               );
+        }
+        indents_[indentsSp_] = indent;
+        accumulatedIndents_[indentsSp_] = indent != null
+                                          ? accumulatedIndents_[indentsSp_-1] + indent
+                                          : accumulatedIndents_[indentsSp_-1];
+    } /* End of BufferedIndentWriter.pushIndentation */
+
+
+
+    /**
+     * Pop the most recently pushed indentation.
+     *   @return Get the popped indentation or null if there is none.
+     */
+    @Override public String popIndentation()
+    {
+        if(indentsSp_ == 0)
+            return null;
+        final String indent = indents_[indentsSp_];
+        indents_[indentsSp_] = null;
+        accumulatedIndents_[indentsSp_--] = null;
+        return indent;
+
+    } /* End of BufferedIndentWriter.popIndentation */
+
+
+
+    /**
+     * Push the current position in the line as anchor; wrapped lines are aligned to it.
+     */
+    @Override public void pushAnchorPoint()
+    {
+        if(++anchorsSp_ == anchors_.length)
+            anchors_ = Arrays.copyOf(anchors_, 2*anchors_.length);
+        anchors_[anchorsSp_] = charPosition_;
+
+    } /* End of BufferedIndentWriter.pushAnchorPoint */
+
+
+
+    /**
+     * Pop the most recently pushed anchor.
+     */
+    @Override public void popAnchorPoint()
+        { -- anchorsSp_; }
+
+
+
+    /**
+     * Write a fragment of the generated text. Line feeds are replaced by the end of line
+     * sequence, carriage returns are dropped and the first character of a line is
+     * preceded by the current indentation.
+     *   @return Get the number of written characters, including end of line and
+     * indentation.
+     *   @param str
+     * The text fragment.
+     *   @throws IOException
+     * The underlying Writer fails.
+     */
+    @Override public int write(String str)
+        throws IOException
+    {
+        final int nl = newline_.length()
+                , len = str.length();
+        int n = 0
+          , i = 0;
+        while(i < len)
+        {
+            final char c = str.charAt(i);
+            if(c == '\r')
+                ++ i;
+            else if(c == '\n')
+            {
+                /* The position is counted like the AutoIndentWriter does, which adds
+                   all characters written so far by this call. Wrapping of lines depends
+                   on it and the generated text would differ otherwise. */
+                atStartOfLine_ = true;
+                charPosition_ = -nl;
+                append(newline_, 0, nl);
+                n += nl;
+                charIndex_ += nl;
+                charPosition_ += n;
+                ++ i;
+            }
+            else
+            {
+                int j = i + 1;
+                while(j < len)
+                {
+                    final char cj = str.charAt(j);
+                    if(cj == '\n'  ||  cj == '\r')
+                        break;
+                    ++ j;
+                }
+                if(atStartOfLine_)
+                {
+                    n += indent();
+                    atStartOfLine_ = false;
+                }
+                final int noChars = j - i;
+                append(str, i, noChars);
+                n += noChars;
+                charPosition_ += noChars;
+                charIndex_ += noChars;
+                i = j;
+            }
+        }
+        if(!isBuffered_)
+            flushBuffer();
+        return n;
+
+    } /* End of BufferedIndentWriter.write */
+
+
+
+    /**
+     * Write a fragment of the generated text, which is preceded by a line wrap if the
+     * line is too long.
+     *   @return Get the number of written characters.
+     *   @param str
+     * The text fragment.
+     *   @param wrap
+     * The text, which is written if the current line exceeds the line width.
+     *   @throws IOException
+     * The underlying Writer fails.
+     */
+    @Override public int write(String str, String wrap)
+        throws IOException
+    {
+        final int n = writeWrap(wrap);
+        return n + write(str);
+
+    } /* End of BufferedIndentWriter.write */
+
+
+
+    /**
+     * Write a line wrap if the current line exceeds the line width.
+     *   @return Get the number of written characters.
+     *   @param wrap
+     * The wrap text. Each line feed is replaced by the end of line and followed by the
+     * current indentation.
+     *   @throws IOException
+     * The underlying Writer fails.
+     */
+    @Override public int writeWrap(String wrap)
+        throws IOException
+    {
+        int n = 0;
+        if(lineWidth_ == NO_WRAP  ||  wrap == null  ||  atStartOfLine_
+           ||  charPosition_ < lineWidth_
+          )
+        {
+            return n;
+        }
+
+        final int nl = newline_.length();
+        for(int i=0; i<wrap.length(); ++i)
+        {
+            final char c = wrap.charAt(i);
+            if(c == '\r')
+                continue;
+            else if(c == '\n')
+            {
+                append(newline_, 0, nl);
+                n += nl;
+                charPosition_ = 0;
+                charIndex_ += nl;
+                n += indent();
+            }
+            else
+            {
+                append(c);
+                ++ n;
+                ++ charPosition_;
+                ++ charIndex_;
+            }
+        }
+        if(!isBuffered_)
+            flushBuffer();
+        return n;
+
+    } /* End of BufferedIndentWriter.writeWrap */
+
+
+
+    /**
+     * Write a separator of the elements of a list.
+     *   @return Get the number of written characters.
+     *   @param str
+     * The separator.
+     *   @throws IOException
+     * The underlying Writer fails.
+     */
+    @Override public int writeSeparator(String str)
+        throws IOException
+    {
+        return write(str);
+
+    } /* End of BufferedIndentWriter.writeSeparator */
+
+
+
+    /**
+     * Write the indentation of a new line and the alignment to the current anchor.
+     *   @return Get the number of written characters.
+     */
+    private int indent()
+        throws IOException
+    {
+        final String indent = accumulatedIndents_[indentsSp_];
+        int n = indent.length();
+        append(indent, 0, n);
+
+        if(anchorsSp_ >= 0  &&  anchors_[anchorsSp_] > n)
+        {
+            int noBlanks = anchors_[anchorsSp_] - n;
+            n += noBlanks;
+            while(noBlanks > 0)
+            {
+                final int noChars = Math.min(noBlanks, BLANKS.length);
+                append(BLANKS, noChars);
+                noBlanks -= noChars;
+            }
+        }
+        charPosition_ += n;
+        charIndex_ += n;
+        return n;
+
+    } /* End of BufferedIndentWriter.indent */
+
+
+
+    /**
+     * Append a part of a string to the buffer. Long strings bypass the buffer.
+     *   @param str
+     * The string.
+     *   @param off
+     * The index of the first character.
+     *   @param len
+     * The number of characters.
+     */
+    private void append(String str, int off, int len)
+        throws IOException
+    {
+        if(len > buf_.length - noBufChars_)
+        {
+            flushBuffer();
+            if(len > buf_.length)
+            {
+                out_.write(str, off, len);
+                return;
+            }
+        }
+        str.getChars(off, off+len, buf_, noBufChars_);
+        noBufChars_ += len;
+
+    } /* End of BufferedIndentWriter.append */
+
+
+
+    /**
+     * Append the beginning of a character array to the buffer.
+     *   @param chars
+     * The characters.
+     *   @param len
+     * The number of characters. It must not exceed the buffer size.
+     */
+    private void append(char[] chars, int len)
+        throws IOException
+    {
+        if(len > buf_.length - noBufChars_)
+            flushBuffer();
+        System.arraycopy(chars, 0, buf_, noBufChars_, len);
+        noBufChars_ += len;
+
+    } /* End of BufferedIndentWriter.append */
+
+
+
+    /**
+     * Append a single character to the buffer.
+     *   @param c
+     * The character.
+     */
+    private void append(char c)
+        throws IOException
+    {
+        if(noBufChars_ == buf_.length)
+            flushBuffer();
+        buf_[noBufChars_++] = c;
+
+    } /* End of BufferedIndentWriter.append */
+
+
+
+    /**
+     * Pass the buffered characters to the underlying Writer.
+     */
+    private void flushBuffer()
+        throws IOException
+    {
+        if(noBufChars_ > 0)
+        {
+            out_.write(buf_, 0, noBufChars_);
+            noBufChars_ = 0;
+        }
+    } /* End of BufferedIndentWriter.flushBuffer */
+
+
+
+    /**
+     * Get the number of characters written so far as the StringTemplate engine uses it.
+     *   @return Get the number, including end of line sequences and indentation. The
+     * engine only evaluates the difference of two values, which is still correct if the
+     * number overflows; use {@link #getNoChars} to get the total number.
+     */
+    @Override public int index()
+        { return (int)charIndex_; }
+
+
+
+    /**
+     * Get the number of characters written so far.
+     *   @return Get the number, including end of line sequences and indentation.
+     */
+    public long getNoChars()
+        { return charIndex_; }
+
+
+
+    /**
+     * Pass the buffered characters to the underlying Writer and flush it. Needs to be
+     * called after rendering.
+     *   @throws IOException
+     * The underlying Writer fails.
+     */
+    public void flush()
+        throws IOException
+    {
+        flushBuffer();
+        out_.flush();
+
+    } /* End of BufferedIndentWriter.flush */
+
+} /* End of class BufferedIndentWriter definition. */
@@ -0,0 +1,1076 @@
+/**
+ * @file CachedSTGroupFile.java
+ * A StringTemplate V4 group file, which is loaded from the persistent cache of compiled
+ * groups if possible.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class CachedSTGroupFile
+ *   CachedSTGroupFile
+ *   setLazyCompilation
+ *   getLazyCompilation
+ *   setParallelCompilation
+ *   getParallelCompilation
+ *   load
+ *   unload
+ *   defineTemplate
+ *   defineRegion
+ *   rawGetTemplate
+ *   getTemplateNames
+ *   rawDefineTemplate
+ *   compileAllTemplates
+ *   newImport
+ *   getCompiledTemplates
+ *   putCompiledTemplate
+ *   getDictionaries
+ *   getImports
+ *   addImport
+ */
+
+package info;
+
+import java.util.*;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import org.antlr.runtime.Token;
+import org.stringtemplate.v4.STErrorListener;
+import org.stringtemplate.v4.STGroup;
+import org.stringtemplate.v4.STGroupFile;
+import org.stringtemplate.v4.compiler.CompiledST;
+import org.stringtemplate.v4.compiler.FormalArgument;
+import org.stringtemplate.v4.compiler.STException;
+import org.stringtemplate.v4.misc.Misc;
+import org.stringtemplate.v4.misc.STMessage;
+
+
+/**
+ * A group file, which uses the persistent cache of compiled groups, see {@link
+ * CompiledGroupCache}.<p>
+ *   The group behaves like its base class STGroupFile. When it is loaded, it first looks
+ * for the compiled form of the group file in the cache. Only if it is not found, the
+ * group file is parsed and compiled and the result is stored in the cache. Imported
+ * group files are represented by objects of this class, too, so that they use the cache
+ * as well. If possible, an imported group file is not loaded by each importing group
+ * but shared by all of them, see {@link SharedImportRegistry}.<p>
+ *   By default, all templates of the group file are compiled when it is loaded and all
+ * compile errors are reported at once. Users of large template libraries can opt in to
+ * lazy compilation, see {@link #setLazyCompilation}: Loading the group file then only
+ * parses the structure of the file, which yields the names, formal arguments and source
+ * text of all templates. A template is compiled on its first use, when it is looked up
+ * for {@code getInstanceOf} or when it is called from another template. The cost of
+ * loading depends on the templates, which are actually used, rather than on the size of
+ * the group file. The template is compiled with the original tokens of the group file;
+ * error messages refer to the same lines as with eager compilation. However, compile
+ * errors of templates, which are not used, are not reported; such a group is considered
+ * free of errors. Querying the names of all templates of the group compiles all
+ * templates, which have not been used yet.<p>
+ *   If all templates of a large group file are compiled at once, i.e. by default, if the
+ * group is stored in the cache of compiled groups or if it is preloaded, then the
+ * templates are compiled in parallel, see {@link
+ * #setParallelCompilation}. The group file is still parsed by a single thread; the
+ * parser splits it into the top-level template definitions, which are compiled by the
+ * worker threads of the common fork-join pool. The problems reported for a template and
+ * the problems reported by the parser of the group file are recorded with their position
+ * in the group file. They are passed on to the error listener of the group in this
+ * order, which is the order, in which STGroupFile reports them.<p>
+ *   The literal strings of all compiled templates are replaced by the pooled ones, see
+ * {@link LiteralPool}.
+ */
+
+public class CachedSTGroupFile extends STGroupFile
+{
+    /** The global logger object for all progress and error reporting. */
+    private static SimpleLogger _logger = new SimpleLogger();
+
+    /** Whether templates are compiled on first use rather than when loading the group. */
+    private static volatile boolean _isLazyCompilation = false;
+
+    /** Whether all templates of a group, which are compiled at once, are compiled in
+        parallel. */
+    private static volatile boolean _isParallelCompilation = true;
+
+    /** The minimum number of templates, which are compiled in parallel. Fewer templates
+        are compiled one after another; the overhead would outweigh the gain. */
+    private static final int MIN_NO_TEMPLATES_PARALLEL = 16;
+
+    /** The templates, which have been parsed but not compiled yet, by fully qualified
+        name. */
+    private final Map<String,PendingTemplate> pendingTemplates_ = new ConcurrentHashMap<>();
+
+    /** The number of templates, which have not been compiled yet. Other than the map of
+        pending templates, it is decremented only after the template has been defined. */
+    private volatile int noPendingTemplates_ = 0;
+
+    /** Whether the group file is being parsed and the compilation of the templates is
+        deferred. Templates are compiled lazily only while this is true. */
+    private boolean isParsing_ = false;
+
+    /** The problems reported while the group file is parsed and the compilation of all
+        templates is deferred to the end of loading. null if the problems are passed on
+        to the listener immediately. */
+    private MessageRecorder parserMessages_ = null;
+
+    /** The number of templates, which have been deferred so far. Used to number the
+        templates in order of appearance in the group file. */
+    private int noDeferredTemplates_ = 0;
+
+    /** Whether the group is shared by all groups, which import it, see {@link
+        SharedImportRegistry}. A shared group is completely compiled and has an error
+        listener of its own. */
+    volatile boolean isShared_ = false;
+
+    /** The hash of the group file, see {@link CompiledGroupCache#getHash}, at the time the
+        group was loaded as a shared group or null if it is not shared. Used to recognize a
+        shared group, which imports a modified group file. */
+    volatile String sharedHash_ = null;
+
+    /** The initial delimiters of template expressions. The group file may redefine the
+        delimiters of the group; the initial ones are needed to import it again. */
+    final char initialDelimiterStartChar_
+             , initialDelimiterStopChar_;
+
+
+    /**
+     * A template, which has been parsed but not compiled yet. The fields are the
+     * arguments of STGroup.defineTemplate.
+     */
+    private static final class PendingTemplate
+    {
+        final String name_;
+        final Token nameT_;
+        final List<FormalArgument> args_;
+        final String template_;
+        final Token templateToken_;
+
+        /** The position of the template in the group file, counted from zero. */
+        final int index_;
+
+        PendingTemplate( String name
+                       , Token nameT
+                       , List<FormalArgument> args
+                       , String template
+                       , Token templateToken
+                       , int index
+                       )
+        {
+            name_ = name;
+            nameT_ = nameT;
+            args_ = args;
+            template_ = template;
+            templateToken_ = templateToken;
+            index_ = index;
+        }
+    } /* End of class PendingTemplate definition. */
+
+
+    /**
+     * An error listener, which records the reported problems; they are passed on to
+     * another listener later. Each problem is recorded with a position in the group file.
+     * The position of the templates is {@code 2*index+1}, where index is the position of
+     * the template in the group file, counted from zero. The position of a problem
+     * reported by the group file parser is {@code 2*n}, where n is the number of
+     * templates, which have been parsed before.
+     */
+    private static class MessageRecorder implements STErrorListener
+    {
+        /** The reported problems. */
+        private final List<STMessage> messages_ = new ArrayList<>();
+
+        /** The kind of each reported problem, one of the MSG_* constants. */
+        private final List<Integer> kinds_ = new ArrayList<>();
+
+        /** The position of each reported problem. */
+        private final List<Integer> positions_ = new ArrayList<>();
+
+        /** The number of problems, which have been passed on already. */
+        private int noReplayedMessages_ = 0;
+
+        /** The position, which is recorded with problems reported from now on. */
+        int position_ = 0;
+
+        private static final int MSG_COMPILE_TIME = 0
+                               , MSG_RUN_TIME = 1
+                               , MSG_IO = 2
+                               , MSG_INTERNAL = 3;
+
+        private void record(STMessage msg, int kind)
+            { messages_.add(msg); kinds_.add(kind); positions_.add(position_); }
+
+        @Override public void compileTimeError(STMessage msg)
+            { record(msg, MSG_COMPILE_TIME); }
+
+        @Override public void runTimeError(STMessage msg)
+            { record(msg, MSG_RUN_TIME); }
+
+        @Override public void IOError(STMessage msg)
+            { record(msg, MSG_IO); }
+
+        @Override public void internalError(STMessage msg)
+            { record(msg, MSG_INTERNAL); }
+
+        /**
+         * Pass the recorded problems on to another listener, which have not been passed
+         * on yet and which are found in the group file up to a given position. Problems
+         * of same position are passed on in order of reporting.
+         *   @param listener
+         * The listener, which receives the messages.
+         *   @param maxPosition
+         * The position of the last problems to pass on.
+         */
+        void replay(STErrorListener listener, int maxPosition)
+        {
+            /* A template compiled out of order while parsing, e.g. the template of a
+               region, records a position lower than that of preceding problems. The
+               sorting is stable. */
+            if(noReplayedMessages_ == 0)
+            {
+                final Integer[] order = new Integer[messages_.size()];
+                for(int i=0; i<order.length; ++i)
+                    order[i] = i;
+                Arrays.sort(order, new Comparator<Integer>()
+                    {
+                        @Override public int compare(Integer a, Integer b)
+                            { return positions_.get(a).compareTo(positions_.get(b)); }
+                    });
+                final List<STMessage> messages = new ArrayList<>(messages_);
+                final List<Integer> kinds = new ArrayList<>(kinds_)
+                                  , positions = new ArrayList<>(positions_);
+                for(int i=0; i<order.length; ++i)
+                {
+                    messages_.set(i, messages.get(order[i]));
+                    kinds_.set(i, kinds.get(order[i]));
+                    positions_.set(i, positions.get(order[i]));
+                }
+            }
+
+            while(noReplayedMessages_ < messages_.size()
+                  &&  positions_.get(noReplayedMessages_) <= maxPosition
+                 )
+            {
+                final STMessage msg = messages_.get(noReplayedMessages_);
+                switch(kinds_.get(noReplayedMessages_))
+                {
+                case MSG_COMPILE_TIME: listener.compileTimeError(msg); break;
+                case MSG_RUN_TIME: listener.runTimeError(msg); break;
+                case MSG_IO: listener.IOError(msg); break;
+                default: listener.internalError(msg);
+                }
+                ++ noReplayedMessages_;
+            }
+        } /* End of MessageRecorder.replay */
+
+    } /* End of class MessageRecorder definition. */
+
+
+    /**
+     * A template, which is compiled in parallel with other templates. It records the
+     * problems reported during compilation; they are passed on to the listener of the
+     * group when the template is defined.
+     */
+    private static final class ParallelTemplate extends MessageRecorder
+    {
+        /** The template to compile. */
+        final PendingTemplate pending_;
+
+        /** The compiled template or null if compilation failed. */
+        CompiledST code_ = null;
+
+        /**
+         * A new instance of ParallelTemplate is created.
+         *   @param pending
+         * The template to compile.
+         */
+        ParallelTemplate(PendingTemplate pending)
+            { pending_ = pending; }
+
+    } /* End of class ParallelTemplate definition. */
+
+
+    /**
+     * The error listener of the group while templates are compiled in parallel. It
+     * passes each message on to the template, which the reporting thread is compiling.
+     */
+    private static final class ThreadListener implements STErrorListener
+    {
+        /** The template, which is compiled by the current thread. */
+        final ThreadLocal<ParallelTemplate> template_ = new ThreadLocal<>();
+
+        @Override public void compileTimeError(STMessage msg)
+            { template_.get().compileTimeError(msg); }
+
+        @Override public void runTimeError(STMessage msg)
+            { template_.get().runTimeError(msg); }
+
+        @Override public void IOError(STMessage msg)
+            { template_.get().IOError(msg); }
+
+        @Override public void internalError(STMessage msg)
+            { template_.get().internalError(msg); }
+
+    } /* End of class ThreadListener definition. */
+
+
+    /**
+     * The fork-join task, which compiles a range of templates. The range is split until
+     * it is no larger than the grain size.
+     */
+    private final class CompileTemplatesTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        /** All templates to compile. */
+        private final ParallelTemplate[] templates_;
+
+        /** The listener, which routes the problems to the compiled template. */
+        private final ThreadListener listener_;
+
+        /** The index of the first template of the range. */
+        private final int from_;
+
+        /** The index behind the last template of the range. */
+        private final int to_;
+
+        /** The maximum number of templates, which are compiled without further
+            splitting. */
+        private final int grainSize_;
+
+        /**
+         * A new instance of CompileTemplatesTask is created.
+         *   @param templates
+         * All templates to compile.
+         *   @param listener
+         * The listener of the group, which routes the problems to the compiled template.
+         *   @param from
+         * The index of the first template of the range.
+         *   @param to
+         * The index behind the last template of the range.
+         *   @param grainSize
+         * The maximum number of templates, which are compiled without further splitting.
+         */
+        CompileTemplatesTask( ParallelTemplate[] templates
+                            , ThreadListener listener
+                            , int from
+                            , int to
+                            , int grainSize
+                            )
+        {
+            templates_ = templates;
+            listener_ = listener;
+            from_ = from;
+            to_ = to;
+            grainSize_ = grainSize;
+        }
+
+        /**
+         * Compile the templates of the range or split the range and fork the tasks for
+         * both halves.
+         */
+        @Override protected void compute()
+        {
+            if(to_ - from_ <= grainSize_)
+            {
+                for(int i=from_; i<to_; ++i)
+                {
+                    final ParallelTemplate t = templates_[i];
+                    listener_.template_.set(t);
+                    try
+                    {
+                        t.code_ = compile( getFileName()
+                                         , t.pending_.name_
+                                         , t.pending_.args_
+                                         , Misc.trimOneTrailingNewline
+                                             (Misc.trimOneStartingNewline(t.pending_.template_))
+                                         , t.pending_.templateToken_
+                                         );
+                        t.code_.name = t.pending_.name_;
+                    }
+                    catch(STException e)
+                    {
+                        /* The syntax error has been recorded. */
+                    }
+                    finally
+                    {
+                        listener_.template_.remove();
+                    }
+                }
+            }
+            else
+            {
+                final int mid = (from_ + to_) >>> 1;
+                invokeAll( new CompileTemplatesTask(templates_, listener_, from_, mid, grainSize_)
+                         , new CompileTemplatesTask(templates_, listener_, mid, to_, grainSize_)
+                         );
+            }
+        }
+    } /* End of class CachedSTGroupFile.CompileTemplatesTask */
+
+
+    /**
+     * An error listener, which forwards all messages to another listener and which
+     * records whether an error occurred. A group, which had errors, is not stored in the
+     * cache.
+     */
+    private static final class ErrorFlag implements STErrorListener
+    {
+        /** The listener, which receives the messages. */
+        private final STErrorListener listener_;
+
+        /** Whether any error has been reported. */
+        boolean hasErrors_ = false;
+
+        /**
+         * A new instance of ErrorFlag is created.
+         *   @param listener
+         * The listener, which receives the messages.
+         */
+        ErrorFlag(STErrorListener listener)
+            { listener_ = listener; }
+
+        @Override public void compileTimeError(STMessage msg)
+            { hasErrors_ = true; listener_.compileTimeError(msg); }
+
+        @Override public void runTimeError(STMessage msg)
+            { hasErrors_ = true; listener_.runTimeError(msg); }
+
+        @Override public void IOError(STMessage msg)
+            { hasErrors_ = true; listener_.IOError(msg); }
+
+        @Override public void internalError(STMessage msg)
+            { hasErrors_ = true; listener_.internalError(msg); }
+
+    } /* End of class ErrorFlag definition. */
+
+
+    /**
+     * A new instance of CachedSTGroupFile is created.
+     *   @param fileName
+     * The name of the group file. See STGroupFile for how it is resolved.
+     */
+    public CachedSTGroupFile(String fileName)
+    {
+        super(fileName);
+        initialDelimiterStartChar_ = delimiterStartChar;
+        initialDelimiterStopChar_ = delimiterStopChar;
+
+    } /* End of CachedSTGroupFile.CachedSTGroupFile */
+
+
+
+    /**
+     * A new instance of CachedSTGroupFile is created.
+     *   @param url
+     * The URL of the group file.
+     *   @param encoding
+     * The character encoding of the group file.
+     *   @param delimiterStartChar
+     * The initial start character of template expressions.
+     *   @param delimiterStopChar
+     * The initial stop character of template expressions.
+     */
+    public CachedSTGroupFile( URL url
+                            , String encoding
+                            , char delimiterStartChar
+                            , char delimiterStopChar
+                            )
+    {
+        super(url, encoding, delimiterStartChar, delimiterStopChar);
+        initialDelimiterStartChar_ = delimiterStartChar;
+        initialDelimiterStopChar_ = delimiterStopChar;
+
+    } /* End of CachedSTGroupFile.CachedSTGroupFile */
+
+
+
+    /**
+     * Enable or disable lazy compilation of templates. The setting applies to groups,
+     * which are loaded later. Lazy compilation is disabled by default.
+     *   @param isLazyCompilation
+     * If true then a template is compiled on first use; compile errors of unused
+     * templates are not reported. If false then all templates are compiled when loading
+     * the group file.
+     */
+    public static void setLazyCompilation(boolean isLazyCompilation)
+        { _isLazyCompilation = isLazyCompilation; }
+
+
+
+    /**
+     * Get whether templates are compiled lazily.
+     *   @return Get true if a template is compiled on first use.
+     */
+    public static boolean getLazyCompilation()
+        { return _isLazyCompilation; }
+
+
+
+    /**
+     * Enable or disable parallel compilation of templates. It applies, when all
+     * templates of a group are compiled at once.
+     *   @param isParallelCompilation
+     * If true then the templates of a large group file are compiled by several threads.
+     * If false then they are compiled one after another.
+     */
+    public static void setParallelCompilation(boolean isParallelCompilation)
+        { _isParallelCompilation = isParallelCompilation; }
+
+
+
+    /**
+     * Get whether templates are compiled in parallel.
+     *   @return Get true if the templates of a large group file are compiled by several
+     * threads.
+     */
+    public static boolean getParallelCompilation()
+        { return _isParallelCompilation; }
+
+
+
+    /**
+     * Load the group. The compiled group is taken from the cache if possible. Otherwise
+     * the group file is parsed and the compiled group is stored in the cache. If the
+     * cache is used or if lazy compilation is disabled then all templates are compiled
+     * while parsing the group file or, if they are compiled in parallel, after parsing
+     * it.
+     */
+    @Override public synchronized void load()
+    {
+        if(alreadyLoaded)
+            return;
+
+        final String key = CompiledGroupCache.getKey(this);
+        if(key != null  &&  CompiledGroupCache.restore(this, key))
+        {
+            alreadyLoaded = true;
+            return;
+        }
+
+        /* The templates are compiled while parsing, like by the base class, unless they
+           are compiled lazily or in parallel. For parallel compilation, the problems
+           reported while parsing are recorded; they are passed on together with the
+           problems of the templates and in the same order. */
+        final boolean isLazy = key == null  &&  _isLazyCompilation;
+        final STErrorListener listener = getListener();
+        final ErrorFlag errorFlag = new ErrorFlag(listener);
+        try
+        {
+            if(isLazy  ||  _isParallelCompilation)
+            {
+                if(!isLazy)
+                    parserMessages_ = new MessageRecorder();
+                setListener(parserMessages_ != null? parserMessages_: errorFlag);
+                isParsing_ = true;
+                try
+                {
+                    super.load();
+                }
+                finally
+                {
+                    isParsing_ = false;
+                    setListener(errorFlag);
+                }
+                if(!isLazy)
+                    compilePendingTemplates();
+            }
+            else
+            {
+                setListener(errorFlag);
+                super.load();
+            }
+        }
+        finally
+        {
+            /* The remaining recorded problems are passed on even if loading failed. */
+            if(parserMessages_ != null)
+            {
+                final MessageRecorder parserMessages = parserMessages_;
+                parserMessages_ = null;
+                parserMessages.replay(errorFlag, Integer.MAX_VALUE);
+            }
+            setListener(listener);
+        }
+
+        /* The base class creates imported group files as STGroupFile. They are replaced
+           by shared groups or by objects of this class before they are loaded
+           themselves. All imports inherited the temporary listener, they get the original
+           one. */
+        final ListIterator<STGroup> it = imports.listIterator();
+        while(it.hasNext())
+        {
+            final STGroup group = it.next();
+            group.setListener(listener);
+            if(group.getClass() == STGroupFile.class)
+            {
+                final STGroupFile groupFile = (STGroupFile)group;
+                final CachedSTGroupFile cachedGroupFile =
+                                        newImport( groupFile.url
+                                                 , groupFile.encoding
+                                                 , groupFile.delimiterStartChar
+                                                 , groupFile.delimiterStopChar
+                                                 );
+                if(!cachedGroupFile.isShared_)
+                    cachedGroupFile.setListener(listener);
+                it.set(cachedGroupFile);
+                final int idx = importsToClearOnUnload.indexOf(group);
+                if(idx >= 0)
+                    importsToClearOnUnload.set(idx, cachedGroupFile);
+            }
+        }
+
+        if(key != null  &&  !errorFlag.hasErrors_)
+            CompiledGroupCache.store(this, key);
+        else if(errorFlag.hasErrors_)
+        {
+            _logger.debug("CachedSTGroupFile: " + url + " has errors and is not stored in"
+                          + " the cache of compiled groups"
+                         );
+        }
+    } /* End of CachedSTGroupFile.load */
+
+
+
+    /**
+     * Unload the group. It will be loaded again on next use.
+     */
+    @Override public synchronized void unload()
+    {
+        pendingTemplates_.clear();
+        noPendingTemplates_ = 0;
+
+        /* The base class unloads all imports. Shared groups are still used by other
+           groups, they are only detached. */
+        final Iterator<STGroup> it = imports.iterator();
+        while(it.hasNext())
+        {
+            final STGroup group = it.next();
+            if(group instanceof CachedSTGroupFile  &&  ((CachedSTGroupFile)group).isShared_)
+            {
+                it.remove();
+                importsToClearOnUnload.remove(group);
+            }
+        }
+        super.unload();
+
+    } /* End of CachedSTGroupFile.unload */
+
+
+
+    /**
+     * Define a template. While the group file is being parsed for lazy or parallel
+     * compilation, the template is only recorded; it is compiled on first use or, if the
+     * group requires all templates, at the end of loading. Otherwise it is compiled
+     * immediately by the base class implementation of this method.
+     *   @return Get the compiled template or null if compilation is deferred.
+     *   @param fullyQualifiedTemplateName
+     * The name of the template.
+     *   @param nameT
+     * The token of the name in the group file.
+     *   @param args
+     * The formal arguments.
+     *   @param template
+     * The template text.
+     *   @param templateToken
+     * The token of the template text in the group file.
+     */
+    @Override public synchronized CompiledST defineTemplate
+                                                ( String fullyQualifiedTemplateName
+                                                , Token nameT
+                                                , List<FormalArgument> args
+                                                , String template
+                                                , Token templateToken
+                                                )
+    {
+        if(!isParsing_)
+        {
+            return super.defineTemplate( fullyQualifiedTemplateName
+                                       , nameT
+                                       , args
+                                       , template
+                                       , templateToken
+                                       );
+        }
+
+        /* A redefinition is reported by the base class. */
+        compilePendingTemplate(fullyQualifiedTemplateName);
+        if(super.rawGetTemplate(fullyQualifiedTemplateName) != null)
+        {
+            return super.defineTemplate( fullyQualifiedTemplateName
+                                       , nameT
+                                       , args
+                                       , template
+                                       , templateToken
+                                       );
+        }
+        pendingTemplates_.put( fullyQualifiedTemplateName
+                             , new PendingTemplate( fullyQualifiedTemplateName
+                                                  , nameT
+                                                  , args
+                                                  , template
+                                                  , templateToken
+                                                  , noDeferredTemplates_++
+                                                  )
+                             );
+        ++ noPendingTemplates_;
+        if(parserMessages_ != null)
+            parserMessages_.position_ = 2*noDeferredTemplates_;
+        return null;
+
+    } /* End of CachedSTGroupFile.defineTemplate */
+
+
+
+    /**
+     * Define a region. The enclosing template is compiled first; it may embed the
+     * region, which then must not be redefined.
+     *   @return Get the compiled region.
+     *   @param enclosingTemplateName
+     * The name of the template, which the region belongs to.
+     *   @param regionT
+     * The token of the region name.
+     *   @param template
+     * The template text of the region.
+     *   @param templateToken
+     * The token of the template text.
+     */
+    @Override public synchronized CompiledST defineRegion( String enclosingTemplateName
+                                                         , Token regionT
+                                                         , String template
+                                                         , Token templateToken
+                                                         )
+    {
+        compilePendingTemplate(enclosingTemplateName);
+        compilePendingTemplate("/" + enclosingTemplateName);
+        return super.defineRegion(enclosingTemplateName, regionT, template, templateToken);
+
+    } /* End of CachedSTGroupFile.defineRegion */
+
+
+
+    /**
+     * Get a template of this group. A template, which has not been compiled yet, is
+     * compiled now.
+     *   @return Get the compiled template or null if the group doesn't define it.
+     *   @param name
+     * The fully qualified name of the template.
+     */
+    @Override public CompiledST rawGetTemplate(String name)
+    {
+        /* Once all templates are compiled the lock is no longer needed. */
+        if(noPendingTemplates_ > 0)
+            compilePendingTemplate(name);
+        return super.rawGetTemplate(name);
+
+    } /* End of CachedSTGroupFile.rawGetTemplate */
+
+
+
+    /**
+     * Get the names of all templates of this group. The names can't be known without
+     * compiling the templates: A template, which fails to compile, is not defined, see
+     * {@link STGroup#isDefined}, and the compilation of a template can define further
+     * templates, e.g. for default values of arguments. Therefore, all templates, which
+     * have not been compiled yet, are compiled now and their problems are reported.
+     *   @return Get the set of fully qualified names of all successfully compiled
+     * templates.
+     */
+    @Override public Set<String> getTemplateNames()
+    {
+        load();
+        if(noPendingTemplates_ > 0)
+            compilePendingTemplates();
+        return super.getTemplateNames();
+
+    } /* End of CachedSTGroupFile.getTemplateNames */
+
+
+
+    /**
+     * Define a compiled template. Its literal strings are replaced by the pooled ones
+     * before it becomes visible to other threads.
+     *   @param name
+     * The fully qualified name of the template.
+     *   @param code
+     * The compiled template.
+     *   @param defT
+     * The token of the template definition or null.
+     */
+    @Override public void rawDefineTemplate(String name, CompiledST code, Token defT)
+    {
+        LiteralPool.intern(code);
+        super.rawDefineTemplate(name, code, defT);
+
+    } /* End of CachedSTGroupFile.rawDefineTemplate */
+
+
+
+    /**
+     * Compile a template if it has been parsed but not compiled yet.
+     *   @param name
+     * The fully qualified name of the template.
+     */
+    private synchronized void compilePendingTemplate(String name)
+    {
+        /* The template is removed before it is defined; the base class looks it up to
+           check for a redefinition. */
+        final PendingTemplate pending = pendingTemplates_.remove(name);
+        if(pending != null)
+        {
+            _logger.debug("CachedSTGroupFile: Compile template " + name + " of " + url);
+
+            /* A template, which is needed while parsing, e.g. by a region, reports its
+               problems at its own position in the group file. */
+            final int position = parserMessages_ != null? parserMessages_.position_: 0;
+            if(parserMessages_ != null)
+                parserMessages_.position_ = 2*pending.index_ + 1;
+            try
+            {
+                super.defineTemplate( name
+                                    , pending.nameT_
+                                    , pending.args_
+                                    , pending.template_
+                                    , pending.templateToken_
+                                    );
+            }
+            catch(STException e)
+            {
+                /* The syntax error has already been reported to the listener. The group
+                   file parser ignores the template in this case, too. */
+            }
+            finally
+            {
+                -- noPendingTemplates_;
+                if(parserMessages_ != null)
+                    parserMessages_.position_ = position;
+            }
+        }
+    } /* End of CachedSTGroupFile.compilePendingTemplate */
+
+
+
+    /**
+     * Compile all templates, which have been parsed but not compiled yet.
+     */
+    private synchronized void compilePendingTemplates()
+    {
+        /* The templates are handled in order of appearance in the group file, so that
+           problems are reported in this order. */
+        final List<PendingTemplate> pendingTemplates =
+                                            new ArrayList<>(pendingTemplates_.values());
+        Collections.sort(pendingTemplates, new Comparator<PendingTemplate>()
+            {
+                @Override public int compare(PendingTemplate a, PendingTemplate b)
+                    { return Integer.compare(a.index_, b.index_); }
+            });
+        final int noTemplates = pendingTemplates.size();
+
+        /* The problems reported while parsing are passed on in between those of the
+           templates. The group's listener receives them like from the base class. The
+           remaining ones are passed on at the end of loading. */
+        final MessageRecorder parserMessages = parserMessages_;
+        if(!_isParallelCompilation  ||  noTemplates < MIN_NO_TEMPLATES_PARALLEL)
+        {
+            for(PendingTemplate pending: pendingTemplates)
+            {
+                if(parserMessages != null)
+                    parserMessages.replay(getListener(), 2*pending.index_);
+                compilePendingTemplate(pending.name_);
+            }
+            return;
+        }
+
+        _logger.debug("CachedSTGroupFile: Compile " + noTemplates + " templates of " + url
+                      + " in parallel"
+                     );
+        final ParallelTemplate[] templates = new ParallelTemplate[noTemplates];
+        for(int i=0; i<noTemplates; ++i)
+            templates[i] = new ParallelTemplate(pendingTemplates.get(i));
+
+        /* The worker threads report problems to the group's listener. While they are
+           compiling, it is replaced by a listener, which records the problems with the
+           template being compiled. */
+        final STErrorListener listener = getListener();
+        final ThreadListener threadListener = new ThreadListener();
+        setListener(threadListener);
+        try
+        {
+            final ForkJoinPool pool = ForkJoinPool.commonPool();
+            final int grainSize = Math.max(1, noTemplates / (4*pool.getParallelism()));
+            final CompileTemplatesTask task = new CompileTemplatesTask( templates
+                                                                      , threadListener
+                                                                      , /* from */ 0
+                                                                      , noTemplates
+                                                                      , grainSize
+                                                                      );
+
+            /* The group may be loaded by a worker thread, e.g. during a preload. It joins
+               the pool rather than submitting another external task. */
+            if(ForkJoinTask.inForkJoinPool())
+                task.invoke();
+            else
+                pool.invoke(task);
+        }
+        finally
+        {
+            setListener(listener);
+        }
+
+        /* The compiled templates are defined in order of the group file. Their problems
+           and those of the group file parser are reported in the order of the group
+           file. */
+        for(ParallelTemplate t: templates)
+        {
+            pendingTemplates_.remove(t.pending_.name_);
+            try
+            {
+                if(parserMessages != null)
+                    parserMessages.replay(listener, 2*t.pending_.index_);
+                t.replay(listener, Integer.MAX_VALUE);
+                if(t.code_ != null)
+                {
+                    rawDefineTemplate(t.pending_.name_, t.code_, t.pending_.nameT_);
+                    t.code_.defineArgDefaultValueTemplates(this);
+                    t.code_.defineImplicitlyDefinedTemplates(this);
+                }
+            }
+            catch(STException e)
+            {
+                /* The problem has already been reported to the listener. */
+            }
+            finally
+            {
+                -- noPendingTemplates_;
+            }
+        }
+    } /* End of CachedSTGroupFile.compilePendingTemplates */
+
+
+
+    /**
+     * Load the group and compile all of its templates. Used to preload a group file
+     * regardless of lazy compilation; all compile errors are reported now.
+     */
+    void compileAllTemplates()
+    {
+        load();
+        compilePendingTemplates();
+
+    } /* End of CachedSTGroupFile.compileAllTemplates */
+
+
+
+    /**
+     * Get the group for an imported group file.
+     *   @return Get the shared group, see {@link SharedImportRegistry}, or a new group,
+     * which has not been loaded yet, if the group file can't be shared.
+     *   @param url
+     * The URL of the imported group file.
+     *   @param encoding
+     * The character encoding of the group file.
+     *   @param delimiterStartChar
+     * The initial start character of template expressions.
+     *   @param delimiterStopChar
+     * The initial stop character of template expressions.
+     */
+    static CachedSTGroupFile newImport( URL url
+                                      , String encoding
+                                      , char delimiterStartChar
+                                      , char delimiterStopChar
+                                      )
+    {
+        final CachedSTGroupFile sharedGroup =
+                        SharedImportRegistry.getGroup( url
+                                                     , encoding
+                                                     , delimiterStartChar
+                                                     , delimiterStopChar
+                                                     );
+        if(sharedGroup != null)
+            return sharedGroup;
+        return new CachedSTGroupFile(url, encoding, delimiterStartChar, delimiterStopChar);
+
+    } /* End of CachedSTGroupFile.newImport */
+
+
+
+    /**
+     * Get the compiled templates of the group.
+     *   @return Get a new map of the templates by name. Failed template lookups, which the
+     * base class records in its map of templates, are not contained.
+     */
+    Map<String,CompiledST> getCompiledTemplates()
+    {
+        final Map<String,CompiledST> compiledTemplates = new LinkedHashMap<>();
+        for(Map.Entry<String,CompiledST> entry: templates.entrySet())
+        {
+            if(entry.getValue() != NOT_FOUND_ST)
+                compiledTemplates.put(entry.getKey(), entry.getValue());
+        }
+        return compiledTemplates;
+
+    } /* End of CachedSTGroupFile.getCompiledTemplates */
+
+
+
+    /**
+     * Define a compiled template, which has been restored from the cache.
+     *   @param name
+     * The name of the template as used by the base class as key in its map of templates.
+     *   @param compiledTemplate
+     * The compiled template.
+     */
+    void putCompiledTemplate(String name, CompiledST compiledTemplate)
+    {
+        LiteralPool.intern(compiledTemplate);
+        templates.put(name, compiledTemplate);
+
+    } /* End of CachedSTGroupFile.putCompiledTemplate */
+
+
+
+    /**
+     * Get the dictionaries of the group.
+     *   @return Get the map of dictionaries by name. The map is owned by the group.
+     */
+    Map<String,Map<String,Object>> getDictionaries()
+        { return dictionaries; }
+
+
+
+    /**
+     * Get the imported groups.
+     *   @return Get the list of imported groups, which is owned by the group.
+     */
+    List<STGroup> getImports()
+        { return imports; }
+
+
+
+    /**
+     * Import a group, which has been restored from the cache.
+     *   @param group
+     * The imported group. It shares the error listener with this group unless it is a
+     * shared group.
+     */
+    void addImport(STGroup group)
+    {
+        if(!(group instanceof CachedSTGroupFile  &&  ((CachedSTGroupFile)group).isShared_))
+            group.setListener(getListener());
+        importTemplates(group, /* clearOnUnload */ true);
+
+    } /* End of CachedSTGroupFile.addImport */
+
+} /* End of class CachedSTGroupFile definition. */
@@ -0,0 +1,212 @@
+/**
+ * @file CompactStructMap.java
+ * A read-only Java Map, which represents an Octave struct in the StringTemplate V4 data
+ * model. The field names are held by a schema, which is shared between all structs with
+ * the same fields; the map itself only holds the field values.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class CompactStructMap
+ *   CompactStructMap
+ *   get
+ *   containsKey
+ *   size
+ *   keySet
+ *   values
+ *   entrySet
+ *   with
+ */
+
+package info;
+
+import java.util.*;
+
+
+/**
+ * A read-only Java Map, which represents an Octave struct.<p>
+ *   A struct array with many elements would be represented by as many TreeMaps, each of
+ * them with a tree node per field and its own references to the field names. All elements
+ * of a struct array have the same fields, though. A CompactStructMap refers to a {@link
+ * StructSchema}, which holds the field names once for all maps, and keeps only an array of
+ * the field values.<p>
+ *   The map iterates its fields in lexical order of the field names; the behavior of an
+ * iteration in a template is the same as it used to be for the TreeMap. The values may be
+ * null.
+ */
+
+public final class CompactStructMap extends AbstractMap<String,Object>
+{
+    /** The field names, shared with other maps. */
+    private final StructSchema schema_;
+
+    /** The field values in the order of the field names in the schema. */
+    private final Object[] slots_;
+
+    /** The lazily created set of map entries. */
+    private Set<Map.Entry<String,Object>> entrySet_ = null;
+
+
+    /**
+     * A new instance of CompactStructMap is created.
+     *   @param schema
+     * The field names.
+     *   @param slots
+     * The field values in lexical order of the field names. The array is not copied.
+     */
+    CompactStructMap(StructSchema schema, Object[] slots)
+    {
+        assert slots.length == schema.size();
+        schema_ = schema;
+        slots_ = slots;
+
+    } /* End of CompactStructMap.CompactStructMap */
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the value of the field or null if there's no such field.
+     *   @param key
+     * The field name.
+     */
+    @Override public Object get(Object key)
+    {
+        final int slot = schema_.indexOf(key);
+        return slot >= 0? slots_[slot]: null;
+
+    } /* End of CompactStructMap.get */
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get true if the struct has a field of the given name.
+     *   @param key
+     * The field name.
+     */
+    @Override public boolean containsKey(Object key)
+        { return schema_.indexOf(key) >= 0; }
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the number of fields.
+     */
+    @Override public int size()
+        { return slots_.length; }
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the field names in lexical order. The Set is shared by all maps of the
+     * same schema.
+     */
+    @Override public Set<String> keySet()
+        { return schema_.keySet(); }
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get a read-only view on the field values in lexical order of the field
+     * names.
+     */
+    @Override public Collection<Object> values()
+        { return Collections.unmodifiableList(Arrays.asList(slots_)); }
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get a read-only view on the fields in lexical order of the field names.
+     */
+    @Override public Set<Map.Entry<String,Object>> entrySet()
+    {
+        if(entrySet_ == null)
+        {
+            entrySet_ = new AbstractSet<Map.Entry<String,Object>>()
+                {
+                    @Override public Iterator<Map.Entry<String,Object>> iterator()
+                    {
+                        return new Iterator<Map.Entry<String,Object>>()
+                            {
+                                private int slot_ = 0;
+
+                                @Override public boolean hasNext()
+                                    { return slot_ < slots_.length; }
+
+                                @Override public Map.Entry<String,Object> next()
+                                {
+                                    if(slot_ >= slots_.length)
+                                        throw new NoSuchElementException();
+                                    final int slot = slot_++;
+                                    return new AbstractMap.SimpleImmutableEntry<>
+                                                            ( schema_.getKey(slot)
+                                                            , slots_[slot]
+                                                            );
+                                }
+                            };
+                    }
+
+                    @Override public int size()
+                        { return slots_.length; }
+                };
+        }
+        return entrySet_;
+
+    } /* End of CompactStructMap.entrySet */
+
+
+
+    /**
+     * Get a copy of this map with one field set to another value. This map is not
+     * modified. The copy shares the schema with this map unless the field is new.
+     *   @return Get the new map.
+     *   @param key
+     * The name of the field. If the struct has no such field then it is added.
+     *   @param value
+     * The new value of the field.
+     */
+    CompactStructMap with(String key, Object value)
+    {
+        final int slot = schema_.indexOf(key);
+        if(slot >= 0)
+        {
+            Object[] slots = slots_.clone();
+            slots[slot] = value;
+            return new CompactStructMap(schema_, slots);
+        }
+        else
+        {
+            final int noFields = slots_.length;
+            String[] keys = new String[noFields+1];
+            for(int i=0; i<noFields; ++i)
+                keys[i] = schema_.getKey(i);
+            keys[noFields] = key;
+            final StructSchema schema = new StructSchema(keys, /* from */ 0, noFields+1);
+            Object[] slots = new Object[noFields+1];
+            for(int idxField=0; idxField<=noFields; ++idxField)
+            {
+                slots[schema.slotOfField(idxField)] = idxField < noFields? slots_[idxField]
+                                                                         : value;
+            }
+            return new CompactStructMap(schema, slots);
+        }
+    } /* End of CompactStructMap.with */
+
+} /* End of class CompactStructMap definition. */
@@ -0,0 +1,1046 @@
+/**
+ * @file CompiledGroupCache.java
+ * A persistent cache of compiled StringTemplate V4 groups in a directory of the file
+ * system, which saves parsing group files in later processes.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class CompiledGroupCache
+ *   setDirectory
+ *   getDirectory
+ *   getNoHits
+ *   getNoMisses
+ *   getKey
+ *   getHash
+ *   restore
+ *   store
+ */
+
+package info;
+
+import java.util.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.antlr.runtime.CommonToken;
+import org.antlr.runtime.Token;
+import org.stringtemplate.v4.ST;
+import org.stringtemplate.v4.STGroup;
+import org.stringtemplate.v4.STGroupDir;
+import org.stringtemplate.v4.STGroupFile;
+import org.stringtemplate.v4.compiler.CompiledST;
+import org.stringtemplate.v4.compiler.FormalArgument;
+import org.stringtemplate.v4.misc.Interval;
+
+
+/**
+ * A persistent cache of compiled groups.<p>
+ *   Loading a group file means lexing, parsing and compiling all of its templates. For
+ * large template libraries this takes seconds, and each new Octave process repeats it.
+ * If a cache directory is configured, see {@link #setDirectory}, then {@link
+ * CachedSTGroupFile} stores the compiled form of each loaded group file in this
+ * directory. A later process restores the compiled templates from the cache and doesn't
+ * parse the group file at all.<p>
+ *   A cache file is named after the SHA-256 hash of the contents and the URL of the group
+ * file, of the version of the StringTemplate V4 engine and of the version of the cache
+ * file format. Any edit of the group file leads to another cache file. Each imported group
+ * file has a cache file of its own; a group is restored from the cache only as far as
+ * none of its files has changed.<p>
+ *   Several processes can share the cache directory. A cache file is written into a
+ * temporary file first, which is then atomically renamed; a reader never sees an
+ * incomplete file. A cache file, which can't be read, is ignored and the group file is
+ * parsed as if there were no cache.<p>
+ *   Group files, which import a single template file (.st) rather than a group file or
+ * template directory, are not cached.
+ */
+
+public final class CompiledGroupCache
+{
+    /** The global logger object for all progress and error reporting. */
+    private static SimpleLogger _logger = new SimpleLogger();
+
+    /** The version of the cache file format. It is part of the hash. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** The magic number at the beginning of a cache file. */
+    private static final int MAGIC = 0x53543443;
+
+    /** The file name extension of cache files. */
+    private static final String FILE_EXTENSION = ".st4c";
+
+    /** The kinds of imports. */
+    private static final byte IMPORT_GROUP_FILE = 0
+                            , IMPORT_GROUP_DIR = 1;
+
+    /** The kinds of values of dictionaries and of default values of formal arguments. */
+    private static final byte VALUE_NULL = 0
+                            , VALUE_STRING = 1
+                            , VALUE_BOOLEAN = 2
+                            , VALUE_EMPTY_LIST = 3
+                            , VALUE_DICT_KEY = 4
+                            , VALUE_TEMPLATE = 5;
+
+    /** The cache directory or null if the cache is disabled. */
+    private static volatile Path _directory = null;
+
+    /** The number of groups, which were restored from the cache. */
+    private static long _noHits = 0;
+
+    /** The number of groups, which were not found in the cache. */
+    private static long _noMisses = 0;
+
+
+    /**
+     * An element of a group, which can't be represented in the cache file.
+     */
+    private static final class NotCacheableException extends Exception
+    {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * A new instance of NotCacheableException is created.
+         *   @param msg
+         * The reason why the group can't be cached.
+         */
+        NotCacheableException(String msg)
+            { super(msg); }
+
+    } /* End of class NotCacheableException definition. */
+
+
+    /**
+     * The class is a collection of static methods; no instances are created.
+     */
+    private CompiledGroupCache()
+    {
+    } /* End of CompiledGroupCache.CompiledGroupCache */
+
+
+
+    /**
+     * Set the cache directory.
+     *   @param directory
+     * The name of the directory. It is created if it doesn't exist yet. Pass null or an
+     * empty string to disable the cache.
+     *   @throws IOException
+     * The directory can't be created.
+     */
+    public static void setDirectory(String directory) throws IOException
+    {
+        if(directory == null  ||  directory.isEmpty())
+            _directory = null;
+        else
+        {
+            final Path path = Paths.get(directory).toAbsolutePath();
+            Files.createDirectories(path);
+            _directory = path;
+        }
+    } /* End of CompiledGroupCache.setDirectory */
+
+
+
+    /**
+     * Get the cache directory.
+     *   @return Get the absolute path of the directory or null if the cache is disabled.
+     */
+    public static String getDirectory()
+    {
+        final Path directory = _directory;
+        return directory != null? directory.toString(): null;
+
+    } /* End of CompiledGroupCache.getDirectory */
+
+
+
+    /**
+     * Get the number of groups, which were restored from the cache.
+     *   @return Get the number.
+     */
+    public static synchronized long getNoHits()
+        { return _noHits; }
+
+
+
+    /**
+     * Get the number of groups, which were not found in the cache and which had to be
+     * parsed.
+     *   @return Get the number.
+     */
+    public static synchronized long getNoMisses()
+        { return _noMisses; }
+
+
+
+    /**
+     * Compute the cache key of a group file.
+     *   @return Get the key as string of hexadecimal digits or null if the cache is
+     * disabled or if the group file can't be read.
+     *   @param group
+     * The group.
+     */
+    static String getKey(STGroupFile group)
+    {
+        if(_directory == null)
+            return null;
+        return getHash(group);
+
+    } /* End of CompiledGroupCache.getKey */
+
+
+
+    /**
+     * Compute the SHA-256 hash of a group file. The hash covers the contents and the URL
+     * of the group file, its encoding and initial delimiters, the version of the
+     * StringTemplate V4 engine and the version of the cache file format.
+     *   @return Get the hash as string of hexadecimal digits or null if the group file
+     * can't be read.
+     *   @param group
+     * The group.
+     */
+    static String getHash(STGroupFile group)
+    {
+        if(group.url == null)
+            return null;
+
+        final MessageDigest md = newDigest();
+
+        /* Relative imports are resolved against the location of the group file and the
+           initial delimiters affect the compilation. Both are part of the key. */
+        final String header = FORMAT_VERSION + "\n" + ST.VERSION + "\n" + group.url + "\n"
+                              + group.encoding + "\n" + group.delimiterStartChar
+                              + group.delimiterStopChar + "\n";
+        md.update(header.getBytes(StandardCharsets.UTF_8));
+        try(InputStream in = group.url.openStream())
+        {
+            final byte[] buf = new byte[8192];
+            int noBytes;
+            while((noBytes = in.read(buf)) > 0)
+                md.update(buf, 0, noBytes);
+        }
+        catch(IOException e)
+        {
+            return null;
+        }
+        return toHexString(md.digest());
+
+    } /* End of CompiledGroupCache.getHash */
+
+
+
+    /**
+     * Compute the SHA-256 hash of the source text of a group, which is not loaded from a
+     * file. The hash covers the text, the initial delimiters, the version of the
+     * StringTemplate V4 engine and the version of the cache file format.
+     *   @return Get the hash as string of hexadecimal digits.
+     *   @param text
+     * The source text of the group.
+     *   @param delimiterStartChar
+     * The initial start character of template expressions.
+     *   @param delimiterStopChar
+     * The initial stop character of template expressions.
+     */
+    static String getHash(String text, char delimiterStartChar, char delimiterStopChar)
+    {
+        final MessageDigest md = newDigest();
+        final String header = FORMAT_VERSION + "\n" + ST.VERSION + "\n"
+                              + delimiterStartChar + delimiterStopChar + "\n";
+        md.update(header.getBytes(StandardCharsets.UTF_8));
+        md.update(text.getBytes(StandardCharsets.UTF_8));
+        return toHexString(md.digest());
+
+    } /* End of CompiledGroupCache.getHash */
+
+
+
+    /**
+     * Create a new SHA-256 message digest.
+     *   @return Get the digest.
+     */
+    private static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch(NoSuchAlgorithmException e)
+        {
+            /* Every Java platform is required to support SHA-256. */
+            throw new RuntimeException("SHA-256 is not available: " + e.getMessage());
+        }
+    } /* End of CompiledGroupCache.newDigest */
+
+
+
+    /**
+     * Format a hash value.
+     *   @return Get the hash as string of hexadecimal digits.
+     *   @param hash
+     * The bytes of the hash value.
+     */
+    private static String toHexString(byte[] hash)
+    {
+        final StringBuilder hex = new StringBuilder(2*hash.length);
+        for(byte b: hash)
+            hex.append(String.format("%02x", b));
+        return hex.toString();
+
+    } /* End of CompiledGroupCache.toHexString */
+
+
+
+    /**
+     * Restore a group from the cache.
+     *   @return Get true if the group has been restored. If false is returned then the
+     * group is unchanged and needs to be loaded from its group file.
+     *   @param group
+     * The group, which has not been loaded yet.
+     *   @param key
+     * The cache key of the group, see {@link #getKey}.
+     */
+    static boolean restore(CachedSTGroupFile group, String key)
+    {
+        final Path directory = _directory;
+        if(directory == null)
+            return false;
+
+        final Path file = directory.resolve(key + FILE_EXTENSION);
+        byte[] data = null;
+        try
+        {
+            data = Files.readAllBytes(file);
+        }
+        catch(NoSuchFileException e)
+        {
+        }
+        catch(IOException e)
+        {
+            _logger.debug("CompiledGroupCache: Can't read " + file + ": " + e.getMessage());
+        }
+
+        boolean success = false;
+        if(data != null)
+        {
+            try
+            {
+                read(group, new DataInputStream(new ByteArrayInputStream(data)));
+                success = true;
+            }
+            catch(IOException | RuntimeException e)
+            {
+                /* The restored group may be incomplete. It is loaded from the group file
+                   from scratch. */
+                _logger.debug("CompiledGroupCache: Ignore invalid cache file " + file
+                              + ": " + e
+                             );
+                group.unload();
+            }
+        }
+
+        synchronized(CompiledGroupCache.class)
+        {
+            if(success)
+                ++ _noHits;
+            else
+                ++ _noMisses;
+        }
+        if(success)
+        {
+            _logger.debug("CompiledGroupCache: " + group.url + " is restored from "
+                          + file
+                         );
+        }
+        return success;
+
+    } /* End of CompiledGroupCache.restore */
+
+
+
+    /**
+     * Store a loaded group in the cache. Problems are not reported, the group is simply
+     * not stored.
+     *   @param group
+     * The group, which has been loaded from its group file without errors.
+     *   @param key
+     * The cache key of the group, see {@link #getKey}.
+     */
+    static void store(CachedSTGroupFile group, String key)
+    {
+        final Path directory = _directory;
+        if(directory == null)
+            return;
+
+        final ByteArrayOutputStream data = new ByteArrayOutputStream(64*1024);
+        try
+        {
+            write(group, new DataOutputStream(data));
+        }
+        catch(NotCacheableException e)
+        {
+            _logger.debug("CompiledGroupCache: " + group.url + " is not cached: "
+                          + e.getMessage()
+                         );
+            return;
+        }
+        catch(IOException e)
+        {
+            /* Not possible with an in-memory stream. */
+            assert false;
+            return;
+        }
+
+        /* The file is written under a unique temporary name and renamed afterwards, so
+           that concurrent readers never see an incomplete file. Concurrent writers of
+           the same key write identical contents; the last rename wins. */
+        final Path file = directory.resolve(key + FILE_EXTENSION);
+        Path tmpFile = null;
+        try
+        {
+            tmpFile = Files.createTempFile(directory, key, ".tmp");
+            Files.write(tmpFile, data.toByteArray());
+            try
+            {
+                Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch(AtomicMoveNotSupportedException e)
+            {
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmpFile = null;
+            _logger.debug("CompiledGroupCache: " + group.url + " is stored in " + file);
+        }
+        catch(IOException e)
+        {
+            _logger.debug("CompiledGroupCache: Can't write " + file + ": "
+                          + e.getMessage()
+                         );
+        }
+        finally
+        {
+            if(tmpFile != null)
+            {
+                try
+                {
+                    Files.deleteIfExists(tmpFile);
+                }
+                catch(IOException e)
+                {
+                }
+            }
+        }
+    } /* End of CompiledGroupCache.store */
+
+
+
+    /**
+     * Write a loaded group.
+     *   @param group
+     * The group.
+     *   @param out
+     * The stream to write to.
+     *   @throws NotCacheableException
+     * The group contains an element, which can't be represented in the cache file.
+     *   @throws IOException
+     * Writing the stream failed.
+     */
+    private static void write(CachedSTGroupFile group, DataOutputStream out)
+        throws NotCacheableException, IOException
+    {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeChar(group.delimiterStartChar);
+        out.writeChar(group.delimiterStopChar);
+
+        /* The imports. */
+        final List<STGroup> imports = group.getImports();
+        out.writeInt(imports.size());
+        for(STGroup importedGroup: imports)
+        {
+            if(importedGroup instanceof STGroupFile)
+            {
+                final STGroupFile groupFile = (STGroupFile)importedGroup;
+                out.writeByte(IMPORT_GROUP_FILE);
+                writeString(out, groupFile.url.toString());
+                writeString(out, groupFile.encoding);
+                if(groupFile instanceof CachedSTGroupFile)
+                {
+                    /* The imported group may have been loaded and redefined its
+                       delimiters. */
+                    final CachedSTGroupFile cachedGroupFile = (CachedSTGroupFile)groupFile;
+                    out.writeChar(cachedGroupFile.initialDelimiterStartChar_);
+                    out.writeChar(cachedGroupFile.initialDelimiterStopChar_);
+                }
+                else
+                {
+                    out.writeChar(groupFile.delimiterStartChar);
+                    out.writeChar(groupFile.delimiterStopChar);
+                }
+            }
+            else if(importedGroup.getClass() == STGroupDir.class)
+            {
+                final STGroupDir groupDir = (STGroupDir)importedGroup;
+                out.writeByte(IMPORT_GROUP_DIR);
+                writeString(out, groupDir.root.toString());
+                writeString(out, groupDir.encoding);
+                out.writeChar(groupDir.delimiterStartChar);
+                out.writeChar(groupDir.delimiterStopChar);
+            }
+            else
+                throw new NotCacheableException("Import of " + importedGroup.getName());
+        }
+
+        /* All compiled templates, including the implicitly defined ones and the compiled
+           default values of arguments, are numbered. Templates refer to each other by
+           number. */
+        final Map<String,CompiledST> templates = group.getCompiledTemplates();
+        final Map<String,Map<String,Object>> dictionaries = group.getDictionaries();
+        final IdentityHashMap<CompiledST,Integer> idByTemplate = new IdentityHashMap<>();
+        final List<CompiledST> templateList = new ArrayList<>();
+        for(CompiledST compiledST: templates.values())
+            numberTemplates(compiledST, idByTemplate, templateList);
+        for(Map<String,Object> dict: dictionaries.values())
+        {
+            for(Object value: dict.values())
+            {
+                if(value instanceof ST)
+                    numberTemplates(((ST)value).impl, idByTemplate, templateList);
+            }
+        }
+
+        out.writeInt(templateList.size());
+        for(CompiledST compiledST: templateList)
+        {
+            if(compiledST.nativeGroup != group)
+                throw new NotCacheableException("Template " + compiledST.name);
+            writeTemplate(out, compiledST, idByTemplate);
+        }
+
+        out.writeInt(templates.size());
+        for(Map.Entry<String,CompiledST> entry: templates.entrySet())
+        {
+            writeString(out, entry.getKey());
+            out.writeInt(idByTemplate.get(entry.getValue()));
+        }
+
+        out.writeInt(dictionaries.size());
+        for(Map.Entry<String,Map<String,Object>> entry: dictionaries.entrySet())
+        {
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for(Map.Entry<String,Object> keyValue: entry.getValue().entrySet())
+            {
+                writeString(out, keyValue.getKey());
+                writeValue(out, keyValue.getValue(), idByTemplate);
+            }
+        }
+    } /* End of CompiledGroupCache.write */
+
+
+
+    /**
+     * Assign numbers to a compiled template and to all templates it refers to.
+     *   @param compiledST
+     * The compiled template.
+     *   @param idByTemplate
+     * The numbers of the templates, which have been visited so far.
+     *   @param templateList
+     * The templates in order of their numbers.
+     */
+    private static void numberTemplates( CompiledST compiledST
+                                       , IdentityHashMap<CompiledST,Integer> idByTemplate
+                                       , List<CompiledST> templateList
+                                       )
+    {
+        if(compiledST == null  ||  idByTemplate.containsKey(compiledST))
+            return;
+
+        idByTemplate.put(compiledST, templateList.size());
+        templateList.add(compiledST);
+        if(compiledST.implicitlyDefinedTemplates != null)
+        {
+            for(CompiledST sub: compiledST.implicitlyDefinedTemplates)
+                numberTemplates(sub, idByTemplate, templateList);
+        }
+        if(compiledST.formalArguments != null)
+        {
+            for(FormalArgument arg: compiledST.formalArguments.values())
+                numberTemplates(arg.compiledDefaultValue, idByTemplate, templateList);
+        }
+    } /* End of CompiledGroupCache.numberTemplates */
+
+
+
+    /**
+     * Write a compiled template. The abstract syntax tree and the token stream are not
+     * written; they are not required for rendering.
+     *   @param out
+     * The stream to write to.
+     *   @param compiledST
+     * The compiled template.
+     *   @param idByTemplate
+     * The numbers of all templates.
+     *   @throws NotCacheableException
+     * A default value can't be represented in the cache file.
+     *   @throws IOException
+     * Writing the stream failed.
+     */
+    private static void writeTemplate( DataOutputStream out
+                                     , CompiledST compiledST
+                                     , IdentityHashMap<CompiledST,Integer> idByTemplate
+                                     )
+        throws NotCacheableException, IOException
+    {
+        writeString(out, compiledST.name);
+        writeString(out, compiledST.prefix);
+        writeString(out, compiledST.template);
+        writeToken(out, compiledST.templateDefStartToken);
+
+        if(compiledST.formalArguments != null)
+        {
+            out.writeInt(compiledST.formalArguments.size());
+            for(FormalArgument arg: compiledST.formalArguments.values())
+            {
+                writeString(out, arg.name);
+                out.writeInt(arg.index);
+                writeToken(out, arg.defaultValueToken);
+                writeValue(out, arg.defaultValue, idByTemplate);
+                out.writeInt(arg.compiledDefaultValue != null
+                             ? idByTemplate.get(arg.compiledDefaultValue)
+                             : -1
+                            );
+            }
+        }
+        else
+            out.writeInt(-1);
+        out.writeBoolean(compiledST.hasFormalArgs);
+        out.writeInt(compiledST.numberOfArgsWithDefaultValues);
+
+        if(compiledST.implicitlyDefinedTemplates != null)
+        {
+            out.writeInt(compiledST.implicitlyDefinedTemplates.size());
+            for(CompiledST sub: compiledST.implicitlyDefinedTemplates)
+                out.writeInt(idByTemplate.get(sub));
+        }
+        else
+            out.writeInt(-1);
+
+        out.writeBoolean(compiledST.isRegion);
+        out.writeInt(compiledST.regionDefType != null? compiledST.regionDefType.ordinal(): -1);
+        out.writeBoolean(compiledST.isAnonSubtemplate);
+
+        if(compiledST.strings != null)
+        {
+            out.writeInt(compiledST.strings.length);
+            for(String s: compiledST.strings)
+                writeString(out, s);
+        }
+        else
+            out.writeInt(-1);
+
+        out.writeInt(compiledST.codeSize);
+        if(compiledST.instrs != null)
+        {
+            out.writeInt(compiledST.instrs.length);
+            out.write(compiledST.instrs);
+        }
+        else
+            out.writeInt(-1);
+
+        if(compiledST.sourceMap != null)
+        {
+            out.writeInt(compiledST.sourceMap.length);
+            for(Interval interval: compiledST.sourceMap)
+            {
+                out.writeBoolean(interval != null);
+                if(interval != null)
+                {
+                    out.writeInt(interval.a);
+                    out.writeInt(interval.b);
+                }
+            }
+        }
+        else
+            out.writeInt(-1);
+
+    } /* End of CompiledGroupCache.writeTemplate */
+
+
+
+    /**
+     * Write a value of a dictionary or a default value of a formal argument.
+     *   @param out
+     * The stream to write to.
+     *   @param value
+     * The value.
+     *   @param idByTemplate
+     * The numbers of all templates.
+     *   @throws NotCacheableException
+     * The value is of an unexpected type.
+     *   @throws IOException
+     * Writing the stream failed.
+     */
+    private static void writeValue( DataOutputStream out
+                                  , Object value
+                                  , IdentityHashMap<CompiledST,Integer> idByTemplate
+                                  )
+        throws NotCacheableException, IOException
+    {
+        if(value == null)
+            out.writeByte(VALUE_NULL);
+        else if(value == STGroup.DICT_KEY)
+            out.writeByte(VALUE_DICT_KEY);
+        else if(value instanceof String)
+        {
+            out.writeByte(VALUE_STRING);
+            writeString(out, (String)value);
+        }
+        else if(value instanceof Boolean)
+        {
+            out.writeByte(VALUE_BOOLEAN);
+            out.writeBoolean((Boolean)value);
+        }
+        else if(value instanceof List  &&  ((List<?>)value).isEmpty())
+            out.writeByte(VALUE_EMPTY_LIST);
+        else if(value instanceof ST  &&  idByTemplate.containsKey(((ST)value).impl))
+        {
+            out.writeByte(VALUE_TEMPLATE);
+            out.writeInt(idByTemplate.get(((ST)value).impl));
+        }
+        else
+            throw new NotCacheableException("Value of type " + value.getClass().getName());
+
+    } /* End of CompiledGroupCache.writeValue */
+
+
+
+    /**
+     * Write a token. Only the information for error reporting and for the evaluation of
+     * default values is written.
+     *   @param out
+     * The stream to write to.
+     *   @param token
+     * The token or null.
+     *   @throws IOException
+     * Writing the stream failed.
+     */
+    private static void writeToken(DataOutputStream out, Token token) throws IOException
+    {
+        out.writeBoolean(token != null);
+        if(token != null)
+        {
+            out.writeInt(token.getType());
+            writeString(out, token.getText());
+            out.writeInt(token.getLine());
+            out.writeInt(token.getCharPositionInLine());
+        }
+    } /* End of CompiledGroupCache.writeToken */
+
+
+
+    /**
+     * Write a string of any length.
+     *   @param out
+     * The stream to write to.
+     *   @param s
+     * The string or null.
+     *   @throws IOException
+     * Writing the stream failed.
+     */
+    private static void writeString(DataOutputStream out, String s) throws IOException
+    {
+        if(s != null)
+        {
+            final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        else
+            out.writeInt(-1);
+
+    } /* End of CompiledGroupCache.writeString */
+
+
+
+    /**
+     * Read a group, which had been written by {@link #write}, into a group, which has not
+     * been loaded yet.
+     *   @param group
+     * The group.
+     *   @param in
+     * The stream to read from.
+     *   @throws IOException
+     * The stream can't be read or it is not a valid cache file.
+     */
+    private static void read(CachedSTGroupFile group, DataInputStream in) throws IOException
+    {
+        if(in.readInt() != MAGIC  ||  in.readInt() != FORMAT_VERSION)
+            throw new IOException("Not a cache file of the expected format version");
+        group.delimiterStartChar = in.readChar();
+        group.delimiterStopChar = in.readChar();
+
+        /* The imports. Imported group files are shared with other groups if possible,
+           otherwise they are restored from the cache on first use. */
+        final int noImports = in.readInt();
+        for(int i=0; i<noImports; ++i)
+        {
+            final byte kind = in.readByte();
+            final URL url = new URL(readString(in));
+            final String encoding = readString(in);
+            final char delimiterStartChar = in.readChar()
+                     , delimiterStopChar = in.readChar();
+            if(kind == IMPORT_GROUP_FILE)
+            {
+                group.addImport(CachedSTGroupFile.newImport( url
+                                                           , encoding
+                                                           , delimiterStartChar
+                                                           , delimiterStopChar
+                                                           )
+                               );
+            }
+            else if(kind == IMPORT_GROUP_DIR)
+            {
+                group.addImport(new STGroupDir( url
+                                              , encoding
+                                              , delimiterStartChar
+                                              , delimiterStopChar
+                                              )
+                               );
+            }
+            else
+                throw new IOException("Bad kind of import " + kind);
+        }
+
+        /* The templates are created first, so that they can refer to each other. */
+        final CompiledST[] templateAry = new CompiledST[in.readInt()];
+        for(int i=0; i<templateAry.length; ++i)
+            templateAry[i] = new CompiledST();
+        for(CompiledST compiledST: templateAry)
+            readTemplate(in, group, compiledST, templateAry);
+
+        final int noTemplates = in.readInt();
+        for(int i=0; i<noTemplates; ++i)
+        {
+            final String name = readString(in);
+            group.putCompiledTemplate(name, templateAry[in.readInt()]);
+        }
+
+        final int noDictionaries = in.readInt();
+        final Map<String,Map<String,Object>> dictionaries = group.getDictionaries();
+        for(int i=0; i<noDictionaries; ++i)
+        {
+            final String name = readString(in);
+            final int noEntries = in.readInt();
+            final Map<String,Object> dict = new HashMap<>();
+            for(int j=0; j<noEntries; ++j)
+            {
+                final String key = readString(in);
+                dict.put(key, readValue(in, group, templateAry));
+            }
+            dictionaries.put(name, dict);
+        }
+    } /* End of CompiledGroupCache.read */
+
+
+
+    /**
+     * Read a compiled template, which had been written by {@link #writeTemplate}.
+     *   @param in
+     * The stream to read from.
+     *   @param group
+     * The group, which owns the template.
+     *   @param compiledST
+     * The new, empty compiled template to fill.
+     *   @param templateAry
+     * All templates of the group by number.
+     *   @throws IOException
+     * The stream can't be read or it is not a valid cache file.
+     */
+    private static void readTemplate( DataInputStream in
+                                    , STGroup group
+                                    , CompiledST compiledST
+                                    , CompiledST[] templateAry
+                                    )
+        throws IOException
+    {
+        compiledST.name = readString(in);
+        compiledST.prefix = readString(in);
+        compiledST.template = readString(in);
+        compiledST.templateDefStartToken = readToken(in);
+        compiledST.nativeGroup = group;
+
+        final int noArgs = in.readInt();
+        if(noArgs >= 0)
+        {
+            compiledST.formalArguments = new LinkedHashMap<>();
+            for(int i=0; i<noArgs; ++i)
+            {
+                final FormalArgument arg = new FormalArgument(readString(in));
+                arg.index = in.readInt();
+                arg.defaultValueToken = readToken(in);
+                arg.defaultValue = readValue(in, group, templateAry);
+                final int idDefault = in.readInt();
+                arg.compiledDefaultValue = idDefault >= 0? templateAry[idDefault]: null;
+                compiledST.formalArguments.put(arg.name, arg);
+            }
+        }
+        compiledST.hasFormalArgs = in.readBoolean();
+        compiledST.numberOfArgsWithDefaultValues = in.readInt();
+
+        final int noSubs = in.readInt();
+        if(noSubs >= 0)
+        {
+            compiledST.implicitlyDefinedTemplates = new ArrayList<>(noSubs);
+            for(int i=0; i<noSubs; ++i)
+                compiledST.implicitlyDefinedTemplates.add(templateAry[in.readInt()]);
+        }
+
+        compiledST.isRegion = in.readBoolean();
+        final int regionDefType = in.readInt();
+        compiledST.regionDefType = regionDefType >= 0
+                                   ? ST.RegionType.values()[regionDefType]
+                                   : null;
+        compiledST.isAnonSubtemplate = in.readBoolean();
+
+        final int noStrings = in.readInt();
+        if(noStrings >= 0)
+        {
+            compiledST.strings = new String[noStrings];
+            for(int i=0; i<noStrings; ++i)
+                compiledST.strings[i] = readString(in);
+        }
+        else
+            compiledST.strings = null;
+
+        compiledST.codeSize = in.readInt();
+        final int noInstrs = in.readInt();
+        if(noInstrs >= 0)
+        {
+            compiledST.instrs = new byte[noInstrs];
+            in.readFully(compiledST.instrs);
+        }
+        else
+            compiledST.instrs = null;
+
+        final int noIntervals = in.readInt();
+        if(noIntervals >= 0)
+        {
+            compiledST.sourceMap = new Interval[noIntervals];
+            for(int i=0; i<noIntervals; ++i)
+            {
+                if(in.readBoolean())
+                    compiledST.sourceMap[i] = new Interval(in.readInt(), in.readInt());
+            }
+        }
+        else
+            compiledST.sourceMap = null;
+
+    } /* End of CompiledGroupCache.readTemplate */
+
+
+
+    /**
+     * Read a value, which had been written by {@link #writeValue}.
+     *   @return Get the value.
+     *   @param in
+     * The stream to read from.
+     *   @param group
+     * The group, which owns the value.
+     *   @param templateAry
+     * All templates of the group by number.
+     *   @throws IOException
+     * The stream can't be read or it is not a valid cache file.
+     */
+    private static Object readValue( DataInputStream in
+                                   , STGroup group
+                                   , CompiledST[] templateAry
+                                   )
+        throws IOException
+    {
+        final byte kind = in.readByte();
+        switch(kind)
+        {
+        case VALUE_NULL:
+            return null;
+        case VALUE_STRING:
+            return readString(in);
+        case VALUE_BOOLEAN:
+            return in.readBoolean();
+        case VALUE_EMPTY_LIST:
+            return Collections.emptyList();
+        case VALUE_DICT_KEY:
+            return STGroup.DICT_KEY;
+        case VALUE_TEMPLATE:
+            return group.createStringTemplateInternally(templateAry[in.readInt()]);
+        default:
+            throw new IOException("Bad kind of value " + kind);
+        }
+    } /* End of CompiledGroupCache.readValue */
+
+
+
+    /**
+     * Read a token, which had been written by {@link #writeToken}.
+     *   @return Get the token or null.
+     *   @param in
+     * The stream to read from.
+     *   @throws IOException
+     * The stream can't be read.
+     */
+    private static Token readToken(DataInputStream in) throws IOException
+    {
+        if(!in.readBoolean())
+            return null;
+        final CommonToken token = new CommonToken(in.readInt(), readString(in));
+        token.setLine(in.readInt());
+        token.setCharPositionInLine(in.readInt());
+        return token;
+
+    } /* End of CompiledGroupCache.readToken */
+
+
+
+    /**
+     * Read a string, which had been written by {@link #writeString}.
+     *   @return Get the string or null.
+     *   @param in
+     * The stream to read from.
+     *   @throws IOException
+     * The stream can't be read.
+     */
+    private static String readString(DataInputStream in) throws IOException
+    {
+        final int noBytes = in.readInt();
+        if(noBytes < 0)
+            return null;
+        final byte[] bytes = new byte[noBytes];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+
+    } /* End of CompiledGroupCache.readString */
+
+} /* End of class CompiledGroupCache definition. */
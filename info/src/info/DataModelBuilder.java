@@ -0,0 +1,1082 @@
+/**
+ * @file DataModelBuilder.java
+ * Build the StringTemplate V4 representation of an Octave data object inside the JVM. The
+ * Octave side flattens its data object into a few primitive arrays, which are transferred
+ * in a single call of the Octave-Java bridge. This class reconstructs the nested structure
+ * of Maps and Lists from these arrays.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class DataModelBuilder
+ *   DataModelBuilder
+ *   build
+ *   buildLazy
+ *   setParallelThreshold
+ *   getParallelThreshold
+ *   setTextArenaThreshold
+ *   getTextArenaThreshold
+ *   toIntArray
+ *   toLongArray
+ *   toDoubleArray
+ *   toByteArray
+ *   toStringArray
+ *   toObjectArray
+ *   getNoNodes
+ *   endOfNode
+ *   childNodesOf
+ *   buildNode
+ *   schemaOf
+ *   isFloatClass
+ */
+
+package info;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+
+/**
+ * Builder of the StringTemplate V4 attribute graph from a flattened Octave data object.<p>
+ *   Converting an Octave data object element by element, using one call of the
+ * Octave-Java bridge per struct field and per array element, is very expensive for larger
+ * data models. Instead, the Octave function render.m flattens the data object into a
+ * small number of primitive arrays, which are transferred in one go. This class
+ * reconstructs the equivalent structure of Java Maps and Lists.<p>
+ *   The flattened representation is a tape of nodes in pre-order. Each node occupies
+ * three consecutive integers in the tape: its kind and two kind dependent arguments a and
+ * b. The kinds are:<p>
+ *   - {@link #KIND_NULL}: An empty Octave object, it becomes Java null. a and b are unused<p>
+ *   - {@link #KIND_STRING}: A character string. a is the offset into the UTF-8 encoded
+ * text column, b is the number of bytes<p>
+ *   - {@link #KIND_OBJECT}: Any object, which has been passed through the Octave-Java
+ * bridge as it is, e.g. an already wrapped Java object. a is the index into the object
+ * column. A {@link DataModelHandle} is replaced by the data model it refers to<p>
+ *   - {@link #KIND_LIST}: A list, which is followed by its elements in the tape. a is the
+ * number of elements, b is the index of the first node behind the list's sub-tree<p>
+ *   - {@link #KIND_STRUCT}: A struct, which is followed by the values of its fields in the
+ * tape. a is the index of the field name schema, b is the index of the first node behind
+ * the struct's sub-tree<p>
+ *   - {@link #KIND_SCALAR} + class: A numeric scalar of given Octave class. a is the
+ * index into the double column (classes double, single and logical) or into the long
+ * column (all integer classes)<p>
+ *   - {@link #KIND_ARRAY} + class: A numeric array of given Octave class. a is the offset
+ * into the double or long column, where the elements are found in column-major order; b
+ * is the index into the dimensions column. The dimensions column holds the number of
+ * dimensions at this index, followed by the size in each dimension. The array becomes a
+ * read-only view on the column, see {@link ArrayView} and {@link MatrixView}<p>
+ *   - {@link #KIND_SPARSE} + class: A sparse matrix of Octave class double or logical in
+ * compressed column format. a is the offset into the double column, where the values of
+ * the non-zero elements are found in column-major order; b is the index into the
+ * dimensions column, which holds the number of rows, the number of columns, the number
+ * nnz of non-zero elements and the offset into the long column at this index. The long
+ * column holds the nnz null based row indexes of the elements at this offset, followed by
+ * the index of the first element of each column and nnz as final end index. The matrix
+ * becomes a {@link SparseMatrixView}<p>
+ *   A field name schema is a run of consecutive field names in the field name column. The
+ * schema offsets column holds the index of the first field name of each schema; it has one
+ * more element than there are schemas. The values of a struct's fields follow the struct
+ * node in the same order as the names in its schema.<p>
+ *   The conversion can be eager or lazy. An eager conversion, see {@link #build()},
+ * builds the complete graph of Java objects at once. A lazy conversion, see {@link
+ * #buildLazy()}, represents lists and structs by {@link LazyList} and {@link
+ * LazyStructMap}, which refer to this builder and convert their elements only when they
+ * are read for the first time.<p>
+ *   The columns are held as java.nio buffers. Normally, these wrap the arrays received
+ * from Octave; for a data model file, see {@link MappedDataModel}, they are views on the
+ * memory mapped file.<p>
+ *   The eager conversion of large lists is done in parallel: A list with at least {@link
+ * #getParallelThreshold()} elements is split into chunks, which are built by the tasks
+ * of a fork-join pool. The elements are assembled in their original order. Smaller lists
+ * are built sequentially.<p>
+ *   Strings are pooled per conversion: A string, which is repeated in the data object,
+ * becomes a single Java String object, see {@link StringPool}. Strings of at least {@link
+ * #getTextArenaThreshold()} Byte are not decoded at all but represented as {@link
+ * Utf8Text}, a view on the transferred UTF-8 encoded text column.
+ */
+
+public class DataModelBuilder
+{
+    /** The global logger object for all progress and error reporting. */
+    private static SimpleLogger _logger = new SimpleLogger();
+
+    /** The minimum number of elements of a list, which is built in parallel. */
+    private static volatile int _parallelThreshold = 2048;
+
+    /** The minimum number of UTF-8 encoded bytes of a string, which is represented as
+        {@link Utf8Text} rather than as String. */
+    private static volatile int _textArenaThreshold = Integer.MAX_VALUE;
+
+    /** Node kind: An empty Octave object, represented by Java null. */
+    public static final int KIND_NULL = 0;
+
+    /** Node kind: A character string. */
+    public static final int KIND_STRING = 1;
+
+    /** Node kind: An object, which is taken as it is. */
+    public static final int KIND_OBJECT = 2;
+
+    /** Node kind: A list of elements; cell arrays and arrays of structs. */
+    public static final int KIND_LIST = 3;
+
+    /** Node kind: A struct. */
+    public static final int KIND_STRUCT = 4;
+
+    /** Node kind: A numeric scalar. The kind is the sum of this value and the numeric
+        class, e.g. {@code KIND_SCALAR + CLASS_INT16}. */
+    public static final int KIND_SCALAR = 16;
+
+    /** Node kind: A numeric array. The kind is the sum of this value and the numeric
+        class, e.g. {@code KIND_ARRAY + CLASS_DOUBLE}. */
+    public static final int KIND_ARRAY = 32;
+
+    /** Node kind: A sparse matrix. The kind is the sum of this value and the numeric
+        class, which is either {@code CLASS_DOUBLE} or {@code CLASS_LOGICAL}. */
+    public static final int KIND_SPARSE = 48;
+
+    /** Numeric class: Octave's double. The value is held in the double column. */
+    public static final int CLASS_DOUBLE = 0;
+
+    /** Numeric class: Octave's single. The value is held in the double column. */
+    public static final int CLASS_SINGLE = 1;
+
+    /** Numeric class: Octave's logical. The value is held in the double column. */
+    public static final int CLASS_LOGICAL = 2;
+
+    /** Numeric class: Octave's int8. This and all other integer classes are held in the
+        long column. */
+    public static final int CLASS_INT8 = 3;
+
+    /** Numeric class: Octave's uint8. */
+    public static final int CLASS_UINT8 = 4;
+
+    /** Numeric class: Octave's int16. */
+    public static final int CLASS_INT16 = 5;
+
+    /** Numeric class: Octave's uint16. */
+    public static final int CLASS_UINT16 = 6;
+
+    /** Numeric class: Octave's int32. */
+    public static final int CLASS_INT32 = 7;
+
+    /** Numeric class: Octave's uint32. */
+    public static final int CLASS_UINT32 = 8;
+
+    /** Numeric class: Octave's int64. */
+    public static final int CLASS_INT64 = 9;
+
+    /** Numeric class: Octave's uint64. The value is held in the long column with the
+        same Bits, i.e. values beyond 2^63-1 appear negative. */
+    public static final int CLASS_UINT64 = 10;
+
+    /** The tape of nodes in pre-order, three integers per node. */
+    private final IntBuffer tape_;
+
+    /** The number of nodes in the tape. */
+    private final int noNodes_;
+
+    /** The field names of all struct schemas. */
+    private final String[] fieldNames_;
+
+    /** The index of the first field name of each schema plus a final end index. */
+    private final IntBuffer schemaOffsets_;
+
+    /** The schemas, which are shared by all structs of same fields. An element is
+        created on first use. */
+    private final StructSchema[] schemas_;
+
+    /** All strings as a single UTF-8 encoded byte sequence. */
+    private final ByteBuffer text_;
+
+    /** The pool of strings, which have been decoded by this conversion. */
+    private final StringPool stringPool_;
+
+    /** The values of all numbers of floating point or logical class. */
+    private final DoubleBuffer doubles_;
+
+    /** The values of all numbers of integer class. */
+    private final LongBuffer longs_;
+
+    /** The dimensions of all numeric arrays. */
+    private final IntBuffer dims_;
+
+    /** Objects, which are taken as they are. */
+    private final Object[] objects_;
+
+    /** If true, lists and structs are not converted but represented by lazy wrappers. */
+    private boolean isLazy_ = false;
+
+
+    /**
+     * A new instance of DataModelBuilder is created. The columns of the flattened data
+     * object are stored; the actual conversion is done by {@link #build()}.<p>
+     *   The Octave-Java bridge translates an empty Octave object into Java null. Therefore,
+     * null is accepted for all columns, which are not required by the given tape.
+     *   @param tape
+     * The nodes in pre-order, three integers per node, see class description.
+     *   @param fieldNames
+     * The field names of all struct schemas.
+     *   @param schemaOffsets
+     * The index of the first field name of each schema plus a final end index.
+     *   @param text
+     * All strings as a single UTF-8 encoded byte sequence.
+     *   @param doubles
+     * The values of all numbers of class double, single or logical.
+     *   @param longs
+     * The values of all numbers of an integer class. A uint64 number is stored with its
+     * Bits unchanged.
+     *   @param dims
+     * The dimensions of the numeric arrays.
+     *   @param objects
+     * Objects, which are taken as they are.
+     *   @throws IllegalArgumentException
+     * The exception is thrown if the tape doesn't consist of triplets of integers.
+     */
+    public DataModelBuilder( int[] tape
+                           , String[] fieldNames
+                           , int[] schemaOffsets
+                           , byte[] text
+                           , double[] doubles
+                           , long[] longs
+                           , int[] dims
+                           , Object[] objects
+                           )
+    {
+        this( IntBuffer.wrap(tape != null? tape: new int[0])
+            , fieldNames
+            , IntBuffer.wrap(schemaOffsets != null? schemaOffsets: new int[] {0})
+            , ByteBuffer.wrap(text != null? text: new byte[0])
+            , DoubleBuffer.wrap(doubles != null? doubles: new double[0])
+            , LongBuffer.wrap(longs != null? longs: new long[0])
+            , IntBuffer.wrap(dims != null? dims: new int[0])
+            , objects
+            );
+    } /* End of DataModelBuilder.DataModelBuilder */
+
+
+
+    /**
+     * A new instance of DataModelBuilder is created on columns, which are held in
+     * java.nio buffers. The buffers are used with absolute indexes; their position is
+     * irrelevant.
+     *   @param tape
+     * The nodes in pre-order, three integers per node, see class description.
+     *   @param fieldNames
+     * The field names of all struct schemas or null if there are none.
+     *   @param schemaOffsets
+     * The index of the first field name of each schema plus a final end index.
+     *   @param text
+     * All strings as a single UTF-8 encoded byte sequence.
+     *   @param doubles
+     * The values of all numbers of class double, single or logical.
+     *   @param longs
+     * The values of all numbers of an integer class.
+     *   @param dims
+     * The dimensions of the numeric arrays.
+     *   @param objects
+     * Objects, which are taken as they are, or null if there are none.
+     *   @throws IllegalArgumentException
+     * The exception is thrown if the tape doesn't consist of triplets of integers.
+     */
+    DataModelBuilder( IntBuffer tape
+                    , String[] fieldNames
+                    , IntBuffer schemaOffsets
+                    , ByteBuffer text
+                    , DoubleBuffer doubles
+                    , LongBuffer longs
+                    , IntBuffer dims
+                    , Object[] objects
+                    )
+    {
+        tape_ = tape;
+        if(tape_.limit() % 3 != 0)
+        {
+            throw new IllegalArgumentException("The length of the data model tape needs"
+                                               + " to be a multiple of three but is "
+                                               + tape_.limit()
+                                              );
+        }
+        noNodes_ = tape_.limit() / 3;
+        fieldNames_ = fieldNames != null? fieldNames: new String[0];
+        schemaOffsets_ = schemaOffsets;
+        schemas_ = new StructSchema[Math.max(0, schemaOffsets_.limit() - 1)];
+        text_ = text;
+        stringPool_ = new StringPool(text_);
+        doubles_ = doubles;
+        longs_ = longs;
+        dims_ = dims;
+        objects_ = objects != null? objects: new Object[0];
+
+    } /* End of DataModelBuilder.DataModelBuilder */
+
+
+
+    /**
+     * Convert the flattened data object in a single call. This is the normal entry point
+     * for the Octave script render.m, which this way crosses the Octave-Java bridge only
+     * once per template attribute.<p>
+     *   The arguments are the same as for the constructor {@link #DataModelBuilder} but
+     * they are accepted as Object: The Octave-Java bridge translates an Octave vector of
+     * length one into a boxed scalar rather than into an array of one element, so the
+     * type of the received Java object depends on the actual data. The arguments are
+     * normalized to the expected array types.
+     *   @return Get the Java object, which represents the Octave data object. null is
+     * returned for an empty tape.
+     *   @param tape See {@link #DataModelBuilder}.
+     *   @param fieldNames See {@link #DataModelBuilder}.
+     *   @param schemaOffsets See {@link #DataModelBuilder}.
+     *   @param text See {@link #DataModelBuilder}.
+     *   @param doubles See {@link #DataModelBuilder}.
+     *   @param longs See {@link #DataModelBuilder}.
+     *   @param dims See {@link #DataModelBuilder}.
+     *   @param objects See {@link #DataModelBuilder}.
+     */
+    public static Object build( Object tape
+                              , Object fieldNames
+                              , Object schemaOffsets
+                              , Object text
+                              , Object doubles
+                              , Object longs
+                              , Object dims
+                              , Object objects
+                              )
+    {
+        return new DataModelBuilder( toIntArray(tape)
+                                   , toStringArray(fieldNames)
+                                   , toIntArray(schemaOffsets)
+                                   , toByteArray(text)
+                                   , toDoubleArray(doubles)
+                                   , toLongArray(longs)
+                                   , toIntArray(dims)
+                                   , toObjectArray(objects)
+                                   ).build();
+
+    } /* End of DataModelBuilder.build */
+
+
+
+    /**
+     * Convert the flattened data object lazily in a single call. This is the entry point
+     * for the Octave script render.m if a template typically reads only a small part of
+     * a large data model. The arguments are the same as for {@link #build(Object, Object,
+     * Object, Object, Object, Object, Object, Object)}.
+     *   @return Get the Java object, which represents the Octave data object. Lists and
+     * structs are represented by lazy wrappers, which convert their elements on first
+     * access. null is returned for an empty tape.
+     *   @param tape See {@link #DataModelBuilder}.
+     *   @param fieldNames See {@link #DataModelBuilder}.
+     *   @param schemaOffsets See {@link #DataModelBuilder}.
+     *   @param text See {@link #DataModelBuilder}.
+     *   @param doubles See {@link #DataModelBuilder}.
+     *   @param longs See {@link #DataModelBuilder}.
+     *   @param dims See {@link #DataModelBuilder}.
+     *   @param objects See {@link #DataModelBuilder}.
+     */
+    public static Object buildLazy( Object tape
+                                  , Object fieldNames
+                                  , Object schemaOffsets
+                                  , Object text
+                                  , Object doubles
+                                  , Object longs
+                                  , Object dims
+                                  , Object objects
+                                  )
+    {
+        return new DataModelBuilder( toIntArray(tape)
+                                   , toStringArray(fieldNames)
+                                   , toIntArray(schemaOffsets)
+                                   , toByteArray(text)
+                                   , toDoubleArray(doubles)
+                                   , toLongArray(longs)
+                                   , toIntArray(dims)
+                                   , toObjectArray(objects)
+                                   ).buildLazy();
+
+    } /* End of DataModelBuilder.buildLazy */
+
+
+
+    /**
+     * Set the minimum size of lists, which are built in parallel by an eager conversion.
+     * The setting is global; it affects all later conversions.
+     *   @param parallelThreshold
+     * The minimum number of list elements. Lists with fewer elements are built
+     * sequentially. Pass {@code Integer.MAX_VALUE} to disable the parallel conversion.
+     */
+    public static void setParallelThreshold(int parallelThreshold)
+    {
+        if(parallelThreshold < 2)
+        {
+            throw new IllegalArgumentException("The minimum size of lists, which are"
+                                               + " converted in parallel, needs to be at"
+                                               + " least two but is " + parallelThreshold
+                                              );
+        }
+        _parallelThreshold = parallelThreshold;
+
+    } /* End of DataModelBuilder.setParallelThreshold */
+
+
+
+    /**
+     * Get the minimum size of lists, which are built in parallel by an eager conversion.
+     *   @return Get the minimum number of list elements.
+     */
+    public static int getParallelThreshold()
+        { return _parallelThreshold; }
+
+
+
+    /**
+     * Set the minimum size of strings, which are kept in their UTF-8 encoding and decoded
+     * only when rendered. The setting is global; it affects all later conversions.
+     *   @param textArenaThreshold
+     * The minimum number of UTF-8 encoded bytes. Shorter strings become Java String
+     * objects. Pass {@code Integer.MAX_VALUE}, which is the default, to disable the UTF-8
+     * representation.
+     */
+    public static void setTextArenaThreshold(int textArenaThreshold)
+    {
+        if(textArenaThreshold < 1)
+        {
+            throw new IllegalArgumentException("The minimum size of strings, which are"
+                                               + " kept UTF-8 encoded, needs to be"
+                                               + " positive but is " + textArenaThreshold
+                                              );
+        }
+        _textArenaThreshold = textArenaThreshold;
+
+    } /* End of DataModelBuilder.setTextArenaThreshold */
+
+
+
+    /**
+     * Get the minimum size of strings, which are kept in their UTF-8 encoding.
+     *   @return Get the minimum number of UTF-8 encoded bytes.
+     */
+    public static int getTextArenaThreshold()
+        { return _textArenaThreshold; }
+
+
+
+    /**
+     * Normalize a numeric column as received from the Octave-Java bridge to an int array.
+     *   @return Get the array or null if obj is null.
+     *   @param obj
+     * The received object, either an int array, another array of numbers or a boxed
+     * scalar number.
+     */
+    static int[] toIntArray(Object obj)
+    {
+        if(obj == null  ||  obj instanceof int[])
+            return (int[])obj;
+        else if(obj instanceof Number)
+            return new int[] {((Number)obj).intValue()};
+
+        final double[] doubleAry = toDoubleArray(obj);
+        int[] intAry = new int[doubleAry.length];
+        for(int i=0; i<intAry.length; ++i)
+            intAry[i] = (int)doubleAry[i];
+        return intAry;
+
+    } /* End of DataModelBuilder.toIntArray */
+
+
+
+    /**
+     * Normalize a numeric column as received from the Octave-Java bridge to a long
+     * array.
+     *   @return Get the array or null if obj is null.
+     *   @param obj
+     * The received object, either a long array, an int array or a boxed scalar number.
+     */
+    static long[] toLongArray(Object obj)
+    {
+        if(obj == null  ||  obj instanceof long[])
+            return (long[])obj;
+        else if(obj instanceof Number)
+            return new long[] {((Number)obj).longValue()};
+        else if(obj instanceof int[])
+        {
+            final int[] intAry = (int[])obj;
+            long[] longAry = new long[intAry.length];
+            for(int i=0; i<longAry.length; ++i)
+                longAry[i] = intAry[i];
+            return longAry;
+        }
+        else
+            throw new IllegalArgumentException("Can't convert " + obj.getClass().getName()
+                                               + " into long[]"
+                                              );
+    } /* End of DataModelBuilder.toLongArray */
+
+
+
+    /**
+     * Normalize a numeric column as received from the Octave-Java bridge to a double
+     * array.
+     *   @return Get the array or null if obj is null.
+     *   @param obj
+     * The received object, either an array of a primitive numeric type or a boxed scalar
+     * number.
+     */
+    static double[] toDoubleArray(Object obj)
+    {
+        if(obj == null  ||  obj instanceof double[])
+            return (double[])obj;
+        else if(obj instanceof Number)
+            return new double[] {((Number)obj).doubleValue()};
+        else if(obj instanceof Boolean)
+            return new double[] {((Boolean)obj).booleanValue()? 1.0: 0.0};
+        else if(obj.getClass().isArray()
+                &&  obj.getClass().getComponentType().isPrimitive()
+               )
+        {
+            final int noElements = java.lang.reflect.Array.getLength(obj);
+            double[] doubleAry = new double[noElements];
+            for(int i=0; i<noElements; ++i)
+            {
+                final Object elem = java.lang.reflect.Array.get(obj, i);
+                if(elem instanceof Number)
+                    doubleAry[i] = ((Number)elem).doubleValue();
+                else if(elem instanceof Boolean)
+                    doubleAry[i] = ((Boolean)elem).booleanValue()? 1.0: 0.0;
+                else
+                    doubleAry[i] = (Character)elem;
+            }
+            return doubleAry;
+        }
+        else
+            throw new IllegalArgumentException("Can't convert " + obj.getClass().getName()
+                                               + " into double[]"
+                                              );
+    } /* End of DataModelBuilder.toDoubleArray */
+
+
+
+    /**
+     * Normalize a byte column as received from the Octave-Java bridge to a byte array.
+     *   @return Get the array or null if obj is null.
+     *   @param obj
+     * The received object, either a byte array or a boxed scalar Byte.
+     */
+    static byte[] toByteArray(Object obj)
+    {
+        if(obj == null  ||  obj instanceof byte[])
+            return (byte[])obj;
+        else if(obj instanceof Number)
+            return new byte[] {((Number)obj).byteValue()};
+        else
+            throw new IllegalArgumentException("Can't convert " + obj.getClass().getName()
+                                               + " into byte[]"
+                                              );
+    } /* End of DataModelBuilder.toByteArray */
+
+
+
+    /**
+     * Normalize a column of strings as received from the Octave-Java bridge to a String
+     * array.
+     *   @return Get the array or null if obj is null.
+     *   @param obj
+     * The received object, either an array of strings or a single String.
+     */
+    static String[] toStringArray(Object obj)
+    {
+        if(obj == null  ||  obj instanceof String[])
+            return (String[])obj;
+        else if(obj instanceof String)
+            return new String[] {(String)obj};
+
+        final Object[] objAry = toObjectArray(obj);
+        String[] stringAry = new String[objAry.length];
+        for(int i=0; i<stringAry.length; ++i)
+            stringAry[i] = objAry[i] != null? objAry[i].toString(): null;
+        return stringAry;
+
+    } /* End of DataModelBuilder.toStringArray */
+
+
+
+    /**
+     * Normalize a column of objects as received from the Octave-Java bridge to an Object
+     * array.
+     *   @return Get the array or null if obj is null.
+     *   @param obj
+     * The received object, either an array of objects or a single object.
+     */
+    static Object[] toObjectArray(Object obj)
+    {
+        if(obj == null  ||  obj instanceof Object[])
+            return (Object[])obj;
+        else
+            return new Object[] {obj};
+
+    } /* End of DataModelBuilder.toObjectArray */
+
+
+
+    /**
+     * Convert the flattened data object into its Java representation.
+     *   @return Get the Java object, which represents the root node of the tape. null is
+     * returned for an empty tape.
+     */
+    public Object build()
+    {
+        if(noNodes_ == 0)
+            return null;
+
+        isLazy_ = false;
+        final Object root = buildNode(0);
+        _logger.debug("DataModelBuilder: " + noNodes_ + " nodes converted, "
+                      + stringPool_.getNoStrings() + " distinct strings, "
+                      + stringPool_.getNoHits() + " repeated strings shared"
+                     );
+        return root;
+
+    } /* End of DataModelBuilder.build */
+
+
+
+    /**
+     * Convert the flattened data object lazily into its Java representation. Only the
+     * root node is built. If it is a list or struct then it is a wrapper, which converts
+     * its elements on first access. The builder must not be used for another conversion
+     * as long as the returned object is in use.
+     *   @return Get the Java object, which represents the root node of the tape. null is
+     * returned for an empty tape.
+     */
+    public Object buildLazy()
+    {
+        if(noNodes_ == 0)
+            return null;
+
+        isLazy_ = true;
+        _logger.debug("DataModelBuilder: Lazy conversion of " + noNodes_ + " nodes");
+        return buildNode(0);
+
+    } /* End of DataModelBuilder.buildLazy */
+
+
+
+    /**
+     * Get the number of nodes in the tape.
+     *   @return The number of nodes is returned.
+     */
+    public int getNoNodes()
+        { return noNodes_; }
+
+
+
+    /**
+     * Get the index of the first node behind the sub-tree of a given node.
+     *   @return Get the index.
+     *   @param node
+     * The index of the node.
+     */
+    int endOfNode(int node)
+    {
+        final int kind = tape_.get(3*node);
+        if(kind == KIND_LIST  ||  kind == KIND_STRUCT)
+            return tape_.get(3*node+2);
+        else
+            return node + 1;
+
+    } /* End of DataModelBuilder.endOfNode */
+
+
+
+    /**
+     * Get the indexes of the child nodes of a list or struct node.
+     *   @return Get the tape indexes of the children in their order in the tape.
+     *   @param node
+     * The index of the list or struct node.
+     *   @param noChildren
+     * The number of children.
+     */
+    int[] childNodesOf(int node, int noChildren)
+    {
+        int[] childNodes = new int[noChildren];
+        int child = node + 1;
+        for(int i=0; i<noChildren; ++i)
+        {
+            childNodes[i] = child;
+            child = endOfNode(child);
+        }
+        assert child == endOfNode(node): "Inconsistent list or struct in data model tape";
+        return childNodes;
+
+    } /* End of DataModelBuilder.childNodesOf */
+
+
+
+    /**
+     * Build the Java representation of a node and, recursively, of all of its children.
+     * In lazy mode, lists and structs are represented by wrappers and their children are
+     * not built yet.
+     *   @return Get the Java object.
+     *   @param node
+     * The index of the node.
+     */
+    Object buildNode(int node)
+    {
+        final int kind = tape_.get(3*node)
+                , a = tape_.get(3*node+1)
+                , b = tape_.get(3*node+2);
+        switch(kind)
+        {
+        case KIND_NULL:
+            return null;
+
+        case KIND_STRING:
+            if(b >= _textArenaThreshold)
+                return new Utf8Text(text_, /* offset */ a, /* noBytes */ b);
+            else
+                return stringPool_.intern(/* offset */ a, /* length */ b);
+
+        case KIND_OBJECT:
+            /* A handle of a converted data model can be embedded into another data
+               object. The converted data model takes the place of the handle. */
+            if(objects_[a] instanceof DataModelHandle)
+                return ((DataModelHandle)objects_[a]).getRoot();
+            else
+                return objects_[a];
+
+        case KIND_LIST:
+            if(isLazy_)
+                return new LazyList(this, node, /* size */ a);
+            else
+                return buildList(node, /* noElements */ a);
+
+        case KIND_STRUCT:
+            if(isLazy_)
+                return new LazyStructMap(this, node, schemaOf(/* schema */ a));
+            else
+                return buildStruct(node, /* schema */ a);
+
+        default:
+        }
+
+        if(kind == KIND_SPARSE+CLASS_DOUBLE  ||  kind == KIND_SPARSE+CLASS_LOGICAL)
+            return buildSparse(/* numClass */ kind-KIND_SPARSE, /* offset */ a, /* idxDims */ b);
+        else if(kind >= KIND_ARRAY  &&  kind <= KIND_ARRAY+CLASS_UINT64)
+            return buildArray(/* numClass */ kind-KIND_ARRAY, /* offset */ a, /* idxDims */ b);
+        else if(kind >= KIND_SCALAR  &&  kind <= KIND_SCALAR+CLASS_UINT64)
+            return box(/* numClass */ kind-KIND_SCALAR, /* idx */ a);
+        else
+        {
+            throw new IllegalArgumentException("Invalid node kind " + kind + " found at"
+                                               + " position " + node + " of the data"
+                                               + " model tape"
+                                              );
+        }
+    } /* End of DataModelBuilder.buildNode */
+
+
+
+    /**
+     * Build a Java List from a list node and its children.
+     *   @return Get the List.
+     *   @param node
+     * The index of the list node.
+     *   @param noElements
+     * The number of list elements.
+     */
+    private List<Object> buildList(int node, int noElements)
+    {
+        if(noElements >= _parallelThreshold)
+            return buildListParallel(node, noElements);
+
+        List<Object> list = new ArrayList<>(noElements);
+        int child = node + 1;
+        for(int i=0; i<noElements; ++i)
+        {
+            list.add(buildNode(child));
+            child = endOfNode(child);
+        }
+        assert child == endOfNode(node): "Inconsistent list in data model tape";
+        return list;
+
+    } /* End of DataModelBuilder.buildList */
+
+
+
+    /**
+     * The fork-join task, which builds a range of list elements. The range is split in
+     * halves until it is not larger than the grain size.
+     */
+    private final class BuildElementsTask extends RecursiveAction
+    {
+        /** The version designation of the serialized form of the class. */
+        private static final long serialVersionUID = 1L;
+
+        /** The tape indexes of the nodes of all elements of the list. */
+        private final int[] childNodes_;
+
+        /** The array of all elements of the list, which is filled by the tasks. */
+        private final Object[] elements_;
+
+        /** The index of the first element of the range. */
+        private final int from_;
+
+        /** The index behind the last element of the range. */
+        private final int to_;
+
+        /** The maximum number of elements, which are built without further splitting. */
+        private final int grainSize_;
+
+        /**
+         * A new instance of BuildElementsTask is created.
+         *   @param childNodes
+         * The tape indexes of the nodes of all list elements.
+         *   @param elements
+         * The array of all list elements, which is filled by the tasks.
+         *   @param from
+         * The index of the first element of the range.
+         *   @param to
+         * The index behind the last element of the range.
+         *   @param grainSize
+         * The maximum number of elements, which are built without further splitting.
+         */
+        BuildElementsTask( int[] childNodes
+                         , Object[] elements
+                         , int from
+                         , int to
+                         , int grainSize
+                         )
+        {
+            childNodes_ = childNodes;
+            elements_ = elements;
+            from_ = from;
+            to_ = to;
+            grainSize_ = grainSize;
+        }
+
+        /**
+         * Build the elements of the range or split the range and fork the tasks for both
+         * halves.
+         */
+        @Override protected void compute()
+        {
+            if(to_ - from_ <= grainSize_)
+            {
+                for(int i=from_; i<to_; ++i)
+                    elements_[i] = buildNode(childNodes_[i]);
+            }
+            else
+            {
+                final int mid = (from_ + to_) >>> 1;
+                invokeAll( new BuildElementsTask(childNodes_, elements_, from_, mid, grainSize_)
+                         , new BuildElementsTask(childNodes_, elements_, mid, to_, grainSize_)
+                         );
+            }
+        }
+    } /* End of class DataModelBuilder.BuildElementsTask */
+
+
+
+    /**
+     * Build a Java List from a list node and its children, using the common fork-join
+     * pool. The list is split into chunks such that each worker thread gets a few of
+     * them; this balances elements of different complexity.
+     *   @return Get the List. It has the elements in their original order.
+     *   @param node
+     * The index of the list node.
+     *   @param noElements
+     * The number of list elements.
+     */
+    private List<Object> buildListParallel(int node, int noElements)
+    {
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        final int grainSize = Math.max(1, noElements / (4*pool.getParallelism()));
+        Object[] elements = new Object[noElements];
+        BuildElementsTask task = new BuildElementsTask( childNodesOf(node, noElements)
+                                                      , elements
+                                                      , /* from */ 0
+                                                      , /* to */ noElements
+                                                      , grainSize
+                                                      );
+
+        /* A nested large list is built by the worker thread, which encounters it. It
+           joins the pool rather than submitting another external task. */
+        if(ForkJoinTask.inForkJoinPool())
+            task.invoke();
+        else
+            pool.invoke(task);
+
+        return new ArrayList<>(Arrays.asList(elements));
+
+    } /* End of DataModelBuilder.buildListParallel */
+
+
+
+    /**
+     * Build a Java Map from a struct node and its children.<p>
+     *   A {@link CompactStructMap} is used, which has a well defined, lexical order when
+     * the fields are iterated in a template. All structs of the same schema, e.g. the
+     * elements of a struct array, share the field names. Note, there's no need to care
+     * about the MATLAB specific problems with field names of length one; the keys are
+     * built here, inside the JVM, and are always Java Strings.
+     *   @return Get the Map.
+     *   @param node
+     * The index of the struct node.
+     *   @param schema
+     * The index of the field name schema of the struct.
+     */
+    private Map<String,Object> buildStruct(int node, int schema)
+    {
+        final StructSchema structSchema = schemaOf(schema);
+
+        /* The values of the fields follow in the tape in their original Octave order,
+           the map holds them in lexical order of the field names. */
+        final int noFields = structSchema.size();
+        Object[] slots = new Object[noFields];
+        int child = node + 1;
+        for(int idxField=0; idxField<noFields; ++idxField)
+        {
+            slots[structSchema.slotOfField(idxField)] = buildNode(child);
+            child = endOfNode(child);
+        }
+        assert child == endOfNode(node): "Inconsistent struct in data model tape";
+        return new CompactStructMap(structSchema, slots);
+
+    } /* End of DataModelBuilder.buildStruct */
+
+
+
+    /**
+     * Get the schema object of a field name schema. It is created on first use and then
+     * shared by all structs of this schema.
+     *   @return Get the schema object.
+     *   @param schema
+     * The index of the field name schema.
+     */
+    synchronized StructSchema schemaOf(int schema)
+    {
+        StructSchema structSchema = schemas_[schema];
+        if(structSchema == null)
+        {
+            structSchema = new StructSchema( fieldNames_
+                                           , /* from */ schemaOffsets_.get(schema)
+                                           , /* to */ schemaOffsets_.get(schema+1)
+                                           );
+            schemas_[schema] = structSchema;
+        }
+        return structSchema;
+
+    } /* End of DataModelBuilder.schemaOf */
+
+
+
+    /**
+     * Build a Java List from a numeric array node. The List is a read-only view on the
+     * transferred column of numbers; the numbers are neither copied nor boxed. A one
+     * dimensional array becomes a list of numbers, a two dimensional array becomes a list
+     * of rows, each of them a list of numbers. Arrays of higher dimension become lists of
+     * sub-arrays, see {@link MatrixView}.
+     *   @return Get the List.
+     *   @param numClass
+     * The Octave class of the array elements, e.g. {@link #CLASS_DOUBLE}.
+     *   @param offset
+     * The index of the first array element in the double or long column.
+     *   @param idxDims
+     * The index of the dimensions of the array in the dimensions column.
+     */
+    private List<Object> buildArray(int numClass, int offset, int idxDims)
+    {
+        final int noDims = dims_.get(idxDims);
+        final ArrayView column = ArrayView.wrap(isFloatClass(numClass)? doubles_: longs_
+                                               , numClass
+                                               );
+        int[] dims = new int[noDims];
+        for(int idxDim=0; idxDim<noDims; ++idxDim)
+            dims[idxDim] = dims_.get(idxDims+1+idxDim);
+        return MatrixView.create(column, offset, dims);
+    } /* End of DataModelBuilder.buildArray */
+
+
+
+    /**
+     * Build the view on a sparse matrix from a sparse matrix node. Neither the values nor
+     * the indexes of the non-zero elements are copied.
+     *   @return Get the view.
+     *   @param numClass
+     * The Octave class of the matrix elements, either {@link #CLASS_DOUBLE} or {@link
+     * #CLASS_LOGICAL}.
+     *   @param offset
+     * The index of the value of the first non-zero element in the double column.
+     *   @param idxDims
+     * The index of the matrix description in the dimensions column.
+     */
+    private SparseMatrixView buildSparse(int numClass, int offset, int idxDims)
+    {
+        final int noRows = dims_.get(idxDims)
+                , noCols = dims_.get(idxDims+1)
+                , nnz = dims_.get(idxDims+2)
+                , offsetIndex = dims_.get(idxDims+3);
+        return new SparseMatrixView( noRows
+                                   , noCols
+                                   , nnz
+                                   , ArrayView.wrap(doubles_, numClass)
+                                              .slice(offset, /* stride */ 1, /* size */ nnz)
+                                   , longs_
+                                   , /* offsetRowIdx */ offsetIndex
+                                   , /* offsetColPtr */ offsetIndex + nnz
+                                   );
+    } /* End of DataModelBuilder.buildSparse */
+
+
+
+    /**
+     * Check if the numbers of a given Octave class are held in the double column.
+     *   @return Get true for the classes double, single and logical and false for the
+     * integer classes, which are held in the long column.
+     *   @param numClass
+     * The Octave class, e.g. {@link #CLASS_DOUBLE}.
+     */
+    static boolean isFloatClass(int numClass)
+    {
+        return numClass == CLASS_DOUBLE  ||  numClass == CLASS_SINGLE
+               ||  numClass == CLASS_LOGICAL;
+
+    } /* End of DataModelBuilder.isFloatClass */
+
+
+
+    /**
+     * Create the Java object for a single number. See {@link ArrayView} for the choice of
+     * the Java class.
+     *   @return Get the boxed number.
+     *   @param numClass
+     * The Octave class of the number, e.g. {@link #CLASS_DOUBLE}.
+     *   @param idx
+     * The index of the number in the double or long column.
+     */
+    private Object box(int numClass, int idx)
+    {
+        if(isFloatClass(numClass))
+            return ArrayView.boxFloat(numClass, doubles_.get(idx));
+        else
+            return ArrayView.boxInteger(numClass, longs_.get(idx));
+
+    } /* End of DataModelBuilder.box */
+
+} /* End of class DataModelBuilder definition. */
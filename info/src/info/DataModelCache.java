@@ -0,0 +1,450 @@
+/**
+ * @file DataModelCache.java
+ * A cache of converted data models. A data model is identified by a content hash of the
+ * flattened Octave data object; submitting an unchanged data object again reuses the
+ * already built Java representation.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class DataModelCache
+ *   convert
+ *   patch
+ *   clear
+ *   setMaxNoEntries
+ *   getMaxNoEntries
+ *   getNoEntries
+ *   getNoHits
+ *   getNoMisses
+ */
+
+package info;
+
+import java.util.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+
+/**
+ * A cache of converted data models.<p>
+ *   A code generator typically renders many templates with the same data. The Octave
+ * function st4ConvertModel flattens the data object and passes it to {@link #convert},
+ * which returns a {@link DataModelHandle}. The handle is used as template attribute in
+ * all later render calls.<p>
+ *   The handles are cached. The key is the SHA-256 hash of all transferred columns. If the
+ * same Octave data object is submitted again then the cached handle is returned and the
+ * Java representation is not built again. Objects, which are passed as they are, like
+ * Java objects embedded in the Octave data object, are compared by identity.<p>
+ *   A handle can be patched by {@link #patch}, which replaces an element of the data
+ * model without resending the whole data object. A patch returns a new handle, which is
+ * not cached. The cached handle is shared by all conversions of the same data object and
+ * it is never modified.<p>
+ *   The cache holds a limited number of the most recently used handles. All methods are
+ * safe for concurrent use.
+ */
+
+public final class DataModelCache
+{
+    /** The global logger object for all progress and error reporting. */
+    private static SimpleLogger _logger = new SimpleLogger();
+
+    /** The maximum number of cached data models. */
+    private static int _maxNoEntries = 8;
+
+    /** The cached handles by content hash, in order of last use. */
+    private static final LinkedHashMap<String,DataModelHandle> _cache =
+                                        new LinkedHashMap<String,DataModelHandle>( 16
+                                                                                 , 0.75f
+                                                                                 , true
+                                                                                 )
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override protected boolean removeEldestEntry
+                                            (Map.Entry<String,DataModelHandle> eldest)
+                { return size() > _maxNoEntries; }
+        };
+
+    /** The number of conversions, which were served from the cache. */
+    private static long _noHits = 0;
+
+    /** The number of conversions, which had to build the Java representation. */
+    private static long _noMisses = 0;
+
+
+    /**
+     * The class is a collection of static methods; no instances are created.
+     */
+    private DataModelCache()
+    {
+    } /* End of DataModelCache.DataModelCache */
+
+
+
+    /**
+     * Convert a flattened data object into a reusable data model.<p>
+     *   The arguments are the columns of the flattened data object as for {@link
+     * DataModelBuilder#build(Object, Object, Object, Object, Object, Object, Object,
+     * Object)}. The data model is built eagerly, large lists in parallel.
+     *   @return Get the handle of the data model. It is the cached handle if the same data
+     * object has been converted before.
+     *   @param tape See {@link DataModelBuilder#DataModelBuilder}.
+     *   @param fieldNames See {@link DataModelBuilder#DataModelBuilder}.
+     *   @param schemaOffsets See {@link DataModelBuilder#DataModelBuilder}.
+     *   @param text See {@link DataModelBuilder#DataModelBuilder}.
+     *   @param doubles See {@link DataModelBuilder#DataModelBuilder}.
+     *   @param longs See {@link DataModelBuilder#DataModelBuilder}.
+     *   @param dims See {@link DataModelBuilder#DataModelBuilder}.
+     *   @param objects See {@link DataModelBuilder#DataModelBuilder}.
+     */
+    public static DataModelHandle convert( Object tape
+                                         , Object fieldNames
+                                         , Object schemaOffsets
+                                         , Object text
+                                         , Object doubles
+                                         , Object longs
+                                         , Object dims
+                                         , Object objects
+                                         )
+    {
+        final int[] tapeAry = DataModelBuilder.toIntArray(tape)
+                  , schemaOffsetAry = DataModelBuilder.toIntArray(schemaOffsets)
+                  , dimAry = DataModelBuilder.toIntArray(dims);
+        final String[] fieldNameAry = DataModelBuilder.toStringArray(fieldNames);
+        final byte[] textAry = DataModelBuilder.toByteArray(text);
+        final double[] doubleAry = DataModelBuilder.toDoubleArray(doubles);
+        final long[] longAry = DataModelBuilder.toLongArray(longs);
+        final Object[] objectAry = DataModelBuilder.toObjectArray(objects);
+
+        final String key = contentHash( tapeAry
+                                      , fieldNameAry
+                                      , schemaOffsetAry
+                                      , textAry
+                                      , doubleAry
+                                      , longAry
+                                      , dimAry
+                                      );
+        synchronized(_cache)
+        {
+            final DataModelHandle hModel = _cache.get(key);
+            if(hModel != null  &&  hModel.hasSameObjects(objectAry))
+            {
+                ++ _noHits;
+                _logger.debug("DataModelCache: Reuse " + hModel);
+                return hModel;
+            }
+        }
+
+        /* The model is built outside the lock. Two threads, which convert the same data
+           at the same time, would both build it; the later one wins the cache entry. */
+        final DataModelBuilder builder = new DataModelBuilder( tapeAry
+                                                             , fieldNameAry
+                                                             , schemaOffsetAry
+                                                             , textAry
+                                                             , doubleAry
+                                                             , longAry
+                                                             , dimAry
+                                                             , objectAry
+                                                             );
+        final DataModelHandle hModel = new DataModelHandle( key
+                                                          , builder.build()
+                                                          , builder.getNoNodes()
+                                                          , objectAry
+                                                          );
+        synchronized(_cache)
+        {
+            ++ _noMisses;
+            _cache.put(key, hModel);
+        }
+        _logger.debug("DataModelCache: Built " + hModel);
+        return hModel;
+
+    } /* End of DataModelCache.convert */
+
+
+
+    /**
+     * Replace an element of a converted data model. Only the new value of the element is
+     * transferred; it is given as a flattened data object like for {@link #convert}. See
+     * {@link DataModelHandle#patch} for the copy-on-write semantics.
+     *   @return Get a new handle, which refers to the patched data model.
+     *   @param hModel
+     * The handle of the data model. It is not modified.
+     *   @param path
+     * The path of the element in Octave syntax, e.g. {@code frames{17}.dlc}.
+     *   @param tape See {@link DataModelBuilder#DataModelBuilder}.
+     *   @param fieldNames See {@link DataModelBuilder#DataModelBuilder}.
+     *   @param schemaOffsets See {@link DataModelBuilder#DataModelBuilder}.
+     *   @param text See {@link DataModelBuilder#DataModelBuilder}.
+     *   @param doubles See {@link DataModelBuilder#DataModelBuilder}.
+     *   @param longs See {@link DataModelBuilder#DataModelBuilder}.
+     *   @param dims See {@link DataModelBuilder#DataModelBuilder}.
+     *   @param objects See {@link DataModelBuilder#DataModelBuilder}.
+     *   @throws IllegalArgumentException
+     * The path is malformed or it doesn't fit to the data model.
+     */
+    public static DataModelHandle patch( DataModelHandle hModel
+                                       , String path
+                                       , Object tape
+                                       , Object fieldNames
+                                       , Object schemaOffsets
+                                       , Object text
+                                       , Object doubles
+                                       , Object longs
+                                       , Object dims
+                                       , Object objects
+                                       )
+    {
+        final Object value = DataModelBuilder.build( tape
+                                                   , fieldNames
+                                                   , schemaOffsets
+                                                   , text
+                                                   , doubles
+                                                   , longs
+                                                   , dims
+                                                   , objects
+                                                   );
+        final DataModelHandle hPatchedModel = hModel.patch(path != null? path: "", value);
+        _logger.debug("DataModelCache: Patched " + path + " of " + hModel + " into "
+                      + hPatchedModel
+                     );
+        return hPatchedModel;
+
+    } /* End of DataModelCache.patch */
+
+
+
+    /**
+     * Compute the content hash of a flattened data object. The length of each column is
+     * hashed, too, so that the boundaries between the columns are unambiguous.
+     *   @return Get the SHA-256 hash as string of hexadecimal digits.
+     *   @param tape The tape of nodes.
+     *   @param fieldNames The field names.
+     *   @param schemaOffsets The schema offsets.
+     *   @param text The UTF-8 encoded text.
+     *   @param doubles The column of doubles.
+     *   @param longs The column of longs.
+     *   @param dims The dimensions column.
+     */
+    private static String contentHash( int[] tape
+                                     , String[] fieldNames
+                                     , int[] schemaOffsets
+                                     , byte[] text
+                                     , double[] doubles
+                                     , long[] longs
+                                     , int[] dims
+                                     )
+    {
+        final MessageDigest md;
+        try
+        {
+            md = MessageDigest.getInstance("SHA-256");
+        }
+        catch(NoSuchAlgorithmException e)
+        {
+            /* Every Java platform is required to support SHA-256. */
+            throw new RuntimeException("SHA-256 is not available: " + e.getMessage());
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        hashInts(md, buf, tape);
+        hashInts(md, buf, schemaOffsets);
+        hashInts(md, buf, dims);
+        if(fieldNames != null)
+        {
+            final StringBuilder sb = new StringBuilder();
+            for(String name: fieldNames)
+                sb.append(name).append('\n');
+            final byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+            hashInts(md, buf, new int[] {bytes.length});
+            md.update(bytes);
+        }
+        else
+            hashInts(md, buf, new int[] {-1});
+
+        hashInts(md, buf, new int[] {text != null? text.length: -1});
+        if(text != null)
+            md.update(text);
+
+        hashInts(md, buf, new int[] {doubles != null? doubles.length: -1});
+        if(doubles != null)
+        {
+            for(double d: doubles)
+            {
+                if(buf.remaining() < 8)
+                    flush(md, buf);
+                buf.putDouble(d);
+            }
+            flush(md, buf);
+        }
+
+        hashInts(md, buf, new int[] {longs != null? longs.length: -1});
+        if(longs != null)
+        {
+            for(long l: longs)
+            {
+                if(buf.remaining() < 8)
+                    flush(md, buf);
+                buf.putLong(l);
+            }
+            flush(md, buf);
+        }
+
+        final StringBuilder hex = new StringBuilder(64);
+        for(byte b: md.digest())
+            hex.append(String.format("%02x", b));
+        return hex.toString();
+
+    } /* End of DataModelCache.contentHash */
+
+
+
+    /**
+     * Feed a column of integers, preceded by its length, into the hash.
+     *   @param md The hash computation.
+     *   @param buf A buffer for the conversion of integers into bytes.
+     *   @param ints The integers or null.
+     */
+    private static void hashInts(MessageDigest md, ByteBuffer buf, int[] ints)
+    {
+        buf.putInt(ints != null? ints.length: -1);
+        if(ints != null)
+        {
+            for(int i: ints)
+            {
+                if(buf.remaining() < 4)
+                    flush(md, buf);
+                buf.putInt(i);
+            }
+        }
+        flush(md, buf);
+
+    } /* End of DataModelCache.hashInts */
+
+
+
+    /**
+     * Feed the contents of the conversion buffer into the hash and empty the buffer.
+     *   @param md The hash computation.
+     *   @param buf The buffer.
+     */
+    private static void flush(MessageDigest md, ByteBuffer buf)
+    {
+        md.update(buf.array(), 0, buf.position());
+        buf.clear();
+
+    } /* End of DataModelCache.flush */
+
+
+
+    /**
+     * Remove all data models from the cache. Handles, which are still in use, remain
+     * valid.
+     */
+    public static void clear()
+    {
+        synchronized(_cache)
+        {
+            _cache.clear();
+        }
+    } /* End of DataModelCache.clear */
+
+
+
+    /**
+     * Set the maximum number of cached data models.
+     *   @param maxNoEntries
+     * The maximum number. The least recently used data models are removed from the cache
+     * if the number is exceeded. 0 disables the cache.
+     */
+    public static void setMaxNoEntries(int maxNoEntries)
+    {
+        if(maxNoEntries < 0)
+        {
+            throw new IllegalArgumentException("The maximum number of cached data models"
+                                               + " must not be negative"
+                                              );
+        }
+        synchronized(_cache)
+        {
+            _maxNoEntries = maxNoEntries;
+            final Iterator<String> it = _cache.keySet().iterator();
+            while(_cache.size() > _maxNoEntries  &&  it.hasNext())
+            {
+                it.next();
+                it.remove();
+            }
+        }
+    } /* End of DataModelCache.setMaxNoEntries */
+
+
+
+    /**
+     * Get the maximum number of cached data models.
+     *   @return Get the number.
+     */
+    public static int getMaxNoEntries()
+    {
+        synchronized(_cache)
+        {
+            return _maxNoEntries;
+        }
+    } /* End of DataModelCache.getMaxNoEntries */
+
+
+
+    /**
+     * Get the number of cached data models.
+     *   @return Get the number.
+     */
+    public static int getNoEntries()
+    {
+        synchronized(_cache)
+        {
+            return _cache.size();
+        }
+    } /* End of DataModelCache.getNoEntries */
+
+
+
+    /**
+     * Get the number of conversions, which were served from the cache.
+     *   @return Get the number.
+     */
+    public static long getNoHits()
+    {
+        synchronized(_cache)
+        {
+            return _noHits;
+        }
+    } /* End of DataModelCache.getNoHits */
+
+
+
+    /**
+     * Get the number of conversions, which had to build the Java representation.
+     *   @return Get the number.
+     */
+    public static long getNoMisses()
+    {
+        synchronized(_cache)
+        {
+            return _noMisses;
+        }
+    } /* End of DataModelCache.getNoMisses */
+
+} /* End of class DataModelCache definition. */
@@ -0,0 +1,221 @@
+/**
+ * @file DataModelHandle.java
+ * A handle to a data model, which has been converted once from an Octave data object and
+ * which can be used as template attribute in any number of later render calls.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class DataModelHandle
+ *   DataModelHandle
+ *   getRoot
+ *   getKey
+ *   getNoNodes
+ *   getRevision
+ *   patch
+ *   toString
+ */
+
+package info;
+
+import java.util.*;
+
+
+/**
+ * A handle to a converted data model.<p>
+ *   The handle is returned by {@link DataModelCache#convert}, which is called by the
+ * Octave function st4ConvertModel. The Octave code can pass the handle instead of the
+ * original Octave data object as template attribute. The render function unwraps the
+ * handle and the template engine receives the Java representation of the data object,
+ * without converting it again.<p>
+ *   A handle is immutable. The data model can be patched, see {@link #patch}. A patch
+ * doesn't modify the data model but makes a partial copy of it, which a new handle
+ * refers to. The patched handle, all other copies of it and template expansions, which
+ * have already fetched the data model, continue to see the unmodified data.
+ */
+
+public final class DataModelHandle
+{
+    /** The content hash of the transferred data, which identifies the data model, or
+        the path of the data model file. */
+    private final String key_;
+
+    /** The Java representation of the data object. */
+    private final Object root_;
+
+    /** The number of patches, which have been applied to the data model. */
+    private final int revision_;
+
+    /** The number of nodes of the converted data object. */
+    private final int noNodes_;
+
+    /** The objects, which had been transferred as they are. A cache hit requires the
+        identity of these objects. */
+    private final Object[] objects_;
+
+
+    /**
+     * A new instance of DataModelHandle is created.
+     *   @param key
+     * The content hash of the transferred data.
+     *   @param root
+     * The Java representation of the data object.
+     *   @param noNodes
+     * The number of nodes of the converted data object.
+     *   @param objects
+     * The objects, which had been transferred as they are, or null if there were none.
+     */
+    DataModelHandle(String key, Object root, int noNodes, Object[] objects)
+    {
+        this(key, root, noNodes, objects, /* revision */ 0);
+
+    } /* End of DataModelHandle.DataModelHandle */
+
+
+
+    /**
+     * A new instance of DataModelHandle is created.
+     *   @param key
+     * The content hash of the transferred data.
+     *   @param root
+     * The Java representation of the data object.
+     *   @param noNodes
+     * The number of nodes of the converted data object.
+     *   @param objects
+     * The objects, which had been transferred as they are, or null if there were none.
+     *   @param revision
+     * The number of patches, which have been applied to the data model.
+     */
+    private DataModelHandle( String key
+                           , Object root
+                           , int noNodes
+                           , Object[] objects
+                           , int revision
+                           )
+    {
+        key_ = key;
+        root_ = root;
+        noNodes_ = noNodes;
+        objects_ = objects != null? objects: new Object[0];
+        revision_ = revision;
+
+    } /* End of DataModelHandle.DataModelHandle */
+
+
+
+    /**
+     * Get the Java representation of the data object, which is the template attribute.
+     *   @return Get the object.
+     */
+    public Object getRoot()
+        { return root_; }
+
+
+
+    /**
+     * Get the content hash, which identifies the data model.
+     *   @return Get the hash as string of hexadecimal digits. For a data model, which has
+     * been read from a data model file, get the absolute path of the file instead. A
+     * patched data model has the key of the data model, which it has been derived
+     * from.
+     */
+    public String getKey()
+        { return key_; }
+
+
+
+    /**
+     * Get the size of the data model.
+     *   @return Get the number of nodes of the converted data object.
+     */
+    public int getNoNodes()
+        { return noNodes_; }
+
+
+
+    /**
+     * Get the revision of the data model.
+     *   @return Get the number of patches, which have been applied to the data model since
+     * it had been converted.
+     */
+    public int getRevision()
+        { return revision_; }
+
+
+
+    /**
+     * Replace an element of the data model. The element is addressed by a path in Octave
+     * syntax, see {@link ModelPath}. The data model is copied along the path; all other
+     * parts are shared between the original and the patched data model.
+     *   @return Get a new handle, which refers to the patched data model. This handle is
+     * not modified.
+     *   @param path
+     * The path of the element, e.g. {@code frames{17}.dlc}. A new field can be added to
+     * a struct but the path can't extend a list.
+     *   @param value
+     * The new value of the element.
+     *   @throws IllegalArgumentException
+     * The path is malformed or it doesn't fit to the data model.
+     */
+    DataModelHandle patch(String path, Object value)
+    {
+        return new DataModelHandle( key_
+                                  , ModelPath.parse(path).replace(root_, value)
+                                  , noNodes_
+                                  , objects_
+                                  , revision_ + 1
+                                  );
+
+    } /* End of DataModelHandle.patch */
+
+
+
+    /**
+     * Check if the objects, which had been transferred as they are, are the same as for
+     * another conversion.
+     *   @return Get true if both arrays hold the identical objects.
+     *   @param objects
+     * The objects of the other conversion or null if there were none.
+     */
+    boolean hasSameObjects(Object[] objects)
+    {
+        final int noObjects = objects != null? objects.length: 0;
+        if(noObjects != objects_.length)
+            return false;
+        for(int i=0; i<noObjects; ++i)
+        {
+            if(objects[i] != objects_[i])
+                return false;
+        }
+        return true;
+
+    } /* End of DataModelHandle.hasSameObjects */
+
+
+
+    /**
+     * Get a short description of the handle for logging purpose.
+     *   @return Get the description.
+     */
+    @Override public String toString()
+    {
+        /* A content hash is abbreviated, a file name is not. */
+        final String key = key_.matches("[0-9a-f]{64}")? key_.substring(0, 12): key_;
+        return "DataModelHandle(" + key + ", " + noNodes_ + " nodes, revision "
+               + revision_ + ")";
+
+    } /* End of DataModelHandle.toString */
+
+} /* End of class DataModelHandle definition. */
@@ -0,0 +1,121 @@
+/**
+ * @file LazyList.java
+ * A read-only Java List, which represents an Octave cell array or struct array in the
+ * StringTemplate V4 data model. The elements are converted from the transferred data only
+ * when they are accessed for the first time.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class LazyList
+ *   LazyList
+ *   get
+ *   size
+ */
+
+package info;
+
+import java.util.*;
+
+
+/**
+ * A read-only Java List, which converts its elements on first access.<p>
+ *   The list refers to a list node in the tape of a {@link DataModelBuilder}. The Java
+ * representation of an element is built when the element is read for the first time and
+ * it is cached for later access. Nested lists and structs are lazy in turn. This way, the
+ * conversion cost depends on the parts of the data model, which are actually used by a
+ * template, not on the size of the data model.<p>
+ *   The list is safe for concurrent use by several threads.
+ */
+
+public final class LazyList extends AbstractList<Object> implements RandomAccess
+{
+    /** The builder, which holds the transferred data. */
+    private final DataModelBuilder builder_;
+
+    /** The index of the list node in the tape. */
+    private final int node_;
+
+    /** The number of elements. */
+    private final int size_;
+
+    /** The tape index of the node of each element. It is computed on first access. */
+    private int[] childNodes_ = null;
+
+    /** The elements, as far as they have been converted already. */
+    private Object[] elements_ = null;
+
+    /** The bitmap of converted elements. */
+    private BitSet isConverted_ = null;
+
+
+    /**
+     * A new instance of LazyList is created.
+     *   @param builder
+     * The builder, which holds the transferred data.
+     *   @param node
+     * The index of the list node in the tape of the builder.
+     *   @param size
+     * The number of elements.
+     */
+    LazyList(DataModelBuilder builder, int node, int size)
+    {
+        builder_ = builder;
+        node_ = node;
+        size_ = size;
+
+    } /* End of LazyList.LazyList */
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the element. It is converted on first access.
+     *   @param idx
+     * The null based index of the element.
+     */
+    @Override public synchronized Object get(int idx)
+    {
+        if(idx < 0  ||  idx >= size_)
+        {
+            throw new IndexOutOfBoundsException("Index " + idx + " is out of range [0, "
+                                                + size_ + ")"
+                                               );
+        }
+        if(childNodes_ == null)
+        {
+            childNodes_ = builder_.childNodesOf(node_, size_);
+            elements_ = new Object[size_];
+            isConverted_ = new BitSet(size_);
+        }
+        if(!isConverted_.get(idx))
+        {
+            elements_[idx] = builder_.buildNode(childNodes_[idx]);
+            isConverted_.set(idx);
+        }
+        return elements_[idx];
+
+    } /* End of LazyList.get */
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the number of elements.
+     */
+    @Override public int size()
+        { return size_; }
+
+} /* End of class LazyList definition. */
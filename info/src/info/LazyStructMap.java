@@ -0,0 +1,206 @@
+/**
+ * @file LazyStructMap.java
+ * A read-only Java Map, which represents an Octave struct in the StringTemplate V4 data
+ * model. The field values are converted from the transferred data only when they are
+ * accessed for the first time.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class LazyStructMap
+ *   LazyStructMap
+ *   get
+ *   containsKey
+ *   size
+ *   keySet
+ *   entrySet
+ */
+
+package info;
+
+import java.util.*;
+
+
+/**
+ * A read-only Java Map, which converts its values on first access.<p>
+ *   The map refers to a struct node in the tape of a {@link DataModelBuilder}. It behaves
+ * like a {@link CompactStructMap}; it shares the field names with all other structs of
+ * the same schema and iterates in lexical order of the field names. The Java
+ * representation of a field value is built when the field is read for the first time and
+ * it is cached for later access.<p>
+ *   The map is safe for concurrent use by several threads.
+ */
+
+public final class LazyStructMap extends AbstractMap<String,Object>
+{
+    /** The builder, which holds the transferred data. */
+    private final DataModelBuilder builder_;
+
+    /** The index of the struct node in the tape. */
+    private final int node_;
+
+    /** The field names, shared with other maps. */
+    private final StructSchema schema_;
+
+    /** The tape index of the node of each field value in lexical order of the field
+        names. It is computed on first access. */
+    private int[] slotNodes_ = null;
+
+    /** The field values in lexical order of the field names, as far as they have been
+        converted already. */
+    private Object[] slots_ = null;
+
+    /** The bitmap of converted field values. */
+    private BitSet isConverted_ = null;
+
+    /** The lazily created set of map entries. */
+    private Set<Map.Entry<String,Object>> entrySet_ = null;
+
+
+    /**
+     * A new instance of LazyStructMap is created.
+     *   @param builder
+     * The builder, which holds the transferred data.
+     *   @param node
+     * The index of the struct node in the tape of the builder.
+     *   @param schema
+     * The field names.
+     */
+    LazyStructMap(DataModelBuilder builder, int node, StructSchema schema)
+    {
+        builder_ = builder;
+        node_ = node;
+        schema_ = schema;
+
+    } /* End of LazyStructMap.LazyStructMap */
+
+
+
+    /**
+     * Get the value of a field, convert it on first access.
+     *   @return Get the value.
+     *   @param slot
+     * The index of the field in lexical order of the field names.
+     */
+    private synchronized Object getSlot(int slot)
+    {
+        if(slotNodes_ == null)
+        {
+            final int noFields = schema_.size();
+            final int[] childNodes = builder_.childNodesOf(node_, noFields);
+            slotNodes_ = new int[noFields];
+            for(int idxField=0; idxField<noFields; ++idxField)
+                slotNodes_[schema_.slotOfField(idxField)] = childNodes[idxField];
+            slots_ = new Object[noFields];
+            isConverted_ = new BitSet(noFields);
+        }
+        if(!isConverted_.get(slot))
+        {
+            slots_[slot] = builder_.buildNode(slotNodes_[slot]);
+            isConverted_.set(slot);
+        }
+        return slots_[slot];
+
+    } /* End of LazyStructMap.getSlot */
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the value of the field or null if there's no such field.
+     *   @param key
+     * The field name.
+     */
+    @Override public Object get(Object key)
+    {
+        final int slot = schema_.indexOf(key);
+        return slot >= 0? getSlot(slot): null;
+
+    } /* End of LazyStructMap.get */
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get true if the struct has a field of the given name.
+     *   @param key
+     * The field name.
+     */
+    @Override public boolean containsKey(Object key)
+        { return schema_.indexOf(key) >= 0; }
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the number of fields.
+     */
+    @Override public int size()
+        { return schema_.size(); }
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the field names in lexical order. Iterating the keys doesn't convert
+     * any field value.
+     */
+    @Override public Set<String> keySet()
+        { return schema_.keySet(); }
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get a read-only view on the fields in lexical order of the field names.
+     * The values are converted as the entries are visited.
+     */
+    @Override public Set<Map.Entry<String,Object>> entrySet()
+    {
+        if(entrySet_ == null)
+        {
+            entrySet_ = new AbstractSet<Map.Entry<String,Object>>()
+                {
+                    @Override public Iterator<Map.Entry<String,Object>> iterator()
+                    {
+                        return new Iterator<Map.Entry<String,Object>>()
+                            {
+                                private int slot_ = 0;
+
+                                @Override public boolean hasNext()
+                                    { return slot_ < schema_.size(); }
+
+                                @Override public Map.Entry<String,Object> next()
+                                {
+                                    if(slot_ >= schema_.size())
+                                        throw new NoSuchElementException();
+                                    final int slot = slot_++;
+                                    return new AbstractMap.SimpleImmutableEntry<>
+                                                            ( schema_.getKey(slot)
+                                                            , getSlot(slot)
+                                                            );
+                                }
+                            };
+                    }
+
+                    @Override public int size()
+                        { return schema_.size(); }
+                };
+        }
+        return entrySet_;
+
+    } /* End of LazyStructMap.entrySet */
+
+} /* End of class LazyStructMap definition. */
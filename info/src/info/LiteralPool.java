@@ -0,0 +1,228 @@
+/**
+ * @file LiteralPool.java
+ * A pool of the literal strings of compiled StringTemplate V4 templates, which is shared
+ * by all loaded groups.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class LiteralPool
+ *   intern
+ *   setEnabled
+ *   getEnabled
+ *   getNoEntries
+ *   getNoHits
+ *   getNoSavedBytes
+ */
+
+package info;
+
+import java.util.*;
+import java.lang.ref.WeakReference;
+import org.stringtemplate.v4.STGroup;
+import org.stringtemplate.v4.compiler.CompiledST;
+
+
+/**
+ * A pool of the literal strings of compiled templates.<p>
+ *   Large template libraries repeat the same literal text in many templates, like
+ * license headers, include blocks or boilerplate comments. The compiler of the
+ * StringTemplate V4 engine gives each compiled template a table of its own literal
+ * strings. After compilation, the entries of the table are replaced by the pooled
+ * objects; identical literals of all loaded groups, including the groups in the cache of
+ * the {@link TemplateGroupRegistry}, refer to a single String object.<p>
+ *   The pool holds the strings by weak references; a string is discarded as soon as no
+ * loaded template refers to it any longer.<p>
+ *   All methods are safe for concurrent use.
+ */
+
+public final class LiteralPool
+{
+    /** The global logger object for all progress and error reporting. */
+    private static SimpleLogger _logger = new SimpleLogger();
+
+    /** The estimated size of a String object without its characters in Byte: object
+        header and fields of the String plus the header of its character array, for a
+        64 Bit JVM with compressed references. */
+    private static final int STRING_OVERHEAD = 24 + 16;
+
+    /** Whether the literals of compiled templates are pooled. */
+    private static volatile boolean _isEnabled = true;
+
+    /** The pooled strings. Key and value are the same object. */
+    private static final WeakHashMap<String,WeakReference<String>> _strings =
+                                                                        new WeakHashMap<>();
+
+    /** The number of literals, which were replaced by a pooled string. */
+    private static long _noHits = 0;
+
+    /** The estimated size of the replaced literals in Byte. */
+    private static long _noSavedBytes = 0;
+
+
+    /**
+     * The class is a collection of static methods; no instances are created.
+     */
+    private LiteralPool()
+    {
+    } /* End of LiteralPool.LiteralPool */
+
+
+
+    /**
+     * Replace the literal strings of a compiled template by the pooled ones. The
+     * implicitly defined templates are not handled; they are defined in the group, too.
+     *   @param code
+     * The compiled template. It is modified; it must not be in use by another thread yet.
+     */
+    static void intern(CompiledST code)
+    {
+        if(!_isEnabled  ||  code == null  ||  code.strings == null)
+            return;
+
+        synchronized(_strings)
+        {
+            final String[] strings = code.strings;
+            for(int i=0; i<strings.length; ++i)
+            {
+                final String str = strings[i];
+                if(str == null)
+                    continue;
+                final WeakReference<String> ref = _strings.get(str);
+                final String pooledStr = ref != null? ref.get(): null;
+                if(pooledStr == null)
+                    _strings.put(str, new WeakReference<>(str));
+                else if(pooledStr != str)
+                {
+                    strings[i] = pooledStr;
+                    ++ _noHits;
+                    _noSavedBytes += STRING_OVERHEAD + ((2L*str.length() + 7) & ~7L);
+                }
+            }
+        }
+    } /* End of LiteralPool.intern */
+
+
+
+    /**
+     * Replace the literal strings of all compiled templates of a group and of its imports
+     * by the pooled ones. Used for groups, which don't intern their templates on
+     * definition, like groups built from a string. Groups of class {@link
+     * CachedSTGroupFile} are skipped; they intern each template when it is compiled.
+     *   @param group
+     * The loaded group. It must not be in use by another thread yet.
+     */
+    static void intern(STGroup group)
+    {
+        intern(group, new HashSet<STGroup>());
+
+    } /* End of LiteralPool.intern */
+
+
+
+    /**
+     * Replace the literal strings of all compiled templates of a group and of its imports
+     * by the pooled ones.
+     *   @param group
+     * The loaded group.
+     *   @param visitedGroups
+     * The groups, which have already been handled. Used to handle cyclic imports.
+     */
+    private static void intern(STGroup group, Set<STGroup> visitedGroups)
+    {
+        if(!_isEnabled  ||  !visitedGroups.add(group))
+            return;
+
+        if(!(group instanceof CachedSTGroupFile))
+        {
+            for(String name: group.getTemplateNames())
+                intern(group.rawGetTemplate(name));
+        }
+        for(STGroup importedGroup: group.getImportedGroups())
+            intern(importedGroup, visitedGroups);
+
+    } /* End of LiteralPool.intern */
+
+
+
+    /**
+     * Enable or disable the pooling of literal strings.
+     *   @param isEnabled
+     * If true then the literals of templates are pooled. If false then each compiled
+     * template keeps its own strings. The setting applies to templates, which are
+     * compiled later.
+     */
+    public static void setEnabled(boolean isEnabled)
+    {
+        _isEnabled = isEnabled;
+        _logger.debug("LiteralPool: Pooling of template literals is "
+                      + (isEnabled? "enabled": "disabled")
+                     );
+    } /* End of LiteralPool.setEnabled */
+
+
+
+    /**
+     * Get whether the literals of compiled templates are pooled.
+     *   @return Get true if pooling is enabled.
+     */
+    public static boolean getEnabled()
+        { return _isEnabled; }
+
+
+
+    /**
+     * Get the number of pooled strings.
+     *   @return Get the number of distinct literals, which have not been discarded by the
+     * garbage collector yet.
+     */
+    public static int getNoEntries()
+    {
+        synchronized(_strings)
+        {
+            return _strings.size();
+        }
+    } /* End of LiteralPool.getNoEntries */
+
+
+
+    /**
+     * Get the number of literals, which were replaced by a pooled string.
+     *   @return Get the number.
+     */
+    public static long getNoHits()
+    {
+        synchronized(_strings)
+        {
+            return _noHits;
+        }
+    } /* End of LiteralPool.getNoHits */
+
+
+
+    /**
+     * Get the memory saved by pooling.
+     *   @return Get the estimated size of all replaced literals in Byte. Characters are
+     * counted with two Byte; the compact strings of newer JVMs need less.
+     */
+    public static long getNoSavedBytes()
+    {
+        synchronized(_strings)
+        {
+            return _noSavedBytes;
+        }
+    } /* End of LiteralPool.getNoSavedBytes */
+
+} /* End of class LiteralPool definition. */
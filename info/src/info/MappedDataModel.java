@@ -0,0 +1,193 @@
+/**
+ * @file MappedDataModel.java
+ * Reader of data model files. A data model file holds a flattened Octave data object in a
+ * compact binary format; it is written by the Octave function st4WriteModelFile. The
+ * reader maps the file into memory and presents its contents as lazily converted
+ * template attribute.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class MappedDataModel
+ *   open
+ */
+
+package info;
+
+import java.util.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Reader of data model files.<p>
+ *   Passing a very large data object from Octave to the JVM means to hold it twice in
+ * memory, once in Octave and once in Java. A data model file avoids this: Octave writes
+ * the flattened data object into the file, see st4WriteModelFile, and may then clear it.
+ * This class maps the file into memory. The data model is built lazily, see {@link
+ * LazyList} and {@link LazyStructMap}, and the numeric arrays are read straight from the
+ * mapped pages, see {@link ArrayView}; they are never copied onto the Java heap.<p>
+ *   The file holds the columns of the flattened data object as described for {@link
+ * DataModelBuilder}. All numbers are stored little-endian. The layout is:<p>
+ *   - Byte 0: The magic string ST4MODEL<p>
+ *   - Byte 8: The format version as int32, currently 1, followed by an unused int32<p>
+ *   - Byte 16: The number of elements of each of the seven sections as int64, in the
+ * order of the sections<p>
+ *   - Byte 72: The sections: tape (int32), schema offsets (int32), dimensions (int32),
+ * field names (UTF-8, each name terminated by a line feed), text (UTF-8), doubles
+ * (float64) and longs (int64). Each section begins at a multiple of eight Byte; the gaps
+ * are filled with zeros<p>
+ *   The mapping persists as long as the data model is in use. Note, on some systems, a
+ * mapped file can't be deleted or overwritten.
+ */
+
+public final class MappedDataModel
+{
+    /** The global logger object for all progress and error reporting. */
+    private static SimpleLogger _logger = new SimpleLogger();
+
+    /** The magic string at the beginning of a data model file. */
+    private static final String MAGIC = "ST4MODEL";
+
+    /** The supported version of the file format. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** The number of sections of the file. */
+    private static final int NO_SECTIONS = 7;
+
+    /** The size of the file header in Byte. */
+    private static final int HEADER_SIZE = 16 + 8*NO_SECTIONS;
+
+    /** The size of an element of each section in Byte. */
+    private static final int[] ELEMENT_SIZE = {4, 4, 4, 1, 1, 8, 8};
+
+
+    /**
+     * The class is a collection of static methods; no instances are created.
+     */
+    private MappedDataModel()
+    {
+    } /* End of MappedDataModel.MappedDataModel */
+
+
+
+    /**
+     * Open a data model file.
+     *   @return Get the handle of the data model. It can be used as template attribute
+     * like a handle returned by st4ConvertModel.
+     *   @param fileName
+     * The name of the data model file.
+     *   @throws IOException
+     * The file can't be read.
+     *   @throws IllegalArgumentException
+     * The file is not a valid data model file.
+     */
+    public static DataModelHandle open(String fileName) throws IOException
+    {
+        final File file = new File(fileName);
+        final MappedByteBuffer map;
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            if(channel.size() > Integer.MAX_VALUE)
+            {
+                throw new IllegalArgumentException("Data model file " + fileName + " is"
+                                                   + " larger than 2 GByte"
+                                                  );
+            }
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        map.order(ByteOrder.LITTLE_ENDIAN);
+
+        /* Check the header. */
+        final int fileSize = map.limit();
+        byte[] magic = new byte[MAGIC.length()];
+        if(fileSize >= HEADER_SIZE)
+            map.get(magic);
+        if(fileSize < HEADER_SIZE
+           ||  !MAGIC.equals(new String(magic, StandardCharsets.US_ASCII))
+          )
+        {
+            throw new IllegalArgumentException(fileName + " is not a data model file");
+        }
+        final int version = map.getInt(8);
+        if(version != FORMAT_VERSION)
+        {
+            throw new IllegalArgumentException("Data model file " + fileName + " has"
+                                               + " format version " + version + " but"
+                                               + " version " + FORMAT_VERSION + " is"
+                                               + " expected"
+                                              );
+        }
+
+        /* Locate the sections. */
+        ByteBuffer[] sections = new ByteBuffer[NO_SECTIONS];
+        long pos = HEADER_SIZE;
+        for(int idxSection=0; idxSection<NO_SECTIONS; ++idxSection)
+        {
+            final long noElements = map.getLong(16 + 8*idxSection)
+                     , size = noElements * ELEMENT_SIZE[idxSection];
+            if(noElements < 0  ||  pos + size > fileSize)
+            {
+                throw new IllegalArgumentException("Data model file " + fileName + " is"
+                                                   + " corrupted, section "
+                                                   + (idxSection+1) + " exceeds the file"
+                                                  );
+            }
+            ByteBuffer dup = map.duplicate();
+            dup.position((int)pos);
+            dup.limit((int)(pos + size));
+            sections[idxSection] = dup.slice().order(ByteOrder.LITTLE_ENDIAN);
+            pos = (pos + size + 7) & ~7L;
+        }
+
+        /* The field names are the only data, which are decoded immediately. */
+        final String names = Utf8Text.decode( sections[3]
+                                            , /* offset */ 0
+                                            , sections[3].limit()
+                                            );
+        final String[] fieldNames = names.isEmpty()? new String[0]: names.split("\n");
+
+        final DataModelBuilder builder =
+                new DataModelBuilder( sections[0].asIntBuffer()
+                                    , fieldNames
+                                    , sections[1].limit() > 0
+                                      ? sections[1].asIntBuffer()
+                                      : IntBuffer.wrap(new int[] {0})
+                                    , sections[4]
+                                    , sections[5].asDoubleBuffer()
+                                    , sections[6].asLongBuffer()
+                                    , sections[2].asIntBuffer()
+                                    , /* objects */ null
+                                    );
+        final DataModelHandle hModel = new DataModelHandle( file.getAbsolutePath()
+                                                          , builder.buildLazy()
+                                                          , builder.getNoNodes()
+                                                          , /* objects */ null
+                                                          );
+        _logger.debug("MappedDataModel: Opened " + fileName + " with "
+                      + builder.getNoNodes() + " nodes"
+                     );
+        return hModel;
+
+    } /* End of MappedDataModel.open */
+
+} /* End of class MappedDataModel definition. */
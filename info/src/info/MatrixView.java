@@ -0,0 +1,175 @@
+/**
+ * @file MatrixView.java
+ * A read-only Java List, which is a view on an N-dimensional Octave array of numbers. The
+ * array is represented as list of sub-arrays along its first dimension. The elements are
+ * not copied, they are boxed only on access.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class MatrixView
+ *   MatrixView
+ *   create
+ *   get
+ *   size
+ */
+
+package info;
+
+import java.util.*;
+
+
+/**
+ * A read-only Java List, which is a view on an N-dimensional Octave array of numbers.<p>
+ *   The representation in the StringTemplate V4 data model generalizes what is done for
+ * a matrix: A matrix is a list of rows and each row is a list of numbers. An
+ * N-dimensional array is a list of (N-1)-dimensional sub-arrays, which are got by
+ * iterating along its first dimension. This recursion ends with the rows, which are one
+ * dimensional.<p>
+ *   Dimensions of size one are not represented; a 1xn or nx1 array is a one dimensional
+ * list of numbers, a 1xmxn array is represented like an mxn matrix.<p>
+ *   The elements are held in column-major order in the backing array of an {@link
+ * ArrayView}; sub-arrays and rows are views on the same backing array with appropriate
+ * offset and strides. Nothing is copied.
+ */
+
+public final class MatrixView extends AbstractList<Object> implements RandomAccess
+{
+    /** A view on the backing array; it is used to create the views on the rows. */
+    private final ArrayView base_;
+
+    /** The index of the first element of this (sub-)array in the backing array. */
+    private final int offset_;
+
+    /** The size of this (sub-)array in each of its dimensions. There are at least two
+        dimensions and none of them has size one. */
+    private final int[] dims_;
+
+    /** The distance of two neighboured elements in the backing array, if the index in a
+        dimension is incremented. */
+    private final int[] strides_;
+
+
+    /**
+     * A new instance of MatrixView is created.
+     *   @param base
+     * A view on the backing array.
+     *   @param offset
+     * The index of the first element in the backing array.
+     *   @param dims
+     * The size of the array in each dimension.
+     *   @param strides
+     * The distance in the backing array of two elements, which are neighboured in the
+     * given dimension.
+     */
+    private MatrixView(ArrayView base, int offset, int[] dims, int[] strides)
+    {
+        assert dims.length >= 2  &&  dims.length == strides.length;
+        base_ = base;
+        offset_ = offset;
+        dims_ = dims;
+        strides_ = strides;
+
+    } /* End of MatrixView.MatrixView */
+
+
+
+    /**
+     * Create the view on an N-dimensional array.
+     *   @return Get the view. It is an {@link ArrayView} if the array has not more than
+     * one dimension of size other than one and a MatrixView otherwise.
+     *   @param base
+     * A view on the backing array, which holds the elements in column-major order. Its
+     * Octave class decides about the Java class of the boxed elements.
+     *   @param offset
+     * The index of the first array element in the backing array.
+     *   @param dims
+     * The size of the array in each dimension, as got from Octave's size().
+     */
+    static List<Object> create(ArrayView base, int offset, int[] dims)
+    {
+        /* Compute the strides of the column-major order and remove the dimensions of size
+           one. */
+        int noDims = 0
+          , stride = 1;
+        int[] squeezedDims = new int[dims.length]
+            , squeezedStrides = new int[dims.length];
+        for(int dim: dims)
+        {
+            if(dim == 0)
+                return base.slice(offset, /* stride */ 1, /* size */ 0);
+            else if(dim != 1)
+            {
+                squeezedDims[noDims] = dim;
+                squeezedStrides[noDims] = stride;
+                ++ noDims;
+            }
+            stride *= dim;
+        }
+
+        if(noDims == 0)
+            return base.slice(offset, /* stride */ 1, /* size */ 1);
+        else if(noDims == 1)
+            return base.slice(offset, squeezedStrides[0], squeezedDims[0]);
+        else
+        {
+            return new MatrixView( base
+                                 , offset
+                                 , Arrays.copyOf(squeezedDims, noDims)
+                                 , Arrays.copyOf(squeezedStrides, noDims)
+                                 );
+        }
+    } /* End of MatrixView.create */
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the sub-array at given index in the first dimension. This is a row
+     * of numbers for a matrix or an (N-1)-dimensional array for an N-dimensional array.
+     *   @param idx
+     * The null based index in the first dimension.
+     */
+    @Override public Object get(int idx)
+    {
+        if(idx < 0  ||  idx >= dims_[0])
+        {
+            throw new IndexOutOfBoundsException("Index " + idx + " is out of range [0, "
+                                                + dims_[0] + ")"
+                                               );
+        }
+        final int offset = offset_ + idx*strides_[0];
+        if(dims_.length == 2)
+            return base_.slice(offset, strides_[1], dims_[1]);
+        else
+        {
+            return new MatrixView( base_
+                                 , offset
+                                 , Arrays.copyOfRange(dims_, 1, dims_.length)
+                                 , Arrays.copyOfRange(strides_, 1, strides_.length)
+                                 );
+        }
+    } /* End of MatrixView.get */
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the size of the first dimension.
+     */
+    @Override public int size()
+        { return dims_[0]; }
+
+} /* End of class MatrixView definition. */
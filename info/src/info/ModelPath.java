@@ -0,0 +1,252 @@
+/**
+ * @file ModelPath.java
+ * A path into a converted data model, like frames{17}.dlc, and the copy-on-write
+ * replacement of the addressed element.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class ModelPath
+ *   ModelPath
+ *   parse
+ *   replace
+ *   toString
+ */
+
+package info;
+
+import java.util.*;
+
+
+/**
+ * A path into a converted data model.<p>
+ *   The path is written in Octave syntax, relative to the root of the data object: A
+ * struct field is addressed by its name, preceded by a dot unless it is the first
+ * element of the path, and a list element by its one based index in curly or round
+ * braces. Examples are {@code frames{17}.dlc}, {@code .name} or {@code {3}(2)}.<p>
+ *   The data model is never modified. {@link #replace} makes a copy of all lists and
+ * structs along the path and shares all other parts of the data model with the
+ * original. Template expansions, which still use the original data model, are not
+ * affected.
+ */
+
+final class ModelPath
+{
+    /** The path elements. An element is either a String, a field name, or an Integer, a
+        null based list index. */
+    private final Object[] elements_;
+
+    /** The path as it had been parsed. */
+    private final String path_;
+
+
+    /**
+     * A new instance of ModelPath is created.
+     *   @param elements
+     * The path elements, field names and null based list indexes.
+     *   @param path
+     * The textual representation of the path.
+     */
+    private ModelPath(Object[] elements, String path)
+    {
+        elements_ = elements;
+        path_ = path;
+
+    } /* End of ModelPath.ModelPath */
+
+
+
+    /**
+     * Parse a path in Octave syntax.
+     *   @return Get the path object.
+     *   @param path
+     * The path, e.g. {@code frames{17}.dlc}. White space is not permitted. An empty path
+     * addresses the root of the data model.
+     *   @throws IllegalArgumentException
+     * The path is malformed.
+     */
+    static ModelPath parse(String path)
+    {
+        List<Object> elements = new ArrayList<>();
+        int pos = 0;
+        final int len = path.length();
+        while(pos < len)
+        {
+            final char c = path.charAt(pos);
+            if(c == '{'  ||  c == '(')
+            {
+                final char close = c == '{'? '}': ')';
+                final int end = path.indexOf(close, pos);
+                int idx = -1;
+                if(end > pos+1)
+                {
+                    try
+                    {
+                        idx = Integer.parseInt(path.substring(pos+1, end));
+                    }
+                    catch(NumberFormatException e)
+                    {
+                        idx = -1;
+                    }
+                }
+                if(idx < 1)
+                {
+                    throw new IllegalArgumentException("Bad index at position " + (pos+1)
+                                                       + " of path " + path + ". A one"
+                                                       + " based index is expected"
+                                                      );
+                }
+                elements.add(idx - 1);
+                pos = end + 1;
+            }
+            else
+            {
+                if(c == '.')
+                    ++ pos;
+                else if(pos > 0)
+                {
+                    throw new IllegalArgumentException("Unexpected character " + c + " at"
+                                                       + " position " + (pos+1) + " of"
+                                                       + " path " + path
+                                                      );
+                }
+                final int start = pos;
+                while(pos < len  &&  (Character.isLetterOrDigit(path.charAt(pos))
+                                      ||  path.charAt(pos) == '_'
+                                     )
+                     )
+                {
+                    ++ pos;
+                }
+                if(pos == start)
+                {
+                    throw new IllegalArgumentException("Field name expected at position "
+                                                       + (start+1) + " of path " + path
+                                                      );
+                }
+                elements.add(path.substring(start, pos));
+            }
+        }
+        return new ModelPath(elements.toArray(), path);
+
+    } /* End of ModelPath.parse */
+
+
+
+    /**
+     * Replace the element, which is addressed by the path, in a data model. The data
+     * model is not modified; the lists and structs along the path are copied.
+     *   @return Get the root of the new data model.
+     *   @param root
+     * The root of the original data model.
+     *   @param value
+     * The new value of the addressed element.
+     *   @throws IllegalArgumentException
+     * The path doesn't fit to the data model.
+     */
+    Object replace(Object root, Object value)
+        { return replace(root, 0, value); }
+
+
+
+    /**
+     * Replace an element in a sub-tree of the data model.
+     *   @return Get the copy of the sub-tree with the replaced element.
+     *   @param node
+     * The root of the sub-tree.
+     *   @param idxElem
+     * The index of the path element, which addresses the child of the root.
+     *   @param value
+     * The new value of the addressed element.
+     */
+    @SuppressWarnings("unchecked")
+    private Object replace(Object node, int idxElem, Object value)
+    {
+        if(idxElem == elements_.length)
+            return value;
+
+        final Object elem = elements_[idxElem];
+        if(elem instanceof String)
+        {
+            if(!(node instanceof Map))
+                throw badPath(idxElem, "a struct");
+
+            final String key = (String)elem;
+            final Map<String,Object> map = (Map<String,Object>)node;
+            if(idxElem + 1 < elements_.length  &&  !map.containsKey(key))
+                throw badPath(idxElem, "an existing field");
+
+            final Object newChild = replace(map.get(key), idxElem+1, value);
+            if(map instanceof CompactStructMap)
+                return ((CompactStructMap)map).with(key, newChild);
+            else
+            {
+                Map<String,Object> newMap = new TreeMap<>(map);
+                newMap.put(key, newChild);
+                return newMap;
+            }
+        }
+        else
+        {
+            /* Numeric arrays are read-only views on the transferred data; they can only be
+               replaced as a whole. */
+            if(!(node instanceof List)  ||  node instanceof ArrayView
+               ||  node instanceof MatrixView  ||  node instanceof SparseMatrixView
+              )
+            {
+                throw badPath(idxElem, "a cell array or struct array");
+            }
+            final int idx = (Integer)elem;
+            final List<Object> list = (List<Object>)node;
+            if(idx >= list.size())
+                throw badPath(idxElem, "an index in range [1, " + list.size() + "]");
+
+            List<Object> newList = new ArrayList<>(list);
+            newList.set(idx, replace(list.get(idx), idxElem+1, value));
+            return newList;
+        }
+    } /* End of ModelPath.replace */
+
+
+
+    /**
+     * Create the exception for a path, which doesn't fit to the data model.
+     *   @return Get the exception object.
+     *   @param idxElem
+     * The index of the offending path element.
+     *   @param expected
+     * A description of what is expected at this position.
+     */
+    private IllegalArgumentException badPath(int idxElem, String expected)
+    {
+        final Object elem = elements_[idxElem];
+        final String elemDesc = elem instanceof String? "field " + elem
+                                                      : "index " + ((Integer)elem + 1);
+        return new IllegalArgumentException("Path " + path_ + " doesn't fit to the data"
+                                            + " model: Element " + (idxElem+1) + ", "
+                                            + elemDesc + ", requires " + expected
+                                           );
+    } /* End of ModelPath.badPath */
+
+
+
+    /**
+     * Get the path in Octave syntax.
+     *   @return Get the path as it had been parsed.
+     */
+    @Override public String toString()
+        { return path_; }
+
+} /* End of class ModelPath definition. */
@@ -0,0 +1,567 @@
+/**
+ * @file OutputBuffer.java
+ * A buffer for generated text, which is held in memory up to a threshold and spilled to
+ * a temporary file beyond.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class OutputBuffer
+ *   OutputBuffer
+ *   write
+ *   flush
+ *   close
+ *   isSpilled
+ *   getTempFileName
+ *   getNoChars
+ *   getNoBytes
+ *   getBytes
+ *   getText
+ *   openStream
+ *   moveTo
+ *   delete
+ */
+
+package info;
+
+import java.util.*;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+
+
+/**
+ * A sink for generated text of unpredictable size.<p>
+ *   The text is UTF-8 encoded while it is written. It is held in memory until its size
+ * exceeds a threshold. Then the buffered bytes are written to a temporary file and all
+ * further text goes directly into this file. Rendering a template, which unexpectedly
+ * produces gigabytes of output, doesn't exhaust the heap of the Java VM.<p>
+ *   After writing, the object is a handle to the generated text: It can be read back,
+ * streamed or moved to its final location. A spilled temporary file is renamed if
+ * possible rather than copied. The temporary file is accessible by its owner only. It is
+ * removed by {@link #delete} or by {@link #moveTo}; the owner of the buffer needs to call
+ * one of them, even if rendering failed.<p>
+ *   The buffer is not safe for concurrent use.
+ */
+
+public final class OutputBuffer extends Writer
+{
+    /** The global logger object for all progress and error reporting. */
+    private static SimpleLogger _logger = new SimpleLogger();
+
+    /** The maximum size of the chunks of the text in memory in Byte. */
+    private static final int MAX_CHUNK_SIZE = 64*1024;
+
+    /** The size of the buffer of characters, which are written to the temporary file, in
+        characters. */
+    private static final int WRITE_BUFFER_SIZE = 64*1024;
+
+    /** The size of the text in Byte, beyond which it is spilled to a file. */
+    private final long threshold_;
+
+    /** The text as long as it is held in memory, otherwise null. */
+    private Utf8ChunkWriter memory_;
+
+    /** The temporary file or null as long as the text is held in memory. */
+    private Path tmpPath_ = null;
+
+    /** The writer into the temporary file while writing is not complete, otherwise
+        null. */
+    private Writer fileWriter_ = null;
+
+    /** The last written character. Spilling is deferred while it is a high surrogate,
+        which is completed by the next written character. */
+    private char lastChar_ = 0;
+
+    /** The number of written characters. */
+    private long noChars_ = 0;
+
+    /** The number of bytes of the complete text. */
+    private long noBytes_ = 0;
+
+    /** Whether writing is complete. */
+    private boolean isClosed_ = false;
+
+    /** Whether the text has been moved or deleted. */
+    private boolean isReleased_ = false;
+
+
+    /**
+     * A new instance of OutputBuffer is created.
+     *   @param threshold
+     * The maximum size of the UTF-8 encoded text in Byte, which is held in memory. The
+     * size is checked in steps of up to 64 kByte.
+     *   @throws IllegalArgumentException
+     * The threshold is negative.
+     */
+    public OutputBuffer(long threshold)
+    {
+        if(threshold < 0)
+        {
+            throw new IllegalArgumentException("The threshold for spilling generated text"
+                                               + " to a file must not be negative but is "
+                                               + threshold
+                                              );
+        }
+        threshold_ = threshold;
+        memory_ = new Utf8ChunkWriter((int)Math.max( Utf8ChunkWriter.MIN_CHUNK_SIZE
+                                                   , Math.min(threshold, MAX_CHUNK_SIZE)
+                                                   )
+                                     );
+    } /* End of OutputBuffer.OutputBuffer */
+
+
+
+    /**
+     * Write a part of an array of characters.
+     *   @param cbuf
+     * The characters.
+     *   @param off
+     * The index of the first character to write.
+     *   @param len
+     * The number of characters to write.
+     *   @throws IOException
+     * The temporary file can't be written.
+     */
+    @Override public void write(char[] cbuf, int off, int len)
+        throws IOException
+    {
+        if(len <= 0)
+            return;
+        checkOpen();
+        if(fileWriter_ != null)
+            fileWriter_.write(cbuf, off, len);
+        else
+        {
+            memory_.write(cbuf, off, len);
+            lastChar_ = cbuf[off+len-1];
+            checkThreshold();
+        }
+        noChars_ += len;
+
+    } /* End of OutputBuffer.write */
+
+
+
+    /**
+     * Write a part of a string.
+     *   @param str
+     * The string.
+     *   @param off
+     * The index of the first character to write.
+     *   @param len
+     * The number of characters to write.
+     *   @throws IOException
+     * The temporary file can't be written.
+     */
+    @Override public void write(String str, int off, int len)
+        throws IOException
+    {
+        if(len <= 0)
+            return;
+        checkOpen();
+        if(fileWriter_ != null)
+            fileWriter_.write(str, off, len);
+        else
+        {
+            memory_.write(str, off, len);
+            lastChar_ = str.charAt(off+len-1);
+            checkThreshold();
+        }
+        noChars_ += len;
+
+    } /* End of OutputBuffer.write */
+
+
+
+    /**
+     * Spill the text to a temporary file if it exceeds the threshold.
+     *   @throws IOException
+     * The temporary file can't be created or written.
+     */
+    private void checkThreshold()
+        throws IOException
+    {
+        if(memory_.getNoBytes() <= threshold_  ||  Character.isHighSurrogate(lastChar_))
+            return;
+
+        /* The file gets an unpredictable name in the temporary directory and, on POSIX
+           file systems, permissions for its owner only. */
+        memory_.close();
+        final Path tmpPath = Files.createTempFile("st4Render.", ".tmp");
+        FileChannel channel = null;
+        try
+        {
+            channel = FileChannel.open(tmpPath, StandardOpenOption.WRITE);
+            final TextChunks chunks = memory_.toChunks();
+            while(chunks.hasNext())
+            {
+                final ByteBuffer buf = ByteBuffer.wrap(chunks.next());
+                while(buf.hasRemaining())
+                    channel.write(buf);
+            }
+            fileWriter_ = new BufferedWriter
+                                ( Channels.newWriter
+                                        ( channel
+                                        , StandardCharsets.UTF_8.newEncoder()
+                                          .onMalformedInput(CodingErrorAction.REPLACE)
+                                          .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                                        , -1
+                                        )
+                                , WRITE_BUFFER_SIZE
+                                );
+        }
+        finally
+        {
+            if(fileWriter_ == null)
+            {
+                if(channel != null)
+                    channel.close();
+                Files.deleteIfExists(tmpPath);
+            }
+        }
+        tmpPath_ = tmpPath;
+        _logger.debug("OutputBuffer: Generated text exceeds " + threshold_ + " Byte and is"
+                      + " spilled to temporary file " + tmpPath_
+                     );
+        memory_ = null;
+
+    } /* End of OutputBuffer.checkThreshold */
+
+
+
+    /**
+     * Check that the buffer can still be written.
+     *   @throws IOException
+     * The buffer has been closed.
+     */
+    private void checkOpen()
+        throws IOException
+    {
+        if(isClosed_)
+            throw new IOException("The output buffer has been closed");
+
+    } /* End of OutputBuffer.checkOpen */
+
+
+
+    /**
+     * Check that the text can be accessed.
+     *   @throws IllegalStateException
+     * The buffer has not been closed yet or its text has been moved or deleted.
+     */
+    private void checkReadable()
+    {
+        if(!isClosed_)
+            throw new IllegalStateException("The output buffer needs to be closed first");
+        if(isReleased_)
+        {
+            throw new IllegalStateException("The text of the output buffer has been moved"
+                                            + " or deleted"
+                                           );
+        }
+    } /* End of OutputBuffer.checkReadable */
+
+
+
+    /**
+     * Flush the text into the temporary file if it has been spilled.
+     *   @throws IOException
+     * The temporary file can't be written.
+     */
+    @Override public void flush()
+        throws IOException
+    {
+        if(fileWriter_ != null)
+            fileWriter_.flush();
+
+    } /* End of OutputBuffer.flush */
+
+
+
+    /**
+     * Complete writing. The text can be accessed afterwards.
+     *   @throws IOException
+     * The temporary file can't be written.
+     */
+    @Override public void close()
+        throws IOException
+    {
+        if(isClosed_)
+            return;
+
+        isClosed_ = true;
+        if(fileWriter_ != null)
+        {
+            fileWriter_.close();
+            fileWriter_ = null;
+            noBytes_ = Files.size(tmpPath_);
+        }
+        else
+        {
+            memory_.close();
+            noBytes_ = memory_.getNoBytes();
+        }
+    } /* End of OutputBuffer.close */
+
+
+
+    /**
+     * Get whether the text has been spilled to a temporary file.
+     *   @return Get true if the text exceeded the threshold.
+     */
+    public boolean isSpilled()
+        { return tmpPath_ != null; }
+
+
+
+    /**
+     * Get the name of the temporary file.
+     *   @return Get the absolute path or null if the text is held in memory.
+     */
+    public String getTempFileName()
+        { return tmpPath_ != null? tmpPath_.toString(): null; }
+
+
+
+    /**
+     * Get the length of the text.
+     *   @return Get the number of written characters.
+     */
+    public long getNoChars()
+        { return noChars_; }
+
+
+
+    /**
+     * Get the size of the UTF-8 encoded text.
+     *   @return Get the number of bytes. The value is available after closing.
+     */
+    public long getNoBytes()
+        { return noBytes_; }
+
+
+
+    /**
+     * Get the text UTF-8 encoded. A spilled text is read back from the temporary file.
+     *   @return Get the new byte array.
+     *   @throws IOException
+     * The temporary file can't be read.
+     *   @throws IllegalStateException
+     * The buffer has not been closed, its text has been moved or deleted or the text is
+     * too long for a single Java array.
+     */
+    public byte[] getBytes()
+        throws IOException
+    {
+        checkReadable();
+        if(noBytes_ > Integer.MAX_VALUE - 8)
+        {
+            throw new IllegalStateException("The generated text of " + noBytes_ + " Byte"
+                                            + " is too long for a single array. Use"
+                                            + " openStream or moveTo instead"
+                                           );
+        }
+        if(tmpPath_ != null)
+            return Files.readAllBytes(tmpPath_);
+
+        final byte[] bytes = new byte[(int)noBytes_];
+        final TextChunks chunks = memory_.toChunks();
+        int pos = 0;
+        while(chunks.hasNext())
+        {
+            final byte[] chunk = chunks.next();
+            System.arraycopy(chunk, 0, bytes, pos, chunk.length);
+            pos += chunk.length;
+        }
+        return bytes;
+
+    } /* End of OutputBuffer.getBytes */
+
+
+
+    /**
+     * Get the text as a String.
+     *   @return Get the text.
+     *   @throws IOException
+     * The temporary file can't be read.
+     *   @throws IllegalStateException
+     * See {@link #getBytes}.
+     */
+    public String getText()
+        throws IOException
+    {
+        return new String(getBytes(), StandardCharsets.UTF_8);
+
+    } /* End of OutputBuffer.getText */
+
+
+
+    /**
+     * Open a stream, which reads the UTF-8 encoded text. A spilled text is streamed from
+     * the temporary file; it is not loaded into memory.
+     *   @return Get the new stream. The caller needs to close it.
+     *   @throws IOException
+     * The temporary file can't be opened.
+     *   @throws IllegalStateException
+     * The buffer has not been closed or its text has been moved or deleted.
+     */
+    public InputStream openStream()
+        throws IOException
+    {
+        checkReadable();
+        if(tmpPath_ != null)
+            return Files.newInputStream(tmpPath_);
+        else
+            return new ByteArrayInputStream(getBytes());
+
+    } /* End of OutputBuffer.openStream */
+
+
+
+    /**
+     * Move the text to its final location. A spilled text is renamed if possible.
+     * Afterwards, the text can't be accessed through the buffer any longer.
+     *   @param fileName
+     * The name of the output file.
+     *   @param directory
+     * The directory, which a relative file name refers to, or null for the working
+     * directory of the Java VM.
+     *   @param doAppend
+     * If true then the text is appended to the file. Otherwise the file is created or
+     * replaced.
+     *   @throws IOException
+     * The file can't be written.
+     *   @throws IllegalStateException
+     * The buffer has not been closed or its text has been moved or deleted.
+     */
+    public void moveTo(String fileName, String directory, boolean doAppend)
+        throws IOException
+    {
+        checkReadable();
+        Path path = Paths.get(fileName);
+        if(directory != null  &&  !directory.isEmpty())
+            path = Paths.get(directory).resolve(path);
+        path = path.toAbsolutePath();
+        Files.createDirectories(path.getParent());
+
+        if(tmpPath_ != null  &&  !doAppend)
+        {
+            /* The renamed temporary file would keep its restrictive permissions. The output
+               file rather keeps the permissions it had or gets those of a newly created
+               file. */
+            Set<PosixFilePermission> permissions = null;
+            if(path.getFileSystem().supportedFileAttributeViews().contains("posix"))
+            {
+                if(!Files.exists(path))
+                    Files.createFile(path);
+                permissions = Files.getPosixFilePermissions(path);
+            }
+            try
+            {
+                Files.move( tmpPath_
+                          , path
+                          , StandardCopyOption.REPLACE_EXISTING
+                          , StandardCopyOption.ATOMIC_MOVE
+                          );
+            }
+            catch(AtomicMoveNotSupportedException e)
+            {
+                Files.move(tmpPath_, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if(permissions != null)
+                Files.setPosixFilePermissions(path, permissions);
+        }
+        else
+        {
+            try(FileChannel channel = FileChannel.open
+                                            ( path
+                                            , StandardOpenOption.CREATE
+                                            , StandardOpenOption.WRITE
+                                            , doAppend? StandardOpenOption.APPEND
+                                                      : StandardOpenOption.TRUNCATE_EXISTING
+                                            )
+               )
+            {
+                if(tmpPath_ != null)
+                {
+                    try(FileChannel tmpChannel = FileChannel.open(tmpPath_))
+                    {
+                        long pos = 0;
+                        while(pos < noBytes_)
+                            pos += tmpChannel.transferTo(pos, noBytes_-pos, channel);
+                    }
+                }
+                else
+                {
+                    final TextChunks chunks = memory_.toChunks();
+                    while(chunks.hasNext())
+                    {
+                        final ByteBuffer buf = ByteBuffer.wrap(chunks.next());
+                        while(buf.hasRemaining())
+                            channel.write(buf);
+                    }
+                }
+            }
+        }
+        _logger.debug("OutputBuffer: " + noBytes_ + " Byte of generated text "
+                      + (doAppend? "appended to ": "moved to ") + path
+                     );
+        delete();
+
+    } /* End of OutputBuffer.moveTo */
+
+
+
+    /**
+     * Discard the text and delete the temporary file, if any. Writing is aborted if it is
+     * not complete yet. The method can be called repeatedly.
+     *   @throws IOException
+     * The temporary file can't be deleted.
+     */
+    public void delete()
+        throws IOException
+    {
+        isReleased_ = true;
+        isClosed_ = true;
+        memory_ = null;
+        try
+        {
+            if(fileWriter_ != null)
+                fileWriter_.close();
+        }
+        finally
+        {
+            fileWriter_ = null;
+            if(tmpPath_ != null)
+                Files.deleteIfExists(tmpPath_);
+        }
+    } /* End of OutputBuffer.delete */
+
+} /* End of class OutputBuffer definition. */
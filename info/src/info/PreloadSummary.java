@@ -0,0 +1,271 @@
+/**
+ * @file PreloadSummary.java
+ * The result of preloading all template group files of a directory tree.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class PreloadSummary
+ *   PreloadSummary
+ *   getDirectory
+ *   getFileResults
+ *   getNoFiles
+ *   getNoFailedFiles
+ *   getParseTime
+ *   getElapsedTime
+ *   toString
+ */
+
+package info;
+
+import java.util.*;
+
+
+/**
+ * The result of {@link TemplateGroupRegistry#preload}.<p>
+ *   The summary lists all group files of the directory tree with the time it took to
+ * load and compile them and with the problems reported by the StringTemplate V4 engine.
+ */
+
+public final class PreloadSummary
+{
+    /** The root of the preloaded directory tree. */
+    private final String directory_;
+
+    /** The results of all group files in alphabetic order of their names. */
+    private final List<FileResult> fileResults_;
+
+    /** The elapsed time of the preload operation in s. */
+    private final double elapsedTime_;
+
+
+    /**
+     * The result of loading a single group file.
+     */
+    public static final class FileResult
+    {
+        /** The name of the group file. */
+        private final String fileName_;
+
+        /** The time spent for loading and compiling the group in s. */
+        private final double parseTime_;
+
+        /** The number of errors reported when loading the group. */
+        private final int noErrors_;
+
+        /** The number of warnings reported when loading the group. */
+        private final int noWarnings_;
+
+        /** The reported problems. */
+        private final List<String> messages_;
+
+        /**
+         * A new instance of FileResult is created.
+         *   @param fileName
+         * The name of the group file.
+         *   @param parseTime
+         * The time spent for loading and compiling the group in s.
+         *   @param noErrors
+         * The number of errors reported when loading the group.
+         *   @param noWarnings
+         * The number of warnings reported when loading the group.
+         *   @param messages
+         * The reported problems.
+         */
+        FileResult( String fileName
+                  , double parseTime
+                  , int noErrors
+                  , int noWarnings
+                  , List<String> messages
+                  )
+        {
+            fileName_ = fileName;
+            parseTime_ = parseTime;
+            noErrors_ = noErrors;
+            noWarnings_ = noWarnings;
+            messages_ = Collections.unmodifiableList(new ArrayList<>(messages));
+
+        } /* End of FileResult.FileResult */
+
+        /**
+         * Get the name of the group file.
+         *   @return Get the absolute path of the file.
+         */
+        public String getFileName()
+            { return fileName_; }
+
+        /**
+         * Get the time spent for loading the group.
+         *   @return Get the time for loading and compiling the group in s.
+         */
+        public double getParseTime()
+            { return parseTime_; }
+
+        /**
+         * Get the number of errors.
+         *   @return Get the number of errors reported when loading the group. The group
+         * is not registered if it is not zero.
+         */
+        public int getNoErrors()
+            { return noErrors_; }
+
+        /**
+         * Get the number of warnings.
+         *   @return Get the number of warnings reported when loading the group.
+         */
+        public int getNoWarnings()
+            { return noWarnings_; }
+
+        /**
+         * Get the reported problems.
+         *   @return Get the list of messages in order of reporting.
+         */
+        public List<String> getMessages()
+            { return messages_; }
+
+    } /* End of class FileResult definition. */
+
+
+    /**
+     * A new instance of PreloadSummary is created.
+     *   @param directory
+     * The root of the preloaded directory tree.
+     *   @param fileResults
+     * The results of all group files.
+     *   @param elapsedTime
+     * The elapsed time of the preload operation in s.
+     */
+    PreloadSummary(String directory, List<FileResult> fileResults, double elapsedTime)
+    {
+        directory_ = directory;
+        final List<FileResult> sortedResults = new ArrayList<>(fileResults);
+        Collections.sort(sortedResults, new Comparator<FileResult>()
+            {
+                @Override public int compare(FileResult a, FileResult b)
+                    { return a.getFileName().compareTo(b.getFileName()); }
+            });
+        fileResults_ = Collections.unmodifiableList(sortedResults);
+        elapsedTime_ = elapsedTime;
+
+    } /* End of PreloadSummary.PreloadSummary */
+
+
+
+    /**
+     * Get the preloaded directory.
+     *   @return Get the root of the preloaded directory tree.
+     */
+    public String getDirectory()
+        { return directory_; }
+
+
+
+    /**
+     * Get the results of the group files.
+     *   @return Get the list of results in alphabetic order of the file names.
+     */
+    public List<FileResult> getFileResults()
+        { return fileResults_; }
+
+
+
+    /**
+     * Get the number of group files.
+     *   @return Get the number of group files found in the directory tree.
+     */
+    public int getNoFiles()
+        { return fileResults_.size(); }
+
+
+
+    /**
+     * Get the number of group files, which couldn't be loaded without errors.
+     *   @return Get the number of group files, which have not been registered.
+     */
+    public int getNoFailedFiles()
+    {
+        int noFailedFiles = 0;
+        for(FileResult fileResult: fileResults_)
+        {
+            if(fileResult.getNoErrors() > 0)
+                ++ noFailedFiles;
+        }
+        return noFailedFiles;
+
+    } /* End of PreloadSummary.getNoFailedFiles */
+
+
+
+    /**
+     * Get the total parse time.
+     *   @return Get the sum of the times for loading the group files in s. Since the
+     * files are loaded concurrently, the sum is usually greater than the elapsed time.
+     */
+    public double getParseTime()
+    {
+        double parseTime = 0.0;
+        for(FileResult fileResult: fileResults_)
+            parseTime += fileResult.getParseTime();
+        return parseTime;
+
+    } /* End of PreloadSummary.getParseTime */
+
+
+
+    /**
+     * Get the elapsed time.
+     *   @return Get the elapsed time of the preload operation in s.
+     */
+    public double getElapsedTime()
+        { return elapsedTime_; }
+
+
+
+    /**
+     * Get the summary as human readable text.
+     *   @return Get the text, one line per group file, followed by the reported problems
+     * of the file, and a final line with the totals.
+     */
+    @Override public String toString()
+    {
+        final StringBuilder sb = new StringBuilder();
+        for(FileResult fileResult: fileResults_)
+        {
+            sb.append(String.format( Locale.ROOT
+                                   , "%s: %.3f s, %d errors, %d warnings\n"
+                                   , fileResult.getFileName()
+                                   , fileResult.getParseTime()
+                                   , fileResult.getNoErrors()
+                                   , fileResult.getNoWarnings()
+                                   )
+                     );
+            for(String msg: fileResult.getMessages())
+                sb.append("  ").append(msg).append('\n');
+        }
+        sb.append(String.format( Locale.ROOT
+                               , "%d group files preloaded from %s in %.3f s (parse time %.3f"
+                                 + " s), %d failed\n"
+                               , getNoFiles()
+                               , directory_
+                               , elapsedTime_
+                               , getParseTime()
+                               , getNoFailedFiles()
+                               )
+                 );
+        return sb.toString();
+
+    } /* End of PreloadSummary.toString */
+
+} /* End of class PreloadSummary definition. */
@@ -0,0 +1,282 @@
+/**
+ * @file RenderResult.java
+ * The result of rendering a template with {@link TemplateRenderer}.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class RenderResult
+ *   RenderResult
+ *   getTemplateName
+ *   getText
+ *   getBytes
+ *   getChunks
+ *   getBuffer
+ *   getNoChars
+ *   getNoErrors
+ *   getNoWarnings
+ *   getInfoPassed
+ *   getLoadTime
+ *   getSetupTime
+ *   getRenderTime
+ *   toString
+ */
+
+package info;
+
+import java.util.*;
+
+
+/**
+ * The result of rendering a template: The generated text, the number of problems, which
+ * were reported while loading the group and rendering the template, and the time spent.
+ * The object is returned to the Octave script render.m as a whole, so that a rendering
+ * needs a single call of the Octave-Java bridge.
+ */
+
+public final class RenderResult
+{
+    /** The load time, which is passed if the caller passed the group and the time for
+        getting it is not known. */
+    static final long NO_LOAD_TIME = -1;
+
+    /** The name of the rendered template. */
+    private final String templateName_;
+
+    /** The generated text or null if it has been written to a file or returned in
+        another form. */
+    private final String text_;
+
+    /** The UTF-8 encoded generated text or null if it is returned in another form. */
+    private final byte[] bytes_;
+
+    /** The UTF-8 encoded chunks of the generated text or null if it is returned in
+        another form. */
+    private final TextChunks chunks_;
+
+    /** The buffer, which holds the generated text, or null if it is returned in another
+        form. */
+    private final OutputBuffer buffer_;
+
+    /** The number of generated characters. */
+    private final long noChars_;
+
+    /** The number of reported errors. */
+    private final int noErrors_;
+
+    /** The number of reported warnings. */
+    private final int noWarnings_;
+
+    /** Whether the service object info has been passed to the template. */
+    private final boolean isInfoPassed_;
+
+    /** The time for getting the group in s or NaN if it is not known. */
+    private final double loadTime_;
+
+    /** The time for creating the template instance and adding its attributes in s. */
+    private final double setupTime_;
+
+    /** The time for rendering the template, including writing the file, in s. */
+    private final double renderTime_;
+
+
+    /**
+     * A new instance of RenderResult is created.
+     *   @param templateName
+     * The name of the rendered template.
+     *   @param output
+     * The generated text as String, as UTF-8 encoded byte array, as {@link TextChunks} or
+     * as {@link OutputBuffer} or null if it has been written to a file.
+     *   @param noChars
+     * The number of generated characters.
+     *   @param errCnt
+     * The error counter of the group, which holds the problems of this rendering.
+     *   @param isInfoPassed
+     * Whether the service object info has been passed to the template.
+     *   @param tiLoad
+     * The time for getting the group in ns or {@link #NO_LOAD_TIME} if the caller passed
+     * the group.
+     *   @param tiSetup
+     * The time for creating the template instance and adding its attributes in ns.
+     *   @param tiRender
+     * The time for rendering the template in ns.
+     */
+    RenderResult( String templateName
+                , Object output
+                , long noChars
+                , ErrorCounter errCnt
+                , boolean isInfoPassed
+                , long tiLoad
+                , long tiSetup
+                , long tiRender
+                )
+    {
+        templateName_ = templateName;
+        text_ = output instanceof String? (String)output: null;
+        bytes_ = output instanceof byte[]? (byte[])output: null;
+        chunks_ = output instanceof TextChunks? (TextChunks)output: null;
+        buffer_ = output instanceof OutputBuffer? (OutputBuffer)output: null;
+        noChars_ = noChars;
+        noErrors_ = errCnt.getNoErrors();
+        noWarnings_ = errCnt.getNoWarnings();
+        isInfoPassed_ = isInfoPassed;
+        loadTime_ = tiLoad != NO_LOAD_TIME? tiLoad / 1e9: Double.NaN;
+        setupTime_ = tiSetup / 1e9;
+        renderTime_ = tiRender / 1e9;
+
+    } /* End of RenderResult.RenderResult */
+
+
+
+    /**
+     * Get the name of the rendered template.
+     *   @return Get the name as passed to the renderer.
+     */
+    public String getTemplateName()
+        { return templateName_; }
+
+
+
+    /**
+     * Get the generated text.
+     *   @return Get the text or null if it has been written to a file or if it has been
+     * requested in another form.
+     */
+    public String getText()
+        { return text_; }
+
+
+
+    /**
+     * Get the generated text UTF-8 encoded, see {@link
+     * TemplateRenderer#renderGroupToBytes}.
+     *   @return Get the bytes or null if the text has been requested in another form.
+     */
+    public byte[] getBytes()
+        { return bytes_; }
+
+
+
+    /**
+     * Get the generated text as a sequence of UTF-8 encoded chunks, see {@link
+     * TemplateRenderer#renderGroupToChunks}.
+     *   @return Get the iterator over the chunks or null if the text has been requested in
+     * another form.
+     */
+    public TextChunks getChunks()
+        { return chunks_; }
+
+
+
+    /**
+     * Get the buffer, which holds the generated text, see {@link
+     * TemplateRenderer#renderGroupToBuffer}.
+     *   @return Get the closed buffer or null if the text has been requested in another
+     * form.
+     */
+    public OutputBuffer getBuffer()
+        { return buffer_; }
+
+
+
+    /**
+     * Get the length of the generated text.
+     *   @return Get the number of characters.
+     */
+    public long getNoChars()
+        { return noChars_; }
+
+
+
+    /**
+     * Get the number of errors, which were reported while loading the group and
+     * rendering the template.
+     *   @return Get the number.
+     */
+    public int getNoErrors()
+        { return noErrors_; }
+
+
+
+    /**
+     * Get the number of warnings, which were reported while loading the group and
+     * rendering the template.
+     *   @return Get the number.
+     */
+    public int getNoWarnings()
+        { return noWarnings_; }
+
+
+
+    /**
+     * Get whether the service object info has been passed to the template.
+     *   @return Get true if the template declares the argument info and if the caller
+     * didn't pass an attribute of this name.
+     */
+    public boolean getInfoPassed()
+        { return isInfoPassed_; }
+
+
+
+    /**
+     * Get the time for getting the group from the registry.
+     *   @return Get the time in s. It is NaN if the caller passed the group.
+     */
+    public double getLoadTime()
+        { return loadTime_; }
+
+
+
+    /**
+     * Get the time for creating the template instance and adding its attributes.
+     *   @return Get the time in s.
+     */
+    public double getSetupTime()
+        { return setupTime_; }
+
+
+
+    /**
+     * Get the time for rendering the template.
+     *   @return Get the time in s.
+     */
+    public double getRenderTime()
+        { return renderTime_; }
+
+
+
+    /**
+     * Get a summary of the rendering as printable text.
+     *   @return Get the text. The time for getting the group is contained only if the
+     * group has been got by the renderer.
+     */
+    @Override public String toString()
+    {
+        final String loadTime = Double.isNaN(loadTime_)
+                                ? ""
+                                : String.format(Locale.US, "load %.3f s, ", loadTime_);
+        return String.format( Locale.US
+                            , "Template %s has been rendered with %d errors and %d warnings"
+                              + " (%ssetup %.3f s, render %.3f s)"
+                            , templateName_
+                            , noErrors_
+                            , noWarnings_
+                            , loadTime
+                            , setupTime_
+                            , renderTime_
+                            );
+    } /* End of RenderResult.toString */
+
+} /* End of class RenderResult definition. */
@@ -22,6 +22,8 @@
 /* Interface of class ST4ErrorListener
  *   ST4ErrorListener
  *   setErrorCounter
+ *   getErrorCounter
+ *   setMessageList
  *   location
  *   filterST4ErrMsg
  *   logError
@@ -61,6 +63,9 @@ public class ST4ErrorListener implements STErrorListener
         log with redundant information. */
     private int noErrs_ = 0;
 
+    /** If not null then the emitted error messages are appended to this list, too. */
+    private List<String> messages_ = null;
+
     /** The maximum number of emitted errors. If this number is exceeded, the template
         expansion is aborted. */
     static private final int _maxNoErrs = 10;
@@ -108,6 +113,22 @@ public class ST4ErrorListener implements STErrorListener
 
 
 
+    /**
+     * Pass a list, which collects the emitted error messages.
+     *   From now on all logged problems are appended to the list, too. This is used to
+     * report the problems of a group file in a summary.
+     *   @param messages
+     * The list to be used is passed in.\n
+     *   Pass null if the messages should be logged only.
+     */
+    public void setMessageList(List<String> messages)
+    {
+        messages_ = messages;
+
+    } /* End of ST4ErrorListener.setMessageList */
+
+
+
     /**
      * Compose a string, which indicates the location of a template expansion problem in a
      * uniquely used way.
@@ -181,7 +202,10 @@ public class ST4ErrorListener implements STErrorListener
                 errCnt_.error();
 
             assert msg != null;
-            _logger.error(location() + filterST4ErrMsg(msg.toString()));
+            final String errMsg = filterST4ErrMsg(msg.toString());
+            _logger.error(location() + errMsg);
+            if(messages_ != null)
+                messages_.add(errMsg);
 
             /* Abort the template expansion when the permitted number of errors has been
                reported. Note, the outer if clause will still allow logging the message
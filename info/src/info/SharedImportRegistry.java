@@ -0,0 +1,422 @@
+/**
+ * @file SharedImportRegistry.java
+ * A registry of imported StringTemplate V4 group files, which are shared by all groups,
+ * which import them.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class SharedImportRegistry
+ *   getGroup
+ *   clear
+ *   setEnabled
+ *   getEnabled
+ *   getNoEntries
+ *   getNoHits
+ *   getNoMisses
+ */
+
+package info;
+
+import java.util.*;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URISyntaxException;
+import java.net.URL;
+import org.stringtemplate.v4.STErrorListener;
+import org.stringtemplate.v4.STGroup;
+import org.stringtemplate.v4.misc.STMessage;
+
+
+/**
+ * A registry of shared imported group files.<p>
+ *   Template libraries are typically imported by several root groups. Without sharing,
+ * each root group, which is held by the {@link TemplateGroupRegistry}, would parse and
+ * hold a private copy of the library. This registry holds a single compiled group per
+ * imported group file; all root groups, which import the file, refer to it. An imported
+ * group file is identified by its canonical path and by the hash of its contents, see
+ * {@link CompiledGroupCache#getHash}. If the file or any of the group files it imports,
+ * directly or indirectly, is modified then the next root group, which imports it, gets a
+ * new shared group, while other root groups keep using the outdated one until they are
+ * reloaded themselves.<p>
+ *   A shared group is used by several root groups and threads at a time. It is
+ * therefore compiled completely when it is loaded and it doesn't report problems to the
+ * error listener of any particular root group. An imported group file is shared only if
+ * it has no errors, if none of its templates has errors, even if it is never used, and
+ * if all of its imports are shared group files, too. Otherwise the importing group gets
+ * a private group as usual, which reports its problems to the listener of the importing
+ * group.<p>
+ *   The registry holds the shared groups by weak references; a shared group is
+ * discarded as soon as no loaded group imports it any longer.<p>
+ *   All methods are safe for concurrent use.
+ */
+
+public final class SharedImportRegistry
+{
+    /** The global logger object for all progress and error reporting. */
+    private static SimpleLogger _logger = new SimpleLogger();
+
+    /** Whether imported group files are shared. */
+    private static volatile boolean _isEnabled = true;
+
+    /** The shared groups by key. */
+    private static final HashMap<String,WeakReference<CachedSTGroupFile>> _groups =
+                                                                        new HashMap<>();
+
+    /** The keys of the group files, which can't be shared. */
+    private static final HashSet<String> _notShareableKeys = new HashSet<>();
+
+    /** The keys of the group files, which are being loaded by the current thread. Used
+        to handle cyclic imports. */
+    private static final ThreadLocal<Set<String>> _loadingKeys =
+                                                            new ThreadLocal<Set<String>>()
+        {
+            @Override protected Set<String> initialValue()
+                { return new HashSet<>(); }
+        };
+
+    /** The number of imports, which were served with a shared group. */
+    private static long _noHits = 0;
+
+    /** The number of imports, which had to load the shared group. */
+    private static long _noMisses = 0;
+
+
+    /**
+     * An error listener, which only records whether an error occurred. The problems of a
+     * group, which is not shared, are reported later by the private group of the
+     * importing group.
+     */
+    private static final class ErrorFlag implements STErrorListener
+    {
+        /** Whether any error has been reported. */
+        boolean hasErrors_ = false;
+
+        @Override public void compileTimeError(STMessage msg)
+            { hasErrors_ = true; }
+
+        @Override public void runTimeError(STMessage msg)
+            { hasErrors_ = true; }
+
+        @Override public void IOError(STMessage msg)
+            { hasErrors_ = true; }
+
+        @Override public void internalError(STMessage msg)
+            { hasErrors_ = true; }
+
+    } /* End of class ErrorFlag definition. */
+
+
+    /**
+     * The class is a collection of static methods; no instances are created.
+     */
+    private SharedImportRegistry()
+    {
+    } /* End of SharedImportRegistry.SharedImportRegistry */
+
+
+
+    /**
+     * Get the shared group for an imported group file. The group is loaded and compiled
+     * if it is not registered yet.
+     *   @return Get the shared group or null if the group file can't be shared.
+     *   @param url
+     * The URL of the imported group file.
+     *   @param encoding
+     * The character encoding of the group file.
+     *   @param delimiterStartChar
+     * The initial start character of template expressions.
+     *   @param delimiterStopChar
+     * The initial stop character of template expressions.
+     */
+    static CachedSTGroupFile getGroup( URL url
+                                     , String encoding
+                                     , char delimiterStartChar
+                                     , char delimiterStopChar
+                                     )
+    {
+        if(!_isEnabled)
+            return null;
+
+        /* The group is created with the canonical URL; different relative paths to the
+           same file yield the same group. Relative imports of the group are resolved
+           against the same directory. */
+        final URL canonicalURL = canonicalURL(url);
+        if(canonicalURL == null)
+            return null;
+        final CachedSTGroupFile group = new CachedSTGroupFile( canonicalURL
+                                                             , encoding
+                                                             , delimiterStartChar
+                                                             , delimiterStopChar
+                                                             );
+        final String hash = CompiledGroupCache.getHash(group);
+        if(hash == null)
+            return null;
+        final String key = canonicalURL.getPath() + "#" + hash;
+
+        CachedSTGroupFile sharedGroup;
+        synchronized(_groups)
+        {
+            if(_notShareableKeys.contains(key))
+                return null;
+            final WeakReference<CachedSTGroupFile> ref = _groups.get(key);
+            sharedGroup = ref != null? ref.get(): null;
+        }
+
+        /* The key covers only the contents of the group file itself. A registered group
+           is outdated if any of the group files it imports has been modified meanwhile.
+           The files are read outside the lock. */
+        final boolean isOutdated = sharedGroup != null
+                                   &&  hasModifiedImports(sharedGroup
+                                                         , new HashSet<CachedSTGroupFile>()
+                                                         );
+        synchronized(_groups)
+        {
+            if(sharedGroup != null  &&  !isOutdated)
+            {
+                ++ _noHits;
+                return sharedGroup;
+            }
+            if(isOutdated)
+            {
+                _logger.debug("SharedImportRegistry: An import of shared group "
+                              + canonicalURL + " has been modified"
+                             );
+                final WeakReference<CachedSTGroupFile> ref = _groups.get(key);
+                if(ref != null  &&  ref.get() == sharedGroup)
+                    _groups.remove(key);
+            }
+            ++ _noMisses;
+        }
+
+        /* A cyclic import can't be shared; the group would need to be loaded before it
+           could be loaded itself. */
+        final Set<String> loadingKeys = _loadingKeys.get();
+        if(!loadingKeys.add(key))
+            return null;
+
+        /* The group is loaded outside the lock. If another thread loads the same group
+           concurrently, then the first registered one is used. */
+        _logger.debug("SharedImportRegistry: Load shared group " + canonicalURL);
+        final ErrorFlag errorFlag = new ErrorFlag();
+        group.setListener(errorFlag);
+        try
+        {
+            group.compileAllTemplates();
+        }
+        catch(RuntimeException e)
+        {
+            errorFlag.hasErrors_ = true;
+        }
+        finally
+        {
+            loadingKeys.remove(key);
+        }
+        boolean isShareable = !errorFlag.hasErrors_;
+        for(STGroup importedGroup: group.getImports())
+        {
+            if(!(importedGroup instanceof CachedSTGroupFile
+                 &&  ((CachedSTGroupFile)importedGroup).isShared_
+                )
+              )
+            {
+                isShareable = false;
+            }
+        }
+
+        synchronized(_groups)
+        {
+            if(!isShareable)
+            {
+                _logger.debug("SharedImportRegistry: " + canonicalURL + " can't be shared");
+                _notShareableKeys.add(key);
+                return null;
+            }
+            final WeakReference<CachedSTGroupFile> ref = _groups.get(key);
+            sharedGroup = ref != null? ref.get(): null;
+            if(sharedGroup != null)
+                return sharedGroup;
+
+            /* Problems, which are not related to an importing group, are still logged. */
+            group.setListener(new ST4ErrorListener(/* errorCounter */ null));
+            group.sharedHash_ = hash;
+            group.isShared_ = true;
+            purge();
+            _groups.put(key, new WeakReference<>(group));
+        }
+        return group;
+
+    } /* End of SharedImportRegistry.getGroup */
+
+
+
+    /**
+     * Get the canonical form of the URL of a group file.
+     *   @return Get the URL of the canonical path of the file or null if the URL doesn't
+     * designate a file, e.g. if it is an entry of a jar file, or if the file doesn't
+     * exist.
+     *   @param url
+     * The URL of the group file.
+     */
+    private static URL canonicalURL(URL url)
+    {
+        if(!"file".equals(url.getProtocol()))
+            return null;
+        try
+        {
+            final File file = new File(url.toURI());
+            if(!file.isFile())
+                return null;
+            return file.getCanonicalFile().toURI().toURL();
+        }
+        catch(URISyntaxException | IllegalArgumentException | IOException e)
+        {
+            return null;
+        }
+    } /* End of SharedImportRegistry.canonicalURL */
+
+
+
+    /**
+     * Check if any of the group files, which are imported by a shared group, directly or
+     * indirectly, has been modified since the imported groups were loaded.
+     *   @return Get true if the hash of an imported group file differs from the hash at
+     * load time or if the file can't be read any longer.
+     *   @param group
+     * The shared group.
+     *   @param visitedGroups
+     * The groups, which have been checked so far. An imported group is checked only once,
+     * even if it is imported by several groups.
+     */
+    private static boolean hasModifiedImports( CachedSTGroupFile group
+                                             , Set<CachedSTGroupFile> visitedGroups
+                                             )
+    {
+        /* All imports of a shared group are shared groups, too. */
+        for(STGroup importedGroup: group.getImports())
+        {
+            final CachedSTGroupFile sharedGroup = (CachedSTGroupFile)importedGroup;
+            if(!visitedGroups.add(sharedGroup))
+                continue;
+            final String hash = CompiledGroupCache.getHash(sharedGroup);
+            if(hash == null  ||  !hash.equals(sharedGroup.sharedHash_))
+                return true;
+            if(hasModifiedImports(sharedGroup, visitedGroups))
+                return true;
+        }
+        return false;
+
+    } /* End of SharedImportRegistry.hasModifiedImports */
+
+
+
+    /**
+     * Remove the groups, which have been discarded by the garbage collector. The caller
+     * needs to hold the lock of the registry.
+     */
+    private static void purge()
+    {
+        final Iterator<WeakReference<CachedSTGroupFile>> it = _groups.values().iterator();
+        while(it.hasNext())
+        {
+            if(it.next().get() == null)
+                it.remove();
+        }
+    } /* End of SharedImportRegistry.purge */
+
+
+
+    /**
+     * Remove all shared groups from the registry. Loaded groups keep using the shared
+     * groups they refer to; groups loaded later will load their imports anew.
+     */
+    public static void clear()
+    {
+        synchronized(_groups)
+        {
+            _groups.clear();
+            _notShareableKeys.clear();
+        }
+        _logger.debug("SharedImportRegistry: All shared groups are cleared");
+
+    } /* End of SharedImportRegistry.clear */
+
+
+
+    /**
+     * Enable or disable the sharing of imported group files.
+     *   @param isEnabled
+     * If true then imported group files are shared. If false then each loaded group gets
+     * private copies of its imports. The setting applies to groups, which are loaded
+     * later.
+     */
+    public static void setEnabled(boolean isEnabled)
+        { _isEnabled = isEnabled; }
+
+
+
+    /**
+     * Get whether imported group files are shared.
+     *   @return Get true if sharing is enabled.
+     */
+    public static boolean getEnabled()
+        { return _isEnabled; }
+
+
+
+    /**
+     * Get the number of shared groups.
+     *   @return Get the number of registered groups, which have not been discarded by the
+     * garbage collector yet.
+     */
+    public static int getNoEntries()
+    {
+        synchronized(_groups)
+        {
+            purge();
+            return _groups.size();
+        }
+    } /* End of SharedImportRegistry.getNoEntries */
+
+
+
+    /**
+     * Get the number of imports, which were served with a shared group.
+     *   @return Get the number.
+     */
+    public static long getNoHits()
+    {
+        synchronized(_groups)
+        {
+            return _noHits;
+        }
+    } /* End of SharedImportRegistry.getNoHits */
+
+
+
+    /**
+     * Get the number of imports, which had to load the group file.
+     *   @return Get the number.
+     */
+    public static long getNoMisses()
+    {
+        synchronized(_groups)
+        {
+            return _noMisses;
+        }
+    } /* End of SharedImportRegistry.getNoMisses */
+
+} /* End of class SharedImportRegistry definition. */
@@ -0,0 +1,427 @@
+/**
+ * @file SparseMatrixView.java
+ * A read-only view on an Octave sparse matrix for the StringTemplate V4 data model. The
+ * matrix is held in compressed column format; only the non-zero elements are stored and
+ * visited.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class SparseMatrixView
+ *   SparseMatrixView
+ *   fromTriplets
+ *   get
+ *   size
+ *   getNoRows
+ *   getNoCols
+ *   getNnz
+ *   getEntries
+ *   getRows
+ *   Entry
+ *   SparseRow
+ */
+
+package info;
+
+import java.util.*;
+import java.nio.LongBuffer;
+
+
+/**
+ * A read-only view on an Octave sparse matrix.<p>
+ *   Expanding a sparse matrix into a dense list of rows would require memory for all of
+ * its elements, most of them zero. This class rather keeps the compressed column
+ * representation (CSC) of the matrix: The values and row indexes of the non-zero elements
+ * in column-major order and, for each column, the index of its first non-zero element.
+ * Memory and conversion cost are proportional to the number of non-zero elements.<p>
+ *   In a StringTemplate V4 template, the object behaves like a list of the non-zero
+ * elements in column-major order, each of them an {@link Entry} with the properties
+ * {@code row}, {@code col} and {@code value}. Row and column index are one based, as in
+ * Octave; the null based indexes are available as {@code rowIdx} and {@code colIdx}. A
+ * typical template expression would be:<p>
+ *   {@code <m:{e|a[<e.rowIdx>][<e.colIdx>] = <e.value>;}; separator="\n">}<p>
+ *   Alternatively, the property {@code rows} is a list of all rows, which contain at
+ * least one non-zero element. Each of them is a list of its elements in order of rising
+ * column index and has the additional property {@code row}. The further properties of the
+ * matrix are {@code noRows}, {@code noCols} and {@code nnz}, the number of non-zero
+ * elements.
+ */
+
+public final class SparseMatrixView extends AbstractList<SparseMatrixView.Entry>
+                                    implements RandomAccess
+{
+    /** The number of rows of the matrix. */
+    private final int noRows_;
+
+    /** The number of columns of the matrix. */
+    private final int noCols_;
+
+    /** The number of non-zero elements of the matrix. */
+    private final int nnz_;
+
+    /** The values of the non-zero elements in column-major order. */
+    private final ArrayView values_;
+
+    /** The backing store of the null based row indexes and of the column pointers. */
+    private final LongBuffer index_;
+
+    /** The index of the row index of the first non-zero element in {@link #index_}. */
+    private final int offsetRowIdx_;
+
+    /** The index of the first of the noCols+1 column pointers in {@link #index_}. Column
+        pointer j is the index of the first non-zero element in column j, the last one is
+        the number of non-zero elements. */
+    private final int offsetColPtr_;
+
+    /** The list of non-empty rows. It is created on first use. */
+    private List<SparseRow> rows_ = null;
+
+
+    /**
+     * One non-zero element of the matrix.
+     */
+    public static final class Entry
+    {
+        /** The null based row index. */
+        private final int rowIdx_;
+
+        /** The null based column index. */
+        private final int colIdx_;
+
+        /** The value of the element. */
+        private final Object value_;
+
+        /**
+         * A new instance of Entry is created.
+         *   @param rowIdx The null based row index.
+         *   @param colIdx The null based column index.
+         *   @param value The value.
+         */
+        private Entry(int rowIdx, int colIdx, Object value)
+        {
+            rowIdx_ = rowIdx;
+            colIdx_ = colIdx;
+            value_ = value;
+        }
+
+        /** @return Get the one based row index, {@code <e.row>} in a template. */
+        public int getRow()
+            { return rowIdx_ + 1; }
+
+        /** @return Get the one based column index, {@code <e.col>} in a template. */
+        public int getCol()
+            { return colIdx_ + 1; }
+
+        /** @return Get the null based row index, {@code <e.rowIdx>} in a template. */
+        public int getRowIdx()
+            { return rowIdx_; }
+
+        /** @return Get the null based column index, {@code <e.colIdx>} in a template. */
+        public int getColIdx()
+            { return colIdx_; }
+
+        /** @return Get the value, {@code <e.value>} in a template. */
+        public Object getValue()
+            { return value_; }
+
+        /** @return Get a representation like (row,col)=value for debugging. */
+        @Override public String toString()
+            { return "(" + getRow() + "," + getCol() + ")=" + value_; }
+
+    } /* End of class SparseMatrixView.Entry */
+
+
+    /**
+     * A non-empty row of the matrix, a list of its non-zero elements in order of rising
+     * column index.
+     */
+    public final class SparseRow extends AbstractList<Entry> implements RandomAccess
+    {
+        /** The null based row index. */
+        private final int rowIdx_;
+
+        /** The indexes of the row's elements in the column-major order of the matrix. */
+        private final int[] entryIdxs_;
+
+        /**
+         * A new instance of SparseRow is created.
+         *   @param rowIdx The null based row index.
+         *   @param entryIdxs The indexes of the row's elements in column-major order.
+         */
+        private SparseRow(int rowIdx, int[] entryIdxs)
+        {
+            rowIdx_ = rowIdx;
+            entryIdxs_ = entryIdxs;
+        }
+
+        /** @return Get the one based row index, {@code <r.row>} in a template. */
+        public int getRow()
+            { return rowIdx_ + 1; }
+
+        /** @return Get the null based row index, {@code <r.rowIdx>} in a template. */
+        public int getRowIdx()
+            { return rowIdx_; }
+
+        /** {@inheritDoc} */
+        @Override public Entry get(int idx)
+            { return SparseMatrixView.this.get(entryIdxs_[idx]); }
+
+        /** {@inheritDoc} */
+        @Override public int size()
+            { return entryIdxs_.length; }
+
+    } /* End of class SparseMatrixView.SparseRow */
+
+
+    /**
+     * A new instance of SparseMatrixView is created on data in compressed column format.
+     *   @param noRows
+     * The number of rows of the matrix.
+     *   @param noCols
+     * The number of columns of the matrix.
+     *   @param nnz
+     * The number of non-zero elements.
+     *   @param values
+     * A view on the values of the non-zero elements in column-major order.
+     *   @param index
+     * The backing store of row indexes and column pointers. It is used with absolute
+     * indexes; its position is irrelevant.
+     *   @param offsetRowIdx
+     * The index of the null based row index of the first non-zero element in {@code
+     * index}. The nnz row indexes are stored in column-major order of the elements.
+     *   @param offsetColPtr
+     * The index of the first of noCols+1 column pointers in {@code index}.
+     */
+    SparseMatrixView( int noRows
+                    , int noCols
+                    , int nnz
+                    , ArrayView values
+                    , LongBuffer index
+                    , int offsetRowIdx
+                    , int offsetColPtr
+                    )
+    {
+        if(values.size() != nnz  ||  index.limit() < offsetRowIdx + nnz
+           ||  index.limit() < offsetColPtr + noCols + 1
+           ||  index.get(offsetColPtr + noCols) != nnz
+          )
+        {
+            throw new IllegalArgumentException("SparseMatrixView: Inconsistent compressed"
+                                               + " column data for " + noRows + "x" + noCols
+                                               + " matrix with " + nnz + " non-zero"
+                                               + " elements"
+                                              );
+        }
+        noRows_ = noRows;
+        noCols_ = noCols;
+        nnz_ = nnz;
+        values_ = values;
+        index_ = index;
+        offsetRowIdx_ = offsetRowIdx;
+        offsetColPtr_ = offsetColPtr;
+
+    } /* End of SparseMatrixView.SparseMatrixView */
+
+
+
+    /**
+     * Create a sparse matrix view from the output of Octave's find, e.g. {@code [i, j, v]
+     * = find(S)}.
+     *   @return Get the new view.
+     *   @param noRows
+     * The number of rows of the matrix.
+     *   @param noCols
+     * The number of columns of the matrix.
+     *   @param rowIdxs
+     * The one based row indexes of the non-zero elements.
+     *   @param colIdxs
+     * The one based column indexes of the non-zero elements. The elements need to be
+     * sorted in column-major order, which is the order returned by Octave's find.
+     *   @param values
+     * The values of the non-zero elements.
+     */
+    public static SparseMatrixView fromTriplets( int noRows
+                                               , int noCols
+                                               , Object rowIdxs
+                                               , Object colIdxs
+                                               , Object values
+                                               )
+    {
+        final double[] rowIdxAry = DataModelBuilder.toDoubleArray(rowIdxs)
+                     , colIdxAry = DataModelBuilder.toDoubleArray(colIdxs)
+                     , valueAry = DataModelBuilder.toDoubleArray(values);
+        final int nnz = valueAry != null? valueAry.length: 0;
+        if(nnz > 0  &&  (rowIdxAry.length != nnz  ||  colIdxAry.length != nnz))
+        {
+            throw new IllegalArgumentException("SparseMatrixView: Row indexes, column"
+                                               + " indexes and values need to have the"
+                                               + " same length"
+                                              );
+        }
+
+        /* Build the compressed column format: The nnz row indexes are followed by the
+           noCols+1 column pointers. */
+        long[] index = new long[nnz + noCols + 1];
+        int col = 0;
+        for(int k=0; k<nnz; ++k)
+        {
+            index[k] = (long)rowIdxAry[k] - 1;
+            final int colIdx = (int)colIdxAry[k] - 1;
+            if(colIdx < col-1  ||  colIdx >= noCols  ||  index[k] < 0  ||  index[k] >= noRows)
+            {
+                throw new IllegalArgumentException("SparseMatrixView: Element " + (k+1)
+                                                   + " is out of range or not in"
+                                                   + " column-major order"
+                                                  );
+            }
+            while(col <= colIdx)
+                index[nnz + col++] = k;
+        }
+        while(col <= noCols)
+            index[nnz + col++] = nnz;
+
+        return new SparseMatrixView( noRows
+                                   , noCols
+                                   , nnz
+                                   , ArrayView.wrap( valueAry != null? valueAry: new double[0]
+                                                   , DataModelBuilder.CLASS_DOUBLE
+                                                   )
+                                   , LongBuffer.wrap(index)
+                                   , /* offsetRowIdx */ 0
+                                   , /* offsetColPtr */ nnz
+                                   );
+    } /* End of SparseMatrixView.fromTriplets */
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the non-zero element of given index in column-major order.
+     *   @param idx
+     * The null based index of the element in column-major order.
+     */
+    @Override public Entry get(int idx)
+    {
+        if(idx < 0  ||  idx >= nnz_)
+        {
+            throw new IndexOutOfBoundsException("Index " + idx + " is out of range [0, "
+                                                + nnz_ + ")"
+                                               );
+        }
+
+        /* Binary search for the column: Find the last column pointer, which is not
+           greater than idx. Empty columns have the same pointer as their successor. */
+        int lo = 0
+          , hi = noCols_ - 1;
+        while(lo < hi)
+        {
+            final int mid = (lo + hi + 1) >>> 1;
+            if(index_.get(offsetColPtr_ + mid) <= idx)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        return new Entry((int)index_.get(offsetRowIdx_ + idx), lo, values_.get(idx));
+
+    } /* End of SparseMatrixView.get */
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the number of non-zero elements.
+     */
+    @Override public int size()
+        { return nnz_; }
+
+
+
+    /**
+     * Get the number of rows of the matrix.
+     *   @return Get the number, {@code <m.noRows>} in a template.
+     */
+    public int getNoRows()
+        { return noRows_; }
+
+
+
+    /**
+     * Get the number of columns of the matrix.
+     *   @return Get the number, {@code <m.noCols>} in a template.
+     */
+    public int getNoCols()
+        { return noCols_; }
+
+
+
+    /**
+     * Get the number of non-zero elements of the matrix.
+     *   @return Get the number, {@code <m.nnz>} in a template.
+     */
+    public int getNnz()
+        { return nnz_; }
+
+
+
+    /**
+     * Get the non-zero elements of the matrix in column-major order. This is the matrix
+     * object itself, the method has been added for readability of templates.
+     *   @return Get the list of elements, {@code <m.entries>} in a template.
+     */
+    public List<Entry> getEntries()
+        { return this; }
+
+
+
+    /**
+     * Get the rows of the matrix, which contain at least one non-zero element. The
+     * list is computed on first use. Its size is proportional to the number of non-zero
+     * elements, not to the number of rows.
+     *   @return Get the list of rows in order of rising row index, {@code <m.rows>} in a
+     * template.
+     */
+    public synchronized List<SparseRow> getRows()
+    {
+        if(rows_ == null)
+        {
+            /* Sort the elements by row index. The elements are in column-major order and
+               so are their indexes; including the index into the sort key keeps the
+               column order inside a row. */
+            long[] keys = new long[nnz_];
+            for(int k=0; k<nnz_; ++k)
+                keys[k] = (index_.get(offsetRowIdx_ + k) << 32) | k;
+            Arrays.sort(keys);
+
+            List<SparseRow> rows = new ArrayList<>();
+            int k = 0;
+            while(k < nnz_)
+            {
+                final int rowIdx = (int)(keys[k] >>> 32);
+                int kEnd = k + 1;
+                while(kEnd < nnz_  &&  (int)(keys[kEnd] >>> 32) == rowIdx)
+                    ++ kEnd;
+                int[] entryIdxs = new int[kEnd - k];
+                for(int i=0; i<entryIdxs.length; ++i)
+                    entryIdxs[i] = (int)keys[k+i];
+                rows.add(new SparseRow(rowIdx, entryIdxs));
+                k = kEnd;
+            }
+            rows_ = Collections.unmodifiableList(rows);
+        }
+        return rows_;
+
+    } /* End of SparseMatrixView.getRows */
+
+} /* End of class SparseMatrixView definition. */
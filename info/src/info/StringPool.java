@@ -0,0 +1,307 @@
+/**
+ * @file StringPool.java
+ * A pool of strings, which avoids the creation of duplicate Java String objects when the
+ * transferred Octave data object is converted into the StringTemplate V4 data model.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class StringPool
+ *   StringPool
+ *   intern
+ *   getNoStrings
+ *   getNoHits
+ */
+
+package info;
+
+import java.util.*;
+import java.nio.ByteBuffer;
+
+
+/**
+ * A pool of strings, which are identified by their UTF-8 encoding.<p>
+ *   Data models for code generation repeat the same strings over and over again, like
+ * type names, units or module prefixes. The pool is used for a single conversion of a data
+ * object. It looks up a string by its UTF-8 encoded bytes in the transferred text column;
+ * a repeated string is neither decoded again nor is another String object created for
+ * it.<p>
+ *   The pool is safe for concurrent use by several threads, like the tasks of a parallel
+ * conversion. The hash table is split into {@link #NO_STRIPES} stripes, which are locked
+ * individually; the stripe of a string is selected by its hash code. Hashing and decoding
+ * of a string are done without holding a lock.
+ */
+
+final class StringPool
+{
+    /** The number of stripes of the hash table. A power of two. */
+    private static final int NO_STRIPES = 16;
+
+    /** The byte sequence, which holds the UTF-8 encoding of all strings. */
+    private final ByteBuffer text_;
+
+    /** The stripes of the hash table. */
+    private final Stripe[] stripes_;
+
+
+    /**
+     * A stripe of the hash table; open addressing with linear probing. All access needs
+     * to be done while holding the lock of the stripe object.
+     */
+    private final class Stripe
+    {
+        /** The pooled strings. null marks an unused entry. The size is a power of two. */
+        private String[] strings_ = new String[16];
+
+        /** The hash code of the string in the same entry. */
+        private int[] hashes_ = new int[16];
+
+        /** The offset into {@link #text_} of the encoding of the string in the same
+            entry. */
+        private int[] offsets_ = new int[16];
+
+        /** The number of bytes of the encoding of the string in the same entry. */
+        private int[] lengths_ = new int[16];
+
+        /** The number of pooled strings. */
+        private int noStrings_ = 0;
+
+        /** The number of requests, which were served with an already pooled string. */
+        private int noHits_ = 0;
+
+        /**
+         * Look for a byte sequence in the stripe.
+         *   @return Get the index of the entry, which holds the sequence, or of the unused
+         * entry, where it is to be added.
+         *   @param h
+         * The hash code of the sequence.
+         *   @param offset
+         * The index of the first byte in the text column.
+         *   @param length
+         * The number of bytes.
+         */
+        private int find(int h, int offset, int length)
+        {
+            final int mask = strings_.length - 1;
+            int idx = h & mask;
+            while(strings_[idx] != null)
+            {
+                if(hashes_[idx] == h  &&  lengths_[idx] == length
+                   &&  isEqual(offsets_[idx], offset, length)
+                  )
+                {
+                    break;
+                }
+                idx = (idx + 1) & mask;
+            }
+            return idx;
+        }
+
+        /**
+         * Add a string to the stripe.
+         *   @param idx
+         * The index of the unused entry, as got from {@link #find}.
+         *   @param str
+         * The string.
+         *   @param h
+         * The hash code of its encoding.
+         *   @param offset
+         * The index of the first byte of the encoding in the text column.
+         *   @param length
+         * The number of bytes of the encoding.
+         */
+        private void add(int idx, String str, int h, int offset, int length)
+        {
+            assert strings_[idx] == null;
+            strings_[idx] = str;
+            hashes_[idx] = h;
+            offsets_[idx] = offset;
+            lengths_[idx] = length;
+            ++ noStrings_;
+
+            /* Keep the load factor below one half. */
+            if(2*noStrings_ > strings_.length)
+            {
+                final String[] strings = strings_;
+                final int[] hashes = hashes_
+                          , offsets = offsets_
+                          , lengths = lengths_;
+                strings_ = new String[2*strings.length];
+                hashes_ = new int[2*strings.length];
+                offsets_ = new int[2*strings.length];
+                lengths_ = new int[2*strings.length];
+                final int mask = strings_.length - 1;
+                for(int i=0; i<strings.length; ++i)
+                {
+                    if(strings[i] != null)
+                    {
+                        int newIdx = hashes[i] & mask;
+                        while(strings_[newIdx] != null)
+                            newIdx = (newIdx + 1) & mask;
+                        strings_[newIdx] = strings[i];
+                        hashes_[newIdx] = hashes[i];
+                        offsets_[newIdx] = offsets[i];
+                        lengths_[newIdx] = lengths[i];
+                    }
+                }
+            }
+        }
+    } /* End of class StringPool.Stripe */
+
+
+
+    /**
+     * A new instance of StringPool is created.
+     *   @param text
+     * The byte sequence, which holds the UTF-8 encoding of all strings. It is used with
+     * absolute indexes; its position is irrelevant.
+     */
+    StringPool(ByteBuffer text)
+    {
+        text_ = text;
+        stripes_ = new Stripe[NO_STRIPES];
+        for(int i=0; i<NO_STRIPES; ++i)
+            stripes_[i] = new Stripe();
+
+    } /* End of StringPool.StringPool */
+
+
+
+    /**
+     * Compute the hash code of a byte sequence.
+     *   @return Get the hash code.
+     *   @param offset
+     * The index of the first byte in {@link #text_}.
+     *   @param length
+     * The number of bytes.
+     */
+    private int hash(int offset, int length)
+    {
+        int h = length;
+        for(int i=offset; i<offset+length; ++i)
+            h = 31*h + text_.get(i);
+        return h ^ (h >>> 16);
+
+    } /* End of StringPool.hash */
+
+
+
+    /**
+     * Compare two byte sequences in {@link #text_}.
+     *   @return Get true if both sequences are identical.
+     *   @param offsetA
+     * The index of the first byte of the first sequence.
+     *   @param offsetB
+     * The index of the first byte of the second sequence.
+     *   @param length
+     * The number of bytes of both sequences.
+     */
+    private boolean isEqual(int offsetA, int offsetB, int length)
+    {
+        if(offsetA == offsetB)
+            return true;
+        for(int i=0; i<length; ++i)
+        {
+            if(text_.get(offsetA+i) != text_.get(offsetB+i))
+                return false;
+        }
+        return true;
+
+    } /* End of StringPool.isEqual */
+
+
+
+    /**
+     * Get the String object for a UTF-8 encoded byte sequence. The pooled object is
+     * returned if the same sequence has been requested before. Otherwise the sequence is
+     * decoded and the new String object is added to the pool.
+     *   @return Get the string.
+     *   @param offset
+     * The index of the first byte in the text column.
+     *   @param length
+     * The number of bytes.
+     */
+    String intern(int offset, int length)
+    {
+        final int h = hash(offset, length);
+        final Stripe stripe = stripes_[(h >>> 28) & (NO_STRIPES-1)];
+        synchronized(stripe)
+        {
+            final int idx = stripe.find(h, offset, length);
+            if(stripe.strings_[idx] != null)
+            {
+                ++ stripe.noHits_;
+                return stripe.strings_[idx];
+            }
+        }
+
+        /* The string is decoded without holding the lock. Another thread may add the same
+           string meanwhile; in which case its object is returned and ours is dropped. */
+        final String str = Utf8Text.decode(text_, offset, length);
+        synchronized(stripe)
+        {
+            final int idx = stripe.find(h, offset, length);
+            if(stripe.strings_[idx] != null)
+            {
+                ++ stripe.noHits_;
+                return stripe.strings_[idx];
+            }
+            stripe.add(idx, str, h, offset, length);
+        }
+        return str;
+
+    } /* End of StringPool.intern */
+
+
+
+    /**
+     * Get the number of distinct strings in the pool.
+     *   @return Get the number.
+     */
+    int getNoStrings()
+    {
+        int noStrings = 0;
+        for(Stripe stripe: stripes_)
+        {
+            synchronized(stripe)
+            {
+                noStrings += stripe.noStrings_;
+            }
+        }
+        return noStrings;
+
+    } /* End of StringPool.getNoStrings */
+
+
+
+    /**
+     * Get the number of requests, which were served with an already pooled string.
+     *   @return Get the number.
+     */
+    int getNoHits()
+    {
+        int noHits = 0;
+        for(Stripe stripe: stripes_)
+        {
+            synchronized(stripe)
+            {
+                noHits += stripe.noHits_;
+            }
+        }
+        return noHits;
+
+    } /* End of StringPool.getNoHits */
+
+} /* End of class StringPool definition. */
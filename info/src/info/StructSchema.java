@@ -0,0 +1,156 @@
+/**
+ * @file StructSchema.java
+ * The set of field names of an Octave struct. The schema is shared by all Java
+ * representations of structs with the same fields, e.g. by all elements of a struct
+ * array.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class StructSchema
+ *   StructSchema
+ *   size
+ *   getKey
+ *   indexOf
+ *   slotOfField
+ *   keySet
+ */
+
+package info;
+
+import java.util.*;
+
+
+/**
+ * The immutable set of field names of an Octave struct.<p>
+ *   The field names are held in lexical order, which is the order of iteration of the
+ * struct's Java representation {@link CompactStructMap}. A field's position in this order
+ * is the index of its slot, i.e., of its value in the map's array of values. The schema
+ * implements the mapping from a field name to its slot index.
+ */
+
+final class StructSchema
+{
+    /** The field names in lexical order. */
+    private final String[] keys_;
+
+    /** The map from a field name to its index in {@link #keys_}. */
+    private final HashMap<String,Integer> indexByKey_;
+
+    /** The slot index of the fields in their original Octave order. */
+    private final int[] slotOfField_;
+
+    /** The field names as read-only Set, in lexical order. */
+    private final Set<String> keySet_;
+
+
+    /**
+     * A new instance of StructSchema is created.
+     *   @param fieldNames
+     * The array, which holds the field names in their original Octave order.
+     *   @param from
+     * The index of the first field name of the struct in {@code fieldNames}.
+     *   @param to
+     * The index behind the last field name of the struct in {@code fieldNames}.
+     */
+    StructSchema(String[] fieldNames, int from, int to)
+    {
+        final int noFields = to - from;
+        keys_ = Arrays.copyOfRange(fieldNames, from, to);
+        Arrays.sort(keys_);
+        indexByKey_ = new HashMap<>(2*noFields);
+        for(int idx=0; idx<noFields; ++idx)
+        {
+            if(indexByKey_.put(keys_[idx], idx) != null)
+            {
+                throw new IllegalArgumentException("StructSchema: Field name " + keys_[idx]
+                                                   + " is not unique"
+                                                  );
+            }
+        }
+        slotOfField_ = new int[noFields];
+        for(int idxField=0; idxField<noFields; ++idxField)
+            slotOfField_[idxField] = indexByKey_.get(fieldNames[from+idxField]);
+
+        keySet_ = new AbstractSet<String>()
+            {
+                @Override public Iterator<String> iterator()
+                    { return Collections.unmodifiableList(Arrays.asList(keys_)).iterator(); }
+
+                @Override public int size()
+                    { return keys_.length; }
+
+                @Override public boolean contains(Object key)
+                    { return indexByKey_.containsKey(key); }
+            };
+    } /* End of StructSchema.StructSchema */
+
+
+
+    /**
+     * Get the number of fields.
+     *   @return Get the number.
+     */
+    int size()
+        { return keys_.length; }
+
+
+
+    /**
+     * Get the name of a field.
+     *   @return Get the field name.
+     *   @param slot
+     * The slot index of the field, which is its position in lexical order.
+     */
+    String getKey(int slot)
+        { return keys_[slot]; }
+
+
+
+    /**
+     * Look up a field by name.
+     *   @return Get the slot index of the field or -1 if there's no such field.
+     *   @param key
+     * The field name.
+     */
+    int indexOf(Object key)
+    {
+        final Integer idx = indexByKey_.get(key);
+        return idx != null? idx: -1;
+
+    } /* End of StructSchema.indexOf */
+
+
+
+    /**
+     * Get the slot index of a field, which is identified by its position in the original
+     * Octave order of fields.
+     *   @return Get the slot index.
+     *   @param idxField
+     * The null based index of the field in the original Octave order.
+     */
+    int slotOfField(int idxField)
+        { return slotOfField_[idxField]; }
+
+
+
+    /**
+     * Get the field names.
+     *   @return Get a read-only Set of the field names, which iterates in lexical order.
+     */
+    Set<String> keySet()
+        { return keySet_; }
+
+} /* End of class StructSchema definition. */
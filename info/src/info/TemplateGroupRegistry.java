@@ -0,0 +1,1409 @@
+/**
+ * @file TemplateGroupRegistry.java
+ * A registry of loaded StringTemplate V4 group files, which reloads a group only if one
+ * of its source files has been modified.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class TemplateGroupRegistry
+ *   getGroup
+ *   getGroupFromString
+ *   preload
+ *   clear
+ *   setMaxNoEntries
+ *   getMaxNoEntries
+ *   setMaxSize
+ *   getMaxSize
+ *   setUseSoftReferences
+ *   getUseSoftReferences
+ *   getNoEntries
+ *   getSize
+ *   getNoSoftEntries
+ *   getNoHits
+ *   getNoMisses
+ *   getNoEvictions
+ *   getParseTime
+ *   setWatching
+ *   getWatching
+ *   getNoWatchReloads
+ */
+
+package info;
+
+import java.util.*;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.ref.SoftReference;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import org.stringtemplate.v4.NumberRenderer;
+import org.stringtemplate.v4.STGroup;
+import org.stringtemplate.v4.STGroupDir;
+import org.stringtemplate.v4.STGroupFile;
+import org.stringtemplate.v4.STGroupString;
+import org.stringtemplate.v4.StringRenderer;
+
+
+/**
+ * A registry of loaded template group files.<p>
+ *   Loading and parsing a group file is expensive compared to rendering a template. The
+ * Octave function st4Render gets the group from this registry, which keeps all groups
+ * once loaded. For each group, the registry records the last modification time and the
+ * size of the group file and of all group files and template directories it imports,
+ * directly or indirectly. A group is reloaded if any of these has changed; other groups
+ * are reused. Edited templates become effective without clearing the cache.<p>
+ *   All group files of a directory tree can be loaded in advance and in parallel, see
+ * {@link #preload} and the Octave function st4PreloadTemplates.<p>
+ *   The registry prepares a newly loaded group for use with st4Render: It installs an
+ * {@link ST4ErrorListener} with a new {@link ErrorCounter} and registers the attribute
+ * renderers for numbers, strings and {@link Utf8Text}.<p>
+ *   The registry is bounded by the number of groups and by their size, which is measured
+ * as the total size of their source files. If a bound is exceeded, the least recently
+ * used groups are evicted. The most recently used group is exempted from the size
+ * bound; a single group, which is larger than the bound, stays registered until another
+ * group is used. Optionally, evicted groups are kept in a second tier of soft
+ * references: The garbage collector may reclaim them, but until then they are reused
+ * like registered groups. If the soft tier is enabled then the registry listens to the
+ * memory pools of the JVM, too. If the heap is still filled beyond a threshold after a
+ * garbage collection then all groups but the most recently used one are moved into the
+ * soft tier.<p>
+ *   Groups, which are not loaded from a file but built from a string, see {@link
+ * #getGroupFromString}, are registered, too. They are identified by the hash of their
+ * source text and they compete with the group files for the same bounds.<p>
+ *   Optionally, see {@link #setWatching}, a background thread watches the directories of
+ * the source files of all registered groups. If a source file is modified then the
+ * thread reloads and compiles the affected groups. A reloaded group replaces the
+ * registered one only if it has no errors; otherwise the next request reloads the group
+ * and reports the problems as usual. Renderings, which are in progress, keep using the
+ * group they got; a group is never modified once it has been registered.<p>
+ *   The statistics of the registry can be queried with the Octave function
+ * st4TemplateCacheStatistics.<p>
+ *   All methods are safe for concurrent use.
+ */
+
+public final class TemplateGroupRegistry
+{
+    /** The global logger object for all progress and error reporting. */
+    private static SimpleLogger _logger = new SimpleLogger();
+
+    /** The fraction of the maximum size of a heap memory pool, which is considered
+        critical if it is still in use after a garbage collection. */
+    private static final double MEMORY_THRESHOLD = 0.8;
+
+    /** The prefix of the registry key of a group, which is built from a string. It can't
+        be confused with a canonical file name. */
+    private static final String STRING_KEY_PREFIX = "string:";
+
+    /** The maximum number of registered groups. */
+    private static int _maxNoEntries = 64;
+
+    /** The maximum total size of the source files of all registered groups in Byte. */
+    private static long _maxSize = 64L*1024*1024;
+
+    /** Whether evicted groups are kept in the soft tier. */
+    private static boolean _useSoftReferences = false;
+
+    /** The loaded groups by canonical file name or by hash of their source text, in order
+        of last use. */
+    private static final LinkedHashMap<String,Entry> _groups =
+                                                new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The evicted groups by canonical file name, which the garbage collector may
+        reclaim. */
+    private static final HashMap<String,SoftReference<Entry>> _softGroups =
+                                                                        new HashMap<>();
+
+    /** The total size of the source files of all registered groups in Byte. */
+    private static long _size = 0;
+
+    /** Whether the listener for memory pool notifications has been installed. */
+    private static boolean _isMemoryListenerInstalled = false;
+
+    /** The number of requests, which were served with a registered group. */
+    private static long _noHits = 0;
+
+    /** The number of requests, which had to load the group. */
+    private static long _noMisses = 0;
+
+    /** The number of groups, which were evicted because of the bounds of the registry or
+        because of memory pressure. */
+    private static long _noEvictions = 0;
+
+    /** The total time spent for loading and parsing groups in ns. */
+    private static long _parseTime = 0;
+
+    /** The time in ms, for which the watched directories need to be unchanged before the
+        modified groups are reloaded. Editors often write a file in several steps. */
+    private static final long WATCH_QUIET_TIME = 200;
+
+    /** The watch service of the background watcher or null if the source files of the
+        registered groups are not watched. */
+    private static WatchService _watchService = null;
+
+    /** The watched directories. */
+    private static final Set<Path> _watchedDirs = new HashSet<>();
+
+    /** The number of groups, which were reloaded by the background watcher. */
+    private static long _noWatchReloads = 0;
+
+
+    /**
+     * The time stamp of a source file of a group. A source file is a group file or a
+     * template directory or a template file in such a directory.
+     */
+    private static final class SourceFile
+    {
+        /** The path of the file or directory. */
+        private final Path path_;
+
+        /** The time of last modification in ms since the epoch when the group was loaded.
+            -1 if the file couldn't be accessed. */
+        private final long lastModified_;
+
+        /** The size in Byte when the group was loaded. */
+        private final long size_;
+
+        /**
+         * A new instance of SourceFile is created, which records the current state of
+         * the file.
+         *   @param path
+         * The path of the file or directory.
+         */
+        SourceFile(Path path)
+        {
+            path_ = path;
+            long lastModified = -1
+               , size = -1;
+            try
+            {
+                final BasicFileAttributes attr = Files.readAttributes
+                                                        (path, BasicFileAttributes.class);
+                lastModified = attr.lastModifiedTime().toMillis();
+                size = attr.size();
+            }
+            catch(IOException e)
+            {
+            }
+            lastModified_ = lastModified;
+            size_ = size;
+
+        } /* End of SourceFile.SourceFile */
+
+        /**
+         * Check if the file has been modified since it has been recorded.
+         *   @return Get true if the time of last modification or the size differ or if
+         * the accessibility of the file has changed.
+         */
+        boolean isModified()
+        {
+            try
+            {
+                final BasicFileAttributes attr = Files.readAttributes
+                                                        (path_, BasicFileAttributes.class);
+                return attr.lastModifiedTime().toMillis() != lastModified_
+                       ||  attr.size() != size_;
+            }
+            catch(IOException e)
+            {
+                return lastModified_ != -1;
+            }
+        } /* End of SourceFile.isModified */
+
+    } /* End of class SourceFile definition. */
+
+
+    /**
+     * A loaded group and its source files.
+     */
+    private static final class Entry
+    {
+        /** The loaded group. */
+        final STGroup group_;
+
+        /** The source files of the group, including the group file itself. */
+        final List<SourceFile> sourceFiles_;
+
+        /** The total size of the source files and of the source text in Byte. */
+        final long size_;
+
+        /**
+         * A new instance of Entry is created.
+         *   @param group
+         * The loaded group.
+         *   @param sourceFiles
+         * The source files of the group.
+         *   @param textSize
+         * The size of the source text of a group, which has been built from a string, or
+         * zero for a group file.
+         */
+        Entry(STGroup group, List<SourceFile> sourceFiles, long textSize)
+        {
+            group_ = group;
+            sourceFiles_ = sourceFiles;
+            long size = textSize;
+            for(SourceFile sourceFile: sourceFiles)
+                size += Math.max(sourceFile.size_, 0);
+            size_ = size;
+
+        } /* End of Entry.Entry */
+
+        /**
+         * Check if any of the source files of the group has been modified.
+         *   @return Get true if the group needs to be reloaded.
+         */
+        boolean isModified()
+        {
+            for(SourceFile sourceFile: sourceFiles_)
+            {
+                if(sourceFile.isModified())
+                {
+                    _logger.debug("TemplateGroupRegistry: " + sourceFile.path_
+                                  + " has been modified"
+                                 );
+                    return true;
+                }
+            }
+            return false;
+
+        } /* End of Entry.isModified */
+
+        /**
+         * Get the error counter of the listener of the group.
+         *   @return Get the counter.
+         */
+        ErrorCounter getErrorCounter()
+            { return ((ST4ErrorListener)group_.getListener()).getErrorCounter(); }
+
+    } /* End of class Entry definition. */
+
+
+    /**
+     * The task of loading a single group file during a preload.
+     */
+    private static final class PreloadTask implements Callable<Void>
+    {
+        /** The name of the group file. */
+        final String fileName_;
+
+        /** The loaded group or null if loading failed with an exception. */
+        Entry entry_ = null;
+
+        /** The time spent for loading and compiling the group in ns. */
+        long parseTime_ = 0;
+
+        /** The reported problems. */
+        final List<String> messages_ = new ArrayList<>();
+
+        /**
+         * A new instance of PreloadTask is created.
+         *   @param fileName
+         * The name of the group file.
+         */
+        PreloadTask(String fileName)
+        {
+            fileName_ = fileName;
+
+        } /* End of PreloadTask.PreloadTask */
+
+        /**
+         * Load the group file.
+         *   @return Get null.
+         */
+        @Override public Void call()
+        {
+            final long tiStart = System.nanoTime();
+            try
+            {
+                entry_ = loadGroup(fileName_, messages_);
+            }
+            catch(RuntimeException e)
+            {
+                /* The listener aborts loading after too many errors. */
+                messages_.add(e.getMessage());
+            }
+            parseTime_ = System.nanoTime() - tiStart;
+            return null;
+
+        } /* End of PreloadTask.call */
+
+        /**
+         * Get the result of the task for the summary.
+         *   @return Get the result.
+         */
+        PreloadSummary.FileResult getResult()
+        {
+            int noErrors = Math.max(messages_.size(), 1)
+              , noWarnings = 0;
+            if(entry_ != null)
+            {
+                noErrors = entry_.getErrorCounter().getNoErrors();
+                noWarnings = entry_.getErrorCounter().getNoWarnings();
+            }
+            return new PreloadSummary.FileResult( fileName_
+                                                , parseTime_ / 1e9
+                                                , noErrors
+                                                , noWarnings
+                                                , messages_
+                                                );
+        } /* End of PreloadTask.getResult */
+
+    } /* End of class PreloadTask definition. */
+
+
+    /**
+     * The class is a collection of static methods; no instances are created.
+     */
+    private TemplateGroupRegistry()
+    {
+    } /* End of TemplateGroupRegistry.TemplateGroupRegistry */
+
+
+
+    /**
+     * Get a group for rendering. The registered group is returned if none of its source
+     * files has been modified since it was loaded. Otherwise the group is loaded, parsed
+     * and registered.<p>
+     *   The error counter of the listener of the returned group, see {@link
+     * ST4ErrorListener#getErrorCounter}, counts the problems of loading the group and of
+     * the next template expansion. A group, which had problems with loading, is not
+     * registered; the next request reloads it and reports the problems again.
+     *   @return Get the group.
+     *   @param fileName
+     * The name of the group file. A relative path is resolved by the StringTemplate V4
+     * engine.
+     *   @param verbose
+     * Whether the StringTemplate V4 engine should report the loading of templates.
+     *   @throws IllegalArgumentException
+     * The group file can't be found.
+     */
+    public static STGroupFile getGroup(String fileName, boolean verbose)
+    {
+        STGroup.verbose = verbose;
+        final String key = canonicalFileName(fileName);
+        synchronized(_groups)
+        {
+            Entry entry = _groups.get(key);
+            if(entry == null)
+            {
+                /* An evicted group, which has not been reclaimed yet, is registered
+                   again. */
+                final SoftReference<Entry> ref = _softGroups.remove(key);
+                if(ref != null  &&  (entry = ref.get()) != null)
+                {
+                    _groups.put(key, entry);
+                    _size += entry.size_;
+                }
+            }
+            if(entry != null)
+            {
+                if(!entry.isModified())
+                {
+                    ++ _noHits;
+                    ((ST4ErrorListener)entry.group_.getListener()).getErrorCounter().reset();
+                    _logger.debug("TemplateGroupRegistry: ST4 group file object is reused"
+                                  + " for file " + fileName
+                                 );
+                    trim();
+                    return (STGroupFile)entry.group_;
+                }
+                _groups.remove(key);
+                _size -= entry.size_;
+            }
+            ++ _noMisses;
+        }
+
+        /* The group is loaded outside the lock, other groups stay available meanwhile. */
+        final long tiStart = System.nanoTime();
+        final Entry entry = loadGroup(fileName, /* messages */ null);
+        final long tiParse = System.nanoTime() - tiStart;
+
+        synchronized(_groups)
+        {
+            _parseTime += tiParse;
+            if(entry.getErrorCounter().getNoErrors() == 0)
+                register(key, entry);
+        }
+        return (STGroupFile)entry.group_;
+
+    } /* End of TemplateGroupRegistry.getGroup */
+
+
+
+    /**
+     * Get a group, which is built from a string, for rendering. The registered group is
+     * returned if a group has been built from the same text and delimiters before.
+     * Otherwise the group is parsed and registered. The group is handled like a group
+     * file, see {@link #getGroup}; in particular, it is not registered if it has errors.
+     *   @return Get the group.
+     *   @param text
+     * The source text of the group, which has the syntax of a group file.
+     *   @param delimiters
+     * The initial start and stop character of template expressions, e.g. "<>" or "$$".
+     *   @param verbose
+     * Whether the StringTemplate V4 engine should report the loading of templates.
+     *   @throws IllegalArgumentException
+     * The delimiters are not a string of two characters.
+     */
+    public static STGroup getGroupFromString( String text
+                                            , String delimiters
+                                            , boolean verbose
+                                            )
+    {
+        if(delimiters == null  ||  delimiters.length() != 2)
+        {
+            throw new IllegalArgumentException("The delimiters of a template group need to"
+                                               + " be specified as string of two"
+                                               + " characters, e.g. \"<>\""
+                                              );
+        }
+        STGroup.verbose = verbose;
+        final char delimiterStartChar = delimiters.charAt(0)
+                 , delimiterStopChar = delimiters.charAt(1);
+        final String hash = CompiledGroupCache.getHash( text
+                                                      , delimiterStartChar
+                                                      , delimiterStopChar
+                                                      );
+        final String key = STRING_KEY_PREFIX + hash;
+        synchronized(_groups)
+        {
+            Entry entry = _groups.get(key);
+            if(entry == null)
+            {
+                final SoftReference<Entry> ref = _softGroups.remove(key);
+                if(ref != null  &&  (entry = ref.get()) != null)
+                {
+                    _groups.put(key, entry);
+                    _size += entry.size_;
+                }
+            }
+            if(entry != null)
+            {
+                /* The text itself can't change but the imported group files can. */
+                if(!entry.isModified())
+                {
+                    ++ _noHits;
+                    entry.getErrorCounter().reset();
+                    _logger.debug("TemplateGroupRegistry: ST4 group object is reused for"
+                                  + " group " + key
+                                 );
+                    trim();
+                    return entry.group_;
+                }
+                _groups.remove(key);
+                _size -= entry.size_;
+            }
+            ++ _noMisses;
+        }
+
+        _logger.debug("TemplateGroupRegistry: ST4 group object is created for group "
+                      + key
+                     );
+        final long tiStart = System.nanoTime();
+        /* ST4 can't resolve the imports of a group without a root directory. They are
+           resolved as if the text were a group file in the working directory. */
+        final STGroupString group = new STGroupString( "<string>"
+                                                     , text
+                                                     , delimiterStartChar
+                                                     , delimiterStopChar
+                                                     )
+            {
+                @Override public URL getRootDirURL()
+                {
+                    try
+                    {
+                        return new File(System.getProperty("user.dir")).toURI().toURL();
+                    }
+                    catch(MalformedURLException e)
+                    {
+                        return null;
+                    }
+                }
+            };
+        prepareGroup(group, /* messages */ null);
+        final List<SourceFile> sourceFiles = new ArrayList<>();
+        collectSourceFiles(group, sourceFiles, new HashSet<STGroup>());
+        LiteralPool.intern(group);
+        final Entry entry = new Entry( group
+                                     , sourceFiles
+                                     , /* textSize */ 2L*text.length()
+                                     );
+        final long tiParse = System.nanoTime() - tiStart;
+
+        synchronized(_groups)
+        {
+            _parseTime += tiParse;
+            if(entry.getErrorCounter().getNoErrors() == 0)
+                register(key, entry);
+        }
+        return group;
+
+    } /* End of TemplateGroupRegistry.getGroupFromString */
+
+
+
+    /**
+     * Load all group files of a directory tree and register them. The group files are
+     * loaded concurrently by the worker threads of the common fork-join pool. All
+     * templates are compiled, regardless of lazy compilation, see {@link
+     * CachedSTGroupFile#setLazyCompilation}, so that all problems are reported now.<p>
+     *   The loaded groups are registered together, once all of them are loaded; a
+     * concurrent request of a group either sees the state before or after the preload.
+     * Groups, which had errors, are not registered. Note, the bounds of the registry still
+     * apply; if the directory tree holds more groups than permitted then only the most
+     * recently loaded ones remain registered.
+     *   @return Get the summary of the operation with the parse time and the reported
+     * problems of each group file.
+     *   @param directory
+     * The root of the directory tree. All files with extension .stg are loaded.
+     *   @throws IOException
+     * The directory tree can't be read.
+     *   @throws IllegalArgumentException
+     * The directory doesn't exist.
+     */
+    public static PreloadSummary preload(String directory) throws IOException
+    {
+        final File dir = new File(directory);
+        if(!dir.isDirectory())
+        {
+            throw new IllegalArgumentException("Template directory " + directory
+                                               + " not found"
+                                              );
+        }
+        final long tiStart = System.nanoTime();
+
+        final List<String> fileNames = new ArrayList<>();
+        Files.walkFileTree(dir.toPath(), new SimpleFileVisitor<Path>()
+            {
+                @Override public FileVisitResult visitFile( Path path
+                                                          , BasicFileAttributes attr
+                                                          )
+                {
+                    if(attr.isRegularFile()
+                       &&  path.getFileName().toString().endsWith(".stg")
+                      )
+                    {
+                        fileNames.add(path.toString());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+        final List<PreloadTask> tasks = new ArrayList<>();
+        for(String fileName: fileNames)
+            tasks.add(new PreloadTask(fileName));
+        _logger.debug("TemplateGroupRegistry: Preload " + tasks.size() + " group files"
+                      + " from " + directory
+                     );
+        ForkJoinPool.commonPool().invokeAll(tasks);
+
+        final List<PreloadSummary.FileResult> fileResults = new ArrayList<>();
+        synchronized(_groups)
+        {
+            for(PreloadTask task: tasks)
+            {
+                _parseTime += task.parseTime_;
+                ++ _noMisses;
+                if(task.entry_ != null
+                   &&  task.entry_.getErrorCounter().getNoErrors() == 0
+                  )
+                {
+                    register(canonicalFileName(task.fileName_), task.entry_);
+                }
+                fileResults.add(task.getResult());
+            }
+        }
+
+        return new PreloadSummary( dir.getAbsolutePath()
+                                 , fileResults
+                                 , (System.nanoTime() - tiStart) / 1e9
+                                 );
+    } /* End of TemplateGroupRegistry.preload */
+
+
+
+    /**
+     * Load and compile a group and collect its source files.
+     *   @return Get the new entry for the group. It is not registered yet.
+     *   @param fileName
+     * The name of the group file.
+     *   @param messages
+     * If not null then all templates are compiled and the reported problems are appended
+     * to this list. If null then templates are compiled as configured, see {@link
+     * CachedSTGroupFile#setLazyCompilation}.
+     */
+    private static Entry loadGroup(String fileName, List<String> messages)
+    {
+        _logger.debug("TemplateGroupRegistry: ST4 group file object is created for file "
+                      + fileName
+                     );
+        final STGroupFile group = new CachedSTGroupFile(fileName);
+        final ST4ErrorListener listener = prepareGroup(group, messages);
+
+        /* The group file is normally loaded on first use of a template. It is loaded now
+           as the imports are only known after loading. */
+        final List<SourceFile> sourceFiles = new ArrayList<>();
+        final Set<STGroup> visitedGroups = new HashSet<>();
+        collectSourceFiles(group, sourceFiles, visitedGroups);
+        if(messages != null)
+        {
+            for(STGroup visitedGroup: visitedGroups)
+            {
+                if(visitedGroup instanceof CachedSTGroupFile)
+                    ((CachedSTGroupFile)visitedGroup).compileAllTemplates();
+            }
+            listener.setMessageList(null);
+        }
+        return new Entry(group, sourceFiles, /* textSize */ 0);
+
+    } /* End of TemplateGroupRegistry.loadGroup */
+
+
+
+    /**
+     * Prepare a new group for use with st4Render: Install the error listener and register
+     * the attribute renderers.
+     *   @return Get the installed listener.
+     *   @param group
+     * The group, which has not been loaded yet.
+     *   @param messages
+     * If not null then the problems reported by the listener are appended to this list.
+     */
+    private static ST4ErrorListener prepareGroup(STGroup group, List<String> messages)
+    {
+        final ST4ErrorListener listener = new ST4ErrorListener(new ErrorCounter());
+        listener.setMessageList(messages);
+        group.setListener(listener);
+
+        /* The number renderer is registered for the abstract base class Number. The
+           template engine applies it to all derived classes, including java.lang.Byte,
+           which represents Octave's int8. Large strings of the data model may be
+           represented by Utf8Text. The StringRenderer can't handle them, the TextRenderer
+           supports the same format options. */
+        group.registerRenderer(Number.class, new NumberRenderer());
+        group.registerRenderer(String.class, new StringRenderer());
+        group.registerRenderer(Utf8Text.class, new TextRenderer());
+        return listener;
+
+    } /* End of TemplateGroupRegistry.prepareGroup */
+
+
+
+    /**
+     * Register a loaded group and evict other groups if the bounds of the registry are
+     * exceeded. The caller needs to hold the lock of the registry.
+     *   @param key
+     * The canonical file name of the group.
+     *   @param entry
+     * The loaded group.
+     */
+    private static void register(String key, Entry entry)
+    {
+        final Entry oldEntry = _groups.put(key, entry);
+        if(oldEntry != null)
+            _size -= oldEntry.size_;
+        _size += entry.size_;
+        if(_watchService != null)
+            watch(entry);
+        trim();
+        if(_size > _maxSize)
+        {
+            _logger.debug("TemplateGroupRegistry: ST4 group file object for file " + key
+                          + " is too big to cache (" + entry.size_ + " Byte); it is kept"
+                          + " only until another group is used"
+                         );
+        }
+    } /* End of TemplateGroupRegistry.register */
+
+
+
+    /**
+     * Add the directories of the source files of a group to the watch service. The caller
+     * needs to hold the lock of the registry.
+     *   @param entry
+     * The group.
+     */
+    private static void watch(Entry entry)
+    {
+        for(SourceFile sourceFile: entry.sourceFiles_)
+        {
+            /* A template directory is watched itself, for other source files the
+               containing directory is watched. */
+            final Path dir = Files.isDirectory(sourceFile.path_)
+                             ? sourceFile.path_
+                             : sourceFile.path_.getParent();
+            if(dir == null  ||  _watchedDirs.contains(dir))
+                continue;
+            try
+            {
+                dir.register( _watchService
+                            , StandardWatchEventKinds.ENTRY_CREATE
+                            , StandardWatchEventKinds.ENTRY_DELETE
+                            , StandardWatchEventKinds.ENTRY_MODIFY
+                            );
+                _watchedDirs.add(dir);
+                _logger.debug("TemplateGroupRegistry: Watch directory " + dir);
+            }
+            catch(IOException e)
+            {
+                _logger.debug("TemplateGroupRegistry: Can't watch directory " + dir + ": "
+                              + e.getMessage()
+                             );
+            }
+        }
+    } /* End of TemplateGroupRegistry.watch */
+
+
+
+    /**
+     * The loop of the background watcher. It waits for changes of the watched
+     * directories and reloads the modified groups. The loop ends when the watch service
+     * is closed.
+     *   @param watchService
+     * The watch service.
+     */
+    private static void runWatcher(WatchService watchService)
+    {
+        try
+        {
+            while(true)
+            {
+                WatchKey key = watchService.take();
+                do
+                {
+                    key.pollEvents();
+                    key.reset();
+                    key = watchService.poll(WATCH_QUIET_TIME, TimeUnit.MILLISECONDS);
+                }
+                while(key != null);
+
+                reloadModifiedGroups();
+            }
+        }
+        catch(ClosedWatchServiceException | InterruptedException e)
+        {
+            _logger.debug("TemplateGroupRegistry: Background watcher terminates");
+        }
+    } /* End of TemplateGroupRegistry.runWatcher */
+
+
+
+    /**
+     * Reload all registered groups, which have a modified source file. A reloaded group
+     * replaces the registered one if it has no errors and if the registered one has not
+     * been replaced or evicted meanwhile.
+     */
+    private static void reloadModifiedGroups()
+    {
+        final List<String> keys = new ArrayList<>();
+        final List<Entry> oldEntries = new ArrayList<>();
+        synchronized(_groups)
+        {
+            /* A group built from a string can't be reloaded here; it is reloaded by the
+               next call of getGroupFromString, which passes the text again. */
+            for(Map.Entry<String,Entry> mapEntry: _groups.entrySet())
+            {
+                if(mapEntry.getValue().isModified()
+                   &&  !mapEntry.getKey().startsWith(STRING_KEY_PREFIX)
+                  )
+                {
+                    keys.add(mapEntry.getKey());
+                    oldEntries.add(mapEntry.getValue());
+                }
+            }
+        }
+
+        for(int i=0; i<keys.size(); ++i)
+        {
+            final String key = keys.get(i);
+            final long tiStart = System.nanoTime();
+            Entry entry = null;
+            try
+            {
+                entry = loadGroup(key, /* messages */ new ArrayList<String>());
+            }
+            catch(RuntimeException e)
+            {
+                /* The listener aborts loading after too many errors. */
+            }
+            final long tiParse = System.nanoTime() - tiStart;
+
+            synchronized(_groups)
+            {
+                _parseTime += tiParse;
+                if(entry != null
+                   &&  entry.getErrorCounter().getNoErrors() == 0
+                   &&  _groups.containsKey(key)
+                   &&  _groups.get(key) == oldEntries.get(i)
+                  )
+                {
+                    register(key, entry);
+                    ++ _noWatchReloads;
+                    _logger.debug("TemplateGroupRegistry: ST4 group file object for file "
+                                  + key + " is replaced by its modified version"
+                                 );
+                }
+                else
+                {
+                    _logger.debug("TemplateGroupRegistry: Modified ST4 group file " + key
+                                  + " is not replaced in the background"
+                                 );
+                }
+            }
+        }
+    } /* End of TemplateGroupRegistry.reloadModifiedGroups */
+
+
+
+    /**
+     * Load a group and all groups it imports and collect their source files.
+     *   @param group
+     * The group.
+     *   @param sourceFiles
+     * The source files found so far. The source files of the group and its imports are
+     * appended.
+     *   @param visitedGroups
+     * The groups, which have been visited so far. Used to handle cyclic imports.
+     */
+    private static void collectSourceFiles( STGroup group
+                                          , List<SourceFile> sourceFiles
+                                          , Set<STGroup> visitedGroups
+                                          )
+    {
+        if(!visitedGroups.add(group))
+            return;
+
+        if(group instanceof STGroupFile)
+        {
+            final STGroupFile groupFile = (STGroupFile)group;
+            groupFile.load();
+            final Path path = toPath(groupFile.url);
+            if(path != null)
+                sourceFiles.add(new SourceFile(path));
+        }
+        else if(group instanceof STGroupString)
+            ((STGroupString)group).load();
+        else if(group instanceof STGroupDir)
+        {
+            /* The templates of a directory are loaded on demand. The directory itself is
+               recorded to see added and removed template files. */
+            final Path dir = toPath(((STGroupDir)group).root);
+            if(dir != null)
+            {
+                sourceFiles.add(new SourceFile(dir));
+                try(DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.st"))
+                {
+                    for(Path path: stream)
+                        sourceFiles.add(new SourceFile(path));
+                }
+                catch(IOException e)
+                {
+                    _logger.debug("TemplateGroupRegistry: Can't list template directory "
+                                  + dir + ": " + e.getMessage()
+                                 );
+                }
+            }
+        }
+
+        for(STGroup importedGroup: group.getImportedGroups())
+            collectSourceFiles(importedGroup, sourceFiles, visitedGroups);
+
+    } /* End of TemplateGroupRegistry.collectSourceFiles */
+
+
+
+    /**
+     * Get the file system path of a URL.
+     *   @return Get the path or null if the URL doesn't designate a file, e.g. if it is an
+     * entry of a jar file. Such a source is considered unmodifiable.
+     *   @param url
+     * The URL of a group file or template directory.
+     */
+    private static Path toPath(URL url)
+    {
+        if(url == null  ||  !"file".equals(url.getProtocol()))
+            return null;
+        try
+        {
+            return Paths.get(url.toURI());
+        }
+        catch(URISyntaxException | IllegalArgumentException e)
+        {
+            return null;
+        }
+    } /* End of TemplateGroupRegistry.toPath */
+
+
+
+    /**
+     * Evict the least recently used groups until the bounds of the registry are met.
+     * The caller needs to hold the lock of the registry.
+     */
+    private static void trim()
+    {
+        evict(_maxNoEntries, _maxSize);
+
+        /* The soft tier is purged from the groups, which have been reclaimed. */
+        final Iterator<SoftReference<Entry>> it = _softGroups.values().iterator();
+        while(it.hasNext())
+        {
+            if(it.next().get() == null)
+                it.remove();
+        }
+    } /* End of TemplateGroupRegistry.trim */
+
+
+
+    /**
+     * Evict the least recently used groups until the given bounds are met. Evicted
+     * groups are moved to the soft tier if it is enabled. The caller needs to hold the
+     * lock of the registry.
+     *   @param maxNoEntries
+     * The maximum number of remaining groups.
+     *   @param maxSize
+     * The maximum total size of the source files of the remaining groups. The most
+     * recently used group is not evicted because of its size; otherwise a group, which
+     * is larger than the bound, would be evicted immediately after loading and be loaded
+     * again on every request.
+     */
+    private static void evict(int maxNoEntries, long maxSize)
+    {
+        final Iterator<Map.Entry<String,Entry>> it = _groups.entrySet().iterator();
+        while((_groups.size() > maxNoEntries  ||  _size > maxSize  &&  _groups.size() > 1)
+              &&  it.hasNext()
+             )
+        {
+            final Map.Entry<String,Entry> mapEntry = it.next();
+            final Entry entry = mapEntry.getValue();
+            it.remove();
+            _size -= entry.size_;
+            ++ _noEvictions;
+            if(_useSoftReferences)
+                _softGroups.put(mapEntry.getKey(), new SoftReference<>(entry));
+            _logger.debug("TemplateGroupRegistry: ST4 group file object for file "
+                          + mapEntry.getKey() + " is evicted"
+                         );
+        }
+    } /* End of TemplateGroupRegistry.evict */
+
+
+
+    /**
+     * Install a listener, which is notified by the JVM if a heap memory pool is still
+     * filled beyond {@link #MEMORY_THRESHOLD} after a garbage collection. The listener
+     * moves all groups but the most recently used one into the soft tier. The caller
+     * needs to hold the lock of the registry.
+     */
+    private static void installMemoryListener()
+    {
+        if(_isMemoryListenerInstalled)
+            return;
+        _isMemoryListenerInstalled = true;
+
+        for(MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans())
+        {
+            final long max = pool.getUsage().getMax();
+            if(pool.getType() == MemoryType.HEAP
+               &&  pool.isCollectionUsageThresholdSupported()
+               &&  max > 0
+              )
+            {
+                pool.setCollectionUsageThreshold((long)(MEMORY_THRESHOLD * max));
+            }
+        }
+
+        final NotificationEmitter emitter =
+                                    (NotificationEmitter)ManagementFactory.getMemoryMXBean();
+        emitter.addNotificationListener(new NotificationListener()
+            {
+                @Override public void handleNotification(Notification n, Object handback)
+                {
+                    if(!MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED
+                        .equals(n.getType())
+                      )
+                    {
+                        return;
+                    }
+                    synchronized(_groups)
+                    {
+                        if(_useSoftReferences)
+                        {
+                            _logger.debug("TemplateGroupRegistry: Heap memory is low, "
+                                          + (_groups.size() > 1? _groups.size()-1: 0)
+                                          + " ST4 group file objects are moved into the"
+                                          + " soft tier"
+                                         );
+                            evict(1, Long.MAX_VALUE);
+                        }
+                    }
+                }
+            }
+            , /* filter */ null
+            , /* handback */ null
+            );
+    } /* End of TemplateGroupRegistry.installMemoryListener */
+
+
+
+    /**
+     * Get an unambiguous representation of a file name.
+     *   @return Get the canonical path of an existing file. If the file doesn't exist
+     * (e.g. because it will be found via the Java CLASSPATH) then the file name itself is
+     * returned.
+     *   @param fileName
+     * The file name.
+     */
+    private static String canonicalFileName(String fileName)
+    {
+        final File file = new File(fileName);
+        if(file.isFile())
+        {
+            try
+            {
+                return file.getCanonicalPath();
+            }
+            catch(IOException e)
+            {
+            }
+        }
+        return fileName;
+
+    } /* End of TemplateGroupRegistry.canonicalFileName */
+
+
+
+    /**
+     * Remove all groups from the registry. The next request of a group will load it.
+     * The shared imported groups are cleared, too, see {@link SharedImportRegistry}.
+     */
+    public static void clear()
+    {
+        synchronized(_groups)
+        {
+            _groups.clear();
+            _softGroups.clear();
+            _size = 0;
+        }
+        SharedImportRegistry.clear();
+        _logger.debug("TemplateGroupRegistry: All cached ST4 group files are cleared from"
+                      + " memory"
+                     );
+    } /* End of TemplateGroupRegistry.clear */
+
+
+
+    /**
+     * Set the maximum number of registered groups.
+     *   @param maxNoEntries
+     * The maximum number. The least recently used groups are evicted if the number is
+     * exceeded. 0 disables the registry; every request loads the group.
+     */
+    public static void setMaxNoEntries(int maxNoEntries)
+    {
+        if(maxNoEntries < 0)
+        {
+            throw new IllegalArgumentException("The maximum number of registered template"
+                                               + " groups must not be negative"
+                                              );
+        }
+        synchronized(_groups)
+        {
+            _maxNoEntries = maxNoEntries;
+            evict(_maxNoEntries, _maxSize);
+        }
+    } /* End of TemplateGroupRegistry.setMaxNoEntries */
+
+
+
+    /**
+     * Get the maximum number of registered groups.
+     *   @return Get the number.
+     */
+    public static int getMaxNoEntries()
+    {
+        synchronized(_groups)
+        {
+            return _maxNoEntries;
+        }
+    } /* End of TemplateGroupRegistry.getMaxNoEntries */
+
+
+
+    /**
+     * Set the maximum size of the registry.
+     *   @param maxSize
+     * The maximum total size of the source files of all registered groups in Byte. The
+     * least recently used groups are evicted if the size is exceeded. The most recently
+     * used group is kept even if it exceeds the size on its own.
+     */
+    public static void setMaxSize(long maxSize)
+    {
+        if(maxSize < 0)
+        {
+            throw new IllegalArgumentException("The maximum size of the registered"
+                                               + " template groups must not be negative"
+                                              );
+        }
+        synchronized(_groups)
+        {
+            _maxSize = maxSize;
+            evict(_maxNoEntries, _maxSize);
+        }
+    } /* End of TemplateGroupRegistry.setMaxSize */
+
+
+
+    /**
+     * Get the maximum size of the registry.
+     *   @return Get the maximum total size of the source files of all registered groups
+     * in Byte.
+     */
+    public static long getMaxSize()
+    {
+        synchronized(_groups)
+        {
+            return _maxSize;
+        }
+    } /* End of TemplateGroupRegistry.getMaxSize */
+
+
+
+    /**
+     * Enable or disable the soft tier.
+     *   @param useSoftReferences
+     * If true then evicted groups are kept as soft references and the registry reacts on
+     * low heap memory. If false then the soft tier is cleared and evicted groups are
+     * dropped.
+     */
+    public static void setUseSoftReferences(boolean useSoftReferences)
+    {
+        synchronized(_groups)
+        {
+            _useSoftReferences = useSoftReferences;
+            if(useSoftReferences)
+                installMemoryListener();
+            else
+                _softGroups.clear();
+        }
+    } /* End of TemplateGroupRegistry.setUseSoftReferences */
+
+
+
+    /**
+     * Get whether the soft tier is enabled.
+     *   @return Get true if evicted groups are kept as soft references.
+     */
+    public static boolean getUseSoftReferences()
+    {
+        synchronized(_groups)
+        {
+            return _useSoftReferences;
+        }
+    } /* End of TemplateGroupRegistry.getUseSoftReferences */
+
+
+
+    /**
+     * Get the number of registered groups.
+     *   @return Get the number.
+     */
+    public static int getNoEntries()
+    {
+        synchronized(_groups)
+        {
+            return _groups.size();
+        }
+    } /* End of TemplateGroupRegistry.getNoEntries */
+
+
+
+    /**
+     * Get the size of the registry.
+     *   @return Get the total size of the source files of all registered groups in Byte.
+     */
+    public static long getSize()
+    {
+        synchronized(_groups)
+        {
+            return _size;
+        }
+    } /* End of TemplateGroupRegistry.getSize */
+
+
+
+    /**
+     * Get the number of groups in the soft tier.
+     *   @return Get the number of evicted groups, which may still be reused. Some of them
+     * may have been reclaimed by the garbage collector meanwhile.
+     */
+    public static int getNoSoftEntries()
+    {
+        synchronized(_groups)
+        {
+            return _softGroups.size();
+        }
+    } /* End of TemplateGroupRegistry.getNoSoftEntries */
+
+
+
+    /**
+     * Get the number of requests, which were served with a registered group.
+     *   @return Get the number.
+     */
+    public static long getNoHits()
+    {
+        synchronized(_groups)
+        {
+            return _noHits;
+        }
+    } /* End of TemplateGroupRegistry.getNoHits */
+
+
+
+    /**
+     * Get the number of requests, which had to load the group.
+     *   @return Get the number.
+     */
+    public static long getNoMisses()
+    {
+        synchronized(_groups)
+        {
+            return _noMisses;
+        }
+    } /* End of TemplateGroupRegistry.getNoMisses */
+
+
+
+    /**
+     * Get the number of evicted groups.
+     *   @return Get the number of groups, which were evicted because of the bounds of the
+     * registry or because of low heap memory.
+     */
+    public static long getNoEvictions()
+    {
+        synchronized(_groups)
+        {
+            return _noEvictions;
+        }
+    } /* End of TemplateGroupRegistry.getNoEvictions */
+
+
+
+    /**
+     * Get the time spent for loading groups.
+     *   @return Get the total time spent for loading and parsing groups in s.
+     */
+    public static double getParseTime()
+    {
+        synchronized(_groups)
+        {
+            return _parseTime / 1e9;
+        }
+    } /* End of TemplateGroupRegistry.getParseTime */
+
+
+
+    /**
+     * Start or stop the background watcher.
+     *   @param isWatching
+     * If true then a background thread watches the directories of the source files of
+     * all registered groups and replaces modified groups as soon as they compile without
+     * errors. If false then the thread is stopped; modified groups are reloaded on next
+     * request.
+     *   @throws IOException
+     * The watch service of the file system can't be created.
+     */
+    public static void setWatching(boolean isWatching) throws IOException
+    {
+        synchronized(_groups)
+        {
+            if(isWatching  &&  _watchService == null)
+            {
+                final WatchService watchService = FileSystems.getDefault().newWatchService();
+                _watchService = watchService;
+                for(Entry entry: _groups.values())
+                    watch(entry);
+
+                final Thread thread = new Thread(new Runnable()
+                    {
+                        @Override public void run()
+                            { runWatcher(watchService); }
+                    }
+                    , "ST4 template watcher"
+                    );
+                thread.setDaemon(true);
+                thread.start();
+            }
+            else if(!isWatching  &&  _watchService != null)
+            {
+                _watchService.close();
+                _watchService = null;
+                _watchedDirs.clear();
+            }
+        }
+    } /* End of TemplateGroupRegistry.setWatching */
+
+
+
+    /**
+     * Get whether the background watcher is running.
+     *   @return Get true if the source files of the registered groups are watched.
+     */
+    public static boolean getWatching()
+    {
+        synchronized(_groups)
+        {
+            return _watchService != null;
+        }
+    } /* End of TemplateGroupRegistry.getWatching */
+
+
+
+    /**
+     * Get the number of groups, which were replaced by the background watcher.
+     *   @return Get the number.
+     */
+    public static long getNoWatchReloads()
+    {
+        synchronized(_groups)
+        {
+            return _noWatchReloads;
+        }
+    } /* End of TemplateGroupRegistry.getNoWatchReloads */
+
+} /* End of class TemplateGroupRegistry definition. */
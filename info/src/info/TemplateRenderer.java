@@ -0,0 +1,1032 @@
+/**
+ * @file TemplateRenderer.java
+ * Render a StringTemplate V4 template into a string or a file with a single call of the
+ * Octave-Java bridge.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class TemplateRenderer
+ *   render
+ *   renderGroup
+ *   renderToFile
+ *   renderGroupToFile
+ *   renderGroupToBytes
+ *   renderGroupToChunks
+ *   renderGroupToBuffer
+ *   setEndOfLine
+ *   getEndOfLine
+ *   isFormalArgument
+ */
+
+package info;
+
+import java.util.*;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import org.stringtemplate.v4.ST;
+import org.stringtemplate.v4.STGroup;
+import org.stringtemplate.v4.compiler.CompiledST;
+
+
+/**
+ * The entry point for rendering a template from the Octave script render.m.<p>
+ *   Each call of the Octave-Java bridge is expensive. Instead of looking up the template,
+ * creating its instance, adding each attribute, creating and passing the service object
+ * info, rendering and querying the error counter in separate calls, render.m passes
+ * all attributes at once and receives a {@link RenderResult}.<p>
+ *   Attributes are checked against the formal arguments of the compiled template rather
+ * than by catching the exception of a failing {@code ST.add}. The service object info
+ * is passed to the template if it declares an argument of this name and if the caller
+ * didn't pass an attribute of this name.<p>
+ *   A template can be rendered directly into a file, see {@link #renderToFile}. The
+ * generated text is encoded and written while it is produced; a large generated file is
+ * neither held in memory as a whole nor copied into Octave.<p>
+ *   If Octave needs the text then it can be got UTF-8 encoded, either as a single byte
+ * array or as a sequence of chunks of limited size, see {@link #renderGroupToBytes} and
+ * {@link #renderGroupToChunks}. The text is encoded while it is produced; no String
+ * of the entire text is created and the Octave-Java bridge passes the bytes as a
+ * numeric array instead of converting a string character by character.<p>
+ *   If the size of the generated text is unpredictable then it can be rendered into an
+ * {@link OutputBuffer}, see {@link #renderGroupToBuffer}. The text is held in memory up
+ * to a threshold and spilled to a temporary file beyond.<p>
+ *   All render modes use a {@link BufferedIndentWriter}. The end of line of the generated
+ * text is the line separator of the platform by default, like with the StringTemplate V4
+ * engine, but it can be fixed with {@link #setEndOfLine}.
+ */
+
+public final class TemplateRenderer
+{
+    /** The global logger object for all progress and error reporting. */
+    private static SimpleLogger _logger = new SimpleLogger();
+
+    /** The name of the template argument, which receives the service object info. */
+    private static final String ARG_NAME_INFO = "info";
+
+    /** The size of the chunks, which a single byte array is assembled from, in Byte. */
+    private static final int BYTES_CHUNK_SIZE = 256*1024;
+
+    /** The end of line sequence of the generated text. */
+    private static volatile String _endOfLine = System.lineSeparator();
+
+
+    /**
+     * A template instance, which is ready for rendering.
+     */
+    private static final class Instance
+    {
+        /** The template instance with all attributes. */
+        final ST st_;
+
+        /** The name of the template. */
+        final String templateName_;
+
+        /** The error counter of the group. */
+        final ErrorCounter errCnt_;
+
+        /** Whether the service object info has been passed to the template. */
+        final boolean isInfoPassed_;
+
+        /** The time for getting the group in ns or {@link RenderResult#NO_LOAD_TIME}. */
+        final long tiLoad_;
+
+        /** The time for creating the instance and adding its attributes in ns. */
+        final long tiSetup_;
+
+        /**
+         * A new instance of Instance is created.
+         *   @param st
+         * The template instance with all attributes.
+         *   @param templateName
+         * The name of the template.
+         *   @param errCnt
+         * The error counter of the group.
+         *   @param isInfoPassed
+         * Whether the service object info has been passed to the template.
+         *   @param tiLoad
+         * The time for getting the group in ns or {@link RenderResult#NO_LOAD_TIME}.
+         *   @param tiSetup
+         * The time for creating the instance and adding its attributes in ns.
+         */
+        Instance( ST st
+                , String templateName
+                , ErrorCounter errCnt
+                , boolean isInfoPassed
+                , long tiLoad
+                , long tiSetup
+                )
+        {
+            st_ = st;
+            templateName_ = templateName;
+            errCnt_ = errCnt;
+            isInfoPassed_ = isInfoPassed;
+            tiLoad_ = tiLoad;
+            tiSetup_ = tiSetup;
+
+        } /* End of Instance.Instance */
+
+        /**
+         * Get the result of rendering this instance.
+         *   @return Get the new result object.
+         *   @param output
+         * The generated text as String, byte array or {@link TextChunks} or null if it has
+         * been written to a file.
+         *   @param noChars
+         * The number of generated characters.
+         *   @param tiRender
+         * The time for rendering in ns.
+         */
+        RenderResult newResult(Object output, long noChars, long tiRender)
+        {
+            return new RenderResult( templateName_
+                                   , output
+                                   , noChars
+                                   , errCnt_
+                                   , isInfoPassed_
+                                   , tiLoad_
+                                   , tiSetup_
+                                   , tiRender
+                                   );
+        } /* End of Instance.newResult */
+
+    } /* End of class Instance definition. */
+
+
+    /**
+     * The class is a collection of static methods; no instances are created.
+     */
+    private TemplateRenderer()
+    {
+    } /* End of TemplateRenderer.TemplateRenderer */
+
+
+
+    /**
+     * Render a template of a group file. The group is taken from the {@link
+     * TemplateGroupRegistry}.
+     *   @return Get the generated text and the statistics of the rendering.
+     *   @param groupFileName
+     * The name of the group file.
+     *   @param templateName
+     * The name of the template to render.
+     *   @param attributeNames
+     * The names of the attributes, either an array of strings or a single String.
+     *   @param attributeValues
+     * The values of the attributes, either an array of objects or a single object. The
+     * values are passed to the template as they are.
+     *   @param wrapColumn
+     * The column, at which the template engine wraps lines, see {@code ST.render(int)}.
+     *   @param verbose
+     * The verbosity as an integer in the range 0 (OFF) till 5 (DEBUG), see {@link
+     * SimpleLogger#setLevel(int)}.
+     *   @param outputFileName
+     * The name of the generated file, which is made available to the template through the
+     * service object info, or null or the empty string if the text is not written to a
+     * file.
+     *   @throws IllegalArgumentException
+     * The template is not defined or it has no formal argument of the name of a passed
+     * attribute or the numbers of names and values differ.
+     */
+    public static RenderResult render( String groupFileName
+                                     , String templateName
+                                     , Object attributeNames
+                                     , Object attributeValues
+                                     , int wrapColumn
+                                     , int verbose
+                                     , String outputFileName
+                                     )
+    {
+        SimpleLogger.setLevel(verbose);
+        final boolean isDebug = verbose == SimpleLogger.Level.DEBUG.value();
+        final long tiStart = System.nanoTime();
+        final STGroup group = TemplateGroupRegistry.getGroup(groupFileName, isDebug);
+        final long tiLoad = System.nanoTime() - tiStart;
+        return render( group
+                     , groupFileName
+                     , templateName
+                     , attributeNames
+                     , attributeValues
+                     , wrapColumn
+                     , outputFileName
+                     , tiLoad
+                     );
+    } /* End of TemplateRenderer.render */
+
+
+
+    /**
+     * Render a template of a group, which has already been got from the {@link
+     * TemplateGroupRegistry}. Used by render.m, which reports a failure of loading the
+     * group in a specific way.
+     *   @return Get the generated text and the statistics of the rendering.
+     *   @param group
+     * The group, which defines the template. Its error listener needs to be an {@link
+     * ST4ErrorListener}.
+     *   @param groupName
+     * The name of the group file for error messages and for the service object info.
+     *   @param templateName
+     * The name of the template to render.
+     *   @param attributeNames
+     * The names of the attributes, either an array of strings or a single String.
+     *   @param attributeValues
+     * The values of the attributes, either an array of objects or a single object.
+     *   @param wrapColumn
+     * The column, at which the template engine wraps lines.
+     *   @param outputFileName
+     * The name of the generated file or null or the empty string.
+     *   @throws IllegalArgumentException
+     * The template is not defined or it has no formal argument of the name of a passed
+     * attribute or the numbers of names and values differ.
+     */
+    public static RenderResult renderGroup( STGroup group
+                                          , String groupName
+                                          , String templateName
+                                          , Object attributeNames
+                                          , Object attributeValues
+                                          , int wrapColumn
+                                          , String outputFileName
+                                          )
+    {
+        return render( group
+                     , groupName
+                     , templateName
+                     , attributeNames
+                     , attributeValues
+                     , wrapColumn
+                     , outputFileName
+                     , RenderResult.NO_LOAD_TIME
+                     );
+    } /* End of TemplateRenderer.renderGroup */
+
+
+
+    /**
+     * Render a template of a group file into a file. The group is taken from the {@link
+     * TemplateGroupRegistry}. The generated text is written to the file while the
+     * template is rendered; it is never held in memory as a whole.
+     *   @return Get the statistics of the rendering.
+     *   @param groupFileName
+     * The name of the group file.
+     *   @param templateName
+     * The name of the template to render.
+     *   @param attributeNames
+     * The names of the attributes, either an array of strings or a single String.
+     *   @param attributeValues
+     * The values of the attributes, either an array of objects or a single object.
+     *   @param wrapColumn
+     * The column, at which the template engine wraps lines.
+     *   @param verbose
+     * The verbosity as an integer in the range 0 (OFF) till 5 (DEBUG).
+     *   @param outputFileName
+     * The name of the generated file. It is made available to the template through the
+     * service object info as it is.
+     *   @param directory
+     * The directory, which a relative output file name refers to, or null for the working
+     * directory of the Java VM.
+     *   @param doAppend
+     * If true then the generated text is appended to the file. Otherwise the file is
+     * created or replaced.
+     *   @param charsetName
+     * The name of the character encoding of the file or null for UTF-8.
+     *   @throws IOException
+     * The file can't be written.
+     *   @throws IllegalArgumentException
+     * The template is not defined or it has no formal argument of the name of a passed
+     * attribute or the numbers of names and values differ or the character encoding is
+     * not supported.
+     */
+    public static RenderResult renderToFile( String groupFileName
+                                           , String templateName
+                                           , Object attributeNames
+                                           , Object attributeValues
+                                           , int wrapColumn
+                                           , int verbose
+                                           , String outputFileName
+                                           , String directory
+                                           , boolean doAppend
+                                           , String charsetName
+                                           )
+        throws IOException
+    {
+        SimpleLogger.setLevel(verbose);
+        final boolean isDebug = verbose == SimpleLogger.Level.DEBUG.value();
+        final long tiStart = System.nanoTime();
+        final STGroup group = TemplateGroupRegistry.getGroup(groupFileName, isDebug);
+        final long tiLoad = System.nanoTime() - tiStart;
+        return write( newInstance( group
+                                 , groupFileName
+                                 , templateName
+                                 , attributeNames
+                                 , attributeValues
+                                 , wrapColumn
+                                 , outputFileName
+                                 , tiLoad
+                                 )
+                    , outputFileName
+                    , directory
+                    , doAppend
+                    , charsetName
+                    , wrapColumn
+                    );
+    } /* End of TemplateRenderer.renderToFile */
+
+
+
+    /**
+     * Render a template of a group, which has already been got from the {@link
+     * TemplateGroupRegistry}, into a file. Used by render.m for st4RenderWrite.
+     *   @return Get the statistics of the rendering.
+     *   @param group
+     * The group, which defines the template. Its error listener needs to be an {@link
+     * ST4ErrorListener}.
+     *   @param groupName
+     * The name of the group file for error messages and for the service object info.
+     *   @param templateName
+     * The name of the template to render.
+     *   @param attributeNames
+     * The names of the attributes, either an array of strings or a single String.
+     *   @param attributeValues
+     * The values of the attributes, either an array of objects or a single object.
+     *   @param wrapColumn
+     * The column, at which the template engine wraps lines.
+     *   @param outputFileName
+     * The name of the generated file.
+     *   @param directory
+     * The directory, which a relative output file name refers to, or null.
+     *   @param doAppend
+     * If true then the generated text is appended to the file.
+     *   @param charsetName
+     * The name of the character encoding of the file or null for UTF-8.
+     *   @throws IOException
+     * The file can't be written.
+     *   @throws IllegalArgumentException
+     * See {@link #renderToFile}.
+     */
+    public static RenderResult renderGroupToFile( STGroup group
+                                                , String groupName
+                                                , String templateName
+                                                , Object attributeNames
+                                                , Object attributeValues
+                                                , int wrapColumn
+                                                , String outputFileName
+                                                , String directory
+                                                , boolean doAppend
+                                                , String charsetName
+                                                )
+        throws IOException
+    {
+        return write( newInstance( group
+                                 , groupName
+                                 , templateName
+                                 , attributeNames
+                                 , attributeValues
+                                 , wrapColumn
+                                 , outputFileName
+                                 , RenderResult.NO_LOAD_TIME
+                                 )
+                    , outputFileName
+                    , directory
+                    , doAppend
+                    , charsetName
+                    , wrapColumn
+                    );
+    } /* End of TemplateRenderer.renderGroupToFile */
+
+
+
+    /**
+     * Render a template of a group, which has already been got from the {@link
+     * TemplateGroupRegistry}, into a UTF-8 encoded byte array. Used by render.m; the
+     * array is passed to Octave as a numeric array and decoded there.
+     *   @return Get the generated text and the statistics of the rendering. The text is
+     * got with {@link RenderResult#getBytes}.
+     *   @param group
+     * The group, which defines the template. Its error listener needs to be an {@link
+     * ST4ErrorListener}.
+     *   @param groupName
+     * The name of the group file for error messages and for the service object info.
+     *   @param templateName
+     * The name of the template to render.
+     *   @param attributeNames
+     * The names of the attributes, either an array of strings or a single String.
+     *   @param attributeValues
+     * The values of the attributes, either an array of objects or a single object.
+     *   @param wrapColumn
+     * The column, at which the template engine wraps lines.
+     *   @param outputFileName
+     * The name of the generated file or null or the empty string.
+     *   @throws IllegalArgumentException
+     * See {@link #renderGroup}.
+     *   @throws IllegalStateException
+     * The encoded text is too long for a single Java array.
+     */
+    public static RenderResult renderGroupToBytes( STGroup group
+                                                 , String groupName
+                                                 , String templateName
+                                                 , Object attributeNames
+                                                 , Object attributeValues
+                                                 , int wrapColumn
+                                                 , String outputFileName
+                                                 )
+    {
+        final Instance instance = newInstance( group
+                                             , groupName
+                                             , templateName
+                                             , attributeNames
+                                             , attributeValues
+                                             , wrapColumn
+                                             , outputFileName
+                                             , RenderResult.NO_LOAD_TIME
+                                             );
+        final long tiStart = System.nanoTime();
+        final Utf8ChunkWriter writer = new Utf8ChunkWriter(BYTES_CHUNK_SIZE);
+        final long noChars = write(instance.st_, writer, wrapColumn);
+        return instance.newResult( writer.toByteArray()
+                                 , noChars
+                                 , System.nanoTime() - tiStart
+                                 );
+    } /* End of TemplateRenderer.renderGroupToBytes */
+
+
+
+    /**
+     * Render a template of a group, which has already been got from the {@link
+     * TemplateGroupRegistry}, into a sequence of UTF-8 encoded chunks. The caller can
+     * consume a very large generated text incrementally; each chunk is released when it
+     * is fetched.
+     *   @return Get the generated text and the statistics of the rendering. The text is
+     * got with {@link RenderResult#getChunks}.
+     *   @param group
+     * The group, which defines the template. Its error listener needs to be an {@link
+     * ST4ErrorListener}.
+     *   @param groupName
+     * The name of the group file for error messages and for the service object info.
+     *   @param templateName
+     * The name of the template to render.
+     *   @param attributeNames
+     * The names of the attributes, either an array of strings or a single String.
+     *   @param attributeValues
+     * The values of the attributes, either an array of objects or a single object.
+     *   @param wrapColumn
+     * The column, at which the template engine wraps lines.
+     *   @param outputFileName
+     * The name of the generated file or null or the empty string.
+     *   @param chunkSize
+     * The maximum size of a chunk in Byte. A chunk ends with a complete character and can
+     * be shorter.
+     *   @throws IllegalArgumentException
+     * See {@link #renderGroup}. Or the chunk size is less than four Byte.
+     */
+    public static RenderResult renderGroupToChunks( STGroup group
+                                                  , String groupName
+                                                  , String templateName
+                                                  , Object attributeNames
+                                                  , Object attributeValues
+                                                  , int wrapColumn
+                                                  , String outputFileName
+                                                  , int chunkSize
+                                                  )
+    {
+        final Utf8ChunkWriter writer = new Utf8ChunkWriter(chunkSize);
+        final Instance instance = newInstance( group
+                                             , groupName
+                                             , templateName
+                                             , attributeNames
+                                             , attributeValues
+                                             , wrapColumn
+                                             , outputFileName
+                                             , RenderResult.NO_LOAD_TIME
+                                             );
+        final long tiStart = System.nanoTime();
+        final long noChars = write(instance.st_, writer, wrapColumn);
+        return instance.newResult( writer.toChunks()
+                                 , noChars
+                                 , System.nanoTime() - tiStart
+                                 );
+    } /* End of TemplateRenderer.renderGroupToChunks */
+
+
+
+    /**
+     * Render a template of a group, which has already been got from the {@link
+     * TemplateGroupRegistry}, into an {@link OutputBuffer}. The text is held in memory
+     * until it exceeds a threshold; then it is spilled to a temporary file.
+     *   @return Get the statistics of the rendering and the handle to the generated text,
+     * see {@link RenderResult#getBuffer}. The caller needs to move or delete the text in
+     * the buffer, even if errors have been reported.
+     *   @param group
+     * The group, which defines the template. Its error listener needs to be an {@link
+     * ST4ErrorListener}.
+     *   @param groupName
+     * The name of the group file for error messages and for the service object info.
+     *   @param templateName
+     * The name of the template to render.
+     *   @param attributeNames
+     * The names of the attributes, either an array of strings or a single String.
+     *   @param attributeValues
+     * The values of the attributes, either an array of objects or a single object.
+     *   @param wrapColumn
+     * The column, at which the template engine wraps lines.
+     *   @param outputFileName
+     * The name of the generated file or null or the empty string.
+     *   @param threshold
+     * The maximum size of the UTF-8 encoded text in Byte, which is held in memory.
+     *   @throws IOException
+     * The temporary file can't be written. It has been deleted.
+     *   @throws IllegalArgumentException
+     * See {@link #renderGroup}. Or the threshold is negative.
+     */
+    public static RenderResult renderGroupToBuffer( STGroup group
+                                                  , String groupName
+                                                  , String templateName
+                                                  , Object attributeNames
+                                                  , Object attributeValues
+                                                  , int wrapColumn
+                                                  , String outputFileName
+                                                  , long threshold
+                                                  )
+        throws IOException
+    {
+        final OutputBuffer buffer = new OutputBuffer(threshold);
+        final Instance instance = newInstance( group
+                                             , groupName
+                                             , templateName
+                                             , attributeNames
+                                             , attributeValues
+                                             , wrapColumn
+                                             , outputFileName
+                                             , RenderResult.NO_LOAD_TIME
+                                             );
+        final long tiStart = System.nanoTime();
+        boolean isComplete = false;
+        try
+        {
+            final BufferedIndentWriter stWriter = newSTWriter(buffer, wrapColumn);
+            instance.st_.write(stWriter);
+            stWriter.flush();
+            buffer.close();
+            isComplete = true;
+        }
+        finally
+        {
+            if(!isComplete)
+                buffer.delete();
+        }
+        return instance.newResult(buffer, buffer.getNoChars(), System.nanoTime() - tiStart);
+
+    } /* End of TemplateRenderer.renderGroupToBuffer */
+
+
+
+    /**
+     * Set the end of line sequence of the generated text. The setting applies to all
+     * render modes of this class and to all threads.
+     *   @param endOfLine
+     * Either "\n" or "\r\n". Null or the empty string select the line separator of the
+     * platform, which is the default. A fixed end of line makes the generated files of
+     * different hosts byte-identical.
+     *   @throws IllegalArgumentException
+     * The end of line sequence is not supported.
+     */
+    public static void setEndOfLine(String endOfLine)
+    {
+        if(endOfLine == null  ||  endOfLine.isEmpty())
+            endOfLine = System.lineSeparator();
+        else if(!"\n".equals(endOfLine)  &&  !"\r\n".equals(endOfLine))
+        {
+            throw new IllegalArgumentException("Unsupported end of line sequence. Only"
+                                               + " \"\\n\" and \"\\r\\n\" are possible"
+                                              );
+        }
+        _endOfLine = endOfLine;
+        _logger.debug("TemplateRenderer: End of line of generated text is "
+                      + ("\n".equals(endOfLine)? "LF": "CR LF")
+                     );
+    } /* End of TemplateRenderer.setEndOfLine */
+
+
+
+    /**
+     * Get the end of line sequence of the generated text.
+     *   @return Get either "\n" or "\r\n".
+     */
+    public static String getEndOfLine()
+        { return _endOfLine; }
+
+
+
+    /**
+     * Create the writer, which the template engine renders into.
+     *   @return Get the new, buffered writer. It needs to be flushed after rendering.
+     *   @param out
+     * The Writer, which receives the generated text.
+     *   @param wrapColumn
+     * The column, at which the template engine wraps lines.
+     */
+    private static BufferedIndentWriter newSTWriter(Writer out, int wrapColumn)
+    {
+        final BufferedIndentWriter stWriter = new BufferedIndentWriter(out, _endOfLine);
+        stWriter.setLineWidth(wrapColumn);
+        return stWriter;
+
+    } /* End of TemplateRenderer.newSTWriter */
+
+
+
+    /**
+     * Create the instance of a template of a loaded group and add its attributes.
+     *   @return Get the instance, which is ready for rendering.
+     *   @param group
+     * The group, which defines the template.
+     *   @param groupName
+     * The name of the group file.
+     *   @param templateName
+     * The name of the template to render.
+     *   @param attributeNames
+     * The names of the attributes.
+     *   @param attributeValues
+     * The values of the attributes.
+     *   @param wrapColumn
+     * The column, at which the template engine wraps lines.
+     *   @param outputFileName
+     * The name of the generated file or null or the empty string.
+     *   @param tiLoad
+     * The time spent for getting the group in ns or {@link RenderResult#NO_LOAD_TIME} if
+     * the caller passed the group.
+     */
+    private static Instance newInstance( STGroup group
+                                       , String groupName
+                                       , String templateName
+                                       , Object attributeNames
+                                       , Object attributeValues
+                                       , int wrapColumn
+                                       , String outputFileName
+                                       , long tiLoad
+                                       )
+    {
+        final long tiStart = System.nanoTime();
+        final ErrorCounter errCnt =
+                            ((ST4ErrorListener)group.getListener()).getErrorCounter();
+
+        if(!group.isDefined(templateName))
+        {
+            throw new IllegalArgumentException("Template " + templateName + " is not"
+                                               + " defined in template group file "
+                                               + groupName
+                                              );
+        }
+        final ST st = group.getInstanceOf(templateName);
+
+        String[] names = DataModelBuilder.toStringArray(attributeNames);
+        Object[] values = DataModelBuilder.toObjectArray(attributeValues);
+        if(names == null)
+            names = new String[0];
+        if(values == null)
+            values = new Object[0];
+        if(names.length != values.length)
+        {
+            throw new IllegalArgumentException("Template " + templateName + " of template"
+                                               + " group file " + groupName + " receives "
+                                               + names.length + " attribute names but "
+                                               + values.length + " values"
+                                              );
+        }
+
+        /* Our service object is not passed if the caller uses the name info for an
+           attribute of its own. */
+        boolean addInfoObject = true;
+        for(int i=0; i<names.length; ++i)
+        {
+            if(ARG_NAME_INFO.equalsIgnoreCase(names[i]))
+                addInfoObject = false;
+            if(!isFormalArgument(st.impl, names[i]))
+            {
+                throw new IllegalArgumentException("Failed to add attribute " + names[i]
+                                                   + " to template " + templateName
+                                                   + " of template group file "
+                                                   + groupName + ". The template doesn't"
+                                                   + " name such an attribute in its"
+                                                   + " argument list"
+                                                  );
+            }
+            st.add(names[i], values[i]);
+        }
+
+        boolean isInfoPassed = false;
+        if(addInfoObject  &&  isFormalArgument(st.impl, ARG_NAME_INFO))
+        {
+            final Info info = new Info(errCnt);
+            info.setTemplateInfo(groupName, templateName, ARG_NAME_INFO, wrapColumn);
+            if(outputFileName != null  &&  !outputFileName.isEmpty())
+                info.setOutputInfo(outputFileName);
+            st.add(ARG_NAME_INFO, info);
+            isInfoPassed = true;
+            _logger.debug("TemplateRenderer: Service object 'info' is passed to template "
+                          + templateName
+                         );
+        }
+        else if(addInfoObject)
+        {
+            _logger.debug("TemplateRenderer: Template " + templateName + " doesn't accept"
+                          + " an attribute 'info'. No such service object is offered"
+                         );
+        }
+
+        return new Instance( st
+                           , templateName
+                           , errCnt
+                           , isInfoPassed
+                           , tiLoad
+                           , /* tiSetup */ System.nanoTime() - tiStart
+                           );
+    } /* End of TemplateRenderer.newInstance */
+
+
+
+    /**
+     * Render a template of a loaded group into a string.
+     *   @return Get the generated text and the statistics of the rendering.
+     *   @param group
+     * The group, which defines the template.
+     *   @param groupName
+     * The name of the group file.
+     *   @param templateName
+     * The name of the template to render.
+     *   @param attributeNames
+     * The names of the attributes.
+     *   @param attributeValues
+     * The values of the attributes.
+     *   @param wrapColumn
+     * The column, at which the template engine wraps lines.
+     *   @param outputFileName
+     * The name of the generated file or null or the empty string.
+     *   @param tiLoad
+     * The time spent for getting the group in ns or {@link RenderResult#NO_LOAD_TIME} if
+     * the caller passed the group.
+     */
+    private static RenderResult render( STGroup group
+                                      , String groupName
+                                      , String templateName
+                                      , Object attributeNames
+                                      , Object attributeValues
+                                      , int wrapColumn
+                                      , String outputFileName
+                                      , long tiLoad
+                                      )
+    {
+        final Instance instance = newInstance( group
+                                             , groupName
+                                             , templateName
+                                             , attributeNames
+                                             , attributeValues
+                                             , wrapColumn
+                                             , outputFileName
+                                             , tiLoad
+                                             );
+        final long tiStart = System.nanoTime();
+        final StringWriter writer = new StringWriter();
+        final BufferedIndentWriter stWriter = newSTWriter(writer, wrapColumn);
+        try
+        {
+            instance.st_.write(stWriter);
+            stWriter.flush();
+        }
+        catch(IOException e)
+        {
+            /* The writer doesn't do any I/O. */
+            throw new IllegalStateException("Unexpected I/O error while rendering", e);
+        }
+        final String text = writer.toString();
+        return instance.newResult(text, text.length(), System.nanoTime() - tiStart);
+
+    } /* End of TemplateRenderer.render */
+
+
+
+    /**
+     * Render a template instance into a file.<p>
+     *   The file is changed only if the rendering succeeds without errors, like it used
+     * to be when st4RenderWrite wrote the returned text itself: A new file is written
+     * under a temporary name and renamed when complete. When appending, the file is
+     * truncated to its original length if the rendering fails.
+     *   @return Get the statistics of the rendering.
+     *   @param instance
+     * The template instance.
+     *   @param fileName
+     * The name of the generated file.
+     *   @param directory
+     * The directory, which a relative file name refers to, or null.
+     *   @param doAppend
+     * If true then the generated text is appended to the file.
+     *   @param charsetName
+     * The name of the character encoding of the file or null for UTF-8.
+     *   @param wrapColumn
+     * The column, at which the template engine wraps lines.
+     *   @throws IOException
+     * The file can't be written.
+     */
+    private static RenderResult write( Instance instance
+                                     , String fileName
+                                     , String directory
+                                     , boolean doAppend
+                                     , String charsetName
+                                     , int wrapColumn
+                                     )
+        throws IOException
+    {
+        final Charset charset = charsetName != null  &&  !charsetName.isEmpty()
+                                ? Charset.forName(charsetName)
+                                : StandardCharsets.UTF_8;
+        Path path = Paths.get(fileName);
+        if(directory != null  &&  !directory.isEmpty())
+            path = Paths.get(directory).resolve(path);
+        path = path.toAbsolutePath();
+        Files.createDirectories(path.getParent());
+
+        final long tiStart = System.nanoTime();
+        long noChars;
+        if(doAppend)
+        {
+            try(FileChannel channel = FileChannel.open( path
+                                                      , StandardOpenOption.CREATE
+                                                      , StandardOpenOption.WRITE
+                                                      , StandardOpenOption.APPEND
+                                                      )
+               )
+            {
+                final long size = channel.size();
+                boolean isComplete = false;
+                try
+                {
+                    noChars = write(instance.st_, channel, charset, wrapColumn);
+                    isComplete = instance.errCnt_.getNoErrors() == 0;
+                }
+                finally
+                {
+                    if(!isComplete)
+                        channel.truncate(size);
+                }
+            }
+        }
+        else
+        {
+            final Path tmpPath = path.resolveSibling( "." + path.getFileName() + "."
+                                                      + Long.toHexString(System.nanoTime())
+                                                      + ".tmp"
+                                                    );
+            boolean isComplete = false;
+            try
+            {
+                try(FileChannel channel = FileChannel.open( tmpPath
+                                                          , StandardOpenOption.CREATE_NEW
+                                                          , StandardOpenOption.WRITE
+                                                          )
+                   )
+                {
+                    noChars = write(instance.st_, channel, charset, wrapColumn);
+                }
+                if(instance.errCnt_.getNoErrors() == 0)
+                {
+                    try
+                    {
+                        Files.move( tmpPath
+                                  , path
+                                  , StandardCopyOption.REPLACE_EXISTING
+                                  , StandardCopyOption.ATOMIC_MOVE
+                                  );
+                    }
+                    catch(AtomicMoveNotSupportedException e)
+                    {
+                        Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    isComplete = true;
+                }
+            }
+            finally
+            {
+                if(!isComplete)
+                    Files.deleteIfExists(tmpPath);
+            }
+        }
+        _logger.debug("TemplateRenderer: " + noChars + " characters written to " + path);
+        return instance.newResult( /* text */ null
+                                 , noChars
+                                 , System.nanoTime() - tiStart
+                                 );
+    } /* End of TemplateRenderer.write */
+
+
+
+    /**
+     * Render a template instance into a file channel.
+     *   @return Get the number of written characters.
+     *   @param st
+     * The template instance.
+     *   @param channel
+     * The open file channel. The text is written at its current position. The channel is
+     * not closed.
+     *   @param charset
+     * The character encoding of the file. Characters, which can't be encoded, are
+     * replaced.
+     *   @param wrapColumn
+     * The column, at which the template engine wraps lines.
+     *   @throws IOException
+     * The file can't be written.
+     */
+    private static long write(ST st, FileChannel channel, Charset charset, int wrapColumn)
+        throws IOException
+    {
+        final CharsetEncoder encoder = charset.newEncoder()
+                                       .onMalformedInput(CodingErrorAction.REPLACE)
+                                       .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        /* The template engine writes many small fragments; they are collected in the
+           buffer of the STWriter before they are encoded. The writer is not closed,
+           which would close the channel. */
+        final BufferedIndentWriter stWriter =
+                            newSTWriter(Channels.newWriter(channel, encoder, -1), wrapColumn);
+        st.write(stWriter);
+        stWriter.flush();
+        return stWriter.getNoChars();
+
+    } /* End of TemplateRenderer.write */
+
+
+
+    /**
+     * Render a template instance into a writer, which encodes the text into chunks.
+     *   @return Get the number of written characters.
+     *   @param st
+     * The template instance.
+     *   @param writer
+     * The writer. It is closed after rendering.
+     *   @param wrapColumn
+     * The column, at which the template engine wraps lines.
+     */
+    private static long write(ST st, Utf8ChunkWriter writer, int wrapColumn)
+    {
+        final BufferedIndentWriter stWriter = newSTWriter(writer, wrapColumn);
+        try
+        {
+            st.write(stWriter);
+            stWriter.flush();
+        }
+        catch(IOException e)
+        {
+            /* The writer doesn't do any I/O. */
+            throw new IllegalStateException("Unexpected I/O error while rendering", e);
+        }
+        writer.close();
+        _logger.debug("TemplateRenderer: " + stWriter.getNoChars() + " characters encoded"
+                      + " into " + writer.getNoBytes() + " Byte"
+                     );
+        return stWriter.getNoChars();
+
+    } /* End of TemplateRenderer.write */
+
+
+
+    /**
+     * Check if a template accepts an attribute.
+     *   @return Get true if the template declares a formal argument of the given name or
+     * if it doesn't declare formal arguments at all; the latter is the case for templates,
+     * which are not defined in a group.
+     *   @param code
+     * The compiled template.
+     *   @param name
+     * The name of the attribute.
+     */
+    static boolean isFormalArgument(CompiledST code, String name)
+    {
+        if(!code.hasFormalArgs)
+            return true;
+        return code.formalArguments != null  &&  code.formalArguments.containsKey(name);
+
+    } /* End of TemplateRenderer.isFormalArgument */
+
+} /* End of class TemplateRenderer definition. */
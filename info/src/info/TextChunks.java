@@ -0,0 +1,112 @@
+/**
+ * @file TextChunks.java
+ * An iterator over the UTF-8 encoded chunks of a generated text.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class TextChunks
+ *   TextChunks
+ *   hasNext
+ *   next
+ *   getNoChunks
+ *   getNoBytes
+ */
+
+package info;
+
+import java.util.*;
+
+
+/**
+ * An iterator over the chunks of a generated text, see {@link
+ * TemplateRenderer#renderGroupToChunks}.<p>
+ *   Each chunk is a byte array, which holds a part of the text UTF-8 encoded. A chunk
+ * always ends with a complete character; it can be decoded on its own, e.g. with
+ * native2unicode in Octave. The iterator releases a chunk when it is returned; the memory
+ * is freed while Octave consumes the text.<p>
+ *   The iterator is not safe for concurrent use.
+ */
+
+public final class TextChunks implements Iterator<byte[]>
+{
+    /** The chunks; returned ones are replaced by null. */
+    private final List<byte[]> chunks_;
+
+    /** The total number of bytes of all chunks. */
+    private final long noBytes_;
+
+    /** The index of the next chunk. */
+    private int idxNext_ = 0;
+
+
+    /**
+     * A new instance of TextChunks is created.
+     *   @param chunks
+     * The chunks. The list is owned by the iterator.
+     *   @param noBytes
+     * The total number of bytes of all chunks.
+     */
+    TextChunks(List<byte[]> chunks, long noBytes)
+    {
+        chunks_ = chunks;
+        noBytes_ = noBytes;
+
+    } /* End of TextChunks.TextChunks */
+
+
+
+    /**
+     * Check if there are more chunks.
+     *   @return Get true if {@link #next} can be called.
+     */
+    @Override public boolean hasNext()
+        { return idxNext_ < chunks_.size(); }
+
+
+
+    /**
+     * Get the next chunk.
+     *   @return Get the byte array with the UTF-8 encoding of the next part of the text.
+     *   @throws NoSuchElementException
+     * All chunks have been returned.
+     */
+    @Override public byte[] next()
+    {
+        if(!hasNext())
+            throw new NoSuchElementException("All chunks of the text have been returned");
+        return chunks_.set(idxNext_++, null);
+
+    } /* End of TextChunks.next */
+
+
+
+    /**
+     * Get the number of chunks.
+     *   @return Get the total number, including the already returned ones.
+     */
+    public int getNoChunks()
+        { return chunks_.size(); }
+
+
+
+    /**
+     * Get the length of the encoded text.
+     *   @return Get the total number of bytes of all chunks.
+     */
+    public long getNoBytes()
+        { return noBytes_; }
+
+} /* End of class TextChunks definition. */
@@ -0,0 +1,69 @@
+/**
+ * @file TextRenderer.java
+ * An attribute renderer for the StringTemplate V4 engine, which applies the format
+ * options of the StringRenderer to any character sequence.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class TextRenderer
+ *   TextRenderer
+ *   toString
+ */
+
+package info;
+
+import java.util.*;
+import org.stringtemplate.v4.AttributeRenderer;
+import org.stringtemplate.v4.StringRenderer;
+
+
+/**
+ * An attribute renderer for character sequences other than String, e.g. {@link
+ * Utf8Text}. The StringTemplate V4 StringRenderer can't be registered for these as it
+ * casts the attribute to String. This renderer converts the attribute into a String and
+ * delegates the formatting to the StringRenderer. The format options are the same, e.g.
+ * {@code <text; format="xml-encode">}.
+ */
+
+public class TextRenderer implements AttributeRenderer<Object>
+{
+    /** The renderer, which does the actual formatting. */
+    private final StringRenderer stringRenderer_ = new StringRenderer();
+
+
+    /**
+     * A new instance of TextRenderer is created.
+     */
+    public TextRenderer()
+    {
+    } /* End of TextRenderer.TextRenderer */
+
+
+
+    /**
+     * Render an attribute.
+     *   @return Get the formatted text.
+     *   @param value
+     * The attribute, typically a CharSequence.
+     *   @param formatString
+     * The format option of the template expression or null if there's none.
+     *   @param locale
+     * The locale to use.
+     */
+    @Override public String toString(Object value, String formatString, Locale locale)
+        { return stringRenderer_.toString(value.toString(), formatString, locale); }
+
+} /* End of class TextRenderer definition. */
@@ -0,0 +1,280 @@
+/**
+ * @file Utf8ChunkWriter.java
+ * A Writer, which collects the written text UTF-8 encoded in chunks of limited size.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class Utf8ChunkWriter
+ *   Utf8ChunkWriter
+ *   write
+ *   flush
+ *   close
+ *   getNoBytes
+ *   toByteArray
+ *   toChunks
+ */
+
+package info;
+
+import java.util.*;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * A Writer, which encodes the written text as UTF-8 into a sequence of byte arrays of
+ * limited size.<p>
+ *   The text is never held as a single String. A chunk always ends with a complete
+ * character; each chunk can be decoded on its own. When the writer is closed, the
+ * chunks can be got as a single byte array or one by one, see {@link TextChunks}.<p>
+ *   The writer is not safe for concurrent use.
+ */
+
+final class Utf8ChunkWriter extends Writer
+{
+    /** The size of the buffer of not yet encoded characters. */
+    private static final int CHAR_BUFFER_SIZE = 8*1024;
+
+    /** The minimum size of a chunk in Byte; the longest UTF-8 sequence needs to fit. */
+    static final int MIN_CHUNK_SIZE = 4;
+
+    /** The maximum size of a chunk in Byte. */
+    private final int chunkSize_;
+
+    /** The encoder. Malformed input, like an unpaired surrogate, is replaced. */
+    private final CharsetEncoder encoder_ =
+                                StandardCharsets.UTF_8.newEncoder()
+                                .onMalformedInput(CodingErrorAction.REPLACE)
+                                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /** The characters, which have been written but not encoded yet. */
+    private final CharBuffer chars_ = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+
+    /** The chunk, which is being filled, or null after close. */
+    private ByteBuffer chunk_;
+
+    /** The completed chunks. */
+    private final List<byte[]> chunks_ = new ArrayList<>();
+
+    /** The number of bytes in the completed chunks. */
+    private long noBytes_ = 0;
+
+
+    /**
+     * A new instance of Utf8ChunkWriter is created.
+     *   @param chunkSize
+     * The maximum size of a chunk in Byte.
+     *   @throws IllegalArgumentException
+     * The chunk size is less than four Byte.
+     */
+    Utf8ChunkWriter(int chunkSize)
+    {
+        if(chunkSize < MIN_CHUNK_SIZE)
+        {
+            throw new IllegalArgumentException("The size of a chunk of text needs to be at"
+                                               + " least " + MIN_CHUNK_SIZE + " Byte but"
+                                               + " is " + chunkSize
+                                              );
+        }
+        chunkSize_ = chunkSize;
+        chunk_ = ByteBuffer.allocate(chunkSize);
+
+    } /* End of Utf8ChunkWriter.Utf8ChunkWriter */
+
+
+
+    /**
+     * Write a part of an array of characters.
+     *   @param cbuf
+     * The characters.
+     *   @param off
+     * The index of the first character to write.
+     *   @param len
+     * The number of characters to write.
+     */
+    @Override public void write(char[] cbuf, int off, int len)
+    {
+        while(len > 0)
+        {
+            final int n = Math.min(len, chars_.remaining());
+            chars_.put(cbuf, off, n);
+            off += n;
+            len -= n;
+            if(!chars_.hasRemaining())
+                encode(/* endOfInput */ false);
+        }
+    } /* End of Utf8ChunkWriter.write */
+
+
+
+    /**
+     * Write a part of a string. Overridden to avoid the copying into a temporary array.
+     *   @param str
+     * The string.
+     *   @param off
+     * The index of the first character to write.
+     *   @param len
+     * The number of characters to write.
+     */
+    @Override public void write(String str, int off, int len)
+    {
+        while(len > 0)
+        {
+            final int n = Math.min(len, chars_.remaining());
+            chars_.put(str, off, off+n);
+            off += n;
+            len -= n;
+            if(!chars_.hasRemaining())
+                encode(/* endOfInput */ false);
+        }
+    } /* End of Utf8ChunkWriter.write */
+
+
+
+    /**
+     * Encode the buffered characters into the chunks.
+     *   @param endOfInput
+     * If false then a trailing high surrogate is kept in the buffer; it is completed by
+     * the next written character.
+     */
+    private void encode(boolean endOfInput)
+    {
+        chars_.flip();
+        while(true)
+        {
+            final CoderResult result = encoder_.encode(chars_, chunk_, endOfInput);
+            if(!result.isOverflow())
+                break;
+            completeChunk();
+        }
+        chars_.compact();
+
+    } /* End of Utf8ChunkWriter.encode */
+
+
+
+    /**
+     * Append the chunk, which is being filled, to the completed chunks and start a new
+     * one.
+     */
+    private void completeChunk()
+    {
+        final int noBytes = chunk_.position();
+        if(noBytes > 0)
+        {
+            final byte[] chunk = chunk_.array();
+            chunks_.add(noBytes == chunk.length? chunk: Arrays.copyOf(chunk, noBytes));
+            noBytes_ += noBytes;
+            chunk_ = ByteBuffer.allocate(chunkSize_);
+        }
+    } /* End of Utf8ChunkWriter.completeChunk */
+
+
+
+    /**
+     * Encode the buffered characters. A trailing high surrogate is still kept.
+     */
+    @Override public void flush()
+    {
+        if(chunk_ != null)
+            encode(/* endOfInput */ false);
+
+    } /* End of Utf8ChunkWriter.flush */
+
+
+
+    /**
+     * Encode all buffered characters and complete the last chunk. Further writing is not
+     * possible.
+     */
+    @Override public void close()
+    {
+        if(chunk_ == null)
+            return;
+
+        encode(/* endOfInput */ true);
+        while(encoder_.flush(chunk_).isOverflow())
+            completeChunk();
+        completeChunk();
+        chunk_ = null;
+
+    } /* End of Utf8ChunkWriter.close */
+
+
+
+    /**
+     * Get the number of bytes of the encoded text.
+     *   @return Get the number of bytes in all completed chunks.
+     */
+    long getNoBytes()
+        { return noBytes_; }
+
+
+
+    /**
+     * Get the encoded text as a single byte array. The chunks are released while they
+     * are copied.
+     *   @return Get the new array.
+     *   @throws IllegalStateException
+     * The writer has not been closed or the text is too long for a Java array.
+     */
+    byte[] toByteArray()
+    {
+        if(chunk_ != null)
+            throw new IllegalStateException("The writer needs to be closed first");
+        if(noBytes_ > Integer.MAX_VALUE - 8)
+        {
+            throw new IllegalStateException("The generated text of " + noBytes_ + " Byte"
+                                            + " is too long for a single array. Use"
+                                            + " chunks instead"
+                                           );
+        }
+
+        final byte[] bytes = new byte[(int)noBytes_];
+        int pos = 0;
+        for(int i=0; i<chunks_.size(); ++i)
+        {
+            final byte[] chunk = chunks_.set(i, null);
+            System.arraycopy(chunk, 0, bytes, pos, chunk.length);
+            pos += chunk.length;
+        }
+        chunks_.clear();
+        return bytes;
+
+    } /* End of Utf8ChunkWriter.toByteArray */
+
+
+
+    /**
+     * Get the encoded text as a sequence of chunks.
+     *   @return Get the iterator over the chunks. It takes the chunks over from the writer.
+     *   @throws IllegalStateException
+     * The writer has not been closed.
+     */
+    TextChunks toChunks()
+    {
+        if(chunk_ != null)
+            throw new IllegalStateException("The writer needs to be closed first");
+        return new TextChunks(new ArrayList<>(chunks_), noBytes_);
+
+    } /* End of Utf8ChunkWriter.toChunks */
+
+} /* End of class Utf8ChunkWriter definition. */
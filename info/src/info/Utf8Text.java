@@ -0,0 +1,180 @@
+/**
+ * @file Utf8Text.java
+ * A character sequence, which is held as UTF-8 encoded bytes and decoded only on demand.
+ * It represents large text attributes in the StringTemplate V4 data model.
+ *
+ * Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+ *
+ * This program is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/* Interface of class Utf8Text
+ *   Utf8Text
+ *   length
+ *   charAt
+ *   subSequence
+ *   toString
+ *   decode
+ */
+
+package info;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * A character sequence, which is a view on UTF-8 encoded bytes in a shared byte buffer,
+ * the arena. The arena is either the text column transferred from Octave or a section of
+ * a memory mapped data model file.<p>
+ *   A Java String needs two bytes per character. Large text attributes, which are mostly
+ * ASCII, are therefore kept in their UTF-8 encoding, as they have been transferred from
+ * Octave. The text is decoded each time it is rendered; the decoded String is not
+ * retained.<p>
+ *   A template renders the object like a String. The renderer {@link TextRenderer}
+ * supports the same format options as the StringTemplate V4 StringRenderer.
+ */
+
+public final class Utf8Text implements CharSequence
+{
+    /** The arena, which holds the UTF-8 encoded bytes of this and other texts. */
+    private final ByteBuffer arena_;
+
+    /** The index of the first byte of the text in the arena. */
+    private final int offset_;
+
+    /** The number of bytes of the text. */
+    private final int noBytes_;
+
+    /** The number of UTF-16 characters of the text, or -1 if not yet computed. */
+    private int length_ = -1;
+
+
+    /**
+     * A new instance of Utf8Text is created.
+     *   @param arena
+     * The byte buffer, which holds the UTF-8 encoded text. The contents are not copied.
+     * The buffer is used with absolute indexes; its position is irrelevant.
+     *   @param offset
+     * The index of the first byte of the text.
+     *   @param noBytes
+     * The number of bytes of the text.
+     */
+    Utf8Text(ByteBuffer arena, int offset, int noBytes)
+    {
+        if(offset < 0  ||  noBytes < 0  ||  offset + noBytes > arena.limit())
+        {
+            throw new IllegalArgumentException("Utf8Text: Range [" + offset + ", "
+                                               + (offset+noBytes) + ") is out of the"
+                                               + " arena of " + arena.limit() + " Byte"
+                                              );
+        }
+        arena_ = arena;
+        offset_ = offset;
+        noBytes_ = noBytes;
+
+    } /* End of Utf8Text.Utf8Text */
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the number of UTF-16 characters. It is computed from the encoding
+     * without decoding the text.
+     */
+    @Override public int length()
+    {
+        if(length_ < 0)
+        {
+            /* Each character starts with a byte, which is not a continuation byte
+               10xxxxxx. A four byte sequence encodes a character outside the Basic
+               Multilingual Plane, which takes a surrogate pair in UTF-16. */
+            int length = 0;
+            for(int i=offset_; i<offset_+noBytes_; ++i)
+            {
+                final int b = arena_.get(i) & 0xff;
+                if((b & 0xc0) != 0x80)
+                    length += b >= 0xf0? 2: 1;
+            }
+            length_ = length;
+        }
+        return length_;
+
+    } /* End of Utf8Text.length */
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get a character. Caution, the text is decoded for each call.
+     *   @param idx
+     * The null based index of the character.
+     */
+    @Override public char charAt(int idx)
+        { return toString().charAt(idx); }
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the sub-sequence as a String.
+     *   @param start
+     * The index of the first character.
+     *   @param end
+     * The index behind the last character.
+     */
+    @Override public CharSequence subSequence(int start, int end)
+        { return toString().substring(start, end); }
+
+
+
+    /**
+     * {@inheritDoc}
+     *   @return Get the decoded text. The String is not retained by this object.
+     */
+    @Override public String toString()
+        { return decode(arena_, offset_, noBytes_); }
+
+
+
+    /**
+     * Decode a UTF-8 encoded section of a byte buffer.
+     *   @return Get the decoded text.
+     *   @param buf
+     * The buffer. Its position is irrelevant and not changed.
+     *   @param offset
+     * The index of the first byte in the buffer.
+     *   @param noBytes
+     * The number of bytes.
+     */
+    static String decode(ByteBuffer buf, int offset, int noBytes)
+    {
+        if(buf.hasArray())
+        {
+            return new String( buf.array()
+                             , buf.arrayOffset() + offset
+                             , noBytes
+                             , StandardCharsets.UTF_8
+                             );
+        }
+        else
+        {
+            byte[] bytes = new byte[noBytes];
+            ByteBuffer dup = buf.duplicate();
+            dup.position(offset);
+            dup.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    } /* End of Utf8Text.decode */
+
+} /* End of class Utf8Text definition. */
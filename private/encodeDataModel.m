@@ -0,0 +1,309 @@
+function [p] = encodeDataModel(value)
+
+% Flatten an Octave data object into the primitive arrays, which are understood by the
+% Java class info.DataModelBuilder. Please refer to this Java class for the meaning of
+% the arrays.
+%   The traversal of the data object is done without recursion, using an explicit stack
+% of pending objects. This way, all growing arrays are local variables of one function
+% and Octave can extend them in place.
+%   Return value p:
+% A struct with the fields tape, fieldNames, schemaOffsets, text, doubles, longs, dims
+% and objects. Empty fields are set to [], which the Octave->Java interface translates
+% into Java null.
+%   Parameter value:
+% The Octave object.
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%  
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%  
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    % The node kinds and numeric classes of the Java builder. The class code of an Octave
+    % numeric class is its (null based) index in this list.
+    kindNull = 0;
+    kindString = 1;
+    kindObject = 2;
+    kindList = 3;
+    kindStruct = 4;
+    kindScalar = 16;
+    kindArray = 32;
+    kindSparse = 48;
+    numericClasses = { 'double' 'single' 'logical' 'int8' 'uint8' 'int16' 'uint16' ...
+                       'int32' 'uint32' 'int64' 'uint64' ...
+                     };
+    noFloatClasses = 3; % double, single and logical go into the column of doubles
+
+    isOct = isOctave;
+
+    % The tape, three rows of integers per node. The capacity is doubled on demand.
+    tape = zeros(3, 64, 'int32');
+    noNodes = 0;
+
+    % The other columns are collected as fragments and concatenated at the end.
+    textParts = cell(1, 64);
+    noTextParts = 0;
+    textLen = 0;
+    doubleParts = cell(1, 64);
+    noDoubleParts = 0;
+    noDoubles = 0;
+    longParts = cell(1, 64);
+    noLongParts = 0;
+    noLongs = 0;
+    dims = zeros(1, 0, 'int32');
+    objects = cell(1, 0);
+    fieldNames = cell(1, 0);
+    schemaOffsets = int32(0);
+    schemaKeys = cell(1, 0);
+    lastSchemaKey = [];
+    lastSchemaIdx = -1;
+
+    % The stack of pending work. An entry is either an Octave object to encode or - if
+    % stackClose is not zero - the marker, which completes the list or struct node of
+    % this (one based) index after all of its children have been encoded.
+    stackVal = {value};
+    stackClose = 0;
+    sp = 1;
+
+    while sp > 0
+        v = stackVal{sp};
+        closing = stackClose(sp);
+        stackVal{sp} = [];
+        sp = sp - 1;
+
+        if closing > 0
+            % All children are encoded, the null based index of the next node is the end
+            % of the sub-tree.
+            tape(3, closing) = noNodes;
+            continue
+        end
+
+        noNodes = noNodes + 1;
+        if noNodes > size(tape, 2)
+            tape(:, 2*size(tape, 2)) = 0;
+        end
+        children = {};
+
+        if isjava(v)
+            objects{end+1} = v;
+            tape(:, noNodes) = [kindObject; numel(objects)-1; 0];
+
+        elseif isempty(v) && ~iscell(v) && ~isstruct(v)
+            % An empty object will become a Java null.
+            tape(:, noNodes) = [kindNull; 0; 0];
+
+        elseif isobject(v)
+            % Although the old style objects (which are recognized by isobject) are quite
+            % similar to structs in that they have fields, which can be processed by
+            % introspection, is their handling not possible in a generic way. Fields
+            % might be accessible only through dedicated methods, normal operation can be
+            % overloaded and behave differently. Better to abort immediately with a
+            % simple and clear message.
+            error(['Objects are not supported by the StringTemplate interface. Try to use' ...
+                   ' an ordinary struct instead'] ...
+                 );
+
+        elseif ischar(v) &&  size(v,1) == 1
+            % Octave's strings are formally arrays of characters. They must however not be
+            % recognized as arrays - we definitly don't want to handle strings as lists of
+            % single characters in the template expansion process. The text is transferred
+            % UTF-8 encoded.
+            if isOct
+                bytes = uint8(v);
+            else
+                bytes = unicode2native(v, 'UTF-8');
+            end
+            noTextParts = noTextParts + 1;
+            if noTextParts > numel(textParts)
+                textParts{2*numel(textParts)} = [];
+            end
+            textParts{noTextParts} = bytes;
+            tape(:, noNodes) = [kindString; textLen; numel(bytes)];
+            textLen = textLen + numel(bytes);
+
+        elseif ~iscell(v) && isscalar(v)
+            % Here the scalar objects are processed. We support basic types and structs.
+            if isstruct(v)
+                % A struct has its natural representation in ST4 as a Java Map object.
+                % Addressing to a map key, value pair uses the same syntax in an ST4
+                % template as addressing of a field in a true struct. The field names are
+                % transferred once per distinct set of names, the schema.
+                names = fieldnames(v).';
+                key = sprintf('%s\n', names{:});
+                if ~strcmp(key, lastSchemaKey)
+                    lastSchemaIdx = find(strcmp(key, schemaKeys), 1) - 1;
+                    if isempty(lastSchemaIdx)
+                        schemaKeys{end+1} = key;
+                        fieldNames = [fieldNames names];
+                        schemaOffsets(end+1) = numel(fieldNames);
+                        lastSchemaIdx = numel(schemaKeys) - 1;
+                    end
+                    lastSchemaKey = key;
+                end
+                tape(:, noNodes) = [kindStruct; lastSchemaIdx; 0];
+                children = struct2cell(v);
+            else
+                numClass = find(strcmp(class(v), numericClasses), 1) - 1;
+                if isempty(numClass) || ~isreal(v)
+                    % As long as we don't see a problem we trust the Octave->Java
+                    % interface to handle the data type properly.
+                    objects{end+1} = v;
+                    tape(:, noNodes) = [kindObject; numel(objects)-1; 0];
+                elseif numClass < noFloatClasses
+                    noDoubleParts = noDoubleParts + 1;
+                    if noDoubleParts > numel(doubleParts)
+                        doubleParts{2*numel(doubleParts)} = [];
+                    end
+                    doubleParts{noDoubleParts} = full(double(v));
+                    tape(:, noNodes) = [kindScalar+numClass; noDoubles; 0];
+                    noDoubles = noDoubles + 1;
+                else
+                    noLongParts = noLongParts + 1;
+                    if noLongParts > numel(longParts)
+                        longParts{2*numel(longParts)} = [];
+                    end
+                    longParts{noLongParts} = toInt64(v);
+                    tape(:, noNodes) = [kindScalar+numClass; noLongs; 0];
+                    noLongs = noLongs + 1;
+                end
+            end
+
+        elseif issparse(v) && isreal(v)
+            % Sparse matrices are transferred in compressed column format, without
+            % expanding them: The values of the non-zero elements go into the column of
+            % doubles, their null based row indexes and the index of the first element of
+            % each column go into the column of longs. find returns the elements in
+            % column-major order.
+            numClass = find(strcmp(class(v), numericClasses), 1) - 1;
+            [rowIdxs, ~, values] = find(v);
+            nnzV = numel(values);
+            colPtrs = cumsum([0 full(sum(v ~= 0, 1))]);
+            tape(:, noNodes) = [kindSparse+numClass; noDoubles; numel(dims)];
+            dims = [dims int32([size(v,1) size(v,2) nnzV noLongs])];
+            noDoubleParts = noDoubleParts + 1;
+            if noDoubleParts > numel(doubleParts)
+                doubleParts{2*numel(doubleParts)} = [];
+            end
+            doubleParts{noDoubleParts} = double(values(:).');
+            noDoubles = noDoubles + nnzV;
+            noLongParts = noLongParts + 1;
+            if noLongParts > numel(longParts)
+                longParts{2*numel(longParts)} = [];
+            end
+            longParts{noLongParts} = int64([rowIdxs(:).'-1 colPtrs]);
+            noLongs = noLongs + nnzV + numel(colPtrs);
+
+        elseif (isnumeric(v) || islogical(v)) && isreal(v)
+            % Numeric arrays are transferred as a whole, in column-major order. The Java
+            % builder represents them as read-only views on the transferred data, which
+            % behave like List objects of either numbers or other List objects (the rows
+            % or sub-arrays) of numbers. Any number of dimensions is supported.
+            numClass = find(strcmp(class(v), numericClasses), 1) - 1;
+            tape(:, noNodes) = [kindArray+numClass; 0; numel(dims)];
+            dims = [dims int32([ndims(v) size(v)])];
+            if numClass < noFloatClasses
+                tape(2, noNodes) = noDoubles;
+                noDoubleParts = noDoubleParts + 1;
+                if noDoubleParts > numel(doubleParts)
+                    doubleParts{2*numel(doubleParts)} = [];
+                end
+                doubleParts{noDoubleParts} = double(full(v(:).'));
+                noDoubles = noDoubles + numel(v);
+            else
+                tape(2, noNodes) = noLongs;
+                noLongParts = noLongParts + 1;
+                if noLongParts > numel(longParts)
+                    longParts{2*numel(longParts)} = [];
+                end
+                longParts{noLongParts} = toInt64(v(:).');
+                noLongs = noLongs + numel(v);
+            end
+
+        else
+            % Arrays are represented as Java List objects of either single objects or
+            % other Java List objects of such. This includes empty arrays with a size of
+            % zero in at least one dimension. Those arrays are represented by an empty
+            % Java List object.
+            %   ~iscell: A cell array of size 1x1 is retained as a list of one element in
+            % the ST4 representation.
+            %   Dimensions of size one are not represented. It doesn't matter that we
+            % loose the orientation of a vector; no ST4 list operator makes a distinction
+            % about vertical or horizontal.
+            sz = size(v);
+            sz = sz(sz ~= 1);
+            if numel(sz) <= 1  ||  any(sz == 0)
+                % 1d arrays: The elements of a cell array are the contents of its cells.
+                if iscell(v)
+                    children = v(:);
+                else
+                    children = num2cell(v(:));
+                end
+            else
+                % Arrays of higher dimension: We iterate along the first dimension, each
+                % sub-array (a row for 2d arrays) becomes a list in turn.
+                v = reshape(v, sz);
+                children = cell(sz(1), 1);
+                for row = 1:sz(1)
+                    children{row} = reshape(v(row,:), [sz(2:end) 1]);
+                end
+            end
+            tape(:, noNodes) = [kindList; numel(children); 0];
+        end
+
+        % Lists and structs: Push the completion marker and the children such that the
+        % children are encoded first, in their natural order.
+        if tape(1, noNodes) == kindList  ||  tape(1, noNodes) == kindStruct
+            noChildren = numel(children);
+            if sp + noChildren + 1 > numel(stackVal)
+                stackVal{2*(sp + noChildren + 1)} = [];
+                stackClose(2*(sp + noChildren + 1)) = 0;
+            end
+            sp = sp + 1;
+            stackVal{sp} = [];
+            stackClose(sp) = noNodes;
+            stackVal(sp+1:sp+noChildren) = children(end:-1:1);
+            stackClose(sp+1:sp+noChildren) = 0;
+            sp = sp + noChildren;
+        end
+    end
+
+    p.tape = reshape(tape(:, 1:noNodes), 1, []);
+    p.fieldNames = fieldNames;
+    p.schemaOffsets = schemaOffsets;
+    p.text = typecast(uint8([textParts{1:noTextParts}]), 'int8');
+    p.doubles = [doubleParts{1:noDoubleParts}];
+    p.longs = [longParts{1:noLongParts}];
+    p.dims = dims;
+    p.objects = objects;
+
+    % The Octave->Java interface translates an empty Octave object into Java null, which
+    % is accepted by the builder for all unused columns.
+    for name = fieldnames(p).'
+        if isempty(p.(name{1}))
+            p.(name{1}) = [];
+        end
+    end
+end % of function encodeDataModel.
+
+
+
+
+function l = toInt64(v)
+% Convert a scalar or row vector of an integer class into class int64. uint64 numbers
+% are reinterpreted with unchanged Bits rather than saturated at intmax('int64'); the
+% Java builder boxes them as unsigned numbers again.
+    if isa(v, 'uint64')
+        l = typecast(v, 'int64');
+    else
+        l = int64(v);
+    end
+end % of function toInt64.
@@ -0,0 +1,15 @@
+function retval = isOctave
+
+% Return: true if the environment is Octave.
+% (This function has been downloaded from
+% https://www.gnu.org/software/octave/doc/v4.0.1/How-to-distinguish-between-Octave-and-Matlab_003f.html
+% on Sep 23, 2016.)
+
+    persistent cacheval  % speeds up repeated calls
+
+    if isempty(cacheval)
+        cacheval = exist('OCTAVE_VERSION', 'builtin') > 0;
+    end
+
+    retval = cacheval;
+end % of function isOctave.
@@ -0,0 +1,76 @@
+function testST4ConvertModel
+
+%   testST4ConvertModel - Test of st4ConvertModel: A data object is converted once and
+%                   the handle of the data model is passed to several renderings, either
+%                   as it is or as part of another data object.
+%
+%   Input argument(s):
+%
+%   Return argument(s):
+%
+%   Example(s):
+%       testST4ConvertModel
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    disp('This test uses assertions. No error output means test succeeded')
+
+    tFile = 'testST4DataModel.stg';
+    model.signals = { struct('name', 'speed', 'id', int32(1)) ...
+                    , struct('name', 'torque', 'id', int32(2)) ...
+                    };
+
+    % The handle is passed as attribute value instead of the data object. The rendered
+    % text is the same.
+    txt = st4Render(tFile, 'signalList', 'model', model);
+    assert(strcmp(txt, 'speed:1, torque:2'), ['Test case failed: data object, got ' txt])
+    hModel = st4ConvertModel(model);
+    txt = st4Render(tFile, 'signalList', 'model', hModel);
+    assert(strcmp(txt, 'speed:1, torque:2'), ['Test case failed: handle, got ' txt])
+    st4RenderWrite( 'output/testST4ConvertModel.txt', false, tFile, 'signalList', 4 ...
+                  , 'model', hModel ...
+                  );
+    txt = fileread('output/testST4ConvertModel.txt');
+    assert(strcmp(txt, 'speed:1, torque:2'), ['Test case failed: st4RenderWrite, got ' txt])
+
+    % The data object is identified by a hash of its contents. Converting an unchanged
+    % data object again reuses the cached data model.
+    noHits = javaMethod('getNoHits', 'info.DataModelCache');
+    hModel2 = st4ConvertModel(model);
+    assert( javaMethod('getNoHits', 'info.DataModelCache') == noHits+1 ...
+            &&  strcmp(char(hModel2.getKey()), char(hModel.getKey())) ...
+          , 'Test case failed: cached data model not reused' ...
+          )
+
+    % A modified data object yields a new data model.
+    model.signals{2}.name = 'current';
+    hModel3 = st4ConvertModel(model);
+    assert(~strcmp(char(hModel3.getKey()), char(hModel.getKey())), 'Test case failed: key')
+    txt = st4Render(tFile, 'signalList', 'model', hModel3);
+    assert(strcmp(txt, 'speed:1, current:2'), ['Test case failed: modified, got ' txt])
+
+    % Handles can be passed as part of another data object, e.g. as elements of a cell
+    % array or as value of a struct field.
+    txt = st4Render(tFile, 'modelList', 'models', {hModel hModel3});
+    assert( strcmp(txt, 'speed:1, torque:2 | speed:1, current:2') ...
+          , ['Test case failed: handles in cell array, got ' txt] ...
+          )
+    w = struct('title', 'Signals', 'model', hModel);
+    txt = st4Render(tFile, 'wrappedModel', 'w', w);
+    assert( strcmp(txt, 'Signals: speed:1, torque:2') ...
+          , ['Test case failed: handle in struct, got ' txt] ...
+          )
+end % of function testST4ConvertModel.
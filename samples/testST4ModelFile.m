@@ -0,0 +1,70 @@
+function testST4ModelFile
+
+%   testST4ModelFile - Test of st4WriteModelFile and st4OpenModelFile: A data object is
+%                   written into a data model file, which is opened and rendered after
+%                   clearing the data object in Octave.
+%
+%   Input argument(s):
+%
+%   Return argument(s):
+%       returnValue The Octave function has no return value. The data model file
+%                   testST4ModelFile.st4m is left in directory output.
+%
+%   Example(s):
+%       testST4ModelFile
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    disp('This test uses assertions. No error output means test succeeded')
+
+    tFile = 'testST4DataModel.stg';
+    modelFile = 'output/testST4ModelFile.st4m';
+
+    % The data object can be cleared after writing the file; the data model file holds
+    % all of it.
+    model.signals = { struct('name', 'speed', 'id', int32(1)) ...
+                    , struct('name', 'torque', 'id', int32(2)) ...
+                    };
+    model.matrix = int32([1 2 3; 4 5 6]);
+    st4WriteModelFile(modelFile, model);
+    clear model
+
+    % The handle of the opened file is passed as attribute value like a handle returned
+    % by st4ConvertModel.
+    hModel = st4OpenModelFile(modelFile);
+    txt = st4Render(tFile, 'signalList', 'model', hModel);
+    assert(strcmp(txt, 'speed:1, torque:2'), ['Test case failed: signals, got ' txt])
+
+    % Numeric arrays are read straight from the mapped file. A part of the data model
+    % is passed as attribute value, too.
+    root = hModel.getRoot();
+    txt = st4Render(tFile, 'matrix', 'm', root.get('matrix'));
+    assert(strcmp(txt, '[1 2 3][4 5 6]'), ['Test case failed: matrix, got ' txt])
+
+    % A relative file name refers to Octave's current directory.
+    hModel2 = st4OpenModelFile(fullfile(pwd, modelFile));
+    txt = st4Render(tFile, 'signalList', 'model', hModel2);
+    assert(strcmp(txt, 'speed:1, torque:2'), ['Test case failed: absolute path, got ' txt])
+
+    % Opening a file, which is not a data model file, is reported by exception.
+    try
+        st4OpenModelFile('templates/testST4DataModel.stg');
+        isFailed = false;
+    catch
+        isFailed = true;
+    end
+    assert(isFailed, 'Test case failed: invalid data model file not reported')
+end % of function testST4ModelFile.
@@ -0,0 +1,69 @@
+function testST4PatchModel
+
+%   testST4PatchModel - Test of st4ConvertModel and st4PatchModel: A patch must not
+%                   modify the data model of any other handle. In particular not of the
+%                   handle, which st4ConvertModel returns from its cache for another
+%                   conversion of the same data object.
+%
+%   Input argument(s):
+%
+%   Return argument(s):
+%
+%   Example(s):
+%       testST4PatchModel
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    disp('This test uses assertions. No error output means test succeeded')
+
+    group = 'frames(m) ::= "<m.frames:{f|<f.id>:<f.dlc>}; separator=\",\">"';
+    model = struct( 'frames' ...
+                  , {{ struct('id', int32(1), 'dlc', int32(4)) ...
+                     , struct('id', int32(2), 'dlc', int32(8)) ...
+                    }} ...
+                  );
+
+    % Two conversions of the same data object share the cached data model.
+    h1 = st4ConvertModel(model);
+    h2 = st4ConvertModel(model);
+    txt = st4RenderString(group, [], 'frames', 0, 'm', h2);
+    assert(strcmp(txt, '1:4,2:8'), 'Test case failed: convert')
+
+    % Patching the data model of the first handle yields a new handle. Neither the
+    % patched handle nor the second, aliasing handle must see the change.
+    h1Patched = st4PatchModel(h1, 'frames{2}.dlc', int32(6));
+    txt = st4RenderString(group, [], 'frames', 0, 'm', h1Patched);
+    assert(strcmp(txt, '1:4,2:6'), ['Test case failed: patched handle, got ' txt])
+    txt = st4RenderString(group, [], 'frames', 0, 'm', h1);
+    assert(strcmp(txt, '1:4,2:8'), ['Test case failed: patched handle modified, got ' txt])
+    txt = st4RenderString(group, [], 'frames', 0, 'm', h2);
+    assert(strcmp(txt, '1:4,2:8'), ['Test case failed: aliasing handle modified, got ' txt])
+    assert( h1.getRevision() == 0  &&  h1Patched.getRevision() == 1 ...
+          , 'Test case failed: revision of patched handle' ...
+          )
+
+    % The cache still returns the unmodified data model for the original data object.
+    h3 = st4ConvertModel(model);
+    txt = st4RenderString(group, [], 'frames', 0, 'm', h3);
+    assert(strcmp(txt, '1:4,2:8'), ['Test case failed: cached data model, got ' txt])
+
+    % Patches can be chained; each one yields a new handle.
+    h4 = st4PatchModel(h1Patched, 'frames{1}.id', int32(7));
+    txt = st4RenderString(group, [], 'frames', 0, 'm', h4);
+    assert(strcmp(txt, '7:4,2:6'), ['Test case failed: chained patch, got ' txt])
+    txt = st4RenderString(group, [], 'frames', 0, 'm', h1Patched);
+    assert(strcmp(txt, '1:4,2:6'), ['Test case failed: chained patch modified, got ' txt])
+end % of function testST4PatchModel.
@@ -0,0 +1,70 @@
+function testST4PreloadTemplates
+
+%   testST4PreloadTemplates - Test of st4PreloadTemplates: All template group files of
+%                   the sample directory are loaded and checked for errors at once; later
+%                   renderings use the preloaded groups.
+%
+%   Input argument(s):
+%
+%   Return argument(s):
+%
+%   Example(s):
+%       testST4PreloadTemplates
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    disp('This test uses assertions. No error output means test succeeded')
+
+    % Start with an empty cache, so that all group files are actually loaded.
+    st4ClearTemplateCache
+
+    % Without output argument, the summary is printed.
+    templateDir = fullfile(fileparts(mfilename('fullpath')), 'templates');
+    st4PreloadTemplates(templateDir)
+
+    % All group files of the directory tree are found, including the libraries in the
+    % sub-directories. None of the sample templates has an error.
+    summary = st4PreloadTemplates(templateDir);
+    assert( summary.noFiles == numel(summary.files)  &&  summary.noFiles >= 3 ...
+          , 'Test case failed: group files not found' ...
+          )
+    assert( summary.noFailedFiles == 0 ...
+          , ['Test case failed: template errors' char(10) summary.text] ...
+          )
+    for file = summary.files
+        assert( file.noErrors == 0  &&  isempty(file.messages) ...
+              , ['Test case failed: errors reported for ' file.fileName] ...
+              )
+    end
+
+    % The preloaded groups are used by st4Render; the group file is not loaded again.
+    statBefore = st4TemplateCacheStatistics;
+    txt = st4Render('testST4DataModel.stg', 'matrix', 'm', int32([1 2; 3 4]));
+    assert(strcmp(txt, '[1 2][3 4]'), ['Test case failed: render, got ' txt])
+    stat = st4TemplateCacheStatistics;
+    assert( stat.noHits == statBefore.noHits+1  &&  stat.noMisses == statBefore.noMisses ...
+          , 'Test case failed: preloaded group not used' ...
+          )
+
+    % A directory, which doesn't exist, is reported by exception.
+    try
+        st4PreloadTemplates(fullfile(templateDir, 'noSuchDirectory'));
+        isFailed = false;
+    catch
+        isFailed = true;
+    end
+    assert(isFailed, 'Test case failed: missing directory not reported')
+end % of function testST4PreloadTemplates.
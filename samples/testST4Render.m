@@ -215,6 +215,24 @@ function testST4Render
     txt = st4Render('testST4Render.stg', 'structAryAry', 'M', cAryAry);
     assert(strcmp(txt, expectation), 'Test case failed: 2-d cell array of cell array')
 
+    % Numeric arrays of more than two dimensions. A 3-d array is a list of matrices; we
+    % iterate along the first dimension. Dimensions of size one are not represented.
+    A = reshape(int32(1:24), 2, 3, 4);
+    expectation = ['[1 7 13 19][3 9 15 21][5 11 17 23]' EOL ...
+                   '[2 8 14 20][4 10 16 22][6 12 18 24]' EOL ...
+                  ];
+    txt = st4Render('testST4Render.stg', 'numAryAryAry', 'A', A);
+    assert(strcmp(txt, expectation), ['Test case failed: 3-d numeric array, got ' txt])
+    txt = st4Render('testST4Render.stg', 'numAryAryAry', 'A', reshape(A, [2 1 3 4]));
+    assert(strcmp(txt, expectation), 'Test case failed: 4-d numeric array with singleton')
+    A = cat(3, [1 0; 0 1], [0 1; 1 0]) == 1;
+    expectation = ['[true false][false true]' EOL '[false true][true false]' EOL];
+    txt = st4Render('testST4Render.stg', 'numAryAryAry', 'A', A);
+    assert(strcmp(txt, expectation), ['Test case failed: 3-d logical array, got ' txt])
+    txt = st4Render('testST4Render.stg', 'numAryAryAry', 'A', zeros(2, 3, 4));
+    expectation = repmat([repmat('[0.0 0.0 0.0 0.0]', 1, 3) EOL], 1, 2);
+    assert(strcmp(txt, expectation), ['Test case failed: 3-d double array, got ' txt])
+
     % Use Java objects. st4Render should only pass these on. 'Struct' is a simple class
     % defined in this directory by compiled Java source code.
     javaAryAry = javaArray('Struct', 7, 5);
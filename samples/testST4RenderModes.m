@@ -0,0 +1,150 @@
+function testST4RenderModes
+
+%   testST4RenderModes - Test of the render modes of the Java class info.TemplateRenderer,
+%                   which scripts can call directly: The generated text is got as a
+%                   single byte array, as a sequence of chunks, in an output buffer, which
+%                   spills to a temporary file, or written into a file. Moreover, the end
+%                   of line of the generated text is fixed.
+%
+%   Input argument(s):
+%
+%   Return argument(s):
+%       returnValue The Octave function has no return value. The generated files
+%                   trm_*.txt are left in directory output.
+%
+%   Example(s):
+%       testST4RenderModes
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    disp('This test uses assertions. No error output means test succeeded')
+
+    renderer = 'info.TemplateRenderer';
+
+    % The render modes take the group rather than the name of the group file. The group
+    % is got from the cache of group files, which requires the absolute file name.
+    groupName = 'testST4DataModel.stg';
+    group = javaMethod( 'getGroup', 'info.TemplateGroupRegistry' ...
+                      , fullfile(fileparts(mfilename('fullpath')), 'templates', groupName) ...
+                      , false ...
+                      );
+
+    % The attribute values are passed to the template as they are; they are not
+    % converted like the attributes of st4Render. A converted data model can be passed.
+    hList = st4ConvertModel({'a' 'b' 'c'});
+    list = hList.getRoot();
+    wrapCol = int32(72);
+
+    % Fix the end of line of the generated text to LF. The default is the line separator
+    % of the platform.
+    eolDefault = char(javaMethod('getEndOfLine', renderer));
+    javaMethod('setEndOfLine', renderer, char(10));
+    EOL = char(javaMethod('getEndOfLine', renderer));
+    assert(strcmp(EOL, char(10)), 'Test case failed: setEndOfLine')
+    expectation = ['line a' EOL 'line b' EOL 'line c'];
+
+    % The text as a single UTF-8 encoded byte array.
+    result = javaMethod( 'renderGroupToBytes', renderer ...
+                       , group, groupName, 'lines', 'l', list, wrapCol, '' ...
+                       );
+    assert(result.getNoErrors() == 0, 'Test case failed: renderGroupToBytes, errors')
+    txt = utf8ToChar(result.getBytes());
+    assert(strcmp(txt, expectation), ['Test case failed: renderGroupToBytes, got ' txt])
+    assert(result.getNoChars() == numel(expectation), 'Test case failed: number of characters')
+
+    % The text as a sequence of chunks of limited size. Each chunk can be decoded on its
+    % own. The size of a chunk needs to be at least four Byte.
+    result = javaMethod( 'renderGroupToChunks', renderer ...
+                       , group, groupName, 'lines', 'l', list, wrapCol, '', int32(4) ...
+                       );
+    chunks = result.getChunks();
+    assert(chunks.getNoChunks() == ceil(numel(expectation)/4), 'Test case failed: chunks')
+    txt = '';
+    while chunks.hasNext()
+        txt = [txt utf8ToChar(chunks.next())];
+    end
+    assert(strcmp(txt, expectation), ['Test case failed: renderGroupToChunks, got ' txt])
+
+    % The text in an output buffer. The text of about 100 kByte exceeds the threshold of
+    % 16 kByte and it is spilled to a temporary file, which is finally moved to the
+    % output file. The size of the text is checked in steps of several kByte; the
+    % threshold is not meant to be exact.
+    javaMethod('setEndOfLine', renderer, char([13 10]));
+    EOL = char([13 10]);
+    n = 10000;
+    hNumbers = st4ConvertModel(int32(1:n));
+    bigExpectation = [sprintf(['line %d' EOL], 1:n-1) sprintf('line %d', n)];
+    result = javaMethod( 'renderGroupToBuffer', renderer ...
+                       , group, groupName, 'lines', 'l', hNumbers.getRoot(), wrapCol, '' ...
+                       , int64(16*1024) ...
+                       );
+    buffer = result.getBuffer();
+    assert(buffer.isSpilled(), 'Test case failed: renderGroupToBuffer, not spilled')
+    assert(buffer.getNoBytes() == numel(bigExpectation), 'Test case failed: size of buffer')
+    buffer.moveTo('output/trm_renderGroupToBuffer.txt', pwd, false);
+    txt = fileread('output/trm_renderGroupToBuffer.txt');
+    assert(strcmp(txt, bigExpectation), 'Test case failed: OutputBuffer.moveTo')
+
+    % A small text stays in memory.
+    expectation = ['line a' EOL 'line b' EOL 'line c'];
+    result = javaMethod( 'renderGroupToBuffer', renderer ...
+                       , group, groupName, 'lines', 'l', list, wrapCol, '', int64(1024) ...
+                       );
+    buffer = result.getBuffer();
+    assert(~buffer.isSpilled(), 'Test case failed: renderGroupToBuffer, spilled')
+    txt = utf8ToChar(buffer.getBytes());
+    assert(strcmp(txt, expectation), ['Test case failed: OutputBuffer.getBytes, got ' txt])
+    buffer.delete();
+
+    % The text is written into a file while it is produced. A relative file name refers
+    % to the given directory.
+    result = javaMethod( 'renderGroupToFile', renderer ...
+                       , group, groupName, 'lines', 'l', list, wrapCol ...
+                       , 'output/trm_renderGroupToFile.txt', pwd, false, 'UTF-8' ...
+                       );
+    assert(result.getNoErrors() == 0, 'Test case failed: renderGroupToFile, errors')
+    txt = fileread('output/trm_renderGroupToFile.txt');
+    assert(strcmp(txt, expectation), ['Test case failed: renderGroupToFile, got ' txt])
+
+    % Only LF and CR LF are supported as end of line. The empty string selects the
+    % default.
+    try
+        javaMethod('setEndOfLine', renderer, char(13));
+        isFailed = false;
+    catch
+        isFailed = true;
+    end
+    assert(isFailed, 'Test case failed: invalid end of line not reported')
+    javaMethod('setEndOfLine', renderer, '');
+    assert( strcmp(char(javaMethod('getEndOfLine', renderer)), eolDefault) ...
+          , 'Test case failed: default end of line' ...
+          )
+end % of function testST4RenderModes.
+
+
+
+
+function text = utf8ToChar(bytes)
+% Decode a Java byte array with UTF-8 encoded text. The Octave-Java interface returns a
+% Java byte array as numeric array of class int8. Octave's strings are UTF-8 encoded
+% themselves, MATLAB needs to decode the bytes.
+    bytes = typecast(int8(bytes(:)'), 'uint8');
+    if exist('OCTAVE_VERSION', 'builtin')
+        text = char(bytes);
+    else
+        text = native2unicode(bytes, 'UTF-8');
+    end
+end % of function utf8ToChar.
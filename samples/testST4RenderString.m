@@ -0,0 +1,64 @@
+function testST4RenderString
+
+%   testST4RenderString - Test of st4RenderString: Templates, which are generated as text
+%                   in Octave, are rendered like the templates of a group file.
+%
+%   Input argument(s):
+%
+%   Return argument(s):
+%
+%   Example(s):
+%       testST4RenderString
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    disp('This test uses assertions. No error output means test succeeded')
+
+    % A template group, which is generated in Octave.
+    names = {'speed' 'torque' 'current'};
+    group = ['hello(greeting, name) ::= "<greeting>, <name>!"' char(10) ...
+             'enumDef(names) ::= "enum { <names:{n|e_<n>}; separator=\", \"> };"' ...
+            ];
+    txt = st4RenderString(group, [], 'hello', 0, 'greeting', 'Hello', 'name', 'World');
+    assert(strcmp(txt, 'Hello, World!'), ['Test case failed: hello, got ' txt])
+    txt = st4RenderString(group, [], 'enumDef', 0, 'names', names);
+    assert( strcmp(txt, 'enum { e_speed, e_torque, e_current };') ...
+          , ['Test case failed: enumDef, got ' txt] ...
+          )
+
+    % The compiled group is cached. Rendering the same text again doesn't compile it
+    % again.
+    stat = st4TemplateCacheStatistics;
+    txt = st4RenderString(group, [], 'hello', 0, 'greeting', 'Hi', 'name', 'Anna');
+    assert(strcmp(txt, 'Hi, Anna!'), ['Test case failed: cached group, got ' txt])
+    statAfter = st4TemplateCacheStatistics;
+    assert( statAfter.noHits == stat.noHits+1  &&  statAfter.noMisses == stat.noMisses ...
+          , 'Test case failed: group built from text is not reused' ...
+          )
+
+    % Other delimiters than the default ones can be chosen.
+    txt = st4RenderString('hello(name) ::= "Hello $name$!"', '$$', 'hello', 0, 'name', 'Tom');
+    assert(strcmp(txt, 'Hello Tom!'), ['Test case failed: delimiters, got ' txt])
+
+    % An error in the template group is reported by exception.
+    try
+        st4RenderString('hello(name) ::= "Hello <name!"', [], 'hello', 0, 'name', 'Tom');
+        isFailed = false;
+    catch
+        isFailed = true;
+    end
+    assert(isFailed, 'Test case failed: syntax error not reported')
+end % of function testST4RenderString.
@@ -0,0 +1,75 @@
+function testST4TemplateCacheStatistics
+
+%   testST4TemplateCacheStatistics - Test of st4TemplateCacheStatistics: The statistics
+%                   of the cache of template group files reflect the renderings and the
+%                   configured bounds of the cache.
+%
+%   Input argument(s):
+%
+%   Return argument(s):
+%
+%   Example(s):
+%       testST4TemplateCacheStatistics
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    disp('This test uses assertions. No error output means test succeeded')
+
+    registry = 'info.TemplateGroupRegistry';
+    st4ClearTemplateCache
+
+    % Without output argument, the statistics are printed.
+    st4TemplateCacheStatistics
+
+    % The first rendering loads the group file, the second one reuses it.
+    stat0 = st4TemplateCacheStatistics;
+    assert(stat0.noEntries == 0  &&  stat0.size == 0, 'Test case failed: cache not cleared')
+    st4Render('testST4DataModel.stg', 'matrix', 'm', int32([1 2]));
+    stat1 = st4TemplateCacheStatistics;
+    assert( stat1.noEntries == 1  &&  stat1.size > 0 ...
+            &&  stat1.noMisses == stat0.noMisses+1 ...
+          , 'Test case failed: group file not loaded' ...
+          )
+    st4Render('testST4DataModel.stg', 'matrix', 'm', int32([3 4]));
+    stat2 = st4TemplateCacheStatistics;
+    assert( stat2.noEntries == 1  &&  stat2.noHits == stat1.noHits+1 ...
+            &&  stat2.noMisses == stat1.noMisses ...
+          , 'Test case failed: group file not reused' ...
+          )
+
+    % The bounds of the cache are configured with the Java class. If the cache is bounded
+    % to a single group then the least recently used one is evicted.
+    maxNoEntries = stat2.maxNoEntries;
+    javaMethod('setMaxNoEntries', registry, 1);
+    stat = st4TemplateCacheStatistics;
+    assert(stat.maxNoEntries == 1, 'Test case failed: maxNoEntries')
+    st4Render('testSTGroup.stg', '/hello', 'greeting', 'Hello', 'name', 'world');
+    stat3 = st4TemplateCacheStatistics;
+    assert( stat3.noEntries == 1  &&  stat3.noEvictions == stat2.noEvictions+1 ...
+          , 'Test case failed: least recently used group not evicted' ...
+          )
+    javaMethod('setMaxNoEntries', registry, maxNoEntries);
+
+    % Imported library group files are shared between all groups, which import them.
+    % testST4Render.stg imports a library, which imports another library.
+    st4Render('testST4Render.stg', 'EOL');
+    stat4 = st4TemplateCacheStatistics;
+    assert( stat4.noSharedImports >= 2 ...
+            &&  stat4.noSharedImportMisses >= stat3.noSharedImportMisses+2 ...
+          , 'Test case failed: imported libraries not shared' ...
+          )
+    assert(stat4.noPooledLiterals > 0, 'Test case failed: literals not pooled')
+end % of function testST4TemplateCacheStatistics.
@@ -3,13 +3,17 @@ function st4ClearTemplateCache
 %   st4ClearTemplateCache() - the functions st4Render and st4RenderWrite apply a cache for
 %                   already loaded and used templates in order to not reload and re-parse
 %                   them repeatedly in the common use case of iterative, programmatic use
-%                   of the functions (particularly st4Render). During template development
-%                   and maintenance this cache is most hindering since template changes are
-%                   not considered by the rendering process. During this phase (or always
-%                   if repeated use of a template is not the intention) the repeated call
-%                   of the rendering functions can be preceded by a single call of this
-%                   function in order to delete the cache contents. The next reference to
-%                   any template group file will force loading and parsing the file.
+%                   of the functions (particularly st4Render). The cache records the time
+%                   of last modification and the size of each group file and of all files
+%                   it imports. A group file is reloaded automatically if any of these
+%                   files has been edited, so template changes are considered by the
+%                   rendering process without clearing the cache.
+%                     This function deletes the cache contents, e.g. to release the memory
+%                   or if a template has been changed in a way, which is not visible in
+%                   the file system, like a group file found in a modified jar file. The
+%                   next reference to any template group file will force loading and
+%                   parsing the file. The statistics of the cache are not reset, see
+%                   st4TemplateCacheStatistics.
 %                     Note, the call of this function is equivalent to st4Render('clear')
 %                   but the latter is deprecated and may not be supported by a future
 %                   version of st4Render.
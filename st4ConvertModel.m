@@ -0,0 +1,69 @@
+function [hModel] = st4ConvertModel(value)
+
+%   st4ConvertModel() - Convert an Octave data object once into the Java data model of the
+%                   StringTemplate V4 engine and get a handle to it.
+%                     A code generator typically renders many templates, e.g. header,
+%                   source and documentation files, from the same data. If the Octave data
+%                   object is passed as template attribute to st4Render or st4RenderWrite
+%                   then it is converted again in every call. Instead, the data object can
+%                   be converted once with this function. The returned handle is passed as
+%                   attribute value to all later calls of st4Render or st4RenderWrite. The
+%                   handle can be passed as it is or as part of another Octave data object,
+%                   e.g. as element of a cell array or as value of a struct field.
+%                     The converted data models are cached in the JVM. If an unchanged data
+%                   object is converted again then the cached data model is reused, without
+%                   building it again. The data object is identified by a hash of its
+%                   contents. The cache holds the most recently converted data models; use
+%                   javaMethod('clear', 'info.DataModelCache') to empty it or
+%                   javaMethod('setMaxNoEntries', 'info.DataModelCache', n) to change its
+%                   capacity.
+%                     The conversion is done the same way as for an attribute of st4Render,
+%                   please refer to the help of st4Render for the details. Unlike there, the
+%                   entire data model is built at once; large lists are built in parallel.
+%                     A single element of a converted data model can be replaced with
+%                   st4PatchModel, without converting the entire data object again.
+%                   
+%   Input argument(s):
+%       value       The Octave data object to convert
+%
+%   Return argument(s):
+%       hModel      The handle of the converted data model, an object of Java class
+%                   info.DataModelHandle
+%
+%   Exceptions(s):
+%                   Unsupported data types, which do not fit into the data model of the
+%                   wrapper are reported by exception. If the Java class path is not set
+%                   appropriately then an exception is thrown, too.
+%
+%   Example(s):
+%       st4addpath
+%       st4javaaddpath
+%       hNames = st4ConvertModel({'World', 'Anna', 'Tom', 'Terence Parr'});
+%       text = st4Render('helloWorld.stg', 'myHelloWorldLstTemplate', 'greeting', 'Hello', 'nameList', hNames)
+%       st4RenderWrite('helloWorld.txt', false, 'helloWorld.stg', 'myHelloWorldLstTemplate', 4, 'greeting', 'Hi', 'nameList', hNames)
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%  
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%  
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    assert(nargin == 1, 'The data object to convert is required')
+
+    % The data object is flattened and passed to the Java cache in a single call of the
+    % Octave->Java interface. See private/encodeDataModel.m.
+    p = encodeDataModel(value);
+    hModel = javaMethod( 'convert', 'info.DataModelCache'                                ...
+                       , p.tape, p.fieldNames, p.schemaOffsets, p.text, p.doubles       ...
+                       , p.longs, p.dims, p.objects                                     ...
+                       );
+end % of function st4ConvertModel.
@@ -0,0 +1,53 @@
+function [hModel] = st4OpenModelFile(fileName)
+
+%   st4OpenModelFile() - Open a data model file, which has been written by
+%                   st4WriteModelFile, and get a handle to the contained data model.
+%                     The file is mapped into the memory of the JVM. The handle can be
+%                   passed as attribute value to st4Render or st4RenderWrite, like a handle
+%                   returned by st4ConvertModel. The data model is converted lazily, only
+%                   as far as the templates read it. Numeric arrays are read straight from
+%                   the mapped file, they are not copied.
+%                     The file remains mapped as long as the data model is in use. Note, on
+%                   some systems, a mapped file can't be deleted or overwritten.
+%                   
+%   Input argument(s):
+%       fileName    The name of the data model file
+%
+%   Return argument(s):
+%       hModel      The handle of the data model, an object of Java class
+%                   info.DataModelHandle
+%
+%   Exceptions(s):
+%                   An error is thrown if the file can't be read or if it is not a valid
+%                   data model file.
+%
+%   Example(s):
+%       st4WriteModelFile('model.st4m', struct('name', 'World'));
+%       hModel = st4OpenModelFile('model.st4m');
+%       text = st4Render('helloWorld.stg', 'myHelloWorldTemplate', 'greeting', 'Hello', 'name', hModel.getRoot().get('name'))
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%  
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%  
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    assert(nargin == 1  &&  ischar(fileName), 'Require the name of a data model file')
+
+    % Java's relative paths refer to the working directory of the JVM, which is not
+    % necessarily Octave's current directory.
+    jFile = javaObject('java.io.File', fileName);
+    if ~jFile.isAbsolute()
+        fileName = fullfile(pwd, fileName);
+    end
+    hModel = javaMethod('open', 'info.MappedDataModel', fileName);
+end % of function st4OpenModelFile.
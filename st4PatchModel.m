@@ -0,0 +1,72 @@
+function [hModel] = st4PatchModel(hModel, path, value)
+
+%   st4PatchModel() - Replace an element of a data model, which has been converted with
+%                   st4ConvertModel before.
+%                     In interactive workflows, often a single value of a large data
+%                   object is changed before the templates are rendered again. Instead of
+%                   converting the entire data object again, the changed element can be
+%                   patched in the already converted data model. Only the new value of the
+%                   element is transferred to the Java data model.
+%                     The data model is not modified. A patch copies the cell arrays,
+%                   struct arrays and structs along the path of the changed element; all
+%                   other parts of the data model are shared between the original and the
+%                   patched data model. A new handle is returned, which refers to the
+%                   patched data model. The passed handle is not changed; it still refers
+%                   to the original data model. This holds for all copies of the handle,
+%                   too, e.g. the handle, which st4ConvertModel returns for another
+%                   conversion of the same data object. Template expansions, which are
+%                   running concurrently or which still use the original data model, are
+%                   not affected.
+%                   
+%   Input argument(s):
+%       hModel      The handle of the data model as returned by st4ConvertModel
+%       path        The path of the element to replace, relative to the converted data
+%                   object and in Octave syntax. Struct fields are addressed by name, the
+%                   elements of cell arrays and struct arrays by their one based index,
+%                   e.g. 'frames{17}.dlc' or 'frames(17).dlc'. A struct field, which
+%                   doesn't exist yet, is added. The empty path '' replaces the entire
+%                   data model. Numeric arrays and strings can only be replaced as a whole
+%       value       The new value of the element. It is converted the same way as the
+%                   data object by st4ConvertModel
+%
+%   Return argument(s):
+%       hModel      The handle of the patched data model. This is a new handle; the
+%                   passed handle still refers to the unchanged data model
+%
+%   Exceptions(s):
+%                   An error is thrown if the path is malformed or if it doesn't fit to
+%                   the data model, e.g. if an index is out of range. The data model is
+%                   not changed in this case.
+%
+%   Example(s):
+%       model = struct('frames', {{struct('id', 1, 'dlc', 4), struct('id', 2, 'dlc', 8)}});
+%       hModel = st4ConvertModel(model);
+%       hPatchedModel = st4PatchModel(hModel, 'frames{2}.dlc', 6);
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%  
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%  
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    assert( nargin == 3  &&  isjava(hModel)  &&  isa(hModel, 'info.DataModelHandle') ...
+          , 'Require a data model handle from st4ConvertModel, a path and a value'    ...
+          )
+    assert(ischar(path), 'The path needs to be a string, like ''frames{17}.dlc''')
+
+    % Only the new value is flattened and transferred. See private/encodeDataModel.m.
+    p = encodeDataModel(value);
+    hModel = javaMethod( 'patch', 'info.DataModelCache', hModel, path                    ...
+                       , p.tape, p.fieldNames, p.schemaOffsets, p.text, p.doubles       ...
+                       , p.longs, p.dims, p.objects                                     ...
+                       );
+end % of function st4PatchModel.
@@ -0,0 +1,100 @@
+function [summary] = st4PreloadTemplates(directory)
+
+%   st4PreloadTemplates() - Load all template group files of a directory tree into the
+%                   cache of template group files, which is applied by st4Render and
+%                   st4RenderWrite.
+%                     The group files are loaded and compiled concurrently by several Java
+%                   threads. All templates are compiled, even if lazy compilation has been
+%                   enabled, see st4Render, so that all template errors are reported now.
+%                   The loaded groups are published to the cache at once, when all of them
+%                   are loaded. Group files with errors are not cached. Note, the bounds of
+%                   the cache still apply, see st4TemplateCacheStatistics.
+%                     Preloading the templates is useful at the beginning of an application,
+%                   which later renders many different templates, or to check all templates
+%                   of a project for errors.
+%
+%   Input argument(s):
+%       directory   The root of the directory tree. All files with extension .stg are
+%                   loaded. A relative path refers to Octave's current directory
+%
+%   Return argument(s):
+%       summary     A struct with the following fields:
+%                   noFiles: The number of group files found
+%                   noFailedFiles: The number of group files, which had errors
+%                   parseTime: The sum of the times for loading the group files in s
+%                   elapsedTime: The elapsed time of the operation in s
+%                   files: A struct array with one element per group file, with fields
+%                   fileName, parseTime, noErrors, noWarnings and messages. The latter is a
+%                   cell array with the reported problems
+%                   text: The summary as printable text
+%                     If no output argument is requested then the summary is printed
+%                   instead.
+%
+%   Exceptions(s):
+%                   An error is thrown if the directory doesn't exist or if the Java class
+%                   info.TemplateGroupRegistry is not accessible. Check the Java CLASSPATH
+%                   in the latter case.
+%
+%   Example(s):
+%       st4PreloadTemplates('templates')
+%       summary = st4PreloadTemplates('templates');
+%       assert(summary.noFailedFiles == 0, 'Template errors, see st4PreloadTemplates')
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    assert(nargin == 1  &&  ischar(directory), 'Require the name of a template directory')
+
+    % Java's relative paths refer to the working directory of the JVM, which is not
+    % necessarily Octave's current directory.
+    jDirectory = javaObject('java.io.File', directory);
+    if ~jDirectory.isAbsolute()
+        directory = fullfile(pwd, directory);
+    end
+    jSummary = javaMethod('preload', 'info.TemplateGroupRegistry', directory);
+
+    if nargout == 0
+        fprintf('%s', char(jSummary.toString()));
+        return
+    end
+
+    summary = struct();
+    summary.noFiles = double(jSummary.getNoFiles());
+    summary.noFailedFiles = double(jSummary.getNoFailedFiles());
+    summary.parseTime = double(jSummary.getParseTime());
+    summary.elapsedTime = double(jSummary.getElapsedTime());
+    files = struct( 'fileName', cell(1, summary.noFiles) ...
+                  , 'parseTime', [] ...
+                  , 'noErrors', [] ...
+                  , 'noWarnings', [] ...
+                  , 'messages', [] ...
+                  );
+    jFileResults = jSummary.getFileResults();
+    for idxFile = 1:summary.noFiles
+        jFileResult = jFileResults.get(idxFile-1);
+        files(idxFile).fileName = char(jFileResult.getFileName());
+        files(idxFile).parseTime = double(jFileResult.getParseTime());
+        files(idxFile).noErrors = double(jFileResult.getNoErrors());
+        files(idxFile).noWarnings = double(jFileResult.getNoWarnings());
+        jMessages = jFileResult.getMessages();
+        messages = cell(1, jMessages.size());
+        for idxMsg = 1:numel(messages)
+            messages{idxMsg} = char(jMessages.get(idxMsg-1));
+        end
+        files(idxFile).messages = messages;
+    end
+    summary.files = files;
+    summary.text = char(jSummary.toString());
+end % of function st4PreloadTemplates.
@@ -5,11 +5,44 @@ function [text] = st4Render(templateGroupFileName, verbose, templateName, vararg
 %                   CAUTION: It is considered a typical use case to have a single template
 %                   group file with a bunch of templates used by the caller. To support
 %                   this use case a StringTemplate group file is read once and cached.
-%                   Intermediate changes of the file with a text editor are not recognized
-%                   unless the caller enforces a re-reading of the cached file. The client
-%                   application of this wrapper should submit a "clear st4Render" before it
-%                   terminates. Alternatively, the function can be called with the string
-%                   'clear' as first argument.
+%                   Intermediate changes of the file or of the files it imports with a text
+%                   editor are recognized by their modification time and size; only the
+%                   modified group files are re-read. The cache can be cleared explicitly
+%                   with st4ClearTemplateCache.
+%                     During template development, the cached group files can be watched
+%                   by a background thread:
+%                     javaMethod('setWatching', 'info.TemplateGroupRegistry', true);
+%                   A modified group file is then recompiled immediately after saving it.
+%                   It replaces the cached version only if it has no errors; otherwise the
+%                   next call of st4Render reloads it and reports the errors as usual.
+%                     The cache lives as long as the Octave process. Additionally, the
+%                   compiled form of each group file can be kept in a persistent cache
+%                   directory, so that later Octave processes don't need to parse the
+%                   group files again. This cache is enabled by
+%                     javaMethod('setDirectory', 'info.CompiledGroupCache', cacheDir);
+%                   The directory can be shared by concurrently running processes.
+%                   Outdated cache files are never used, as the cache files are named
+%                   after a hash of the group file contents, but they are not deleted
+%                   either. Delete the cache directory from time to time.
+%                     All templates of a group file are compiled when loading it; the
+%                   templates of a large group file are compiled in parallel by several
+%                   Java threads. Users of large template libraries, which use only a few
+%                   of the templates, can opt in to compiling a template on first use:
+%                     javaMethod('setLazyCompilation', 'info.CachedSTGroupFile', true);
+%                   Syntax errors in templates, which are never used, are then not
+%                   reported.
+%                     Templates, which are generated as text in Octave rather than read
+%                   from a group file, can be rendered with st4RenderString. Their
+%                   compiled groups are cached in the same way.
+%                     The generated text is transferred from Java UTF-8 encoded as a
+%                   numeric array. Scripts can call the render modes of class
+%                   info.TemplateRenderer: renderGroupToBytes returns a single byte array,
+%                   renderGroupToChunks returns an iterator over byte arrays of limited
+%                   size, which can be decoded and consumed one after another.
+%                   renderGroupToBuffer is meant for output of unpredictable size: The text
+%                   is held in memory up to a threshold and spilled to a temporary file
+%                   beyond. The returned info.OutputBuffer can be read back, streamed or
+%                   moved to the final output file.
 %
 %                   CAUTION: The implementation of this function is just a wrapper around
 %                   the Java library StringTemplate V4 (http://www.stringtemplate.org). To
@@ -18,9 +51,7 @@ function [text] = st4Render(templateGroupFileName, verbose, templateName, vararg
 %                   https://www.gnu.org/software/octave/doc/v4.0.1/How-to-make-Java-classes-available_003f.html
 %                   to find out how to control Octave's class path.
 %
-%   Limitations:    Arrays are supported only as one or two dimensional.
-%
-%                   Octave has no concept to say for a single struct object, whether it is
+%   Limitations:    Octave has no concept to say for a single struct object, whether it is
 %                   meant a scalar or a list of such with a single element. In the
 %                   StringTemplate representation we decide for a scalar object. However,
 %                   template operators for scalar structs and lists of those differ in
@@ -51,11 +82,15 @@ function [text] = st4Render(templateGroupFileName, verbose, templateName, vararg
 %                   character. When mixing text fragments received from the StringTemplate
 %                   V4 template engine with other Octave scripting sources then a mixture
 %                   of different EOL conventions is highly probable at least on Windows
-%                   machines. There's no proper solution; text produced by the template
-%                   engine should be written binary to file (fopen with 'wb' instead of
-%                   'wt' as usual). If other Octave code produces additional text output
-%                   then this codes needs to become platform aware in order to produce the
-%                   same EOL convention as the template engine does.
+%                   machines. The EOL convention can be fixed by
+%                     javaMethod('setEndOfLine', 'info.TemplateRenderer', char(10));
+%                   (or [char(13) char(10)] for CR LF), which makes the generated text
+%                   the same on all hosts. An empty string restores the system dependent
+%                   default. Otherwise, text produced by the template engine should be
+%                   written binary to file (fopen with 'wb' instead of 'wt' as usual). If
+%                   other Octave code produces additional text output then this codes
+%                   needs to become platform aware in order to produce the same EOL
+%                   convention as the template engine does.
 %
 %                   The Java interface of MATLAB has some problems with Java Map. It throws
 %                   an exception when using java.util.TreeMap and uses different Java data
@@ -129,7 +164,13 @@ function [text] = st4Render(templateGroupFileName, verbose, templateName, vararg
 %                   the Octave method javaObject(CLASSNAME). A Java data structure is any
 %                   object Obj, which isjava(Obj) evaluates to true for. Java data
 %                   structure are passed to the StringTemplate engine as attribute value as
-%                   they are.
+%                   they are. An exception is the handle of a data model, which has been
+%                   converted before with st4ConvertModel; the engine receives the
+%                   converted data model. Use such a handle if the same Octave data is
+%                   rendered by many templates, see help st4ConvertModel. A handle
+%                   returned by st4OpenModelFile is used the same way; it refers to a
+%                   data model file, which avoids holding very large data objects in
+%                   Octave and Java at the same time, see help st4WriteModelFile.
 %                     A Octave data object is all the rest - with a number of unsupported
 %                   exceptions. The interface to StringTemplate V4 can handle basic data
 %                   types, like numerals and strings. Note, that the numeric data types
@@ -137,8 +178,13 @@ function [text] = st4Render(templateGroupFileName, verbose, templateName, vararg
 %                   when it comes to formatted printing.
 %                     The interface will try to model the more complex Octave data
 %                   structures as equivalent Java data structures. It will represent
-%                   Octave's arrays and cell arrays as Java ArrayLists of the elements.
-%                   Note, only one or two dimensional (cell) arrays are supported.
+%                   Octave's arrays and cell arrays as Java Lists of the elements.
+%                   Numeric arrays are not copied element by element but represented by
+%                   read-only Java Lists, which refer to the transferred numbers. Note,
+%                   Java doesn't know unsigned integers. The numbers of class uint8, uint16
+%                   and uint32 are represented by the next wider signed Java class, e.g.
+%                   uint16 becomes java.lang.Integer, and uint64 becomes
+%                   java.math.BigInteger.
 %                     An Octave struct object is modeled by a Java Map object. Each field
 %                   of the struct is a key into the map. In the Java map the struct field's
 %                   value is associated with the key. A template can use the map access
@@ -155,16 +201,19 @@ function [text] = st4Render(templateGroupFileName, verbose, templateName, vararg
 %                   difficult if not impossible to have templates operating on arrays of
 %                   Octave structs. (While cell arrays of Octave structs are less
 %                   critical.)
-%                     Two dimensional arrays are modeled as an ArrayList of rows, where
-%                   each row is an ArrayList in turn. Here, we encounter a problem if the
-%                   data can have arbitrary size. If a particular 2-d data set has a size
-%                   of 1xn or nx1 then the wrapper can't recognize any more that this is
-%                   meant a two dimensional array and will wrap it as a 1-d vector. It
-%                   depends on the kind of data if a template written for the 2-d data
-%                   model will fail or not. It'll fail with struct objects (wrapped as Java
-%                   Map) but will likely succeed with many other objects. This is exactly
-%                   the same problem as discussed for 1-d arrays of struct objects but now
-%                   cell arrays are affected, too. Work arounds:
+%                     Two dimensional arrays are modeled as a List of rows, where each row
+%                   is a List in turn. Arrays of higher dimension are modeled as a List of
+%                   sub-arrays along the first dimension, e.g. a 2x3x4 array becomes a
+%                   List of two 3x4 matrices. Dimensions of size one are not represented.
+%                   Here, we encounter a problem if the data can have arbitrary size. If a
+%                   particular 2-d data set has a size of 1xn or nx1 then the wrapper
+%                   can't recognize any more that this is meant a two dimensional array
+%                   and will wrap it as a 1-d vector. It depends on the kind of data if a
+%                   template written for the 2-d data model will fail or not. It'll fail
+%                   with struct objects (wrapped as Java Map) but will likely succeed with
+%                   many other objects. This is exactly the same problem as discussed for
+%                   1-d arrays of struct objects but now cell arrays are affected, too.
+%                   Work arounds:
 %                     - Strictly avoid the sizes 1xn and nx1 for 2-d data
 %                     - Use 1-d cell arrays of 1-d cell arrays rather than 2-d cell arrays
 %                       already in your data model. This way you can safely model even
@@ -175,6 +224,22 @@ function [text] = st4Render(templateGroupFileName, verbose, templateName, vararg
 %                       this Java object becomes a StringTemplate template attribute on its
 %                       own or if it is located somewhere inside your larger Octave data
 %                       object
+%                     Sparse matrices (of class double or logical) are not expanded. They
+%                   are modeled as a List of their non-zero elements in column-major order.
+%                   Each element has the properties row, col (both one based), rowIdx,
+%                   colIdx (both null based) and value, e.g. <m:{e|a[<e.rowIdx>] =
+%                   <e.value>;}>. Moreover, the matrix has the properties noRows, noCols,
+%                   nnz and rows. The latter is the List of all rows with at least one
+%                   non-zero element; each of them is a List of its elements and has the
+%                   additional property row. Cost and memory consumption are proportional
+%                   to the number of non-zero elements
+%                     Strings become Java Strings. A string, which is repeated in the data
+%                   object, becomes a single shared Java String. Very large strings can be
+%                   kept UTF-8 encoded in the JVM and decoded only when they are rendered.
+%                   This saves memory but ST4's string functions, like trim or strlen,
+%                   don't apply to these strings. The feature is disabled by default. Use
+%                   e.g. javaMethod('setTextArenaThreshold', 'info.DataModelBuilder', 65536)
+%                   to enable it for all strings of at least 64 kByte
 %                     The elements of (cell) arrays and the fields of structs are processed
 %                   recursively in the same way until the scalar elements are reached.
 %                   These can be the basic data types or self-modeled Java objects.
@@ -0,0 +1,84 @@
+function [text] = st4RenderString( templateGroupText      ...
+                                 , delimiters             ...
+                                 , templateName           ...
+                                 , verbose                ...
+                                 , varargin               ...
+                                 )
+
+%   st4RenderString() - This is a variant of st4Render, which takes the template group as
+%                   text rather than as the name of a group file. It supports applications,
+%                   which generate their templates in Octave. Please consult the help of
+%                   st4Render for most of the details related to the template expansion:
+%                   Most of the arguments of this function are simply passed on and they
+%                   are explained there.
+%                     The compiled group is cached like a group file. It is identified by a
+%                   hash of its text and delimiters; rendering the same text again doesn't
+%                   compile the templates again. The cached groups built from text compete
+%                   with the cached group files for the same bounds of the cache, see
+%                   st4TemplateCacheStatistics.
+%
+%   Input argument(s):
+%       templateGroupText
+%                   The contents of a template group, in the syntax of a template group
+%                   file. The group may import group files; these are looked for like the
+%                   imports of a group file, which is located in the current working
+%                   directory of the Java VM
+%       delimiters  The initial start and stop character of template expressions as a
+%                   string of two characters, e.g. '$$'. Pass [] to use the default '<>'
+%       templateName
+%                   The entry-point template in the template group. See st4Render for
+%                   details
+%       verbose     The verbosity of the process as an integer in the range from 0 (OFF) to
+%                   5 (DEBUG). See st4Render for details, but note, in contrast to
+%                   st4Render this argument is not optional here
+%       varargin    The list of template attribute, value pairs. See st4Render for details
+%
+%   Return argument(s):
+%       text        Expanded template text
+%
+%   Exceptions(s):
+%                   All kind of errors are reported by exception, see st4Render.
+%
+%   Example(s):
+%       st4addpath
+%       st4javaaddpath
+%       st4SetLocaleUS
+%       group = 'hello(greeting, name) ::= "<greeting>, <name>!"';
+%       text = st4RenderString(group, [], 'hello', 4, 'greeting', 'Hello', 'name', 'World')
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%  
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%  
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    assert(nargin >= 4, 'Too few input arguments')
+    assert(ischar(templateGroupText), 'First argument is of type string')
+    if isempty(delimiters)
+        delimiters = '<>';
+    end
+    assert( ischar(delimiters)  &&  numel(delimiters) == 2 ...
+          , 'The delimiters need to be a string of two characters' ...
+          )
+
+    % Prepare the call of the actual rendering function.
+    info.outputFileName = [];
+    info.doClearCache = false;
+    templateDesc.verbose = verbose;
+    templateDesc.templateGroupFileName = '<string>';
+    templateDesc.templateGroupText = templateGroupText;
+    templateDesc.delimiters = delimiters;
+    templateDesc.templateName = templateName;
+
+    % Run the template expansion.
+    text = render(info, templateDesc, varargin);
+end % of function st4RenderString.
@@ -6,17 +6,19 @@ function st4RenderWrite( fileName               ...
                        , varargin               ...
                        )
 
-%   st4RenderWrite() - This is a wrapper convenience function around st4Render. It calls
-%                   st4Render and writes the returned text, the expanded templates,
-%                   directly into a file. Please consult the help of st4Render for most of
-%                   the details related to the template expansion: Most of the arguments of
-%                   this wrapper function are simply passed on to the other function and
-%                   they are explained there.
+%   st4RenderWrite() - This is a wrapper convenience function around st4Render. It
+%                   writes the expanded templates directly into a file. The text is
+%                   streamed into the file while the template is rendered; even very large
+%                   generated files are not held in memory as a whole. Please consult the
+%                   help of st4Render for most of the details related to the template
+%                   expansion: Most of the arguments of this wrapper function are simply
+%                   passed on to the other function and they are explained there.
 %                   
 %   Input argument(s):
 %       fileName    The name of the file to write the text got from template expansion
 %                   into. If doAppend is false then the file is created or overwritten
-%                   without confirmation
+%                   without confirmation. The file is UTF-8 encoded. If the template
+%                   expansion fails then the file is not modified
 %       doAppend    If true then the text got from template expansion is appended to the
 %                   contents of the already existing file
 %       templateGroupFileName
@@ -69,39 +71,18 @@ function st4RenderWrite( fileName               ...
 
     % TODO Allow having verbose as string, too
 
-    % Prepare the call of the actual rendering function.
+    % Prepare the call of the actual rendering function. The text got from template
+    % expansion is written into the file by Java while the template is rendered; it is
+    % not returned to Octave. Missing directories of the file's path are created. The file
+    % is written UTF-8 encoded and binary: The StringTemplate V4 engine already does do the
+    % EOL conversion. It is only modified if the template expansion succeeds.
     info.outputFileName = fileName;
+    info.doAppend = doAppend;
     info.doClearCache = false;
     templateDesc.verbose = verbose;
     templateDesc.templateGroupFileName = templateGroupFileName;
     templateDesc.templateName = templateName;
 
-    % Run the template expanion, get the text to write into file.
-    fileContents = render(info, templateDesc, varargin);
-
-    % Try creating the directory to the generated file. For Octave, it doesn't matter if
-    % this path should already exist but MATLAB complains with an undesired warning.
-    targetDir = fileparts(fileName);
-    if ~isempty(targetDir)  &&  exist(targetDir, 'dir') ~= 7
-        mkdir(targetDir);
-    end
-
-    % Write file. Although we have a text file we need to open the file binary: The
-    % StringTemplate V4 engine already does do the EOL conversion.
-    if doAppend
-        mode = 'ab';
-    else
-        mode = 'wb';
-    end
-    [fid msg] = fopen(fileName, mode);
-    if fid == -1
-        error(['Can''t open output file ' fileName ' for writing. ' msg]);
-    end
-    [count] = fwrite(fid, fileContents);
-    if count ~= length(fileContents)
-        error(['Error writing output file ' fileName '. File may be unusable']);
-    end
-    if fclose(fid) == -1
-        error(['Can''t close output file ' fileName '. File may be unusable']);
-    end
+    % Run the template expansion and write the file.
+    render(info, templateDesc, varargin);
 end % of function st4RenderWrite.
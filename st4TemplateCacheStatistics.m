@@ -0,0 +1,98 @@
+function [stat] = st4TemplateCacheStatistics
+
+%   st4TemplateCacheStatistics() - Get the statistics of the cache of template group files,
+%                   which is applied by st4Render and st4RenderWrite.
+%                     The cache is bounded by the number of group files and by their size.
+%                   The size of a group is measured as the total size of the group file
+%                   and of all files it imports. If a bound is exceeded, the least
+%                   recently used groups are evicted. A single group, which is larger than
+%                   the size bound, is kept until another group is used. Optionally,
+%                   evicted groups are kept in a soft tier, from where they are reused
+%                   until the Java garbage collector reclaims them. With the soft tier,
+%                   the cache reacts on low heap memory, too: If the heap is still filled
+%                   beyond 80% after a garbage collection, all groups but the most
+%                   recently used one are moved into the soft tier.
+%                     The bounds and the soft tier are configured with the Java class
+%                   info.TemplateGroupRegistry, see example.
+%                   
+%   Input argument(s):
+%
+%   Return argument(s):
+%       stat        A struct with the following fields:
+%                   noEntries: The number of cached group files
+%                   size: The total size of the source files of the cached groups in Byte
+%                   noSoftEntries: The number of evicted groups in the soft tier
+%                   noHits: The number of renderings, which reused a cached group
+%                   noMisses: The number of renderings, which had to load the group file
+%                   noEvictions: The number of groups evicted from the cache
+%                   parseTime: The total time spent for loading and parsing group files in s
+%                   maxNoEntries: The configured maximum number of cached group files
+%                   maxSize: The configured maximum size of the cache in Byte
+%                   useSoftReferences: Whether the soft tier is enabled
+%                   watching: Whether modified group files are recompiled in the
+%                   background, see help st4Render
+%                   noWatchReloads: The number of group files, which were recompiled in
+%                   the background
+%                   noCompiledHits: The number of group files, which were restored from
+%                   the persistent cache directory, see help st4Render
+%                   noCompiledMisses: The number of group files, which were not found in
+%                   the persistent cache directory and which had to be parsed
+%                   noSharedImports: The number of imported group files, which are shared
+%                   by all cached groups that import them
+%                   noSharedImportHits: The number of imports, which reused a shared group
+%                   noSharedImportMisses: The number of imports, which had to load the
+%                   shared group
+%                   noPooledLiterals: The number of distinct literal strings of the
+%                   compiled templates. Identical literals of all cached groups are held
+%                   only once
+%                   noPooledLiteralHits: The number of literals, which were replaced by an
+%                   identical one of another template
+%                   noSavedLiteralBytes: The estimated memory in Byte, which is saved by
+%                   pooling the literals
+%
+%   Exceptions(s):
+%                   An error is thrown if the Java class info.TemplateGroupRegistry is not
+%                   accessible. Check the Java CLASSPATH in this case.
+%
+%   Example(s):
+%       javaMethod('setMaxNoEntries', 'info.TemplateGroupRegistry', 200);
+%       javaMethod('setMaxSize', 'info.TemplateGroupRegistry', 256*1024^2);
+%       javaMethod('setUseSoftReferences', 'info.TemplateGroupRegistry', true);
+%       text = st4Render('helloWorld.stg', 'myHelloWorldTemplate', 'greeting', 'Hello', 'name', 'World');
+%       stat = st4TemplateCacheStatistics
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%  
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%  
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    registry = 'info.TemplateGroupRegistry';
+    stat = struct();
+    for name = { 'noEntries' 'size' 'noSoftEntries' 'noHits' 'noMisses' 'noEvictions' ...
+                 'parseTime' 'maxNoEntries' 'maxSize' 'useSoftReferences' 'watching' ...
+                 'noWatchReloads' ...
+               }
+        getter = ['get' upper(name{1}(1)) name{1}(2:end)];
+        stat.(name{1}) = double(javaMethod(getter, registry));
+    end
+    stat.useSoftReferences = logical(stat.useSoftReferences);
+    stat.watching = logical(stat.watching);
+    stat.noCompiledHits = double(javaMethod('getNoHits', 'info.CompiledGroupCache'));
+    stat.noCompiledMisses = double(javaMethod('getNoMisses', 'info.CompiledGroupCache'));
+    stat.noSharedImports = double(javaMethod('getNoEntries', 'info.SharedImportRegistry'));
+    stat.noSharedImportHits = double(javaMethod('getNoHits', 'info.SharedImportRegistry'));
+    stat.noSharedImportMisses = double(javaMethod('getNoMisses', 'info.SharedImportRegistry'));
+    stat.noPooledLiterals = double(javaMethod('getNoEntries', 'info.LiteralPool'));
+    stat.noPooledLiteralHits = double(javaMethod('getNoHits', 'info.LiteralPool'));
+    stat.noSavedLiteralBytes = double(javaMethod('getNoSavedBytes', 'info.LiteralPool'));
+end % of function st4TemplateCacheStatistics.
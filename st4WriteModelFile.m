@@ -0,0 +1,109 @@
+function st4WriteModelFile(fileName, value)
+
+%   st4WriteModelFile() - Write an Octave data object into a data model file, which can
+%                   be opened with st4OpenModelFile.
+%                     Passing a very large data object to st4Render means to hold it twice
+%                   in memory, once in Octave and once in the JVM. A data model file avoids
+%                   this. The data object is written into the file in a compact binary
+%                   format. st4OpenModelFile maps the file into the memory of the JVM; the
+%                   contents are converted lazily, only as far as the templates read them,
+%                   and numeric arrays are read straight from the file, without copying
+%                   them. The Octave data object can be cleared after writing the file.
+%                     The data object is converted the same way as an attribute of
+%                   st4Render, please refer to the help of st4Render for the details. Java
+%                   objects and complex numbers can't be written into a data model file.
+%                     The file format is described in the documentation of the Java class
+%                   info.MappedDataModel.
+%                   
+%   Input argument(s):
+%       fileName    The name of the data model file. The file is created or overwritten
+%                   without confirmation. Note, on some systems, a file, which is still
+%                   opened by st4OpenModelFile, can't be overwritten
+%       value       The Octave data object to write
+%
+%   Return argument(s):
+%                   (none, all problems are reported by exception)
+%
+%   Exceptions(s):
+%                   Unsupported data types and file I/O errors are reported by exception.
+%
+%   Example(s):
+%       model.signals = num2cell(struct('name', {'speed', 'torque'}, 'value', {rand(100), rand(100)}));
+%       st4WriteModelFile('model.st4m', model);
+%       clear model
+%       hModel = st4OpenModelFile('model.st4m');
+%       text = st4Render('signals.stg', 'signalList', 'model', hModel)
+%
+%   Copyright (C) 2026 Peter Vranken (mailto:Peter_Vranken@Yahoo.de)
+%
+%   This program is free software: you can redistribute it and/or modify it
+%   under the terms of the GNU Lesser General Public License as published by the
+%   Free Software Foundation, either version 3 of the License, or any later
+%   version.
+%  
+%   This program is distributed in the hope that it will be useful, but WITHOUT
+%   ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+%   FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+%   for more details.
+%  
+%   You should have received a copy of the GNU Lesser General Public License
+%   along with this program. If not, see <http://www.gnu.org/licenses/>.
+
+    assert(nargin == 2  &&  ischar(fileName), 'Require a file name and a data object')
+
+    % The data object is flattened the same way as for the transfer to the JVM. See
+    % private/encodeDataModel.m.
+    p = encodeDataModel(value);
+    if ~isempty(p.objects)
+        error(['Java objects and complex numbers can''t be written into data model' ...
+               ' file ' fileName] ...
+             );
+    end
+
+    % Field names are valid Octave identifiers and contain only ASCII characters. Each
+    % name is terminated by a line feed.
+    if isempty(p.fieldNames)
+        nameBytes = uint8([]);
+    else
+        names = [p.fieldNames; repmat({char(10)}, 1, numel(p.fieldNames))];
+        nameBytes = uint8([names{:}]);
+    end
+
+    % The sections of the file in their order, with the precision of their elements.
+    sections = { int32(p.tape)          'int32'  4 ...
+               ; int32(p.schemaOffsets) 'int32'  4 ...
+               ; int32(p.dims)          'int32'  4 ...
+               ; nameBytes              'uint8'  1 ...
+               ; p.text                 'int8'   1 ...
+               ; double(p.doubles)      'double' 8 ...
+               ; int64(p.longs)         'int64'  8 ...
+               };
+
+    [fid msg] = fopen(fileName, 'w', 'ieee-le');
+    if fid == -1
+        error(['Can''t open data model file ' fileName ' for writing. ' msg]);
+    end
+    try
+        % The header: Magic string, format version, unused word and number of elements
+        % of each section.
+        fwrite(fid, 'ST4MODEL', 'uchar');
+        fwrite(fid, [1 0], 'int32');
+        fwrite(fid, cellfun(@numel, sections(:,1)), 'int64');
+
+        % The sections, each one padded to a multiple of eight Byte.
+        for idxSection = 1:size(sections, 1)
+            [data, precision, elementSize] = sections{idxSection, :};
+            count = fwrite(fid, data, precision);
+            if count ~= numel(data)
+                error(['Error writing data model file ' fileName]);
+            end
+            fwrite(fid, zeros(1, mod(-numel(data)*elementSize, 8)), 'uint8');
+        end
+    catch exc
+        fclose(fid);
+        rethrow(exc);
+    end
+    if fclose(fid) == -1
+        error(['Can''t close data model file ' fileName '. File may be unusable']);
+    end
+end % of function st4WriteModelFile.